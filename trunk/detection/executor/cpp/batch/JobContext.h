@@ -36,6 +36,7 @@
 
 #include <MPFDetectionComponent.h>
 
+#include "detection.pb.h"
 #include "LoggerWrapper.h"
 
 
@@ -52,6 +53,9 @@ struct ProtobufMetadata {
     const int action_index;
 
     const std::optional<std::string> selected_text_content;
+
+    // Present when the request only covers part of a generic document.
+    const std::optional<org::mitre::mpf::wfm::buffers::DocumentRange> document_range;
 };
 
 
@@ -64,9 +68,20 @@ struct AmqMetadata {
 
     const std::string bread_crumb_id;
 
+    // Always 0 for detection requests. The WFM creates a task's detection requests as responses
+    // to the earlier requests arrive, so the number of requests is not known when a request is
+    // sent. The value is only copied to the response and must not be used to count requests.
     const int split_size;
 
     const std::optional<std::string> selector_id;
+
+    const std::optional<int> split_index;
+
+    const std::optional<std::string> segment_cache_key;
+
+    // Responses that are split into multiple messages use this to identify which messages
+    // belong together. Each time the WFM sends a request, it is a new message with a new id.
+    const std::string request_message_id;
 };
 
 
@@ -87,8 +87,7 @@ JobContext JobReceiver::GetJob() {
 
 JobContext JobReceiver::TryGetJob() {
     auto request_message = messenger_.ReceiveMessage();
-    std::vector<unsigned char> message_bytes(request_message->getBodyLength());
-    request_message->readBytes(message_bytes);
+    auto message_bytes = Messenger::GetBody(*request_message);
     auto detection_request = ProtobufRequestUtil::ParseRequest(message_bytes);
 
     long job_id = request_message->getLongProperty("JobId");
@@ -26,6 +26,7 @@
 
 #pragma once
 
+#include <cstddef>
 #include <exception>
 #include <string_view>
 
@@ -51,8 +52,9 @@ public:
     template <typename TResp>
     void CompleteJob(const JobContext& context, const TResp& results) {
         try {
-            auto response_bytes = ProtobufResponseUtil::PackResponse(context, results);
-            messenger_.SendResponse(context, response_bytes);
+            auto response_chunks = ProtobufResponseUtil::PackResponse(
+                    context, results, max_response_message_bytes_);
+            messenger_.SendResponse(context, response_chunks);
         }
         catch (const std::exception& e) {
             logger_.Error("An error occurred while attempting to send job results: ", e.what());
@@ -71,6 +73,8 @@ public:
 private:
     Properties environment_job_properties_ = BatchExecutorUtil::GetEnvironmentJobProperties();
 
+    std::size_t max_response_message_bytes_ = Messenger::GetMaxResponseMessageBytes();
+
     LoggerWrapper logger_;
 
     Messenger messenger_;
@@ -0,0 +1,82 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+#include <algorithm>
+#include <cstddef>
+#include <stdexcept>
+#include <string>
+
+#include <zlib.h>
+
+#include "MessageCompression.h"
+
+
+namespace MPF::COMPONENT::MessageCompression {
+
+    std::vector<unsigned char> Compress(const std::vector<unsigned char>& bytes) {
+        uLongf compressed_size = compressBound(bytes.size());
+        std::vector<unsigned char> compressed(compressed_size);
+        int rc = compress2(compressed.data(), &compressed_size, bytes.data(), bytes.size(),
+                           Z_BEST_SPEED);
+        if (rc != Z_OK) {
+            throw std::runtime_error{
+                    "Compressing the message failed with zlib error code " + std::to_string(rc)};
+        }
+        compressed.resize(compressed_size);
+        return compressed;
+    }
+
+
+    std::vector<unsigned char> Decompress(const std::vector<unsigned char>& bytes) {
+        z_stream stream{};
+        if (inflateInit(&stream) != Z_OK) {
+            throw std::runtime_error{"Failed to initialize zlib."};
+        }
+        stream.next_in = const_cast<Bytef*>(bytes.data());
+        stream.avail_in = bytes.size();
+
+        std::vector<unsigned char> decompressed(std::max<std::size_t>(bytes.size() * 4, 1024));
+        int rc;
+        do {
+            if (stream.total_out == decompressed.size()) {
+                decompressed.resize(decompressed.size() * 2);
+            }
+            stream.next_out = decompressed.data() + stream.total_out;
+            stream.avail_out = decompressed.size() - stream.total_out;
+            rc = inflate(&stream, Z_NO_FLUSH);
+        } while (rc == Z_OK);
+
+        auto decompressed_size = stream.total_out;
+        inflateEnd(&stream);
+        if (rc != Z_STREAM_END) {
+            throw std::runtime_error{
+                    "Decompressing the message failed with zlib error code "
+                    + std::to_string(rc)};
+        }
+        decompressed.resize(decompressed_size);
+        return decompressed;
+    }
+}
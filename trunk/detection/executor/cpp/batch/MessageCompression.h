@@ -0,0 +1,44 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+#pragma once
+
+#include <vector>
+
+
+// Messages are compressed using the zlib format so that they can be read with
+// java.util.zip.InflaterInputStream in the WFM and the markup worker.
+namespace MPF::COMPONENT::MessageCompression {
+
+    // Compressed messages have this property set to DEFLATE.
+    constexpr const char* PROPERTY_NAME = "Compression";
+
+    constexpr const char* DEFLATE = "DEFLATE";
+
+    std::vector<unsigned char> Compress(const std::vector<unsigned char>& bytes);
+
+    std::vector<unsigned char> Decompress(const std::vector<unsigned char>& bytes);
+}
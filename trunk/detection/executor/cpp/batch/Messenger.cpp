@@ -37,6 +37,7 @@
 #include <boost/algorithm/string.hpp>
 
 #include "BatchExecutorUtil.h"
+#include "MessageCompression.h"
 #include "MPFBreaker.h"
 
 #include "Messenger.h"
@@ -102,13 +103,24 @@ AmqMetadata Messenger::GetAmqMetadata(const cms::Message& message) {
     catch (const cms::CMSException&) {
         selector_id = std::nullopt;
     }
+    std::optional<int> split_index;
+    if (message.propertyExists("SplitIndex")) {
+        split_index = message.getIntProperty("SplitIndex");
+    }
+    std::optional<std::string> segment_cache_key;
+    if (message.propertyExists("SegmentCacheKey")) {
+        segment_cache_key = message.getStringProperty("SegmentCacheKey");
+    }
     return {
         AsUniquePtr(message.getCMSReplyTo()->clone()),
         message.getCMSPriority(),
         message.getStringProperty("CorrelationId"),
         message.getStringProperty("breadcrumbId"),
         message.getIntProperty("SplitSize"),
-        std::move(selector_id)
+        std::move(selector_id),
+        split_index,
+        std::move(segment_cache_key),
+        message.getCMSMessageID()
     };
 }
 
@@ -120,6 +132,34 @@ void Messenger::Rollback() {
 void Messenger::SendResponse(
         const JobContext& job_context,
         const std::vector<unsigned char>& response_bytes) {
+    Send(job_context, response_bytes, false);
+    session_->commit();
+    logger_.Info("Job response committed.");
+}
+
+
+void Messenger::SendResponse(
+        const JobContext& job_context,
+        const std::vector<std::vector<unsigned char>>& response_chunks) {
+    if (response_chunks.size() == 1) {
+        SendResponse(job_context, response_chunks.front());
+        return;
+    }
+    logger_.Info("The job response was split into ", response_chunks.size(), " messages.");
+    for (const auto& chunk : response_chunks) {
+        Send(job_context, chunk, true);
+    }
+    // All of the chunks are committed together, so the WFM never receives only part of a
+    // response.
+    session_->commit();
+    logger_.Info("Job response committed.");
+}
+
+
+void Messenger::Send(
+        const JobContext& job_context,
+        const std::vector<unsigned char>& response_bytes,
+        bool is_chunk) {
     auto message = AsUniquePtr(session_->createBytesMessage());
     const auto &amq_meta = job_context.amq_metadata;
     message->setStringProperty("CorrelationId", amq_meta.correlation_id);
@@ -130,11 +170,27 @@ void Messenger::SendResponse(
     if (amq_meta.selector_id) {
         message->setStringProperty("MediaSelectorId", *amq_meta.selector_id);
     }
+    if (amq_meta.split_index) {
+        message->setIntProperty("SplitIndex", *amq_meta.split_index);
+    }
+    if (amq_meta.segment_cache_key) {
+        message->setStringProperty("SegmentCacheKey", *amq_meta.segment_cache_key);
+    }
     if (job_context.protobuf_metadata.selected_text_content) {
         message->setStringProperty(
                 "SelectedTextContent", *job_context.protobuf_metadata.selected_text_content);
     }
-    message->writeBytes(response_bytes);
+    if (is_chunk) {
+        message->setStringProperty("ResponseChunkSetId", amq_meta.request_message_id);
+    }
+    if (compression_threshold_bytes_ > 0 && response_bytes.size() >= compression_threshold_bytes_) {
+        message->setStringProperty(
+                MessageCompression::PROPERTY_NAME, MessageCompression::DEFLATE);
+        message->writeBytes(MessageCompression::Compress(response_bytes));
+    }
+    else {
+        message->writeBytes(response_bytes);
+    }
 
     response_producer_->send(
             amq_meta.response_queue.get(),
@@ -142,8 +198,47 @@ void Messenger::SendResponse(
             cms::Message::DEFAULT_DELIVERY_MODE,
             amq_meta.cms_priority,
             cms::Message::DEFAULT_TIME_TO_LIVE);
-    session_->commit();
-    logger_.Info("Job response committed.");
+}
+
+
+std::vector<unsigned char> Messenger::GetBody(cms::BytesMessage& message) {
+    std::vector<unsigned char> message_bytes(message.getBodyLength());
+    message.readBytes(message_bytes);
+    if (message.propertyExists(MessageCompression::PROPERTY_NAME)
+            && message.getStringProperty(MessageCompression::PROPERTY_NAME)
+                    == MessageCompression::DEFLATE) {
+        return MessageCompression::Decompress(message_bytes);
+    }
+    return message_bytes;
+}
+
+
+std::size_t Messenger::GetMaxResponseMessageBytes() {
+    return GetByteCountEnv(
+            MAX_RESPONSE_MESSAGE_BYTES_ENV_NAME, DEFAULT_MAX_RESPONSE_MESSAGE_BYTES);
+}
+
+
+std::size_t Messenger::GetCompressionThresholdBytes() {
+    return GetByteCountEnv(
+            COMPRESSION_THRESHOLD_BYTES_ENV_NAME, DEFAULT_COMPRESSION_THRESHOLD_BYTES);
+}
+
+
+std::size_t Messenger::GetByteCountEnv(const char* env_name, std::size_t default_value) {
+    auto env_val = BatchExecutorUtil::GetEnv(env_name);
+    if (!env_val) {
+        return default_value;
+    }
+    try {
+        return std::stoul(*env_val);
+    }
+    catch (const std::logic_error&) {
+        throw std::invalid_argument(
+                std::string{"Expected the "} + env_name
+                + " environment variable to contain a non-negative integer, but it was \""
+                + *env_val + "\".");
+    }
 }
 
 
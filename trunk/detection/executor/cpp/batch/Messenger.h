@@ -26,6 +26,7 @@
 
 #pragma once
 
+#include <cstddef>
 #include <memory>
 #include <optional>
 #include <stdexcept>
@@ -71,10 +72,17 @@ public:
 
     static AmqMetadata GetAmqMetadata(const cms::Message& message);
 
+    // Reads the message body, decompressing it if the WFM compressed it.
+    static std::vector<unsigned char> GetBody(cms::BytesMessage& message);
+
     void SendResponse(
             const JobContext& job_context,
             const std::vector<unsigned char>& response_bytes);
 
+    void SendResponse(
+            const JobContext& job_context,
+            const std::vector<std::vector<unsigned char>>& response_chunks);
+
     std::unique_ptr<cms::Message> SendTextRequestResponse(
             const std::string& request_queue_name, const std::string& message_body);
 
@@ -94,16 +102,36 @@ public:
 
     static std::optional<std::string> GetMediaTypeSelector();
 
+    // Responses larger than this are split into multiple messages. 0 disables splitting.
+    static constexpr const char* MAX_RESPONSE_MESSAGE_BYTES_ENV_NAME = "MAX_RESPONSE_MESSAGE_BYTES";
+
+    static constexpr std::size_t DEFAULT_MAX_RESPONSE_MESSAGE_BYTES = 64 * 1024 * 1024;
+
+    static std::size_t GetMaxResponseMessageBytes();
+
+    // Responses at least this large are compressed. 0 disables compression.
+    static constexpr const char* COMPRESSION_THRESHOLD_BYTES_ENV_NAME = "COMPRESSION_THRESHOLD_BYTES";
+
+    static constexpr std::size_t DEFAULT_COMPRESSION_THRESHOLD_BYTES = 0;
+
+    static std::size_t GetCompressionThresholdBytes();
+
 private:
     LoggerWrapper logger_;
     std::shared_ptr<cms::Connection> connection_;
     std::unique_ptr<cms::Session> session_;
     std::unique_ptr<cms::MessageConsumer> request_consumer_;
     std::unique_ptr<cms::MessageProducer> response_producer_;
+    std::size_t compression_threshold_bytes_ = GetCompressionThresholdBytes();
+
+    // Sends the response without committing the session.
+    void Send(const JobContext& job_context, const std::vector<unsigned char>& response_bytes,
+              bool is_chunk);
 
     static std::shared_ptr<cms::Connection> CreateConnection(
             const LoggerWrapper& logger, std::string_view broker_uri);
 
+    static std::size_t GetByteCountEnv(const char* env_name, std::size_t default_value);
 
     static std::unique_ptr<cms::MessageConsumer> CreateRequestConsumer(
             const LoggerWrapper& logger,
@@ -25,7 +25,11 @@
  ******************************************************************************/
 
 #include <filesystem>
+#include <fstream>
+#include <list>
 #include <optional>
+#include <stdexcept>
+#include <unordered_map>
 #include <utility>
 
 #include <MPFDetectionObjects.h>
@@ -34,6 +38,61 @@
 
 namespace MPF::COMPONENT::ProtobufRequestUtil {
     namespace {
+        // Keeps the most recently used shared request contexts so that the context file only
+        // needs to be read once for all of the segments of a job that this executor receives.
+        class RequestContextCache {
+        public:
+            const mpf_buffers::RequestContext& Get(
+                    const std::string& context_id, const std::string& context_path) {
+                auto iter = index_.find(context_id);
+                if (iter != index_.end()) {
+                    entries_.splice(entries_.begin(), entries_, iter->second);
+                    return iter->second->second;
+                }
+
+                std::ifstream input{context_path, std::ios::binary};
+                mpf_buffers::RequestContext context;
+                if (!input || !context.ParseFromIstream(&input)) {
+                    throw std::runtime_error{
+                        "Failed to load the shared request context from \"" + context_path + '"'};
+                }
+
+                entries_.emplace_front(context_id, std::move(context));
+                index_[context_id] = entries_.begin();
+                if (entries_.size() > max_entries_) {
+                    index_.erase(entries_.back().first);
+                    entries_.pop_back();
+                }
+                return entries_.front().second;
+            }
+
+        private:
+            static constexpr std::size_t max_entries_ = 64;
+
+            using entry_t = std::pair<std::string, mpf_buffers::RequestContext>;
+
+            // Most recently used entry first.
+            std::list<entry_t> entries_;
+
+            std::unordered_map<std::string, std::list<entry_t>::iterator> index_;
+        };
+
+
+        void ResolveRequestContext(mpf_buffers::DetectionRequest& detection_request) {
+            if (detection_request.request_context_id().empty()) {
+                return;
+            }
+            static RequestContextCache cache;
+            const auto& context = cache.Get(
+                    detection_request.request_context_id(),
+                    detection_request.request_context_path());
+            detection_request.mutable_algorithm_properties()->insert(
+                    context.algorithm_properties().begin(), context.algorithm_properties().end());
+            detection_request.mutable_media_metadata()->insert(
+                    context.media_metadata().begin(), context.media_metadata().end());
+        }
+
+
         Properties GetProperties(const google::protobuf::Map<std::string, std::string>& protobuf_props) {
             return {protobuf_props.begin(), protobuf_props.end()};
         }
@@ -219,6 +278,31 @@ namespace MPF::COMPONENT::ProtobufRequestUtil {
         }
 
 
+        // When the WFM splits a generic document in to multiple requests, the portion of the
+        // document to process is provided to the component as media properties.
+        Properties GetGenericMediaProperties(
+                const mpf_buffers::DetectionRequest& detection_request) {
+            auto media_properties = GetMediaProperties(detection_request);
+            if (!detection_request.generic_request().has_document_range()) {
+                return media_properties;
+            }
+            const auto& document_range = detection_request.generic_request().document_range();
+            if (document_range.has_byte_range()) {
+                media_properties["DOCUMENT_START_OFFSET"]
+                        = std::to_string(document_range.byte_range().start_offset());
+                media_properties["DOCUMENT_STOP_OFFSET"]
+                        = std::to_string(document_range.byte_range().stop_offset());
+            }
+            else if (document_range.has_page_range()) {
+                media_properties["DOCUMENT_START_PAGE"]
+                        = std::to_string(document_range.page_range().start_page());
+                media_properties["DOCUMENT_STOP_PAGE"]
+                        = std::to_string(document_range.page_range().stop_page());
+            }
+            return media_properties;
+        }
+
+
         MPFGenericJob CreateGenericJob(
                 const mpf_buffers::DetectionRequest& detection_request,
                 std::string_view job_name,
@@ -233,7 +317,7 @@ namespace MPF::COMPONENT::ProtobufRequestUtil {
                         GetProperties(ff_track.detection_properties())
                     },
                     GetJobProperties(detection_request, environment_properties),
-                    GetMediaProperties(detection_request)
+                    GetGenericMediaProperties(detection_request)
                 };
             }
             else {
@@ -241,7 +325,7 @@ namespace MPF::COMPONENT::ProtobufRequestUtil {
                     std::string{job_name},
                     detection_request.media_path(),
                     GetJobProperties(detection_request, environment_properties),
-                    GetMediaProperties(detection_request)
+                    GetGenericMediaProperties(detection_request)
                 };
             }
         }
@@ -251,6 +335,7 @@ namespace MPF::COMPONENT::ProtobufRequestUtil {
     mpf_buffers::DetectionRequest ParseRequest(const std::vector<unsigned char>& bytes) {
         mpf_buffers::DetectionRequest detection_request;
         detection_request.ParseFromArray(bytes.data(), static_cast<int>(bytes.size()));
+        ResolveRequestContext(detection_request);
         return detection_request;
     }
 
@@ -316,11 +401,16 @@ namespace MPF::COMPONENT::ProtobufRequestUtil {
         if (content_iter != detection_request.media_metadata().end()) {
             selected_content = content_iter->second;
         }
+        std::optional<mpf_buffers::DocumentRange> document_range;
+        if (detection_request.generic_request().has_document_range()) {
+            document_range = detection_request.generic_request().document_range();
+        }
         return {
             detection_request.media_id(),
             detection_request.task_index(),
             detection_request.action_index(),
-            std::move(selected_content)
+            std::move(selected_content),
+            std::move(document_range)
         };
     }
 }
@@ -26,6 +26,8 @@
 
 #include <limits>
 #include <stdexcept>
+#include <type_traits>
+#include <utility>
 #include <variant>
 
 #include "MPFMessageUtils.h"
@@ -72,7 +74,11 @@ namespace MPF::COMPONENT::ProtobufResponseUtil {
                 break;
             }
             default: {
-                detection_response.mutable_generic_response();
+                auto generic_response = detection_response.mutable_generic_response();
+                if (context.protobuf_metadata.document_range) {
+                    *generic_response->mutable_document_range()
+                            = *context.protobuf_metadata.document_range;
+                }
                 break;
             }
         }
@@ -82,6 +88,76 @@ namespace MPF::COMPONENT::ProtobufResponseUtil {
 
 namespace MPF::COMPONENT::ProtobufResponseUtil::detail {
 
+    namespace {
+        // Upper bounds on the bytes needed to encode a field's tag and length prefix. Used to
+        // estimate a chunk's size without serializing it.
+        constexpr std::size_t TRACK_FIELD_OVERHEAD = 16;
+        constexpr std::size_t CHUNK_FIELDS_OVERHEAD = 32;
+
+        template <typename TGetTracks>
+        std::vector<std::vector<unsigned char>> SerializeTracksInChunks(
+                mpf_buffers::DetectionResponse& detection_response,
+                std::size_t max_message_bytes,
+                TGetTracks get_tracks) {
+            using tracks_t = std::remove_pointer_t<decltype(get_tracks(detection_response))>;
+            tracks_t tracks;
+            tracks.Swap(get_tracks(detection_response));
+            // With its tracks removed, detection_response only contains the fields that need to
+            // be present in every chunk.
+            std::size_t base_size = detection_response.ByteSizeLong() + CHUNK_FIELDS_OVERHEAD;
+
+            std::vector<std::vector<unsigned char>> chunks;
+            auto chunk = detection_response;
+            std::size_t chunk_size = base_size;
+            for (auto& track : tracks) {
+                std::size_t track_size = track.ByteSizeLong() + TRACK_FIELD_OVERHEAD;
+                if (chunk_size + track_size > max_message_bytes && !get_tracks(chunk)->empty()) {
+                    chunk.set_chunk_index(static_cast<int>(chunks.size()));
+                    chunk.set_has_more_chunks(true);
+                    chunks.push_back(Serialize(chunk));
+                    chunk = detection_response;
+                    chunk_size = base_size;
+                }
+                get_tracks(chunk)->Add(std::move(track));
+                chunk_size += track_size;
+            }
+            chunk.set_chunk_index(static_cast<int>(chunks.size()));
+            chunks.push_back(Serialize(chunk));
+            return chunks;
+        }
+    }
+
+
+    std::vector<std::vector<unsigned char>> SerializeInChunks(
+            mpf_buffers::DetectionResponse& detection_response,
+            std::size_t max_message_bytes) {
+        if (max_message_bytes == 0 || detection_response.ByteSizeLong() <= max_message_bytes) {
+            return { Serialize(detection_response) };
+        }
+        using Response = mpf_buffers::DetectionResponse;
+        switch (detection_response.response_type_case()) {
+            case Response::kVideoResponse:
+                return SerializeTracksInChunks(
+                        detection_response, max_message_bytes, [](Response& r) {
+                            return r.mutable_video_response()->mutable_video_tracks(); });
+            case Response::kAudioResponse:
+                return SerializeTracksInChunks(
+                        detection_response, max_message_bytes, [](Response& r) {
+                            return r.mutable_audio_response()->mutable_audio_tracks(); });
+            case Response::kImageResponse:
+                return SerializeTracksInChunks(
+                        detection_response, max_message_bytes, [](Response& r) {
+                            return r.mutable_image_response()->mutable_image_locations(); });
+            case Response::kGenericResponse:
+                return SerializeTracksInChunks(
+                        detection_response, max_message_bytes, [](Response& r) {
+                            return r.mutable_generic_response()->mutable_generic_tracks(); });
+            default:
+                return { Serialize(detection_response) };
+        }
+    }
+
+
     mpf_buffers::DetectionResponse InitDetectionResponse(const JobContext& context) {
         mpf_buffers::DetectionResponse detection_response;
         const auto& pb_meta = context.protobuf_metadata;
@@ -191,10 +267,13 @@ namespace MPF::COMPONENT::ProtobufResponseUtil::detail {
     }
 
     void AddToProtobuf(
-            const JobContext&,
+            const JobContext& context,
             const std::vector<MPFGenericTrack>& tracks,
             mpf_buffers::DetectionResponse& response) {
         auto generic_response = response.mutable_generic_response();
+        if (context.protobuf_metadata.document_range) {
+            *generic_response->mutable_document_range() = *context.protobuf_metadata.document_range;
+        }
         for (const auto &track : tracks) {
             auto pb_track = generic_response->add_generic_tracks();
             pb_track->set_confidence(track.confidence);
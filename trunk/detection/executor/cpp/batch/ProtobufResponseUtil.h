@@ -26,6 +26,7 @@
 
 #pragma once
 
+#include <cstddef>
 #include <string_view>
 #include <vector>
 
@@ -44,6 +45,15 @@ namespace MPF::COMPONENT::ProtobufResponseUtil {
         std::vector<unsigned char> Serialize(
                 const mpf_buffers::DetectionResponse& detection_response);
 
+        /**
+         * Serializes the response as a single message when it is no larger than
+         * max_message_bytes. Otherwise, the tracks are divided among multiple responses that are
+         * each no larger than max_message_bytes, unless a single track is larger than that.
+         */
+        std::vector<std::vector<unsigned char>> SerializeInChunks(
+                mpf_buffers::DetectionResponse& detection_response,
+                std::size_t max_message_bytes);
+
         void AddToProtobuf(
                 const JobContext& context,
                 const std::vector<MPFVideoTrack> &tracks,
@@ -67,10 +77,11 @@ namespace MPF::COMPONENT::ProtobufResponseUtil {
 
 
     template <typename TResp>
-    std::vector<unsigned char> PackResponse(const JobContext& context, const TResp& results) {
+    std::vector<std::vector<unsigned char>> PackResponse(
+            const JobContext& context, const TResp& results, std::size_t max_message_bytes) {
         auto detection_response = detail::InitDetectionResponse(context);
         detail::AddToProtobuf(context, results, detection_response);
-        return detail::Serialize(detection_response);
+        return detail::SerializeInChunks(detection_response, max_message_bytes);
     }
 
     std::vector<unsigned char> PackErrorResponse(
@@ -34,13 +34,18 @@ import org.mitre.mpf.wfm.buffers.DetectionProtobuf.DetectionResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.jms.BytesMessage;
 import javax.jms.JMSException;
 import javax.jms.Message;
 
 import static java.util.stream.Collectors.toMap;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.util.*;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
 
 public class MPFDetectionBuffer {
 
@@ -48,13 +53,46 @@ public class MPFDetectionBuffer {
 
     private DetectionRequest detectionRequest = null;
 
-    public MPFDetectionBuffer(final byte[] requestContents) throws InvalidProtocolBufferException {
+    public MPFDetectionBuffer(final byte[] requestContents) throws IOException {
+        this(requestContents, false);
+    }
+
+    /**
+     * Reads the request from the message body. The body is decompressed when the message has
+     * the {@link MessageCompression#PROPERTY_NAME} property set to {@link MessageCompression#DEFLATE}.
+     */
+    public MPFDetectionBuffer(final BytesMessage message) throws JMSException, IOException {
+        this(readBody(message), MessageCompression.isCompressed(message));
+    }
+
+    private MPFDetectionBuffer(final byte[] requestContents, boolean compressed) throws IOException {
         try {
-            detectionRequest = DetectionRequest.parseFrom(requestContents);
-        } catch (InvalidProtocolBufferException e) {
+            if (compressed) {
+                try (var inflaterStream = new InflaterInputStream(
+                        new ByteArrayInputStream(requestContents))) {
+                    detectionRequest = DetectionRequest.parseFrom(inflaterStream);
+                }
+            }
+            else {
+                detectionRequest = DetectionRequest.parseFrom(requestContents);
+            }
+        } catch (InvalidProtocolBufferException | ZipException e) {
             LOG.error("Failed to parse the request protocol buffer.");
             throw e;
         }
+        try {
+            detectionRequest = RequestContextCache.resolve(detectionRequest);
+        } catch (IOException e) {
+            LOG.error("Failed to load the shared request context from \"{}\".",
+                      detectionRequest.getRequestContextPath());
+            throw e;
+        }
+    }
+
+    private static byte[] readBody(BytesMessage message) throws JMSException {
+        byte[] body = new byte[(int) message.getBodyLength()];
+        message.readBytes(body);
+        return body;
     }
 
 
@@ -153,6 +191,30 @@ public class MPFDetectionBuffer {
     }
 
 
+    /**
+     * When the WFM splits a generic document in to multiple requests, the portion of the document
+     * to process is provided to the component as media properties.
+     */
+    public void addDocumentRangeProperties(Map<String, String> mediaProperties) {
+        if (!detectionRequest.getGenericRequest().hasDocumentRange()) {
+            return;
+        }
+        var documentRange = detectionRequest.getGenericRequest().getDocumentRange();
+        if (documentRange.hasByteRange()) {
+            mediaProperties.put("DOCUMENT_START_OFFSET",
+                                String.valueOf(documentRange.getByteRange().getStartOffset()));
+            mediaProperties.put("DOCUMENT_STOP_OFFSET",
+                                String.valueOf(documentRange.getByteRange().getStopOffset()));
+        }
+        else if (documentRange.hasPageRange()) {
+            mediaProperties.put("DOCUMENT_START_PAGE",
+                                String.valueOf(documentRange.getPageRange().getStartPage()));
+            mediaProperties.put("DOCUMENT_STOP_PAGE",
+                                String.valueOf(documentRange.getPageRange().getStopPage()));
+        }
+    }
+
+
     private static DetectionResponse.Builder packCommonFields(
             final MPFMessageMetadata msgMetadata,
             final MPFDetectionError errorCode,
@@ -256,6 +318,10 @@ public class MPFDetectionBuffer {
                                                final String errorMessage) {
         var detectionResponseBuilder = packCommonFields(msgMetadata, errorCode, errorMessage);
         var genericResponseBuilder = detectionResponseBuilder.getGenericResponseBuilder();
+        if (detectionRequest.getGenericRequest().hasDocumentRange()) {
+            genericResponseBuilder.setDocumentRange(
+                    detectionRequest.getGenericRequest().getDocumentRange());
+        }
         LOG.info(
             "Found {} tracks while processing job {}", tracks.size(), msgMetadata.getJobId());
         for (var track : tracks) {
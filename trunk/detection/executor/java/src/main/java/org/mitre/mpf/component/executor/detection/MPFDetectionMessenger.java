@@ -27,6 +27,7 @@
 package org.mitre.mpf.component.executor.detection;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.protobuf.InvalidProtocolBufferException;
 import org.mitre.mpf.component.api.detection.*;
 import org.mitre.mpf.wfm.buffers.DetectionProtobuf;
 import org.slf4j.Logger;
@@ -49,9 +50,21 @@ public class MPFDetectionMessenger {
 	private static final ImmutableMap<String, String> environmentJobProperties
 			= getEnvironmentJobProperties();
 
+	// Responses larger than this are split into multiple messages. 0 disables splitting.
+	public static final String MAX_RESPONSE_MESSAGE_BYTES_ENV_NAME = "MAX_RESPONSE_MESSAGE_BYTES";
+
+	private static final long DEFAULT_MAX_RESPONSE_MESSAGE_BYTES = 64 * 1024 * 1024;
+
+	// Responses at least this large are compressed. 0 disables compression.
+	public static final String COMPRESSION_THRESHOLD_BYTES_ENV_NAME = "COMPRESSION_THRESHOLD_BYTES";
+
+	private static final long DEFAULT_COMPRESSION_THRESHOLD_BYTES = 0;
+
 	private final MPFDetectionComponentInterface component;
 	private final Session session;
 	private final MessageProducer replyProducer;
+	private final long maxResponseMessageBytes = getMaxResponseMessageBytes(System.getenv());
+	private final long compressionThresholdBytes = getCompressionThresholdBytes(System.getenv());
 
     public MPFDetectionMessenger(MPFDetectionComponentInterface component, Session session) throws JMSException {
         this.component = component;
@@ -63,11 +76,11 @@ public class MPFDetectionMessenger {
 		try {
             LOG.info("Detection request received with message length = " + ((BytesMessage) message).getBodyLength());
 
-			byte[] requestBytesMessage = new byte[(int) ((BytesMessage) message).getBodyLength()];
-            ((BytesMessage) message).readBytes(requestBytesMessage);
 			Map<String, Object> headerProperties = ProtoUtils.copyMsgProperties(message);
+			// Whether or not the response is compressed is decided when it is sent.
+			headerProperties.remove(MessageCompression.PROPERTY_NAME);
 
-			MPFDetectionBuffer detectionBuffer = new MPFDetectionBuffer(requestBytesMessage);
+			MPFDetectionBuffer detectionBuffer = new MPFDetectionBuffer((BytesMessage) message);
 			MPFMessageMetadata msgMetadata = detectionBuffer.getMessageMetadata(message);
 			msgMetadata.getAlgorithmProperties().putAll(environmentJobProperties);
 
@@ -155,6 +168,7 @@ public class MPFDetectionMessenger {
 					}
 				} else if (MPFDataType.UNKNOWN == msgMetadata.getDataType()) {
 					MPFDetectionGenericRequest genericRequest = detectionBuffer.getGenericRequest();
+					detectionBuffer.addDocumentRangeProperties(msgMetadata.getMediaProperties());
 					try {
 						List<MPFGenericTrack> tracks = new ArrayList<>();
 						tracks = component.getDetections(new MPFGenericJob(msgMetadata.getJobName(),
@@ -174,18 +188,11 @@ public class MPFDetectionMessenger {
 				// for debugging purposes
 				LOG.debug("Detection results for file " + msgMetadata.getMediaPath() + ":\n" + responseBytes.toString());
 
-				BytesMessage responseBytesMessage;
 				try {
-					responseBytesMessage = session.createBytesMessage();
-					responseBytesMessage.writeBytes(responseBytes);
-					ProtoUtils.setMsgProperties(headerProperties, responseBytesMessage);
-					setProcessingTime(responseBytesMessage, startTime);
 					replyProducer.setPriority(message.getJMSPriority());
-					replyProducer.send(message.getJMSReplyTo(), responseBytesMessage);
-					session.commit();
+					sendResponse(responseBytes, message, headerProperties, startTime);
 					LOG.info("Detection response sent for job ID {}", msgMetadata.getJobId());
-					LOG.debug(responseBytesMessage.toString());
-				} catch (JMSException e) {
+				} catch (JMSException | InvalidProtocolBufferException e) {
 					LOG.error("Failed to send detection response message due to exception: " + e.getMessage(), e);
 				}
 
@@ -200,9 +207,7 @@ public class MPFDetectionMessenger {
 					buildUnsupportedMediaTypeResponse(msgMetadata, responseBuilder);
 				}
 
-				buildAndSend(
-						responseBuilder.build(), message.getJMSReplyTo(), headerProperties,
-						startTime);
+				buildAndSend(responseBuilder.build(), message, headerProperties, startTime);
 			}
         } catch (Exception e) {
 			// TODO: Send error message.
@@ -213,20 +218,11 @@ public class MPFDetectionMessenger {
 
 	private void buildAndSend(
 			DetectionProtobuf.DetectionResponse detectionResponse,
-			Destination destination,
+			Message request,
 			Map<String, Object> headers,
 			Instant startTime) {
 		try {
-			// Create a new response message and re-use the incoming headers.
-			BytesMessage response = session.createBytesMessage();
-			ProtoUtils.setMsgProperties(headers, response);
-
-			// Set the body of the message.
-			response.writeBytes(detectionResponse.toByteArray());
-			setProcessingTime(response, startTime);
-
-			replyProducer.send(destination, response);
-			session.commit();
+			sendResponse(detectionResponse.toByteArray(), request, headers, startTime);
 
 			// Record the success.
 			LOG.debug("Request built and sent response. Error: {}.", detectionResponse.getError());
@@ -237,6 +233,42 @@ public class MPFDetectionMessenger {
 		}
 	}
 
+	/**
+	 * Sends the response, re-using the incoming headers. When the response is larger than
+	 * MAX_RESPONSE_MESSAGE_BYTES, its tracks are split across multiple messages. All of the
+	 * messages are committed together, so the WFM never receives only part of a response. Messages
+	 * that are at least COMPRESSION_THRESHOLD_BYTES are compressed.
+	 */
+	private void sendResponse(
+			byte[] responseBytes,
+			Message request,
+			Map<String, Object> headers,
+			Instant startTime) throws JMSException, InvalidProtocolBufferException {
+		var chunks = ResponseChunker.split(responseBytes, maxResponseMessageBytes);
+		if (chunks.size() > 1) {
+			LOG.info("The detection response was split into {} messages.", chunks.size());
+		}
+		for (var chunk : chunks) {
+			BytesMessage response = session.createBytesMessage();
+			ProtoUtils.setMsgProperties(headers, response);
+			if (chunks.size() > 1) {
+				// Each time the WFM sends a request, it is a new message with a new id, so the
+				// WFM can tell apart the parts from requests that were sent more than once.
+				response.setStringProperty("ResponseChunkSetId", request.getJMSMessageID());
+			}
+			if (compressionThresholdBytes > 0 && chunk.length >= compressionThresholdBytes) {
+				response.setStringProperty(MessageCompression.PROPERTY_NAME, MessageCompression.DEFLATE);
+				response.writeBytes(MessageCompression.compress(chunk));
+			}
+			else {
+				response.writeBytes(chunk);
+			}
+			setProcessingTime(response, startTime);
+			replyProducer.send(request.getJMSReplyTo(), response);
+		}
+		session.commit();
+	}
+
 	private boolean actAsPreprocessor(MPFMessageMetadata msgMetadata) {
 		if(msgMetadata.getAlgorithmProperties().containsKey(usePreprocessorPropertyName)) {
 			try {
@@ -317,6 +349,39 @@ public class MPFDetectionMessenger {
 	}
 
 
+	public static long getMaxResponseMessageBytes(Map<String, String> environment) {
+		return getByteCountEnv(
+				environment, MAX_RESPONSE_MESSAGE_BYTES_ENV_NAME, DEFAULT_MAX_RESPONSE_MESSAGE_BYTES);
+	}
+
+
+	public static long getCompressionThresholdBytes(Map<String, String> environment) {
+		return getByteCountEnv(
+				environment, COMPRESSION_THRESHOLD_BYTES_ENV_NAME, DEFAULT_COMPRESSION_THRESHOLD_BYTES);
+	}
+
+
+	private static long getByteCountEnv(
+			Map<String, String> environment, String envName, long defaultValue) {
+		var envValue = environment.get(envName);
+		if (envValue == null || envValue.isBlank()) {
+			return defaultValue;
+		}
+		try {
+			long value = Long.parseLong(envValue.strip());
+			if (value >= 0) {
+				return value;
+			}
+		}
+		catch (NumberFormatException ignored) {
+			// Handled below.
+		}
+		throw new IllegalArgumentException(String.format(
+				"Expected the %s environment variable to contain a non-negative integer, but it was \"%s\".",
+				envName, envValue));
+	}
+
+
 	private static final double NANOS_PER_MS = Duration.ofMillis(1).toNanos();
 
 	private static void setProcessingTime(Message message, Instant startTime) throws JMSException {
@@ -87,6 +87,11 @@ public class MPFMessageMetadata {
 		return breadcrumbId;
 	}
 
+	/**
+	 * Always 0 for detection requests. The WFM creates a task's detection requests as responses
+	 * to the earlier requests arrive, so the number of requests is not known when a request is
+	 * sent. The value is only copied to the response and must not be used to count requests.
+	 */
 	public int getSplitSize() {
 		return splitSize;
 	}
@@ -0,0 +1,72 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.component.executor.detection;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Messages are compressed using the zlib format, the same format used by the WFM, the markup
+ * worker, and the C++ component executor.
+ */
+public class MessageCompression {
+
+    // Compressed messages have this property set to DEFLATE.
+    public static final String PROPERTY_NAME = "Compression";
+
+    public static final String DEFLATE = "DEFLATE";
+
+    private MessageCompression() {
+    }
+
+
+    public static boolean isCompressed(Message message) throws JMSException {
+        return DEFLATE.equals(message.getStringProperty(PROPERTY_NAME));
+    }
+
+
+    public static byte[] compress(byte[] bytes) {
+        var outStream = new ByteArrayOutputStream(bytes.length / 4);
+        var deflater = new Deflater(Deflater.BEST_SPEED);
+        try (var deflaterStream = new DeflaterOutputStream(outStream, deflater)) {
+            deflaterStream.write(bytes);
+        }
+        catch (IOException e) {
+            // ByteArrayOutputStream does not throw IOException.
+            throw new UncheckedIOException(e);
+        }
+        finally {
+            deflater.end();
+        }
+        return outStream.toByteArray();
+    }
+}
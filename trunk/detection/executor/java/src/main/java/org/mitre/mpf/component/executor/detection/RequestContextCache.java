@@ -0,0 +1,90 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.component.executor.detection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.mitre.mpf.wfm.buffers.DetectionProtobuf.DetectionRequest;
+import org.mitre.mpf.wfm.buffers.DetectionProtobuf.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads the shared request context referenced by a detection request. Most of the requests that
+ * a component receives for a job refer to the same few contexts, so the most recently used ones
+ * are kept in memory.
+ */
+public class RequestContextCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RequestContextCache.class);
+
+    private static final int MAX_ENTRIES = 64;
+
+    private static final Map<String, RequestContext> CACHE
+            = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, RequestContext> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+
+    public static DetectionRequest resolve(DetectionRequest request) throws IOException {
+        if (request.getRequestContextId().isEmpty()) {
+            return request;
+        }
+        var context = getContext(request.getRequestContextId(), request.getRequestContextPath());
+        return request.toBuilder()
+                .putAllAlgorithmProperties(context.getAlgorithmPropertiesMap())
+                .putAllMediaMetadata(context.getMediaMetadataMap())
+                .build();
+    }
+
+
+    private static synchronized RequestContext getContext(String contextId, String contextPath)
+            throws IOException {
+        var context = CACHE.get(contextId);
+        if (context != null) {
+            return context;
+        }
+        LOG.info("Loading request context \"{}\" from \"{}\".", contextId, contextPath);
+        try (InputStream inputStream = Files.newInputStream(Paths.get(contextPath))) {
+            context = RequestContext.parseFrom(inputStream);
+        }
+        CACHE.put(contextId, context);
+        return context;
+    }
+
+
+    private RequestContextCache() {
+    }
+}
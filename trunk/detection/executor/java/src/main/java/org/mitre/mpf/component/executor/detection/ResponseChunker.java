@@ -0,0 +1,136 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.component.executor.detection;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.MessageLite;
+import org.mitre.mpf.wfm.buffers.DetectionProtobuf.DetectionResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Divides the tracks of a detection response that is too large to send in a single message among
+ * multiple responses. Each part has the same fields as the original response except for the
+ * tracks, chunk_index, and has_more_chunks. A single track is never split, so a part may still be
+ * larger than the limit when it only contains one track.
+ */
+public class ResponseChunker {
+
+    // Upper bounds on the bytes needed to encode a field's tag and length prefix. Used to
+    // estimate a part's size without serializing it.
+    private static final long TRACK_FIELD_OVERHEAD = 16;
+
+    private static final long CHUNK_FIELDS_OVERHEAD = 32;
+
+    private ResponseChunker() {
+    }
+
+
+    /**
+     * Returns the serialized parts of the response. When maxMessageBytes is 0 or the response
+     * is not larger than maxMessageBytes, the only part is responseBytes.
+     */
+    public static List<byte[]> split(byte[] responseBytes, long maxMessageBytes)
+            throws InvalidProtocolBufferException {
+        if (maxMessageBytes <= 0 || responseBytes.length <= maxMessageBytes) {
+            return List.of(responseBytes);
+        }
+        var response = DetectionResponse.parseFrom(responseBytes);
+        return switch (response.getResponseTypeCase()) {
+            case VIDEO_RESPONSE -> splitTracks(
+                    response, response.getVideoResponse().getVideoTracksList(),
+                    (b, tracks) -> b.getVideoResponseBuilder()
+                            .clearVideoTracks()
+                            .addAllVideoTracks(tracks),
+                    maxMessageBytes);
+            case AUDIO_RESPONSE -> splitTracks(
+                    response, response.getAudioResponse().getAudioTracksList(),
+                    (b, tracks) -> b.getAudioResponseBuilder()
+                            .clearAudioTracks()
+                            .addAllAudioTracks(tracks),
+                    maxMessageBytes);
+            case IMAGE_RESPONSE -> splitTracks(
+                    response, response.getImageResponse().getImageLocationsList(),
+                    (b, tracks) -> b.getImageResponseBuilder()
+                            .clearImageLocations()
+                            .addAllImageLocations(tracks),
+                    maxMessageBytes);
+            case GENERIC_RESPONSE -> splitTracks(
+                    response, response.getGenericResponse().getGenericTracksList(),
+                    (b, tracks) -> b.getGenericResponseBuilder()
+                            .clearGenericTracks()
+                            .addAllGenericTracks(tracks),
+                    maxMessageBytes);
+            default -> List.of(responseBytes);
+        };
+    }
+
+
+    private static <T extends MessageLite> List<byte[]> splitTracks(
+            DetectionResponse response,
+            List<T> tracks,
+            BiConsumer<DetectionResponse.Builder, List<T>> setTracks,
+            long maxMessageBytes) {
+        // With its tracks removed, the response only contains the fields that need to be present
+        // in every part.
+        var emptyResponse = response.toBuilder();
+        setTracks.accept(emptyResponse, List.of());
+        long baseSize = emptyResponse.build().getSerializedSize() + CHUNK_FIELDS_OVERHEAD;
+
+        var chunks = new ArrayList<byte[]>();
+        var chunkTracks = new ArrayList<T>();
+        long chunkSize = baseSize;
+        for (var track : tracks) {
+            long trackSize = track.getSerializedSize() + TRACK_FIELD_OVERHEAD;
+            if (chunkSize + trackSize > maxMessageBytes && !chunkTracks.isEmpty()) {
+                chunks.add(createChunk(emptyResponse, chunkTracks, setTracks, chunks.size(), true));
+                chunkTracks.clear();
+                chunkSize = baseSize;
+            }
+            chunkTracks.add(track);
+            chunkSize += trackSize;
+        }
+        chunks.add(createChunk(emptyResponse, chunkTracks, setTracks, chunks.size(), false));
+        return chunks;
+    }
+
+
+    private static <T> byte[] createChunk(
+            DetectionResponse.Builder emptyResponse,
+            List<T> tracks,
+            BiConsumer<DetectionResponse.Builder, List<T>> setTracks,
+            int chunkIndex,
+            boolean hasMoreChunks) {
+        var chunk = emptyResponse.clone()
+                .setChunkIndex(chunkIndex)
+                .setHasMoreChunks(hasMoreChunks);
+        setTracks.accept(chunk, tracks);
+        return chunk.build().toByteArray();
+    }
+}
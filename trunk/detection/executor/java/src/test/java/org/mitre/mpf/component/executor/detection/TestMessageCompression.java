@@ -0,0 +1,81 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.component.executor.detection;
+
+import org.apache.activemq.command.ActiveMQBytesMessage;
+import org.junit.Test;
+import org.mitre.mpf.wfm.buffers.DetectionProtobuf.DetectionRequest;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestMessageCompression {
+
+    @Test
+    public void canReadCompressedRequest() throws Exception {
+        var requestBytes = createAudioRequest().toByteArray();
+        var message = new ActiveMQBytesMessage();
+        message.setStringProperty(MessageCompression.PROPERTY_NAME, MessageCompression.DEFLATE);
+        message.writeBytes(MessageCompression.compress(requestBytes));
+        message.reset();
+
+        var audioRequest = new MPFDetectionBuffer(message).getAudioRequest();
+        assertEquals(10, audioRequest.getStartTime());
+        assertEquals(20, audioRequest.getStopTime());
+    }
+
+
+    @Test
+    public void canReadUncompressedRequest() throws Exception {
+        var message = new ActiveMQBytesMessage();
+        message.writeBytes(createAudioRequest().toByteArray());
+        message.reset();
+
+        var audioRequest = new MPFDetectionBuffer(message).getAudioRequest();
+        assertEquals(10, audioRequest.getStartTime());
+        assertEquals(20, audioRequest.getStopTime());
+    }
+
+
+    @Test
+    public void compressionIsDisabledByDefault() {
+        assertEquals(0, MPFDetectionMessenger.getCompressionThresholdBytes(Map.of()));
+        assertEquals(1024, MPFDetectionMessenger.getCompressionThresholdBytes(
+                Map.of(MPFDetectionMessenger.COMPRESSION_THRESHOLD_BYTES_ENV_NAME, "1024")));
+    }
+
+
+    private static DetectionRequest createAudioRequest() {
+        return DetectionRequest.newBuilder()
+                .setMediaPath("/samples/audio.wav")
+                .setAudioRequest(DetectionRequest.AudioRequest.newBuilder()
+                        .setStartTime(10)
+                        .setStopTime(20))
+                .build();
+    }
+}
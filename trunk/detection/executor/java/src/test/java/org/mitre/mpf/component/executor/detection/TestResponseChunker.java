@@ -0,0 +1,109 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.component.executor.detection;
+
+import org.junit.Test;
+import org.mitre.mpf.wfm.buffers.DetectionProtobuf.DetectionResponse;
+import org.mitre.mpf.wfm.buffers.DetectionProtobuf.VideoTrack;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestResponseChunker {
+
+    @Test
+    public void doesNotSplitSmallResponses() throws Exception {
+        var responseBytes = createVideoResponse(3).toByteArray();
+        var chunks = ResponseChunker.split(responseBytes, responseBytes.length);
+        assertEquals(1, chunks.size());
+        assertSame(responseBytes, chunks.get(0));
+
+        assertSame(responseBytes, ResponseChunker.split(responseBytes, 0).get(0));
+    }
+
+
+    @Test
+    public void splitsTracksAcrossChunks() throws Exception {
+        var response = createVideoResponse(10);
+        var responseBytes = response.toByteArray();
+        var chunks = ResponseChunker.split(responseBytes, responseBytes.length / 3);
+        assertTrue(chunks.size() > 1);
+
+        var tracks = new ArrayList<VideoTrack>();
+        for (int i = 0; i < chunks.size(); i++) {
+            var chunk = DetectionResponse.parseFrom(chunks.get(i));
+            assertEquals(i, chunk.getChunkIndex());
+            assertEquals(i < chunks.size() - 1, chunk.getHasMoreChunks());
+            assertEquals(response.getMediaId(), chunk.getMediaId());
+            assertEquals(response.getVideoResponse().getStartFrame(),
+                         chunk.getVideoResponse().getStartFrame());
+            assertFalse(chunk.getVideoResponse().getVideoTracksList().isEmpty());
+            tracks.addAll(chunk.getVideoResponse().getVideoTracksList());
+        }
+        assertEquals(response.getVideoResponse().getVideoTracksList(), tracks);
+    }
+
+
+    @Test
+    public void canReadMaxResponseMessageBytes() {
+        assertEquals(64 * 1024 * 1024, MPFDetectionMessenger.getMaxResponseMessageBytes(Map.of()));
+        assertEquals(0, MPFDetectionMessenger.getMaxResponseMessageBytes(
+                Map.of(MPFDetectionMessenger.MAX_RESPONSE_MESSAGE_BYTES_ENV_NAME, "0")));
+        assertEquals(1000, MPFDetectionMessenger.getMaxResponseMessageBytes(
+                Map.of(MPFDetectionMessenger.MAX_RESPONSE_MESSAGE_BYTES_ENV_NAME, "1000")));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void throwsWhenInvalidMaxResponseMessageBytes() {
+        MPFDetectionMessenger.getMaxResponseMessageBytes(
+                Map.of(MPFDetectionMessenger.MAX_RESPONSE_MESSAGE_BYTES_ENV_NAME, "-1"));
+    }
+
+
+    private static DetectionResponse createVideoResponse(int numTracks) {
+        var videoResponse = DetectionResponse.VideoResponse.newBuilder()
+                .setStartFrame(0)
+                .setStopFrame(numTracks - 1);
+        for (int i = 0; i < numTracks; i++) {
+            videoResponse.addVideoTracks(VideoTrack.newBuilder()
+                    .setStartFrame(i)
+                    .setStopFrame(i)
+                    .setConfidence(0.5f)
+                    .putDetectionProperties("TEXT", "track " + i));
+        }
+        return DetectionResponse.newBuilder()
+                .setMediaId(5)
+                .setVideoResponse(videoResponse)
+                .build();
+    }
+}
@@ -26,11 +26,13 @@
 
 package org.mitre.mpf.markup;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.zip.InflaterInputStream;
 
 import javax.jms.BytesMessage;
 import javax.jms.JMSException;
@@ -47,6 +49,10 @@ public class MarkupRequestConsumer {
 
     private static final Logger LOG = LoggerFactory.getLogger(MarkupRequestConsumer.class);
 
+    private static final String COMPRESSION_PROPERTY = "Compression";
+
+    private static final String COMPRESSION_DEFLATE = "DEFLATE";
+
     private final Session _session;
 
     private final MessageProducer _messageProducer;
@@ -107,11 +113,17 @@ public class MarkupRequestConsumer {
         }
     }
 
-    private static byte[] getMessageBody(Message message) throws JMSException {
+    private static byte[] getMessageBody(Message message) throws JMSException, IOException {
         var bytesMessage = (BytesMessage) message;
         var protobytes = new byte[(int) bytesMessage.getBodyLength()];
         bytesMessage.readBytes(protobytes);
-        return protobytes;
+        if (!COMPRESSION_DEFLATE.equals(message.getStringProperty(COMPRESSION_PROPERTY))) {
+            return protobytes;
+        }
+        // The Workflow Manager compresses large requests.
+        try (var inflaterStream = new InflaterInputStream(new ByteArrayInputStream(protobytes))) {
+            return inflaterStream.readAllBytes();
+        }
     }
 
 
@@ -163,7 +175,8 @@ public class MarkupRequestConsumer {
 
         var propertyNames = requestMessage.getPropertyNames();
         while (propertyNames.hasMoreElements()) {
-            if (propertyNames.nextElement() instanceof String propName) {
+            if (propertyNames.nextElement() instanceof String propName
+                    && !propName.equals(COMPRESSION_PROPERTY)) {
                 var propValue = requestMessage.getObjectProperty(propName);
                 responseMessage.setObjectProperty(propName, propValue);
             }
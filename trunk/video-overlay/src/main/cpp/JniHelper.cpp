@@ -108,6 +108,13 @@ jlongArray JniHelper::ToJLongArray(std::size_t length, const long* buf) {
     return jarray;
 }
 
+jintArray JniHelper::ToJIntArray(std::size_t length, const int* buf) {
+    jint javaSize = toJavaArraySize(length);
+    auto* jarray = callJni(&JNIEnv::NewIntArray, javaSize);
+    callJniVoid(&JNIEnv::SetIntArrayRegion, jarray, 0, javaSize, buf);
+    return jarray;
+}
+
 std::unique_ptr<jstring, JStringDeleter> JniHelper::ToJString(const std::string &inString) {
     return {
         new jstring(callJni(&JNIEnv::NewStringUTF, inString.c_str())),
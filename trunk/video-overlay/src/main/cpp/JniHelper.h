@@ -110,6 +110,8 @@ public:
 
     jlongArray ToJLongArray(std::size_t length, const long* buf);
 
+    jintArray ToJIntArray(std::size_t length, const int* buf);
+
 private:
     JNIEnv * const env_;
 
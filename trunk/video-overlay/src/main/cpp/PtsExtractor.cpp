@@ -39,11 +39,14 @@ extern "C" JNIEXPORT jobject JNICALL Java_org_mitre_mpf_pts_PtsExtractor_getPtsN
         auto ptsResult = extractPts(jni.ToStdString(videoPath).c_str());
 
         auto* ptsArray = jni.ToJLongArray(ptsResult.values.size(), ptsResult.values.data());
+        auto* keyframeArray = jni.ToJIntArray(
+                ptsResult.keyframeIndices.size(), ptsResult.keyframeIndices.data());
 
         auto* clzPtsResult = jni.FindClass("org/mitre/mpf/pts/PtsResult");
-        auto* clzPtsResult_fnConstruct = jni.GetMethodID(clzPtsResult, "<init>", "([JZ)V");
+        auto* clzPtsResult_fnConstruct = jni.GetMethodID(clzPtsResult, "<init>", "([JZ[I)V");
         return jni.CallConstructorMethod(
-            clzPtsResult, clzPtsResult_fnConstruct, ptsArray, ptsResult.estimated);
+            clzPtsResult, clzPtsResult_fnConstruct, ptsArray, ptsResult.estimated,
+            keyframeArray);
     }
     catch (const std::exception &e) {
         jni.ReportCppException(e.what());
@@ -112,8 +112,28 @@ namespace {
     }
 
 
+    // Packets are read in decode order, so the keyframe positions are only known once the
+    // presentation timestamps have been sorted.
+    std::vector<int> getKeyframeIndices(
+            const std::vector<long>& sortedPtsValues, const std::vector<long>& keyframePtsValues) {
+        std::vector<int> keyframeIndices;
+        keyframeIndices.reserve(keyframePtsValues.size());
+        for (long keyframePts : keyframePtsValues) {
+            auto iter = std::lower_bound(
+                    sortedPtsValues.begin(), sortedPtsValues.end(), keyframePts);
+            keyframeIndices.push_back(static_cast<int>(iter - sortedPtsValues.begin()));
+        }
+        std::sort(keyframeIndices.begin(), keyframeIndices.end());
+        keyframeIndices.erase(
+                std::unique(keyframeIndices.begin(), keyframeIndices.end()),
+                keyframeIndices.end());
+        return keyframeIndices;
+    }
+
+
     PtsResult extractInternal(AVFormatContext& formatCtx, num_streams_t videoStreamIdx) {
         std::vector<long> ptsValues;
+        std::vector<long> keyframePtsValues;
         bool isMissingPts = false;
         auto packet = makeAvObj(av_packet_alloc(), av_packet_free);
 
@@ -142,9 +162,13 @@ namespace {
             else {
                 ptsValues.push_back(packet->pts);
             }
+            if (packet->flags & AV_PKT_FLAG_KEY) {
+                keyframePtsValues.push_back(ptsValues.back());
+            }
         }
         std::sort(ptsValues.begin(), ptsValues.end());
-        return {std::move(ptsValues), isMissingPts};
+        auto keyframeIndices = getKeyframeIndices(ptsValues, keyframePtsValues);
+        return {std::move(ptsValues), isMissingPts, std::move(keyframeIndices)};
     }
 } // end anonymous namespace
 
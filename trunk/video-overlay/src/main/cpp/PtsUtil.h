@@ -29,6 +29,9 @@
 struct PtsResult {
     std::vector<long> values;
     bool estimated{false};
+    // Sorted indices in to values of the frames that can be decoded without reference to any
+    // earlier frame.
+    std::vector<int> keyframeIndices;
 };
 
 PtsResult extractPts(const char* videoPath);
@@ -26,6 +26,11 @@
 
 package org.mitre.mpf.pts;
 
-public record PtsResult(long[] ptsValues, boolean estimated) {
+/**
+ * @param ptsValues Sorted presentation timestamps of every frame in the video stream.
+ * @param estimated True when at least one packet was missing its PTS and the DTS was used instead.
+ * @param keyframeIndices Sorted indices in to ptsValues of the frames that were marked as keyframes.
+ */
+public record PtsResult(long[] ptsValues, boolean estimated, int[] keyframeIndices) {
 
 }
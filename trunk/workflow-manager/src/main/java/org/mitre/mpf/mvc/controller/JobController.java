@@ -29,6 +29,7 @@ package org.mitre.mpf.mvc.controller;
 import static java.util.stream.Collectors.toList;
 
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Predicate;
 
@@ -197,6 +198,69 @@ public class JobController {
         }
     }
 
+    //EXTERNAL
+    // This endpoint is not annotated with @RequestEventId because the audit logging
+    // Needs to include information not available in the HandlerInterceptor where
+    // the audit logging is normally done.
+    @RequestMapping(value = {"/rest/jobs/bulk"}, method = RequestMethod.POST)
+    @ApiOperation(value = "Creates and submits multiple jobs using a JSON array of JobCreationRequest objects as the request body.",
+            notes = "Each element of the array has the same format as the request body for 'rest/jobs'." +
+                    " Each pipeline is only validated once per request, and the jobs are stored together," +
+                    " so this is much faster than submitting the jobs one at a time." +
+                    " \n\nThe response is an array containing a JobCreationResponse for each job, in the same order" +
+                    " as the request. A job that could not be created will have an error in its mpfResponse, but" +
+                    " it does not prevent the other jobs from being created. Clients should check each" +
+                    " mpfResponse rather than resubmitting the whole array when only some jobs fail." +
+                    " The number of jobs in a single request is limited by the mpf.bulk.job.max.count property.",
+            produces = "application/json", response = JobCreationResponse.class, responseContainer = "List")
+    @ApiResponses({
+            @ApiResponse(code = 201, message = "All jobs created"),
+            @ApiResponse(code = 200, message = "Some jobs created. Check each mpfResponse."),
+            @ApiResponse(code = 400, message = "No jobs created") })
+    @ResponseBody
+    public ResponseEntity<?> createJobsRest(
+            @ApiParam(required = true, value = "JobCreationRequest array") @RequestBody
+                    List<JobCreationRequest> jobCreationRequests,
+                    HttpServletRequest request) {
+
+        int maxJobCount = propertiesUtil.getBulkJobMaxCount();
+        if (jobCreationRequests.size() > maxJobCount) {
+            var message = String.format(
+                    "The request contained %s jobs, but at most %s jobs can be submitted at once.",
+                    jobCreationRequests.size(), maxJobCount);
+            log.error(message);
+            return new ResponseEntity<>(new MessageModel(message), HttpStatus.BAD_REQUEST);
+        }
+
+        var creationResults = jobRequestService.runAll(jobCreationRequests);
+        var createResponses = new ArrayList<JobCreationResponse>(creationResults.size());
+        for (int i = 0; i < creationResults.size(); i++) {
+            var jobCreationRequest = jobCreationRequests.get(i);
+            var creationResult = creationResults.get(i);
+            createResponses.add(creationResult.creationResult()
+                    .map(cr -> onJobCreated(jobCreationRequest, cr, request))
+                    .orElseGet(() -> onJobCreationFailed(
+                            jobCreationRequest, creationResult.error(), request)));
+        }
+
+        long successCount = createResponses.stream()
+                .filter(cr -> cr.mpfResponse().isSuccessful())
+                .count();
+        HttpStatus status;
+        if (successCount == createResponses.size()) {
+            status = HttpStatus.CREATED;
+        }
+        else if (successCount > 0) {
+            // Some of the jobs were started, so a client that retries the whole request on a 4xx
+            // would submit duplicate jobs.
+            status = HttpStatus.OK;
+        }
+        else {
+            status = HttpStatus.BAD_REQUEST;
+        }
+        return new ResponseEntity<>(createResponses, status);
+    }
+
     //INTERNAL
     // This endpoint is not annotated with @RequestEventId because the audit logging
     // Needs to include information not available in the HandlerInterceptor where
@@ -465,54 +529,65 @@ public class JobController {
                                                   boolean useSession,
                                                   HttpSession session,
                                                   HttpServletRequest request) {
-        var eventId = LogAuditEventRecord.EventId.CREATE_JOB;
         try {
             var jobCreationResult = jobRequestService.run(jobCreationRequest);
-            long jobId = jobCreationResult.jobId();
-
             if (useSession) {
-                SessionUtil.addJob(session, jobId);
+                SessionUtil.addJob(session, jobCreationResult.jobId());
             }
-            String exportedJobId = propertiesUtil.getExportedJobId(jobId);
-            var tiesDbOutputObjectUri = jobCreationResult
-                    .tiesDbCheckResult()
-                    .checkInfo()
-                    .filter(ci -> !ci.s3CopyEnabled())
-                    .map(ci -> ci.outputObjectUri())
-                    .orElse(null);
-
-            // Log successful job creation with detailed information
-            var mediaUris = jobCreationRequest.media().stream()
-                    .map(media -> media.mediaUri().toString())
-                    .toList();
-            String mediaUrisList = String.join(", ", mediaUris);
-
-            _auditEventLogger.createEvent()
-                    .withSecurityTag()
-                    .withEventId(eventId.success)
-                    .withUri(request.getRequestURI())
-                    .allowed(eventId.message + " succeeded for Pipeline: %s, Media URIs: [%s]",
-                             jobCreationRequest.pipelineName(),
-                             mediaUrisList);
-
-            // the job request has been successfully parsed, construct the job creation response
-            return new JobCreationResponse(
-                    exportedJobId,
-                    jobCreationResult.tiesDbCheckResult().status(),
-                    tiesDbOutputObjectUri);
+            return onJobCreated(jobCreationRequest, jobCreationResult, request);
         }
         catch (Exception ex) {
-            String err = createErrorString(jobCreationRequest, ex.getMessage());
-            log.error(err, ex);
-            _auditEventLogger.createEvent()
-            .withSecurityTag()
-            .withEventId(LogAuditEventRecord.EventId.CREATE_JOB.fail)
-            .withUri(request.getRequestURI())
-            .error(eventId.message + " failed: " + err);
-            return new JobCreationResponse(MpfResponse.RESPONSE_CODE_ERROR, err);
+            return onJobCreationFailed(jobCreationRequest, ex, request);
         }
     }
 
+    private JobCreationResponse onJobCreated(JobCreationRequest jobCreationRequest,
+                                             JobRequestService.CreationResult jobCreationResult,
+                                             HttpServletRequest request) {
+        var eventId = LogAuditEventRecord.EventId.CREATE_JOB;
+        String exportedJobId = propertiesUtil.getExportedJobId(jobCreationResult.jobId());
+        var tiesDbOutputObjectUri = jobCreationResult
+                .tiesDbCheckResult()
+                .checkInfo()
+                .filter(ci -> !ci.s3CopyEnabled())
+                .map(ci -> ci.outputObjectUri())
+                .orElse(null);
+
+        // Log successful job creation with detailed information
+        var mediaUris = jobCreationRequest.media().stream()
+                .map(media -> media.mediaUri().toString())
+                .toList();
+        String mediaUrisList = String.join(", ", mediaUris);
+
+        _auditEventLogger.createEvent()
+                .withSecurityTag()
+                .withEventId(eventId.success)
+                .withUri(request.getRequestURI())
+                .allowed(eventId.message + " succeeded for Pipeline: %s, Media URIs: [%s]",
+                         jobCreationRequest.pipelineName(),
+                         mediaUrisList);
+
+        // the job request has been successfully parsed, construct the job creation response
+        return new JobCreationResponse(
+                exportedJobId,
+                jobCreationResult.tiesDbCheckResult().status(),
+                tiesDbOutputObjectUri);
+    }
+
+    private JobCreationResponse onJobCreationFailed(JobCreationRequest jobCreationRequest,
+                                                    Exception ex,
+                                                    HttpServletRequest request) {
+        var eventId = LogAuditEventRecord.EventId.CREATE_JOB;
+        String err = createErrorString(jobCreationRequest, ex.getMessage());
+        log.error(err, ex);
+        _auditEventLogger.createEvent()
+        .withSecurityTag()
+        .withEventId(eventId.fail)
+        .withUri(request.getRequestURI())
+        .error(eventId.message + " failed: " + err);
+        return new JobCreationResponse(MpfResponse.RESPONSE_CODE_ERROR, err);
+    }
+
     private static String createErrorString(JobCreationRequest jobCreationRequest, String message) {
         StringBuilder errBuilder = new StringBuilder("Failure creating job");
         if (jobCreationRequest.externalId() != null) {
@@ -40,6 +40,7 @@ import org.mitre.mpf.wfm.data.access.JobRequestDao;
 import org.mitre.mpf.wfm.data.access.StreamingJobRequestDao;
 import org.mitre.mpf.wfm.data.access.SubjectJobRepo;
 import org.mitre.mpf.wfm.data.entities.persistent.SystemMessage;
+import org.mitre.mpf.wfm.service.JobCheckpointService;
 import org.mitre.mpf.wfm.service.ServerMediaService;
 import org.mitre.mpf.wfm.service.SystemMessageService;
 import org.mitre.mpf.wfm.service.component.StartupComponentRegistrationService;
@@ -72,6 +73,9 @@ public class WfmStartup implements ApplicationListener<ApplicationEvent> {
     @Autowired
     private SubjectJobRepo subjectJobDao;
 
+    @Autowired
+    private JobCheckpointService jobCheckpointService;
+
 
     @Autowired
     private SystemMessageService systemMessageService;
@@ -105,6 +109,7 @@ public class WfmStartup implements ApplicationListener<ApplicationEvent> {
             ApplicationContext appContext = contextRefreshedEvent.getApplicationContext();
 
             ThreadUtil.start();
+            ThreadUtil.setMaxThreads(propertiesUtil.getThreadPoolMaxSize());
 
             if (applicationRefreshed.compareAndSet(false, true)) {
                 log.info("onApplicationEvent: {} {}", appContext.getDisplayName(), appContext.getId());
@@ -117,8 +122,7 @@ public class WfmStartup implements ApplicationListener<ApplicationEvent> {
     }
 
     private void startAsyncInitializers(ApplicationContext appContext) {
-        runAsyncLogErrors(
-                "cancel incomplete batch jobs", jobRequestDao::cancelJobsInNonTerminalState);
+        runAsyncLogErrors("resume or cancel incomplete batch jobs", this::resumeOrCancelBatchJobs);
         if (streamingJobRequestDao.isPresent()) {
             runAsyncLogErrors(
                     "cancel incomplete streaming jobs",
@@ -132,6 +136,11 @@ public class WfmStartup implements ApplicationListener<ApplicationEvent> {
         startFileIndexing(appContext);
     }
 
+    private void resumeOrCancelBatchJobs() {
+        var resumedJobIds = jobCheckpointService.resumeCheckpointedJobs();
+        jobRequestDao.cancelJobsInNonTerminalState(resumedJobIds);
+    }
+
     private void runAsyncLogErrors(String action, ThreadUtil.ThrowingRunnable runnable) {
         ThreadUtil.runAsync(runnable)
                 .exceptionally(e -> {
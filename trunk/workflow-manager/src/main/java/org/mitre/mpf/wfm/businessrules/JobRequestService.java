@@ -30,13 +30,28 @@ import org.mitre.mpf.rest.api.JobCreationRequest;
 import org.mitre.mpf.wfm.data.entities.persistent.JobRequest;
 import org.mitre.mpf.wfm.service.TiesDbCheckResult;
 
+import java.util.List;
+import java.util.Optional;
+
 public interface JobRequestService {
 
     CreationResult run(JobCreationRequest jobCreationRequest);
 
+    List<BulkCreationResult> runAll(List<JobCreationRequest> jobCreationRequests);
+
     JobRequest resubmit(long jobId, int priority);
 
     boolean cancel(long jobId);
 
     record CreationResult(long jobId, TiesDbCheckResult tiesDbCheckResult) {}
+
+    record BulkCreationResult(Optional<CreationResult> creationResult, Exception error) {
+        public static BulkCreationResult success(CreationResult creationResult) {
+            return new BulkCreationResult(Optional.of(creationResult), null);
+        }
+
+        public static BulkCreationResult failure(Exception error) {
+            return new BulkCreationResult(Optional.empty(), error);
+        }
+    }
 }
@@ -36,6 +36,7 @@ import org.mitre.mpf.rest.api.JobCreationMediaRange;
 import org.mitre.mpf.rest.api.JobCreationMediaSelector;
 import org.mitre.mpf.rest.api.JobCreationRequest;
 import org.mitre.mpf.rest.api.pipelines.Action;
+import org.mitre.mpf.rest.api.pipelines.transients.TransientPipelineDefinition;
 import org.mitre.mpf.wfm.WfmProcessingException;
 import org.mitre.mpf.wfm.businessrules.JobRequestService;
 import org.mitre.mpf.wfm.camel.operations.detection.transformation.DetectionTransformationException;
@@ -66,6 +67,7 @@ import org.springframework.util.FileSystemUtils;
 import javax.inject.Inject;
 import java.time.Instant;
 import java.util.*;
+import java.util.function.LongSupplier;
 import java.util.function.Predicate;
 import java.util.stream.IntStream;
 
@@ -134,41 +136,134 @@ public class JobRequestServiceImpl implements JobRequestService {
     public CreationResult run(JobCreationRequest jobCreationRequest) {
         _validator.validate(jobCreationRequest, "JobCreationRequest");
 
-        List<Media> media = jobCreationRequest.media()
-                .stream()
-                .map(m -> _inProgressJobs.initMedia(
-                        m.mediaUri(),
-                        m.properties(),
-                        m.metadata(),
-                        convertRanges(m.frameRanges()),
-                        convertRanges(m.timeRanges()),
-                        convertSelectors(m.mediaSelectors()),
-                        m.mediaSelectorsOutputAction().orElse(null)))
-                .collect(ImmutableList.toImmutableList());
+        JobRequest jobRequestEntity = createJobRequest(
+                jobCreationRequest,
+                getPipelineElements(jobCreationRequest),
+                _propertiesUtil.createSystemPropertiesSnapshot(),
+                _jobRequestDao::getNextId);
+        jobRequestEntity = persist(jobRequestEntity);
+        return start(jobRequestEntity);
+    }
 
-        int priority = Optional.ofNullable(jobCreationRequest.priority())
-                .orElseGet(_propertiesUtil::getJmsPriority);
 
-        JobPipelineElements pipelineElements;
+    @Override
+    public List<BulkCreationResult> runAll(List<JobCreationRequest> jobCreationRequests) {
+        // Pipeline validation is synchronized in the pipeline service, so it is only done once
+        // for each distinct pipeline in the request. Invalid pipelines are also remembered so
+        // that every job using one does not repeat the validation.
+        var pipelines = new HashMap<PipelineKey, JobPipelineElements>();
+        var pipelineErrors = new HashMap<PipelineKey, RuntimeException>();
+        var systemPropertiesSnapshot = _propertiesUtil.createSystemPropertiesSnapshot();
+        var jobIds = _jobRequestDao.getNextIds(jobCreationRequests.size()).iterator();
+
+        var results = new BulkCreationResult[jobCreationRequests.size()];
+        var jobRequestEntities = new JobRequest[jobCreationRequests.size()];
+        for (int i = 0; i < jobCreationRequests.size(); i++) {
+            var jobCreationRequest = jobCreationRequests.get(i);
+            try {
+                _validator.validate(jobCreationRequest, "JobCreationRequest");
+                var pipelineKey = new PipelineKey(jobCreationRequest.pipelineName(),
+                                                  jobCreationRequest.pipelineDefinition());
+                var pipelineError = pipelineErrors.get(pipelineKey);
+                if (pipelineError != null) {
+                    throw pipelineError;
+                }
+                var pipelineElements = pipelines.get(pipelineKey);
+                if (pipelineElements == null) {
+                    try {
+                        pipelineElements = getPipelineElements(jobCreationRequest);
+                    }
+                    catch (RuntimeException e) {
+                        pipelineErrors.put(pipelineKey, e);
+                        throw e;
+                    }
+                    pipelines.put(pipelineKey, pipelineElements);
+                }
+                jobRequestEntities[i] = createJobRequest(
+                        jobCreationRequest, pipelineElements, systemPropertiesSnapshot,
+                        jobIds::next);
+            }
+            catch (Exception e) {
+                results[i] = BulkCreationResult.failure(e);
+            }
+        }
+
+        var newJobRequests = Arrays.stream(jobRequestEntities)
+                .filter(Objects::nonNull)
+                .toList();
+        try {
+            _jobRequestDao.persistNew(newJobRequests);
+        }
+        catch (Exception e) {
+            LOG.error("Failed to store {} new jobs: {}", newJobRequests.size(), e.getMessage(), e);
+            for (int i = 0; i < jobRequestEntities.length; i++) {
+                if (jobRequestEntities[i] != null) {
+                    _inProgressJobs.clearOnInitializationError(jobRequestEntities[i].getId());
+                    results[i] = BulkCreationResult.failure(e);
+                }
+            }
+            return Arrays.asList(results);
+        }
+
+        for (int i = 0; i < jobRequestEntities.length; i++) {
+            var jobRequestEntity = jobRequestEntities[i];
+            if (jobRequestEntity == null) {
+                continue;
+            }
+            try {
+                _inProgressJobs.setJobStatus(jobRequestEntity.getId(), jobRequestEntity.getStatus());
+                results[i] = BulkCreationResult.success(start(jobRequestEntity));
+            }
+            catch (Exception e) {
+                results[i] = BulkCreationResult.failure(e);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+
+    private JobPipelineElements getPipelineElements(JobCreationRequest jobCreationRequest) {
         if (jobCreationRequest.pipelineDefinition() == null) {
-            pipelineElements = _pipelineService.getBatchPipelineElements(
+            return _pipelineService.getBatchPipelineElements(
                     jobCreationRequest.pipelineName());
         }
         else if (jobCreationRequest.pipelineName() == null
                 || jobCreationRequest.pipelineName().isBlank()) {
-            pipelineElements = _pipelineService.getBatchPipelineElements(
+            return _pipelineService.getBatchPipelineElements(
                     jobCreationRequest.pipelineDefinition());
         }
         else {
             // Allow setting for both the piplineName and pipelineDefinition.
-             pipelineElements = _pipelineService.getBatchPipelineElements(
+            return _pipelineService.getBatchPipelineElements(
                     jobCreationRequest.pipelineName(),
                     jobCreationRequest.pipelineDefinition());
         }
+    }
 
-        var systemPropertiesSnapshot = _propertiesUtil.createSystemPropertiesSnapshot();
+    private record PipelineKey(String name, TransientPipelineDefinition definition) { }
+
+
+    private JobRequest createJobRequest(
+            JobCreationRequest jobCreationRequest,
+            JobPipelineElements pipelineElements,
+            SystemPropertiesSnapshot systemPropertiesSnapshot,
+            LongSupplier jobIdSupplier) {
+        List<Media> media = jobCreationRequest.media()
+                .stream()
+                .map(m -> _inProgressJobs.initMedia(
+                        m.mediaUri(),
+                        m.properties(),
+                        m.metadata(),
+                        convertRanges(m.frameRanges()),
+                        convertRanges(m.timeRanges()),
+                        convertSelectors(m.mediaSelectors()),
+                        m.mediaSelectorsOutputAction().orElse(null)))
+                .collect(ImmutableList.toImmutableList());
 
-        JobRequest jobRequestEntity = initialize(
+        int priority = Optional.ofNullable(jobCreationRequest.priority())
+                .orElseGet(_propertiesUtil::getJmsPriority);
+
+        return prepare(
                 new JobRequest(),
                 pipelineElements,
                 media,
@@ -178,8 +273,12 @@ public class JobRequestServiceImpl implements JobRequestService {
                 priority,
                 jobCreationRequest.callbackURL(),
                 jobCreationRequest.callbackMethod(),
-                systemPropertiesSnapshot);
+                systemPropertiesSnapshot,
+                jobIdSupplier);
+    }
 
+
+    private CreationResult start(JobRequest jobRequestEntity) {
         long jobId = jobRequestEntity.getId();
         try (var mdc = CloseableMdc.job(jobId)) {
             _jobRequestDao.newJobCreated();
@@ -286,6 +385,51 @@ public class JobRequestServiceImpl implements JobRequestService {
             String callbackUrl,
             String callbackMethod,
             SystemPropertiesSnapshot systemPropertiesSnapshot) {
+        long existingId = jobRequestEntity.getId();
+        var preparedEntity = prepare(
+                jobRequestEntity,
+                pipelineElements,
+                media,
+                jobProperties,
+                overriddenAlgoProps,
+                externalId,
+                priority,
+                callbackUrl,
+                callbackMethod,
+                systemPropertiesSnapshot,
+                () -> existingId > 0 ? existingId : _jobRequestDao.getNextId());
+        return persist(preparedEntity);
+    }
+
+
+    private JobRequest persist(JobRequest jobRequestEntity) {
+        long jobId = jobRequestEntity.getId();
+        try (var mdc = CloseableMdc.job(jobId)) {
+            try {
+                var persistedEntity = _jobRequestDao.persist(jobRequestEntity);
+                _inProgressJobs.setJobStatus(jobId, jobRequestEntity.getStatus());
+                return persistedEntity;
+            }
+            catch (Exception e) {
+                _inProgressJobs.clearOnInitializationError(jobId);
+                throw e;
+            }
+        }
+    }
+
+
+    private JobRequest prepare(
+            JobRequest jobRequestEntity,
+            JobPipelineElements pipelineElements,
+            Collection<Media> media,
+            Map<String, String> jobProperties,
+            Map<String, ? extends Map<String, String>> overriddenAlgoProps,
+            String externalId,
+            int priority,
+            String callbackUrl,
+            String callbackMethod,
+            SystemPropertiesSnapshot systemPropertiesSnapshot,
+            LongSupplier jobIdSupplier) {
 
         callbackUrl = StringUtils.trimToNull(callbackUrl);
         callbackMethod = TextUtils.trimToNullAndUpper(callbackMethod);
@@ -301,9 +445,7 @@ public class JobRequestServiceImpl implements JobRequestService {
                 overriddenAlgoProps,
                 systemPropertiesSnapshot);
 
-        var jobId = jobRequestEntity.getId() > 0
-                ? jobRequestEntity.getId()
-                : _jobRequestDao.getNextId();
+        long jobId = jobIdSupplier.getAsLong();
 
         try (var mdc = CloseableMdc.job(jobId)) {
             BatchJob job = _inProgressJobs.addJob(
@@ -333,9 +475,6 @@ public class JobRequestServiceImpl implements JobRequestService {
 
 
                 jobRequestEntity.setJob(_jsonUtils.serialize(job));
-
-                jobRequestEntity = _jobRequestDao.persist(jobRequestEntity);
-                _inProgressJobs.setJobStatus(job.getId(),  jobStatus);
                 return jobRequestEntity;
             }
             catch (Exception e) {
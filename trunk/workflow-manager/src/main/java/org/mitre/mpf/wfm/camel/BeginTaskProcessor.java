@@ -33,6 +33,7 @@ import org.mitre.mpf.wfm.data.entities.persistent.BatchJob;
 import org.mitre.mpf.wfm.enums.BatchJobStatusType;
 import org.mitre.mpf.wfm.enums.MpfHeaders;
 import org.mitre.mpf.wfm.event.JobProgress;
+import org.mitre.mpf.wfm.service.JobCheckpointService;
 import org.mitre.mpf.wfm.service.JobStatusBroadcaster;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,6 +54,9 @@ public class BeginTaskProcessor extends WfmProcessor {
     @Autowired
     private JobStatusBroadcaster jobStatusBroadcaster;
 
+    @Autowired
+    private JobCheckpointService jobCheckpointService;
+
     @Override
     public void wfmProcess(Exchange exchange) throws WfmProcessingException {
         long jobId = exchange.getIn().getHeader(MpfHeaders.JOB_ID, Long.class);
@@ -71,6 +75,7 @@ public class BeginTaskProcessor extends WfmProcessor {
             log.info("Task Complete! Progress is now {}/{}.",
                     job.getCurrentTaskIndex(), job.getPipelineElements().getTaskCount());
         }
+        jobCheckpointService.saveCheckpoint(job);
 
         if (job.getCurrentTaskIndex() >= job.getPipelineElements().getTaskCount()) {
             jobProgressStore.setJobProgress(jobId, 99.0f);
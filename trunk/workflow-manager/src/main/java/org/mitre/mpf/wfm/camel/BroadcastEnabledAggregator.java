@@ -51,15 +51,19 @@ public class BroadcastEnabledAggregator implements WfmAggregator {
 
     private final JobProgress _jobProgressStore;
 
+    private final TaskSplitTracker _taskSplitTracker;
+
     @Inject
     BroadcastEnabledAggregator(
             InProgressBatchJobsService inProgressBatchJobs,
             JobStatusBroadcaster jobStatusBroadcaster,
-            JobProgress jobProgressStore) {
+            JobProgress jobProgressStore,
+            TaskSplitTracker taskSplitTracker) {
 
         _inProgressBatchJobs = inProgressBatchJobs;
         _jobStatusBroadcaster = jobStatusBroadcaster;
         _jobProgressStore = jobProgressStore;
+        _taskSplitTracker = taskSplitTracker;
     }
 
     @Override
@@ -77,6 +81,11 @@ public class BroadcastEnabledAggregator implements WfmAggregator {
                         "CamelAggregatedSize", 0, Integer.class);
             }
             int splitSize = newExchange.getIn().getHeader(MpfHeaders.SPLIT_SIZE, Integer.class);
+            if (splitSize <= 0) {
+                // The split was created lazily, so the header does not contain the size.
+                splitSize = Math.max(numPartsReceived, _taskSplitTracker.getEstimatedSplitSize(
+                        newExchange.getIn().getHeader(MpfHeaders.CORRELATION_ID, String.class)));
+            }
 
             var job = _inProgressBatchJobs.getJob(jobId);
             int tasksCompleted = job.getCurrentTaskIndex();
@@ -87,7 +96,7 @@ public class BroadcastEnabledAggregator implements WfmAggregator {
                     99,
                     (tasksCompleted + progressInCurrentTask) / totalTasks * 100);
 
-            _jobStatusBroadcaster.broadcast(jobId, jobProgress, job.getStatus());
+            _jobStatusBroadcaster.broadcastProgress(jobId, jobProgress, job.getStatus());
             _jobProgressStore.setJobProgress(jobId, jobProgress);
         }
         catch (Exception e) {
@@ -0,0 +1,187 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+
+package org.mitre.mpf.wfm.camel;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import org.apache.camel.Exchange;
+import org.mitre.mpf.wfm.buffers.DetectionProtobuf;
+import org.mitre.mpf.wfm.data.InProgressBatchJobsService;
+import org.mitre.mpf.wfm.enums.MpfHeaders;
+import org.mitre.mpf.wfm.service.SpeculativeExecutionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps track of detection responses that a component split across multiple messages because
+ * they were too large to send at once. Every message in the set is processed as it arrives, but
+ * only one of them continues on to the aggregator, after all of the others have been processed.
+ * Messages from the same set have the same {@link MpfHeaders#RESPONSE_CHUNK_SET_ID} header.
+ * A set that never receives all of its messages, for example because the job was cancelled, is
+ * removed when the job completes.
+ */
+@Component(ChunkedResponseTracker.REF)
+public class ChunkedResponseTracker {
+
+    public static final String REF = "chunkedResponseTracker";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChunkedResponseTracker.class);
+
+    private static final String CHUNK_SET_KEY_PROPERTY = "mpfResponseChunkSetKey";
+
+    private static final String CHUNK_SET_JOB_PROPERTY = "mpfResponseChunkSetJobId";
+
+    private final SpeculativeExecutionService _speculativeExecutionService;
+
+    private final InProgressBatchJobsService _inProgressJobs;
+
+    // Job id -> chunk set key -> chunk set
+    private final Map<Long, Map<String, ChunkSet>> _chunkSets = new HashMap<>();
+
+    @Inject
+    ChunkedResponseTracker(
+            SpeculativeExecutionService speculativeExecutionService,
+            InProgressBatchJobsService inProgressJobs) {
+        _speculativeExecutionService = speculativeExecutionService;
+        _inProgressJobs = inProgressJobs;
+    }
+
+
+    /**
+     * Extends {@link SpeculativeExecutionService#isFirstResponse(Exchange)} to split responses.
+     * The first message received from a set claims the request, so the rest of that set is
+     * accepted, and messages from any other set for the same request are discarded.
+     */
+    public boolean isFirstResponse(Exchange exchange) {
+        var in = exchange.getIn();
+        var chunkSetId = in.getHeader(MpfHeaders.RESPONSE_CHUNK_SET_ID, String.class);
+        var jobId = in.getHeader(MpfHeaders.JOB_ID, Long.class);
+        if (chunkSetId == null || jobId == null || !_inProgressJobs.containsJob(jobId)) {
+            // Responses for unknown jobs are sent to the unsolicited messages queue instead of
+            // the aggregator, so the set would never be removed.
+            return _speculativeExecutionService.isFirstResponse(exchange);
+        }
+
+        var response = in.getBody(DetectionProtobuf.DetectionResponse.class);
+        var correlationId = in.getHeader(MpfHeaders.CORRELATION_ID, String.class);
+        var splitIndex = in.getHeader(MpfHeaders.SPLIT_INDEX, Integer.class);
+        var key = correlationId + ':' + (splitIndex == null ? chunkSetId : splitIndex);
+        synchronized (_chunkSets) {
+            var jobChunkSets = _chunkSets.get(jobId);
+            var chunkSet = jobChunkSets == null ? null : jobChunkSets.get(key);
+            if (chunkSet == null) {
+                if (!_speculativeExecutionService.isFirstResponse(exchange)) {
+                    return false;
+                }
+                chunkSet = new ChunkSet(chunkSetId);
+                _chunkSets.computeIfAbsent(jobId, k -> new HashMap<>()).put(key, chunkSet);
+            }
+            else if (!chunkSet.id.equals(chunkSetId)) {
+                LOG.info("Discarding part {} of a duplicate response with correlation id '{}'.",
+                         response.getChunkIndex(), correlationId);
+                return false;
+            }
+            if (!response.getHasMoreChunks()) {
+                chunkSet.numChunks = response.getChunkIndex() + 1;
+            }
+        }
+        exchange.setProperty(CHUNK_SET_KEY_PROPERTY, key);
+        exchange.setProperty(CHUNK_SET_JOB_PROPERTY, jobId);
+        return true;
+    }
+
+
+    /**
+     * Returns true when the exchange contains part of a split response and other parts of the
+     * response have not been processed yet. Called after the exchange's tracks have been stored.
+     */
+    public boolean isWaitingForMoreChunks(Exchange exchange) {
+        var key = exchange.getProperty(CHUNK_SET_KEY_PROPERTY, String.class);
+        var jobId = exchange.getProperty(CHUNK_SET_JOB_PROPERTY, Long.class);
+        if (key == null || jobId == null) {
+            return false;
+        }
+        synchronized (_chunkSets) {
+            var jobChunkSets = _chunkSets.get(jobId);
+            var chunkSet = jobChunkSets == null ? null : jobChunkSets.get(key);
+            if (chunkSet == null) {
+                // The job was removed while the message was being processed.
+                return true;
+            }
+            chunkSet.numProcessed++;
+            if (chunkSet.numChunks == null || chunkSet.numProcessed < chunkSet.numChunks) {
+                return true;
+            }
+            jobChunkSets.remove(key);
+            if (jobChunkSets.isEmpty()) {
+                _chunkSets.remove(jobId);
+            }
+            return false;
+        }
+    }
+
+
+    /**
+     * Discards the job's incomplete sets. Called when the job completes, including when it was
+     * cancelled and the rest of a set will never be processed.
+     */
+    public void removeJob(long jobId) {
+        synchronized (_chunkSets) {
+            var removed = _chunkSets.remove(jobId);
+            if (removed != null) {
+                LOG.info("Discarded {} incomplete split responses for job {}.",
+                         removed.size(), jobId);
+            }
+        }
+    }
+
+
+    int getTrackedJobCount() {
+        synchronized (_chunkSets) {
+            return _chunkSets.size();
+        }
+    }
+
+
+    private static class ChunkSet {
+        final String id;
+
+        int numProcessed;
+
+        // Unknown until the last message in the set is received.
+        Integer numChunks;
+
+        ChunkSet(String id) {
+            this.id = id;
+        }
+    }
+}
@@ -27,24 +27,33 @@
 package org.mitre.mpf.wfm.camel;
 
 import org.apache.camel.Exchange;
+import org.apache.camel.ExchangePattern;
 import org.apache.camel.Message;
+import org.apache.camel.ProducerTemplate;
 import org.javasimon.aop.Monitored;
 import org.mitre.mpf.mvc.util.CloseableMdc;
 import org.mitre.mpf.rest.api.pipelines.ActionType;
 import org.mitre.mpf.rest.api.pipelines.Task;
 import org.mitre.mpf.wfm.camel.operations.detection.DetectionTaskSplitter;
 import org.mitre.mpf.wfm.camel.operations.markup.MarkupSplitter;
+import org.mitre.mpf.wfm.camel.routes.JobRouterRouteBuilder;
 import org.mitre.mpf.wfm.data.InProgressBatchJobsService;
 import org.mitre.mpf.wfm.data.entities.persistent.BatchJob;
 import org.mitre.mpf.wfm.enums.IssueCodes;
 import org.mitre.mpf.wfm.enums.MpfHeaders;
+import org.mitre.mpf.wfm.service.SpeculativeExecutionService;
+import org.mitre.mpf.wfm.util.PropertiesUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 
@@ -66,23 +75,43 @@ public class DefaultTaskSplitter {
 
     private InProgressBatchJobsService _inProgressJobs;
 
+    private SpeculativeExecutionService _speculativeExecutionService;
+
+    private TaskSplitTracker _taskSplitTracker;
+
+    private PropertiesUtil _propertiesUtil;
+
+    private ProducerTemplate _producerTemplate;
+
+    // Detection splits that stopped creating requests because too many of their requests were
+    // waiting for a response. They are resumed by resumeSplit when a response arrives.
+    private final Map<String, DetectionSplitIterator> _parkedSplits = new ConcurrentHashMap<>();
+
 
     @Inject
     DefaultTaskSplitter(
             DetectionTaskSplitter detectionSplitter,
             MarkupSplitter markupSplitter,
-            InProgressBatchJobsService inProgressJobs) {
+            InProgressBatchJobsService inProgressJobs,
+            SpeculativeExecutionService speculativeExecutionService,
+            TaskSplitTracker taskSplitTracker,
+            PropertiesUtil propertiesUtil,
+            ProducerTemplate producerTemplate) {
         _detectionSplitter = detectionSplitter;
         _markupSplitter = markupSplitter;
         _inProgressJobs = inProgressJobs;
+        _speculativeExecutionService = speculativeExecutionService;
+        _taskSplitTracker = taskSplitTracker;
+        _propertiesUtil = propertiesUtil;
+        _producerTemplate = producerTemplate;
     }
 
 
-    public List<Message> split(Exchange exchange) {
+    public Iterator<Message> split(Exchange exchange) {
         long jobId = exchange.getIn().getHeader(MpfHeaders.JOB_ID, Long.class);
         try (var ctx = CloseableMdc.job(jobId)) {
             var messages = doSplit(jobId, exchange);
-            if (messages.isEmpty()) {
+            if (!messages.hasNext()) {
                 exchange.setProperty(MpfHeaders.EMPTY_SPLIT, true);
             }
             return messages;
@@ -90,7 +119,7 @@ public class DefaultTaskSplitter {
     }
 
 
-    private List<Message> doSplit(long jobId, Exchange exchange) {
+    private Iterator<Message> doSplit(long jobId, Exchange exchange) {
         try {
             BatchJob job = _inProgressJobs.getJob(jobId);
             Task task = job.getPipelineElements().getTask(job.getCurrentTaskIndex());
@@ -108,11 +137,20 @@ public class DefaultTaskSplitter {
                 // If it has been, do not produce any work units.
                 LOG.warn("This job has been cancelled. No work will be performed in task {}.",
                         job.getCurrentTaskIndex());
-                return List.of();
+                return Collections.emptyIterator();
+            }
+
+            // Create a correlation id to associate with all messages produced by this split.
+            var correlationId = jobId + ":" + UUID.randomUUID();
+            var priority = exchange.getIn().getHeader(MpfHeaders.JMS_PRIORITY);
+
+            if (actionType == ActionType.DETECTION) {
+                // Detection tasks can produce a very large number of requests, so they are
+                // created as the requests are sent.
+                return new DetectionSplitIterator(job, task, correlationId, priority);
             }
 
             var messages = switch (actionType) {
-                case DETECTION -> _detectionSplitter.performSplit(job, task);
                 case MARKUP -> _markupSplitter.performSplit(job, task);
                 default -> {
                     LOG.warn("Task {} calls an unsupported operation '{}'. " +
@@ -122,29 +160,166 @@ public class DefaultTaskSplitter {
                 }
             };
 
-            // Create a correlation id to associate with all messages produced by this split.
-            var correlationId = jobId + ":" + UUID.randomUUID();
             var headers = Map.of(
                 MpfHeaders.SPLIT_SIZE, messages.size(),
                 MpfHeaders.JOB_ID, jobId,
-                MpfHeaders.JMS_PRIORITY, exchange.getIn().getHeader(MpfHeaders.JMS_PRIORITY),
+                MpfHeaders.JMS_PRIORITY, priority,
                 MpfHeaders.CORRELATION_ID, correlationId
             );
-            messages.forEach(m -> m.getHeaders().putAll(headers));
+            for (int i = 0; i < messages.size(); i++) {
+                messages.get(i).getHeaders().putAll(headers);
+                _speculativeExecutionService.trackDispatchedRequest(
+                        jobId, correlationId, i, messages.get(i));
+            }
 
             LOG.info(
                 "DefaultTaskSplitter produced {} work units with correlation id '{}'.",
                 messages.size(),
                 correlationId);
-            return messages;
+            return messages.iterator();
         }
         catch (Exception e) {
-            var errorMsg = String.format(
-                "Failed to complete the split operation for Job %s due to : %s",
-                jobId, e);
-            LOG.error(errorMsg, e);
-            _inProgressJobs.addFatalError(jobId, IssueCodes.OTHER, errorMsg);
-            return List.of();
+            handleSplitException(jobId, e);
+            return Collections.emptyIterator();
+        }
+    }
+
+
+    /**
+     * Called after a detection response is received. When the response's split was parked
+     * because it had reached the limit on in-flight requests, the split creates requests until it
+     * reaches the limit again, and sends them on the calling thread.
+     */
+    public void resumeSplit(Exchange exchange) {
+        var correlationId = exchange.getIn().getHeader(MpfHeaders.CORRELATION_ID, String.class);
+        var split = correlationId == null ? null : _parkedSplits.remove(correlationId);
+        if (split == null) {
+            return;
+        }
+        try (var ctx = CloseableMdc.job(split._jobId)) {
+            while (split.hasNext()) {
+                var message = split.next();
+                _producerTemplate.sendBodyAndHeaders(
+                        JobRouterRouteBuilder.REQUEST_SENDER,
+                        ExchangePattern.InOnly,
+                        message.getBody(),
+                        message.getHeaders());
+            }
+        }
+    }
+
+
+    private void handleSplitException(long jobId, Exception e) {
+        var errorMsg = String.format(
+            "Failed to complete the split operation for Job %s due to : %s",
+            jobId, e);
+        LOG.error(errorMsg, e);
+        _inProgressJobs.addFatalError(jobId, IssueCodes.OTHER, errorMsg);
+    }
+
+
+    /**
+     * Creates the detection requests for a task as they are consumed. When the number of requests
+     * that have not received a response reaches the configured limit, hasNext returns false and
+     * the iterator is parked until a response arrives, so that the Workflow Manager's memory
+     * usage and the size of the request queues do not depend on the size of the job. Parking
+     * the iterator, rather than waiting for a response, keeps the Job Router's consumer thread
+     * free for other jobs. The iterator looks one request ahead so that the total number of
+     * requests is known before the final request is sent.
+     */
+    private class DetectionSplitIterator implements Iterator<Message> {
+
+        private final long _jobId;
+
+        private final String _correlationId;
+
+        private final Map<String, Object> _headers;
+
+        private final Iterator<Message> _source;
+
+        private Message _next;
+
+        private int _numCreated;
+
+
+        DetectionSplitIterator(BatchJob job, Task task, String correlationId, Object priority) {
+            _jobId = job.getId();
+            _correlationId = correlationId;
+            _headers = Map.of(
+                // The size of the split is not known until all of the requests have been
+                // created. TaskSplitTracker is used to determine when the task is complete.
+                MpfHeaders.SPLIT_SIZE, 0,
+                MpfHeaders.JOB_ID, _jobId,
+                MpfHeaders.JMS_PRIORITY, priority,
+                MpfHeaders.CORRELATION_ID, correlationId
+            );
+            _taskSplitTracker.startSplit(correlationId);
+            _source = _detectionSplitter.streamSplit(job, task).iterator();
+            advance();
+        }
+
+
+        @Override
+        public boolean hasNext() {
+            if (_next == null) {
+                return false;
+            }
+            if (hasCapacity()) {
+                return true;
+            }
+            _parkedSplits.put(_correlationId, this);
+            // A response may have arrived before the split was parked, in which case nothing
+            // would resume it. Only continue when no response thread has already resumed it.
+            return hasCapacity() && _parkedSplits.remove(_correlationId, this);
+        }
+
+
+        @Override
+        public Message next() {
+            if (_next == null) {
+                throw new NoSuchElementException();
+            }
+            try (var ctx = CloseableMdc.job(_jobId)) {
+                var message = _next;
+                message.getHeaders().putAll(_headers);
+                _speculativeExecutionService.trackDispatchedRequest(
+                        _jobId, _correlationId, _numCreated, message);
+                _numCreated++;
+                _taskSplitTracker.onRequestCreated(_correlationId);
+                advance();
+                return message;
+            }
+        }
+
+
+        private void advance() {
+            try {
+                if (!isCancelled() && _source.hasNext()) {
+                    _next = _source.next();
+                    return;
+                }
+            }
+            catch (Exception e) {
+                handleSplitException(_jobId, e);
+            }
+            _next = null;
+            _taskSplitTracker.onSplitComplete(_correlationId);
+            LOG.info(
+                "DefaultTaskSplitter produced {} work units with correlation id '{}'.",
+                _numCreated,
+                _correlationId);
+        }
+
+
+        private boolean hasCapacity() {
+            // Cancelled jobs do not create any more requests, so they are not limited.
+            return isCancelled() || _taskSplitTracker.hasCapacity(
+                    _correlationId, _propertiesUtil.getMaxInFlightRequestsPerJob());
+        }
+
+
+        private boolean isCancelled() {
+            return _inProgressJobs.getJob(_jobId).isCancelled();
         }
     }
 }
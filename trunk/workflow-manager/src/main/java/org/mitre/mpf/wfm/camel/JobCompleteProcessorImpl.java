@@ -87,6 +87,7 @@ import org.mitre.mpf.wfm.event.JobProgress;
 import org.mitre.mpf.wfm.event.NotificationConsumer;
 import org.mitre.mpf.wfm.service.CensorPropertiesService;
 import org.mitre.mpf.wfm.service.JobCompleteCallbackService;
+import org.mitre.mpf.wfm.service.JobResultCacheService;
 import org.mitre.mpf.wfm.service.JobStatusBroadcaster;
 import org.mitre.mpf.wfm.service.StorageService;
 import org.mitre.mpf.wfm.service.TaskAnnotatorService;
@@ -164,6 +165,12 @@ public class JobCompleteProcessorImpl extends WfmProcessor implements JobComplet
     @Autowired
     private JobCompleteCallbackService jobCompleteCallbackService;
 
+    @Autowired
+    private JobResultCacheService jobResultCacheService;
+
+    @Autowired
+    private ChunkedResponseTracker chunkedResponseTracker;
+
 
     @Override
     public void wfmProcess(Exchange exchange) throws WfmProcessingException {
@@ -175,8 +182,12 @@ public class JobCompleteProcessorImpl extends WfmProcessor implements JobComplet
         var outputObjectFromTiesDbUri = exchange.getIn().getHeader(
                 MpfHeaders.OUTPUT_OBJECT_URI_FROM_TIES_DB, String.class);
         var skippedJobDueToTiesDbEntry = outputObjectFromTiesDbUri != null;
+        var outputObjectFromResultCacheUri = exchange.getIn().getHeader(
+                MpfHeaders.OUTPUT_OBJECT_URI_FROM_RESULT_CACHE, String.class);
+        var skippedJobDueToCachedResult = outputObjectFromResultCacheUri != null;
+        var skippedJob = skippedJobDueToTiesDbEntry || skippedJobDueToCachedResult;
 
-        if (!skippedJobDueToTiesDbEntry) {
+        if (!skippedJob) {
             storageService.storeDerivativeMedia(job);
         }
 
@@ -194,6 +205,11 @@ public class JobCompleteProcessorImpl extends WfmProcessor implements JobComplet
                 outputObjectUri = tiesDbBeforeJobCheckService.updateOutputObject(
                         job, URI.create(outputObjectFromTiesDbUri), jobRequest);
             }
+            else if (skippedJobDueToCachedResult) {
+                log.info("Reusing the output object at {}.", outputObjectFromResultCacheUri);
+                outputObjectUri = URI.create(outputObjectFromResultCacheUri);
+                inProgressBatchJobs.setJobStatus(jobId, job.getStatus().onComplete());
+            }
             else {
                 outputObjectUri = createOutputObject(
                         job,
@@ -212,11 +228,14 @@ public class JobCompleteProcessorImpl extends WfmProcessor implements JobComplet
             inProgressBatchJobs.addFatalError(jobId, IssueCodes.OTHER, message);
         }
 
-        if (skippedJobDueToTiesDbEntry) {
+        if (skippedJob) {
             completionStatus = job.getStatus();
         }
         else {
             completionStatus = job.getStatus().onComplete();
+            if (outputObjectExists) {
+                jobResultCacheService.recordResult(job, outputObjectUri, completionStatus);
+            }
             tiesDbService.prepareAssertions(
                     job,
                     completionStatus,
@@ -255,7 +274,7 @@ public class JobCompleteProcessorImpl extends WfmProcessor implements JobComplet
                             " If this job is resubmitted, it will likely not complete again!", jobId), exception);
         }
 
-        var tiesDbFuture = skippedJobDueToTiesDbEntry
+        var tiesDbFuture = skippedJob
                 ? ThreadUtil.completedFuture(null)
                 : tiesDbService.postAssertions(job);
 
@@ -305,6 +324,7 @@ public class JobCompleteProcessorImpl extends WfmProcessor implements JobComplet
         try {
             inProgressBatchJobs.clearJob(job.getId());
             jobProgressStore.removeJob(job.getId());
+            chunkedResponseTracker.removeJob(job.getId());
         } catch (Exception exception) {
             log.warn(String.format(
                     "Failed to clean up job %d due to an exception. Data for this job will remain in the transient " +
@@ -0,0 +1,353 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.camel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.ExchangePattern;
+import org.apache.camel.Processor;
+import org.apache.camel.ProducerTemplate;
+import org.mitre.mpf.wfm.data.InProgressBatchJobsService;
+import org.mitre.mpf.wfm.enums.DispatchPolicy;
+import org.mitre.mpf.wfm.enums.MpfHeaders;
+import org.mitre.mpf.wfm.service.ComponentThroughputService;
+import org.mitre.mpf.wfm.service.SpeculativeExecutionService;
+import org.mitre.mpf.wfm.util.JmsUtils;
+import org.mitre.mpf.wfm.util.PropertiesUtil;
+import org.mitre.mpf.wfm.util.ThreadUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds on to the requests produced by the task splitters and releases them to the component
+ * request queues according to the configured {@link DispatchPolicy}. The number of unacknowledged
+ * requests in each request queue is limited based on the number of components consuming from
+ * the queue, so that one large job can not fill a queue ahead of the requests from other jobs.
+ */
+@Component(RequestDispatcher.REF)
+public class RequestDispatcher implements Processor {
+
+    public static final String REF = "requestDispatcher";
+
+    private static final Logger LOG = LoggerFactory.getLogger(RequestDispatcher.class);
+
+    // Requests are also released as responses arrive, so this only needs to handle the
+    // case where a queue drains without producing a detection response.
+    private static final long DISPATCH_INTERVAL_MS = 1000;
+
+    private final PropertiesUtil _propertiesUtil;
+
+    private final ComponentThroughputService _componentThroughputService;
+
+    private final SpeculativeExecutionService _speculativeExecutionService;
+
+    private final InProgressBatchJobsService _inProgressJobs;
+
+    private final ProducerTemplate _producerTemplate;
+
+    // destination queue -> job id -> requests
+    private final Map<String, Map<Long, HeldJobRequests>> _heldRequests = new HashMap<>();
+
+    private final Map<Long, Integer> _heldCountByJob = new HashMap<>();
+
+    private long _arrivalCount;
+
+    private boolean _dispatchScheduled;
+
+    private boolean _dispatchInProgress;
+
+    private boolean _dispatchRequested;
+
+    @Inject
+    RequestDispatcher(
+            PropertiesUtil propertiesUtil,
+            ComponentThroughputService componentThroughputService,
+            SpeculativeExecutionService speculativeExecutionService,
+            InProgressBatchJobsService inProgressJobs,
+            ProducerTemplate producerTemplate) {
+        _propertiesUtil = propertiesUtil;
+        _componentThroughputService = componentThroughputService;
+        _speculativeExecutionService = speculativeExecutionService;
+        _inProgressJobs = inProgressJobs;
+        _producerTemplate = producerTemplate;
+    }
+
+
+    public boolean isEnabled() {
+        return _propertiesUtil.getDispatchPolicy() != DispatchPolicy.NONE;
+    }
+
+
+    @Override
+    public void process(Exchange exchange) {
+        var in = exchange.getIn();
+        long jobId = in.getHeader(MpfHeaders.JOB_ID, Long.class);
+        var destination = in.getHeader(MpfHeaders.JMS_DESTINATION, String.class);
+        int priority = in.getHeader(MpfHeaders.JMS_PRIORITY, 4, Integer.class);
+        var request = new HeldRequest(new HashMap<>(in.getHeaders()), in.getBody(byte[].class));
+        _speculativeExecutionService.onRequestHeld(request.headers());
+
+        synchronized (this) {
+            var jobs = _heldRequests.computeIfAbsent(destination, k -> new HashMap<>());
+            var job = jobs.get(jobId);
+            if (job == null) {
+                job = new HeldJobRequests(
+                        jobId, priority, _arrivalCount++, getMinVirtualTime(jobs.values()));
+                jobs.put(jobId, job);
+            }
+            job.requests.add(request);
+            _heldCountByJob.merge(jobId, 1, Integer::sum);
+        }
+        dispatch();
+    }
+
+
+    /**
+     * Releases as many held requests as the request queues currently have room for. Only one
+     * thread releases requests at a time. When another thread is already releasing requests, it
+     * is asked to make another pass and this method returns immediately.
+     */
+    public void dispatch() {
+        synchronized (this) {
+            if (_dispatchInProgress) {
+                _dispatchRequested = true;
+                return;
+            }
+            _dispatchInProgress = true;
+        }
+        try {
+            while (true) {
+                dispatchOnce();
+                synchronized (this) {
+                    if (!_dispatchRequested) {
+                        _dispatchInProgress = false;
+                        return;
+                    }
+                    _dispatchRequested = false;
+                }
+            }
+        }
+        catch (RuntimeException e) {
+            synchronized (this) {
+                _dispatchInProgress = false;
+            }
+            throw e;
+        }
+    }
+
+
+    // The broker is queried for the queue capacities and the requests are sent without holding
+    // the lock, so that slow broker calls do not block the threads adding requests.
+    private void dispatchOnce() {
+        List<String> destinations;
+        synchronized (this) {
+            if (_heldRequests.isEmpty()) {
+                return;
+            }
+            destinations = new ArrayList<>(_heldRequests.keySet());
+        }
+
+        var capacities = new HashMap<String, Long>();
+        for (var destination : destinations) {
+            capacities.put(destination, getCapacity(destination));
+        }
+
+        var toSend = new ArrayList<HeldRequest>();
+        synchronized (this) {
+            var policy = _propertiesUtil.getDispatchPolicy();
+            for (var destIter = _heldRequests.entrySet().iterator(); destIter.hasNext(); ) {
+                var destEntry = destIter.next();
+                var destination = destEntry.getKey();
+                var jobs = destEntry.getValue();
+
+                releaseFinishedJobs(destination, jobs, toSend);
+
+                // Destinations added after the capacities were checked are handled in the next
+                // pass.
+                long capacity = capacities.getOrDefault(destination, 0L);
+                while (capacity > 0 && !jobs.isEmpty()) {
+                    var job = selectJob(policy, jobs.values(), _heldCountByJob);
+                    toSend.add(release(job));
+                    if (job.requests.isEmpty()) {
+                        jobs.remove(job.jobId);
+                    }
+                    capacity--;
+                }
+                if (jobs.isEmpty()) {
+                    destIter.remove();
+                }
+            }
+            scheduleDispatch();
+        }
+
+        for (var request : toSend) {
+            send(request);
+        }
+    }
+
+
+    private void releaseFinishedJobs(
+            String destination, Map<Long, HeldJobRequests> jobs, List<HeldRequest> toSend) {
+        for (Iterator<HeldJobRequests> iter = jobs.values().iterator(); iter.hasNext(); ) {
+            var job = iter.next();
+            if (!_inProgressJobs.containsJob(job.jobId)) {
+                LOG.warn("Discarding {} requests for job {} because it is no longer in progress.",
+                         job.requests.size(), job.jobId);
+                _heldCountByJob.remove(job.jobId);
+                iter.remove();
+            }
+            else if (_inProgressJobs.getJob(job.jobId).isCancelled()) {
+                // Cancelled requests are converted to responses by the cancellation routes, so
+                // they do not need to wait for room in the queue.
+                var cancellationQueue = JmsUtils.getCancellationQueueName(destination);
+                while (!job.requests.isEmpty()) {
+                    var request = job.requests.peek();
+                    request.headers().put(MpfHeaders.JMS_DESTINATION, cancellationQueue);
+                    toSend.add(release(job));
+                }
+                iter.remove();
+            }
+        }
+    }
+
+
+    private long getCapacity(String destination) {
+        int consumers = Math.max(1, _componentThroughputService.getConsumerCount(destination));
+        long limit = (long) consumers * _propertiesUtil.getDispatchQueuedRequestsPerConsumer();
+        return limit - _componentThroughputService.getQueueDepth(destination);
+    }
+
+
+    private HeldRequest release(HeldJobRequests job) {
+        var request = job.requests.remove();
+        job.virtualTime += 1.0 / job.weight();
+        _heldCountByJob.computeIfPresent(job.jobId, (k, v) -> v > 1 ? v - 1 : null);
+        return request;
+    }
+
+
+    private void send(HeldRequest request) {
+        _speculativeExecutionService.onRequestReleased(request.headers());
+        LOG.debug("Releasing request for job {} to {}.",
+                  request.headers().get(MpfHeaders.JOB_ID),
+                  request.headers().get(MpfHeaders.JMS_DESTINATION));
+        _producerTemplate.sendBodyAndHeaders(
+                "activemq:queue:dummy",
+                ExchangePattern.InOnly,
+                request.body(),
+                request.headers());
+    }
+
+
+    private void scheduleDispatch() {
+        if (_dispatchScheduled || _heldRequests.isEmpty()) {
+            return;
+        }
+        _dispatchScheduled = true;
+        ThreadUtil.runAsync(DISPATCH_INTERVAL_MS, TimeUnit.MILLISECONDS, () -> {
+            synchronized (this) {
+                _dispatchScheduled = false;
+            }
+            dispatch();
+        }).exceptionally(e -> {
+            LOG.error("Failed to release held requests.", e);
+            synchronized (this) {
+                _dispatchScheduled = false;
+            }
+            return null;
+        });
+    }
+
+
+    static HeldJobRequests selectJob(
+            DispatchPolicy policy,
+            Collection<HeldJobRequests> jobs,
+            Map<Long, Integer> heldCountByJob) {
+        Comparator<HeldJobRequests> comparator = switch (policy) {
+            case SHORTEST_REMAINING_WORK -> Comparator.comparingInt(
+                    j -> heldCountByJob.getOrDefault(j.jobId, 0));
+            case PRIORITY -> Comparator.comparingInt(j -> -j.priority);
+            default -> Comparator.comparingDouble(j -> j.virtualTime);
+        };
+        return jobs.stream()
+                .min(comparator.thenComparingLong(j -> j.arrival))
+                .orElseThrow();
+    }
+
+
+    private static double getMinVirtualTime(Collection<HeldJobRequests> jobs) {
+        // A job that starts sending requests to a queue that is already in use starts at the
+        // current virtual time, so it does not receive all of the capacity until it catches up
+        // with the jobs that have been using the queue.
+        return jobs.stream()
+                .mapToDouble(j -> j.virtualTime)
+                .min()
+                .orElse(0);
+    }
+
+
+    private record HeldRequest(Map<String, Object> headers, byte[] body) {
+    }
+
+
+    static class HeldJobRequests {
+        final long jobId;
+
+        final int priority;
+
+        final long arrival;
+
+        double virtualTime;
+
+        final Queue<HeldRequest> requests = new ArrayDeque<>();
+
+        HeldJobRequests(long jobId, int priority, long arrival, double virtualTime) {
+            this.jobId = jobId;
+            this.priority = priority;
+            this.arrival = arrival;
+            this.virtualTime = virtualTime;
+        }
+
+        double weight() {
+            // JMS priorities range from 0 to 9.
+            return priority + 1;
+        }
+    }
+}
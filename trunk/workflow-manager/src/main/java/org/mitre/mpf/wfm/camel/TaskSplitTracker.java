@@ -0,0 +1,156 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.camel;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.camel.Exchange;
+import org.mitre.mpf.wfm.buffers.DetectionProtobuf;
+import org.mitre.mpf.wfm.enums.MpfHeaders;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps track of the detection requests created by lazily evaluated splits. Since the number of
+ * requests is not known until the split has been fully consumed, the {@link MpfHeaders#SPLIT_SIZE}
+ * header can not be used to determine when all of the responses have been received. This class
+ * is also used to limit the number of outstanding requests for each split.
+ */
+@Component(TaskSplitTracker.REF)
+public class TaskSplitTracker {
+
+    public static final String REF = "taskSplitTracker";
+
+    private final Map<String, TrackedSplit> _splits = new ConcurrentHashMap<>();
+
+
+    public void startSplit(String correlationId) {
+        _splits.put(correlationId, new TrackedSplit());
+    }
+
+
+    public void onRequestCreated(String correlationId) {
+        var split = _splits.get(correlationId);
+        synchronized (split) {
+            split.numCreated++;
+        }
+    }
+
+
+    /**
+     * Called when the split will not produce any more requests.
+     */
+    public void onSplitComplete(String correlationId) {
+        var split = _splits.get(correlationId);
+        synchronized (split) {
+            split.splitSize = split.numCreated;
+        }
+        if (split.splitSize == 0) {
+            // There will not be any responses, so the split would never be removed otherwise.
+            _splits.remove(correlationId);
+        }
+    }
+
+
+    public void onResponse(Exchange exchange) {
+        if (exchange.getIn().getBody() instanceof DetectionProtobuf.DetectionResponse response
+                && response.getHasMoreChunks()) {
+            // Only the last part of a split response counts as the response to the request.
+            return;
+        }
+        var correlationId = exchange.getIn().getHeader(MpfHeaders.CORRELATION_ID, String.class);
+        var split = correlationId == null ? null : _splits.get(correlationId);
+        if (split == null) {
+            return;
+        }
+        synchronized (split) {
+            split.numReceived++;
+        }
+    }
+
+
+    /**
+     * Returns true when fewer than maxInFlight requests from the split are waiting for a response.
+     */
+    public boolean hasCapacity(String correlationId, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            return true;
+        }
+        var split = _splits.get(correlationId);
+        synchronized (split) {
+            return split.numCreated - split.numReceived < maxInFlight;
+        }
+    }
+
+
+    /**
+     * Used as the aggregator's completion size. Returns null while the split is still creating
+     * requests. Splits that are not tracked use the {@link MpfHeaders#SPLIT_SIZE} header.
+     */
+    public Integer getSplitSize(Exchange aggregatedExchange) {
+        var in = aggregatedExchange.getIn();
+        var correlationId = in.getHeader(MpfHeaders.CORRELATION_ID, String.class);
+        var split = correlationId == null ? null : _splits.get(correlationId);
+        if (split == null) {
+            return in.getHeader(MpfHeaders.SPLIT_SIZE, Integer.class);
+        }
+        Integer splitSize;
+        synchronized (split) {
+            splitSize = split.splitSize;
+        }
+        if (splitSize != null && aggregatedExchange.getProperty(
+                Exchange.AGGREGATED_SIZE, 0, Integer.class) >= splitSize) {
+            // The aggregation will complete now, so the split no longer needs to be tracked.
+            _splits.remove(correlationId);
+        }
+        return splitSize;
+    }
+
+
+    /**
+     * Returns the number of requests in the split if it is known, otherwise the number of
+     * requests created so far.
+     */
+    public int getEstimatedSplitSize(String correlationId) {
+        var split = _splits.get(correlationId);
+        if (split == null) {
+            return 0;
+        }
+        synchronized (split) {
+            return split.splitSize == null ? split.numCreated : split.splitSize;
+        }
+    }
+
+
+    private static class TrackedSplit {
+        int numCreated;
+
+        int numReceived;
+
+        Integer splitSize;
+    }
+}
@@ -30,6 +30,8 @@ import com.google.protobuf.TextFormat;
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
 import org.mitre.mpf.wfm.buffers.DetectionProtobuf;
+import org.mitre.mpf.wfm.enums.MpfHeaders;
+import org.mitre.mpf.wfm.util.MessageCompressor;
 
 /**
  * This class is used to create a simple detection response. It can be extended to provide a specific error status.
@@ -51,8 +53,11 @@ public abstract class BaseDetectionStatusProcessor implements Processor {
             TextFormat.merge((CharSequence)body, builder);
             detectionRequest = builder.build();
         } else {
-            detectionRequest = DetectionProtobuf.DetectionRequest.parseFrom((byte[])body);
+            detectionRequest = DetectionProtobuf.DetectionRequest.parseFrom(
+                    MessageCompressor.decompressIfNeeded(exchange.getIn(), (byte[]) body));
         }
+        // The response created below is not compressed.
+        exchange.getOut().removeHeader(MpfHeaders.COMPRESSION);
 
 
         // Create a simple response based on the request and indicate that the request was cancelled or there was an error.
@@ -43,6 +43,7 @@ import org.mitre.mpf.wfm.data.entities.transients.Track;
 import org.mitre.mpf.wfm.enums.IssueCodes;
 import org.mitre.mpf.wfm.enums.MpfConstants;
 import org.mitre.mpf.wfm.enums.MpfHeaders;
+import org.mitre.mpf.wfm.service.ComponentThroughputService;
 import org.mitre.mpf.wfm.service.TaskAnnotatorService;
 import org.mitre.mpf.wfm.util.*;
 import org.slf4j.Logger;
@@ -68,14 +69,18 @@ public class DetectionResponseProcessor
 
     private final MediaInspectionHelper _mediaInspectionHelper;
 
+    private final ComponentThroughputService _componentThroughputService;
+
     @Inject
     public DetectionResponseProcessor(AggregateJobPropertiesUtil aggregateJobPropertiesUtil,
                                       InProgressBatchJobsService inProgressJobs,
-                                      MediaInspectionHelper mediaInspectionHelper) {
+                                      MediaInspectionHelper mediaInspectionHelper,
+                                      ComponentThroughputService componentThroughputService) {
         super(inProgressJobs, DetectionProtobuf.DetectionResponse.class);
         _aggregateJobPropertiesUtil = aggregateJobPropertiesUtil;
         _inProgressJobs = inProgressJobs;
         _mediaInspectionHelper = mediaInspectionHelper;
+        _componentThroughputService = componentThroughputService;
     }
 
     @Override
@@ -85,7 +90,16 @@ public class DetectionResponseProcessor
         var job = _inProgressJobs.getJob(jobId);
         var action = job.getPipelineElements().getAction(
                 detectionResponse.getTaskIndex(), detectionResponse.getActionIndex());
-        addProcessingTime(jobId, action, headers);
+        // Responses from the segment cache were not produced by a component, so they have no
+        // processing time. Recording them would either report the time as missing or skew the
+        // component's throughput.
+        boolean isCacheHit = Boolean.TRUE.equals(headers.get(MpfHeaders.SEGMENT_CACHE_HIT));
+        if (!detectionResponse.getHasMoreChunks() && !isCacheHit) {
+            // Every part of a split response has the same processing time, so it is only
+            // recorded once.
+            addProcessingTime(jobId, action, headers);
+            recordThroughput(action, detectionResponse, headers);
+        }
 
         var media = job.getMedia(detectionResponse.getMediaId());
         if (media == null) {
@@ -147,6 +161,21 @@ public class DetectionResponseProcessor
         return null;
     }
 
+    private void recordThroughput(Action action,
+                                  DetectionProtobuf.DetectionResponse detectionResponse,
+                                  Map<String, Object> headers) {
+        if (detectionResponse.hasVideoResponse()
+                && detectionResponse.getError()
+                        == DetectionProtobuf.DetectionError.NO_DETECTION_ERROR
+                && headers.get(MpfHeaders.PROCESSING_TIME) instanceof Long processingTime) {
+            var videoResponse = detectionResponse.getVideoResponse();
+            _componentThroughputService.recordVideoSegment(
+                    action.algorithm(),
+                    videoResponse.getStopFrame() - videoResponse.getStartFrame() + 1,
+                    processingTime);
+        }
+    }
+
     private void processVideoResponse(
             long jobId,
             DetectionProtobuf.DetectionResponse detectionResponse,
@@ -197,13 +226,18 @@ public class DetectionResponseProcessor
             int stopOffsetTime  = frameTimeInfo.getTimeMsFromFrame(objectTrack.getStopFrame());
 
             try {
-                var detections = objectTrack.getFrameLocationsMap().entrySet()
-                        .stream()
-                        .filter(e -> qualityFilter.meetsThreshold(
-                                e.getValue().getConfidence(),
-                                e.getValue().getDetectionPropertiesMap(), true))
-                        .map(e -> toDetection(e.getKey(), e.getValue(), frameTimeInfo))
-                        .toList();
+                var detections = new ArrayList<Detection>();
+                Detection previousDetection = null;
+                for (var entry : objectTrack.getFrameLocationsMap().entrySet()) {
+                    if (qualityFilter.meetsThreshold(
+                            entry.getValue().getConfidence(),
+                            entry.getValue().getDetectionPropertiesMap(), true)) {
+                        previousDetection = toDetection(
+                                entry.getKey(), entry.getValue(), frameTimeInfo,
+                                previousDetection);
+                        detections.add(previousDetection);
+                    }
+                }
 
                 if (!detections.isEmpty()) {
                     Track track = new Track(
@@ -357,7 +391,24 @@ public class DetectionResponseProcessor
         String mediaLabel = getBasicMediaLabel(detectionResponse);
         log.debug("Response received for {}.", mediaLabel);
 
-        checkErrors(jobId, mediaLabel, detectionResponse, 0, 0, 0, 0);
+        // When a document is split in to multiple chunks, the chunk's position is used as the
+        // frame offset so that the tracks from each chunk remain in document order. When the
+        // document was split by page, the page numbers are used.
+        int startFrame = 0;
+        int stopFrame = 0;
+        if (genericResponse.hasDocumentRange()) {
+            var documentRange = genericResponse.getDocumentRange();
+            if (documentRange.hasPageRange()) {
+                startFrame = documentRange.getPageRange().getStartPage();
+                stopFrame = documentRange.getPageRange().getStopPage();
+            }
+            else {
+                startFrame = documentRange.getChunkIndex();
+                stopFrame = documentRange.getChunkIndex();
+            }
+        }
+
+        checkErrors(jobId, mediaLabel, detectionResponse, startFrame, stopFrame, 0, 0);
 
         // Begin iterating through the tracks that were found by the detector.
         boolean isMediaType = trackType.equals("MEDIA");
@@ -379,7 +430,7 @@ public class DetectionResponseProcessor
             }
 
             if (qualityFilter.meetsThreshold(objectTrack.getConfidence(), trackProperties, true))
-                processGenericTrack(jobId, detectionResponse, objectTrack,
+                processGenericTrack(jobId, detectionResponse, objectTrack, startFrame, stopFrame,
                                     trackProperties, annotatedTaskIndices, headers);
         }
     }
@@ -389,6 +440,8 @@ public class DetectionResponseProcessor
             long jobId,
             DetectionProtobuf.DetectionResponse detectionResponse,
             DetectionProtobuf.GenericTrack objectTrack,
+            int startFrame,
+            int stopFrame,
             Map<String, String> trackProperties,
             Collection<Integer> annotatedTaskIndices,
             Map<String, Object> headers) {
@@ -398,7 +451,7 @@ public class DetectionResponseProcessor
                 0,
                 0,
                 objectTrack.getConfidence(),
-                0,
+                startFrame,
                 0,
                 trackProperties);
 
@@ -407,8 +460,8 @@ public class DetectionResponseProcessor
                 detectionResponse.getMediaId(),
                 detectionResponse.getTaskIndex(),
                 detectionResponse.getActionIndex(),
-                0,
-                0,
+                startFrame,
+                stopFrame,
                 0,
                 0,
                 annotatedTaskIndices,
@@ -482,12 +535,31 @@ public class DetectionResponseProcessor
     private static Detection toDetection(
             int frame,
             DetectionProtobuf.ImageLocation imageLocation,
-            FrameTimeInfo timeInfo) {
+            FrameTimeInfo timeInfo,
+            Detection previousDetection) {
         int time = timeInfo.getTimeMsFromFrame(frame);
-        return toDetection(imageLocation, frame, time);
+        return toDetection(imageLocation, frame, time, previousDetection);
     }
 
     private static Detection toDetection(DetectionProtobuf.ImageLocation location, int frameNumber, int time) {
+        return toDetection(location, frameNumber, time, null);
+    }
+
+    /**
+     * Consecutive detections in a track usually have the same properties, for example, the same
+     * CLASSIFICATION in every frame. When the location's properties are equal to the previous
+     * detection's properties, the previous detection's map is passed to the new detection, which
+     * keeps it instead of making a copy. This way long tracks do not hold thousands of copies of
+     * the same map.
+     */
+    private static Detection toDetection(
+            DetectionProtobuf.ImageLocation location, int frameNumber, int time,
+            Detection previousDetection) {
+        Map<String, String> properties = location.getDetectionPropertiesMap();
+        if (previousDetection != null
+                && previousDetection.getDetectionProperties().equals(properties)) {
+            properties = previousDetection.getDetectionProperties();
+        }
         return new Detection(
                 location.getXLeftUpper(),
                 location.getYLeftUpper(),
@@ -496,7 +568,7 @@ public class DetectionResponseProcessor
                 location.getConfidence(),
                 frameNumber,
                 time,
-                location.getDetectionPropertiesMap());
+                properties);
     }
 
     private static String getBasicMediaLabel(DetectionProtobuf.DetectionResponse detectionResponse) {
@@ -27,11 +27,13 @@
 package org.mitre.mpf.wfm.camel.operations.detection;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -59,9 +61,13 @@ import org.mitre.mpf.wfm.segmenting.ImageMediaSegmenter;
 import org.mitre.mpf.wfm.segmenting.MediaSegmenter;
 import org.mitre.mpf.wfm.segmenting.SegmentingPlan;
 import org.mitre.mpf.wfm.segmenting.VideoMediaSegmenter;
+import org.mitre.mpf.wfm.service.ComponentThroughputService;
+import org.mitre.mpf.wfm.service.SegmentResultCacheService;
 import org.mitre.mpf.wfm.service.TaskAnnotatorService;
 import org.mitre.mpf.wfm.util.AggregateJobPropertiesUtil;
+import org.mitre.mpf.wfm.util.MediaRange;
 import org.mitre.mpf.wfm.util.TextUtils;
+import org.mitre.mpf.wfm.util.UserSpecifiedRangesUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -90,6 +96,12 @@ public class DetectionTaskSplitter {
 
     private final MediaSegmenter _defaultMediaSegmenter;
 
+    private final ComponentThroughputService _componentThroughputService;
+
+    private final SharedRequestContextWriter _sharedRequestContextWriter;
+
+    private final SegmentResultCacheService _segmentResultCacheService;
+
 
     @Inject
     public DetectionTaskSplitter(
@@ -100,7 +112,10 @@ public class DetectionTaskSplitter {
             @Named(ImageMediaSegmenter.REF) MediaSegmenter imageMediaSegmenter,
             @Named(VideoMediaSegmenter.REF) MediaSegmenter videoMediaSegmenter,
             @Named(AudioMediaSegmenter.REF) MediaSegmenter audioMediaSegmenter,
-            @Named(DefaultMediaSegmenter.REF) MediaSegmenter defaultMediaSegmenter) {
+            @Named(DefaultMediaSegmenter.REF) MediaSegmenter defaultMediaSegmenter,
+            ComponentThroughputService componentThroughputService,
+            SharedRequestContextWriter sharedRequestContextWriter,
+            SegmentResultCacheService segmentResultCacheService) {
         _camelContext = camelContext;
         _aggregateJobPropertiesUtil = aggregateJobPropertiesUtil;
         _inProgressBatchJobs = inProgressBatchJobs;
@@ -109,96 +124,118 @@ public class DetectionTaskSplitter {
         _videoMediaSegmenter = videoMediaSegmenter;
         _audioMediaSegmenter = audioMediaSegmenter;
         _defaultMediaSegmenter = defaultMediaSegmenter;
+        _componentThroughputService = componentThroughputService;
+        _sharedRequestContextWriter = sharedRequestContextWriter;
+        _segmentResultCacheService = segmentResultCacheService;
     }
 
 
     public List<Message> performSplit(BatchJob job, Task task) {
+        return streamSplit(job, task).toList();
+    }
+
+
+    /**
+     * Lazily creates the messages for the task. The messages for a piece of media are not created
+     * until the messages for the previous piece of media have been consumed, so the messages for
+     * a large job do not all need to be in memory at the same time.
+     */
+    public Stream<Message> streamSplit(BatchJob job, Task task) {
+        return job.getMedia()
+                .stream() // this may include derivative media
+                .flatMap(media -> createMessages(job, task, media).stream());
+    }
+
+
+    private List<Message> createMessages(BatchJob job, Task task, Media media) {
         List<Message> messages = new ArrayList<>();
+        try {
+            if (media.isFailed()) {
+                // If a media is in a failed state (it couldn't be retrieved, it couldn't be inspected, etc.), do nothing with it.
+                log.warn("Skipping media {}. It is in an error state.", media.getId());
+                return messages;
+            }
 
-        for (Media media : job.getMedia()) { // this may include derivative media
-            try {
-                if (media.isFailed()) {
-                    // If a media is in a failed state (it couldn't be retrieved, it couldn't be inspected, etc.), do nothing with it.
-                    log.warn("Skipping media {}. It is in an error state.", media.getId());
-                    continue;
-                }
+            int lastProcessedTaskForMedia = getLastProcessedTaskIndex(job, media);
+            boolean isFirstDetectionTaskForMedia = lastProcessedTaskForMedia == -1;
+
+            // If this is the first detection task in the pipeline, we should segment the entire media for detection.
+            // If this is not the first detection task, we should build segments based off of the previous tasks's
+            // tracks. Note that the MediaRanges created for these Tracks use the
+            // non-feed-forward version of MediaSegmenter.createRangesForTracks
+            SortedSet<Track> previousTracks;
+            if (isFirstDetectionTaskForMedia) {
+                previousTracks = Collections.emptySortedSet();
+            } else {
+                // Get the tracks for the last task that was processed for this media.
+                previousTracks = _inProgressBatchJobs.getTracks(
+                        job.getId(), media.getId(),
+                        lastProcessedTaskForMedia, 0);
+            }
 
-                int lastProcessedTaskForMedia = getLastProcessedTaskIndex(job, media);
-                boolean isFirstDetectionTaskForMedia = lastProcessedTaskForMedia == -1;
-
-                // If this is the first detection task in the pipeline, we should segment the entire media for detection.
-                // If this is not the first detection task, we should build segments based off of the previous tasks's
-                // tracks. Note that the MediaRanges created for these Tracks use the
-                // non-feed-forward version of MediaSegmenter.createRangesForTracks
-                SortedSet<Track> previousTracks;
-                if (isFirstDetectionTaskForMedia) {
-                    previousTracks = Collections.emptySortedSet();
-                } else {
-                    // Get the tracks for the last task that was processed for this media.
-                    previousTracks = _inProgressBatchJobs.getTracks(
-                            job.getId(), media.getId(),
-                            lastProcessedTaskForMedia, 0);
-                }
+            // Iterate through each of the actions and segment the media using the properties provided in that action.
+            for (int actionIndex = 0; actionIndex < task.actions().size(); actionIndex++) {
 
-                // Iterate through each of the actions and segment the media using the properties provided in that action.
-                for (int actionIndex = 0; actionIndex < task.actions().size(); actionIndex++) {
+                String actionName = task.actions().get(actionIndex);
+                Action action = job.getPipelineElements().getAction(actionName);
 
-                    String actionName = task.actions().get(actionIndex);
-                    Action action = job.getPipelineElements().getAction(actionName);
+                var combinedProperties = new HashMap<>(
+                        _aggregateJobPropertiesUtil.getPropertyMap(job, media, action));
 
-                    var combinedProperties = new HashMap<>(
-                            _aggregateJobPropertiesUtil.getPropertyMap(job, media, action));
+                if (!AggregateJobPropertiesUtil.actionAppliesToMedia(
+                        media, combinedProperties)) {
+                    continue;
+                }
 
-                    if (!AggregateJobPropertiesUtil.actionAppliesToMedia(
-                            media, combinedProperties)) {
-                        continue;
+                // Segmenting plan is only used by the VideoMediaSegmenter,
+                // so only create the DetectionContext to include the segmenting plan for jobs with video media.
+                SegmentingPlan segmentingPlan = null;
+                if (media.matchesType(MediaType.VIDEO)) {
+                    // Note that single-frame gifs are treated like videos, but have no native frame rate
+                    double fps = 1.0;
+                    String fpsFromMetadata = media.getMetadata("FPS");
+                    if (fpsFromMetadata != null) {
+                        fps = Double.valueOf(fpsFromMetadata);
                     }
 
-                    // Segmenting plan is only used by the VideoMediaSegmenter,
-                    // so only create the DetectionContext to include the segmenting plan for jobs with video media.
-                    SegmentingPlan segmentingPlan = null;
-                    if (media.matchesType(MediaType.VIDEO)) {
-                        // Note that single-frame gifs are treated like videos, but have no native frame rate
-                        double fps = 1.0;
-                        String fpsFromMetadata = media.getMetadata("FPS");
-                        if (fpsFromMetadata != null) {
-                            fps = Double.valueOf(fpsFromMetadata);
-                        }
-
-                        String calcframeInterval = _aggregateJobPropertiesUtil.calculateFrameInterval(
-                                action, job, media,
-                                job.getSystemPropertiesSnapshot().getSamplingInterval(),
-                                job.getSystemPropertiesSnapshot().getFrameRateCap(), fps);
-                        combinedProperties.put(MpfConstants.MEDIA_SAMPLING_INTERVAL_PROPERTY, calcframeInterval);
-
-                        segmentingPlan = createSegmentingPlan(
-                                job.getSystemPropertiesSnapshot(), combinedProperties, media, fps);
+                    String calcframeInterval = _aggregateJobPropertiesUtil.calculateFrameInterval(
+                            action, job, media,
+                            job.getSystemPropertiesSnapshot().getSamplingInterval(),
+                            job.getSystemPropertiesSnapshot().getFrameRateCap(), fps);
+                    combinedProperties.put(MpfConstants.MEDIA_SAMPLING_INTERVAL_PROPERTY, calcframeInterval);
+
+                    segmentingPlan = createSegmentingPlan(
+                            job.getSystemPropertiesSnapshot(), combinedProperties, media, fps);
+                    if (Boolean.parseBoolean(combinedProperties.get(
+                            MpfConstants.ADAPTIVE_SEGMENTING_PROPERTY))) {
+                        segmentingPlan = createAdaptiveSegmentingPlan(
+                                job, media, action, combinedProperties, segmentingPlan,
+                                isFirstDetectionTaskForMedia, previousTracks);
                     }
-
-                    DetectionContext detectionContext = new DetectionContext(
-                            job.getId(),
-                            job.getCurrentTaskIndex(),
-                            task.name(),
-                            actionIndex,
-                            action.name(),
-                            isFirstDetectionTaskForMedia,
-                            combinedProperties,
-                            previousTracks,
-                            segmentingPlan,
-                            combinedProperties.get(MpfConstants.QUALITY_SELECTION_PROPERTY));
-
-                    var detectionRequestMessages = createDetectionRequestMessages(
-                            job, media, action, detectionContext);
-                    messages.addAll(detectionRequestMessages);
-                    log.debug("Created {} work units for Media #{}.",
-                            detectionRequestMessages.size(), media.getId());
                 }
-            } catch (WfmProcessingException e) {
-                _inProgressBatchJobs.addError(job.getId(), media.getId(), IssueCodes.OTHER,
-                                             e.getMessage());
+
+                DetectionContext detectionContext = new DetectionContext(
+                        job.getId(),
+                        job.getCurrentTaskIndex(),
+                        task.name(),
+                        actionIndex,
+                        action.name(),
+                        isFirstDetectionTaskForMedia,
+                        combinedProperties,
+                        previousTracks,
+                        segmentingPlan,
+                        combinedProperties.get(MpfConstants.QUALITY_SELECTION_PROPERTY));
+
+                var detectionRequestMessages = createDetectionRequestMessages(
+                        job, media, action, detectionContext);
+                messages.addAll(detectionRequestMessages);
+                log.debug("Created {} work units for Media #{}.",
+                        detectionRequestMessages.size(), media.getId());
             }
+        } catch (WfmProcessingException e) {
+            _inProgressBatchJobs.addError(job.getId(), media.getId(), IssueCodes.OTHER,
+                                         e.getMessage());
         }
-
         return messages;
     }
 
@@ -210,15 +247,28 @@ public class DetectionTaskSplitter {
         if (requests.isEmpty()) {
             return List.of();
         }
+        // The cache keys are created before the shared request context is applied because the
+        // shared context removes the algorithm properties from the requests.
+        var algorithm = job.getPipelineElements().getAlgorithm(action.algorithm());
+        var cacheKeys = requests.stream()
+                .map(r -> _segmentResultCacheService.getCacheKey(media, algorithm, r))
+                .toList();
+        if (Boolean.parseBoolean(detectionContext.getAlgorithmProperties().get(
+                MpfConstants.SHARED_REQUEST_CONTEXT_PROPERTY))) {
+            requests = _sharedRequestContextWriter.useSharedContext(
+                    job.getId(), media, detectionContext, requests);
+        }
 
-        var actionType = job.getPipelineElements().getAlgorithm(action.algorithm())
-                .actionType();
-        var destination = "MPF.%s_%s_REQUEST".formatted(actionType, action.algorithm());
+        var destination = getRequestQueueName(job, action);
+        double speculativeExecutionMultiplier = getSpeculativeExecutionMultiplier(
+                detectionContext.getAlgorithmProperties());
         boolean needsBreadCrumb = _taskAnnotatorService.needsBreadCrumb(
                 job, media, detectionContext.getTaskIndex(), detectionContext.getActionIndex());
 
         var messages = new ArrayList<Message>(requests.size());
-        for (var request : requests) {
+        for (int i = 0; i < requests.size(); i++) {
+            var request = requests.get(i);
+            var cacheKey = cacheKeys.get(i);
             var message = new DefaultMessage(_camelContext);
             message.setHeader(MpfHeaders.JMS_DESTINATION, destination);
             message.setHeader(
@@ -230,6 +280,27 @@ public class DetectionTaskSplitter {
                 _taskAnnotatorService.addBreadCrumb(message, request.feedForwardTracks());
             }
             message.getHeaders().putAll(request.headers());
+
+            var cachedResponse = cacheKey.flatMap(
+                    k -> _segmentResultCacheService.getCachedResponse(k, request.protobuf()));
+            if (cachedResponse.isPresent()) {
+                // Send the cached response directly to the response route instead of sending
+                // the request to the component.
+                message.setHeader(
+                        MpfHeaders.JMS_DESTINATION,
+                        DetectionResponseRouteBuilder.JMS_DESTINATION);
+                message.setHeader(MpfHeaders.SEGMENT_CACHE_HIT, true);
+                message.setBody(cachedResponse.get());
+                messages.add(message);
+                continue;
+            }
+
+            cacheKey.ifPresent(k -> message.setHeader(MpfHeaders.SEGMENT_CACHE_KEY, k));
+            if (speculativeExecutionMultiplier > 0) {
+                message.setHeader(
+                        MpfHeaders.SPECULATIVE_EXECUTION_MULTIPLIER,
+                        speculativeExecutionMultiplier);
+            }
             message.setBody(request.protobuf());
             messages.add(message);
         }
@@ -237,6 +308,13 @@ public class DetectionTaskSplitter {
     }
 
 
+    private static String getRequestQueueName(BatchJob job, Action action) {
+        var actionType = job.getPipelineElements().getAlgorithm(action.algorithm())
+                .actionType();
+        return "MPF.%s_%s_REQUEST".formatted(actionType, action.algorithm());
+    }
+
+
     private MediaSegmenter getSegmenter(MediaType mediaType) {
         return switch (mediaType) {
             case IMAGE -> _imageMediaSegmenter;
@@ -291,19 +369,124 @@ public class DetectionTaskSplitter {
         if (segmentLengthSpecification.isBlank()) {
             segmentLengthSpecification = systemPropertiesSnapshot.getSegmentLengthSpecification();
         }
+        int keyframeTolerance = tryParseIntProperty(
+                MpfConstants.SEGMENT_KEYFRAME_TOLERANCE_PROPERTY, properties,
+                systemPropertiesSnapshot.getSegmentKeyframeTolerance());
         if (segmentLengthSpecification.equals("SECONDS")) {
             targetSegmentLength = (int) Math.floor(targetSegmentLength * mediaFPS);
             minSegmentLength = (int) Math.floor(minSegmentLength * mediaFPS);
+            if (keyframeTolerance > 0) {
+                keyframeTolerance = (int) Math.floor(keyframeTolerance * mediaFPS);
+            }
         }
 
         return new SegmentingPlan(
             targetSegmentLength,
             minSegmentLength,
             samplingInterval,
-            minGapBetweenSegments);
+            minGapBetweenSegments,
+            keyframeTolerance);
     }
 
 
+    // Replaces the configured target segment length with one that gives each component instance
+    // roughly ADAPTIVE_SEGMENTS_PER_CONSUMER segments, unless that would make the segments so short
+    // that the algorithm would finish each one in less than ADAPTIVE_MIN_SEGMENT_PROCESSING_TIME.
+    // The consumers are shared by all of the job's video media, so each piece of media only gets
+    // its share of them. The configured minimum segment length is always respected.
+    private SegmentingPlan createAdaptiveSegmentingPlan(
+            BatchJob job, Media media, Action action, Map<String, String> properties,
+            SegmentingPlan configuredPlan, boolean isFirstDetectionTask,
+            SortedSet<Track> previousTracks) {
+        if (media.getLength().isEmpty() || media.getLength().getAsInt() <= 0) {
+            return configuredPlan;
+        }
+        int frameCount = getFrameCountToProcess(media, isFirstDetectionTask, previousTracks);
+        if (frameCount <= 0) {
+            return configuredPlan;
+        }
+
+        var systemPropertiesSnapshot = job.getSystemPropertiesSnapshot();
+        int segmentsPerConsumer = Math.max(1, tryParseIntProperty(
+                MpfConstants.ADAPTIVE_SEGMENTS_PER_CONSUMER_PROPERTY, properties,
+                systemPropertiesSnapshot.getAdaptiveSegmentsPerConsumer()));
+        int minProcessingSeconds = tryParseIntProperty(
+                MpfConstants.ADAPTIVE_MIN_SEGMENT_PROCESSING_TIME_PROPERTY, properties,
+                systemPropertiesSnapshot.getAdaptiveMinSegmentProcessingSeconds());
+
+        var queueName = getRequestQueueName(job, action);
+        int consumerCount = Math.max(1, _componentThroughputService.getConsumerCount(queueName));
+        long videoMediaCount = Math.max(1, job.getMedia().stream()
+                .filter(m -> !m.isFailed() && m.matchesType(MediaType.VIDEO))
+                .count());
+        double consumersForMedia = consumerCount / (double) videoMediaCount;
+        int targetSegmentLength = (int) Math.ceil(
+                frameCount / (consumersForMedia * segmentsPerConsumer));
+
+        var framesPerSecond = _componentThroughputService.getFramesPerSecond(action.algorithm());
+        if (framesPerSecond.isPresent() && minProcessingSeconds > 0) {
+            int minLengthForOverhead
+                    = (int) Math.ceil(framesPerSecond.getAsDouble() * minProcessingSeconds);
+            targetSegmentLength = Math.max(targetSegmentLength, minLengthForOverhead);
+        }
+        targetSegmentLength = Math.max(
+                targetSegmentLength,
+                Math.max(configuredPlan.getMinSegmentLength(),
+                         configuredPlan.getSamplingInterval()));
+
+        log.info("Adaptive segmenting selected a target segment length of {} for media {} " +
+                         "based on {} frames to process, {} consumers on {} shared by {} " +
+                         "video media, and an estimated {} FPS.",
+                 targetSegmentLength, media.getId(), frameCount, consumerCount, queueName,
+                 videoMediaCount,
+                 framesPerSecond.isPresent() ? framesPerSecond.getAsDouble() : "unknown");
+
+        return new SegmentingPlan(
+                targetSegmentLength,
+                configuredPlan.getMinSegmentLength(),
+                configuredPlan.getSamplingInterval(),
+                configuredPlan.getMinGapBetweenSegments(),
+                configuredPlan.getKeyframeTolerance());
+    }
+
+
+    // Counts the frames the segmenter will actually cover: the user specified frame and time
+    // ranges for the first detection task, or the frames spanned by the previous task's tracks.
+    private static int getFrameCountToProcess(
+            Media media, boolean isFirstDetectionTask, SortedSet<Track> previousTracks) {
+        Collection<MediaRange> ranges = isFirstDetectionTask
+                ? UserSpecifiedRangesUtil.getCombinedRanges(media)
+                : MediaSegmenter.createRangesForTracks(previousTracks);
+
+        int frameCount = 0;
+        int coveredThrough = -1;
+        for (var range : ranges.stream().sorted().toList()) {
+            int begin = Math.max(range.getStartInclusive(), coveredThrough + 1);
+            if (begin <= range.getEndInclusive()) {
+                frameCount += range.getEndInclusive() - begin + 1;
+                coveredThrough = range.getEndInclusive();
+            }
+        }
+        return frameCount;
+    }
+
+
+    private static double getSpeculativeExecutionMultiplier(Map<String, String> properties) {
+        var multiplier = properties.get(MpfConstants.SPECULATIVE_EXECUTION_MULTIPLIER_PROPERTY);
+        if (multiplier == null || multiplier.isBlank()) {
+            return -1;
+        }
+        try {
+            return Double.parseDouble(multiplier);
+        }
+        catch (NumberFormatException exception) {
+            log.warn("Attempted to parse {} value of '{}' but encountered an exception. "
+                             + "Speculative execution will be disabled.",
+                     MpfConstants.SPECULATIVE_EXECUTION_MULTIPLIER_PROPERTY, multiplier, exception);
+            return -1;
+        }
+    }
+
     private static int tryParseIntProperty(String propertyName, Map<String, String> properties,
                                            int defaultValue) {
         try {
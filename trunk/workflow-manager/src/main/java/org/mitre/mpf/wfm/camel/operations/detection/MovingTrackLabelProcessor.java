@@ -44,13 +44,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
-import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
-import static java.util.stream.Collectors.toCollection;
-
 @Component(MovingTrackLabelProcessor.REF)
 public class MovingTrackLabelProcessor extends WfmProcessor {
     public static final String REF = "MovingTrackLabelProcessor";
@@ -123,50 +121,74 @@ public class MovingTrackLabelProcessor extends WfmProcessor {
     private static SortedSet<Track> updateMovingTracks(
             boolean movingTracksOnly, double maxIou, int minMovingDetections,
             Collection<Track> originalTracks) {
-        if (movingTracksOnly) {
-            return originalTracks.stream()
-                    .map(t -> processTrack(maxIou, minMovingDetections, t))
-                    .filter(t -> Boolean.parseBoolean(t.getTrackProperties().get("MOVING")))
-                    .collect(toCollection(TreeSet::new));
-        }
-        else {
-            return originalTracks.stream()
-                    .map(t -> processTrack(maxIou, minMovingDetections, t))
-                    .collect(toCollection(TreeSet::new));
+        var result = new TreeSet<Track>();
+        for (Track track : originalTracks) {
+            var labeledTrack = processTrack(maxIou, minMovingDetections, movingTracksOnly, track);
+            if (labeledTrack != null) {
+                result.add(labeledTrack);
+            }
         }
+        return result;
     }
 
 
-    private static Track processTrack(double maxIou, int minMovingDetections, Track track) {
+    // Returns null when movingTracksOnly is true and the track is not moving.
+    private static Track processTrack(double maxIou, int minMovingDetections,
+                                      boolean movingTracksOnly, Track track) {
+        var detections = track.getDetections();
+        int trackSize = detections.size();
+        if (movingTracksOnly && trackSize < minMovingDetections) {
+            return null;
+        }
+
         double avgX = 0, avgY = 0, avgWidth = 0, avgHeight = 0;
-        for (Detection detection : track.getDetections()) {
+        for (Detection detection : detections) {
             avgX += detection.getX();
             avgY += detection.getY();
             avgWidth += detection.getWidth();
             avgHeight += detection.getHeight();
         }
 
-        int trackSize = track.getDetections().size();
         avgX /= trackSize;
         avgY /= trackSize;
         avgWidth /= trackSize;
         avgHeight /= trackSize;
-        var averageBox = new Rectangle2D.Double(avgX, avgY, avgWidth, avgHeight);
 
+        boolean[] movingDetections = new boolean[trackSize];
         int numMovingDetections = 0;
-        var newDetectionsBuilder = ImmutableSortedSet.<Detection>naturalOrder();
-        for (Detection detection : track.getDetections()) {
-            var isMoving = isMovingDetection(averageBox, maxIou, detection);
-            newDetectionsBuilder.add(addMotionLabel(isMoving, detection));
+        int detectionIndex = 0;
+        for (Detection detection : detections) {
+            boolean isMoving = isMovingDetection(
+                    avgX, avgY, avgWidth, avgHeight, maxIou, detection);
+            movingDetections[detectionIndex++] = isMoving;
             if (isMoving) {
                 numMovingDetections++;
             }
+            else if (movingTracksOnly
+                    && numMovingDetections + trackSize - detectionIndex < minMovingDetections) {
+                // The remaining detections can not make the track moving, so it will be dropped.
+                return null;
+            }
+        }
+
+        boolean detectionsChanged = false;
+        var newDetections = new ArrayList<Detection>(trackSize);
+        detectionIndex = 0;
+        for (Detection detection : detections) {
+            var labeledDetection = addMotionLabel(movingDetections[detectionIndex++], detection);
+            detectionsChanged |= labeledDetection != detection;
+            newDetections.add(labeledDetection);
         }
 
         boolean trackIsMoving = numMovingDetections >= minMovingDetections;
+        String trackLabel = trackIsMoving ? "TRUE" : "FALSE";
+        if (!detectionsChanged && trackLabel.equals(track.getTrackProperties().get("MOVING"))) {
+            return track;
+        }
+
         var newTrackProperties = ImmutableSortedMap.<String, String>naturalOrder()
                 .putAll(Maps.filterKeys(track.getTrackProperties(), key -> !key.equals("MOVING")))
-                .put("MOVING", trackIsMoving ? "TRUE" : "FALSE")
+                .put("MOVING", trackLabel)
                 .build();
 
         return new Track(
@@ -180,7 +202,7 @@ public class MovingTrackLabelProcessor extends WfmProcessor {
                 track.getEndOffsetTimeInclusive(),
                 track.getAnnotatedTaskIndices(),
                 track.getConfidence(),
-                newDetectionsBuilder.build(),
+                detectionsChanged ? ImmutableSortedSet.copyOf(newDetections) : detections,
                 newTrackProperties,
                 track.getExemplarPolicy(),
                 track.getQualitySelectionProperty(),
@@ -189,34 +211,41 @@ public class MovingTrackLabelProcessor extends WfmProcessor {
     }
 
 
-    private static boolean isMovingDetection(Rectangle2D.Double averageBox,
-                                             double maxIou, Detection detection) {
-        var detectionBox = new Rectangle2D.Double(detection.getX(), detection.getY(),
-                                                  detection.getWidth(), detection.getHeight());
-        if (averageBox.isEmpty() || detectionBox.isEmpty()) {
+    private static boolean isMovingDetection(double avgX, double avgY, double avgWidth,
+                                             double avgHeight, double maxIou,
+                                             Detection detection) {
+        double detectionWidth = detection.getWidth();
+        double detectionHeight = detection.getHeight();
+        if (avgWidth <= 0 || avgHeight <= 0 || detectionWidth <= 0 || detectionHeight <= 0) {
             return false;
         }
 
-        double iou;
-        var intersection = averageBox.createIntersection(detectionBox);
-        if (intersection.isEmpty()) {
-            iou = 0;
-        }
-        else {
-            double intersectionArea = intersection.getHeight() * intersection.getWidth();
-            double avgBoxArea = averageBox.getHeight() * averageBox.getWidth();
-            double detectionArea = detection.getHeight() * detection.getWidth();
-            double unionArea = avgBoxArea + detectionArea - intersectionArea;
-            iou = intersectionArea / unionArea;
+        double intersectionWidth
+                = Math.min(avgX + avgWidth, detection.getX() + detectionWidth)
+                - Math.max(avgX, detection.getX());
+        double intersectionHeight
+                = Math.min(avgY + avgHeight, detection.getY() + detectionHeight)
+                - Math.max(avgY, detection.getY());
+        if (intersectionWidth <= 0 || intersectionHeight <= 0) {
+            return 0 <= maxIou;
         }
-        return iou <= maxIou;
+
+        double intersectionArea = intersectionWidth * intersectionHeight;
+        double unionArea = avgWidth * avgHeight + detectionWidth * detectionHeight
+                - intersectionArea;
+        return intersectionArea / unionArea <= maxIou;
     }
 
 
     private static Detection addMotionLabel(boolean isMoving, Detection detection) {
+        String label = isMoving ? "TRUE" : "FALSE";
+        if (label.equals(detection.getDetectionProperties().get("MOVING"))) {
+            return detection;
+        }
+
         var newDetectionProperties = ImmutableSortedMap.<String, String>naturalOrder()
                 .putAll(Maps.filterKeys(detection.getDetectionProperties(), key -> !key.equals("MOVING")))
-                .put("MOVING", isMoving ? "TRUE" : "FALSE")
+                .put("MOVING", label)
                 .build();
 
         return new Detection(
@@ -0,0 +1,125 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.camel.operations.detection;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.mitre.mpf.wfm.buffers.DetectionProtobuf.RequestContext;
+import org.mitre.mpf.wfm.data.entities.persistent.Media;
+import org.mitre.mpf.wfm.segmenting.DetectionRequest;
+import org.mitre.mpf.wfm.util.PropertiesUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the algorithm properties and media metadata out of each detection request and in to a
+ * {@link RequestContext} file in the shared directory. When a media is split in to many
+ * segments, every segment would otherwise carry an identical copy of those maps.
+ */
+@Component
+public class SharedRequestContextWriter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SharedRequestContextWriter.class);
+
+    private final PropertiesUtil _propertiesUtil;
+
+    @Inject
+    SharedRequestContextWriter(PropertiesUtil propertiesUtil) {
+        _propertiesUtil = propertiesUtil;
+    }
+
+
+    public List<DetectionRequest> useSharedContext(
+            long jobId, Media media, DetectionContext context, List<DetectionRequest> requests) {
+        if (requests.size() < 2) {
+            return requests;
+        }
+        try {
+            var contextIds = new HashMap<RequestContext, String>();
+            var updatedRequests = new ArrayList<DetectionRequest>(requests.size());
+            for (var request : requests) {
+                var protobuf = request.protobuf();
+                var requestContext = RequestContext.newBuilder()
+                        .putAllAlgorithmProperties(protobuf.getAlgorithmPropertiesMap())
+                        .putAllMediaMetadata(protobuf.getMediaMetadataMap())
+                        .build();
+
+                var contextId = contextIds.get(requestContext);
+                if (contextId == null) {
+                    contextId = "%d-%d-%d-%d-%d".formatted(
+                            jobId, media.getId(), context.getTaskIndex(),
+                            context.getActionIndex(), contextIds.size());
+                    writeContext(getContextPath(jobId, contextId), requestContext);
+                    contextIds.put(requestContext, contextId);
+                }
+
+                var updatedProtobuf = protobuf.toBuilder()
+                        .clearAlgorithmProperties()
+                        .clearMediaMetadata()
+                        .setRequestContextId(contextId)
+                        .setRequestContextPath(getContextPath(jobId, contextId).toString())
+                        .build();
+                updatedRequests.add(new DetectionRequest(
+                        updatedProtobuf, request.feedForwardTracks(), request.headers()));
+            }
+            LOG.info("Created {} shared request context(s) for the {} requests for media {}.",
+                     contextIds.size(), requests.size(), media.getId());
+            return updatedRequests;
+        }
+        catch (IOException e) {
+            LOG.warn("Failed to write shared request context for media {}. " +
+                             "The full context will be included in each request.",
+                     media.getId(), e);
+            return requests;
+        }
+    }
+
+
+    private Path getContextPath(long jobId, String contextId) {
+        return _propertiesUtil.getJobRequestContextDirectory(jobId)
+                .toPath()
+                .resolve(contextId + ".pb")
+                .toAbsolutePath();
+    }
+
+
+    private static void writeContext(Path path, RequestContext requestContext)
+            throws IOException {
+        Files.createDirectories(path.getParent());
+        try (var outputStream = Files.newOutputStream(path)) {
+            requestContext.writeTo(outputStream);
+        }
+    }
+}
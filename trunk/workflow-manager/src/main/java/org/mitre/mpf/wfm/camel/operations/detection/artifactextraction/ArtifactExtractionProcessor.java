@@ -28,6 +28,7 @@ package org.mitre.mpf.wfm.camel.operations.detection.artifactextraction;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.Map;
 import java.util.Optional;
 import java.util.SortedSet;
 import java.util.stream.Stream;
@@ -128,22 +129,25 @@ public class ArtifactExtractionProcessor extends WfmProcessor {
         trackAndFrameToUri.cellSet().stream()
                 .forEach(e -> request.getExtractionsMap().get(e.getColumnKey()).get(e.getRowKey()).setArtifactExtractionStatus("COMPLETED"));
 
-        if (request.getCroppingFlag()) {
-            for (Table.Cell<Integer, Integer, URI> entry : trackAndFrameToUri.cellSet()) {
-                URI uri = entry.getValue();
-                jobTracks.stream().filter(t -> t.getArtifactExtractionTrackIndex() == entry.getRowKey())
-                        .flatMap(t -> t.getDetections().stream())
-                        .filter(d -> d.getMediaOffsetFrame() == entry.getColumnKey())
-                        .forEach(d -> setStatus(d, uri));
+        // Look up each detection's frame in the extraction results rather than searching all of
+        // the detections for each extracted frame.
+        // When we are not cropping, the track number is a don't care; it is set to 0 in the frame
+        // extraction code.
+        Map<Integer, URI> uncroppedFrameToUri = request.getCroppingFlag()
+                ? null
+                : trackAndFrameToUri.row(0);
+        for (Track track : jobTracks) {
+            Map<Integer, URI> frameToUri = uncroppedFrameToUri != null
+                    ? uncroppedFrameToUri
+                    : trackAndFrameToUri.row(track.getArtifactExtractionTrackIndex());
+            if (frameToUri.isEmpty()) {
+                continue;
             }
-        }
-        else {
-            for (Integer frame : trackAndFrameToUri.columnKeySet()) {
-                // When we are not cropping, the track number is a don't care; it is set to 0 in the frame extraction code.
-                URI uri = trackAndFrameToUri.get(0, frame);
-                jobTracks.stream().flatMap(t -> t.getDetections().stream())
-                        .filter(d -> d.getMediaOffsetFrame() == frame)
-                        .forEach(d -> setStatus(d, uri));
+            for (Detection detection : track.getDetections()) {
+                URI uri = frameToUri.get(detection.getMediaOffsetFrame());
+                if (uri != null) {
+                    setStatus(detection, uri);
+                }
             }
         }
 
@@ -30,6 +30,8 @@ import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
 import org.mitre.mpf.wfm.buffers.Markup;
 import org.mitre.mpf.wfm.enums.MpfConstants;
+import org.mitre.mpf.wfm.enums.MpfHeaders;
+import org.mitre.mpf.wfm.util.MessageCompressor;
 import org.springframework.stereotype.Component;
 
 @Component(MarkupCancellationProcessor.REF)
@@ -41,7 +43,12 @@ public class MarkupCancellationProcessor implements Processor {
         // Copy the headers from the incoming message to the outgoing message.
         exchange.getOut().getHeaders().putAll(exchange.getIn().getHeaders());
 
-        Markup.MarkupRequest request = Markup.MarkupRequest.parseFrom(exchange.getIn().getBody(byte[].class));
+        // The response created below is not compressed.
+        exchange.getOut().removeHeader(MpfHeaders.COMPRESSION);
+
+        Markup.MarkupRequest request = Markup.MarkupRequest.parseFrom(
+                MessageCompressor.decompressIfNeeded(
+                        exchange.getIn(), exchange.getIn().getBody(byte[].class)));
 
         exchange.getOut().setBody(
             Markup.MarkupResponse.newBuilder()
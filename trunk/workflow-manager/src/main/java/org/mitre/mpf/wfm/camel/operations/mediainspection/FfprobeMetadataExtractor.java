@@ -395,7 +395,7 @@ public class FfprobeMetadataExtractor {
         CompletableFuture<String> stdErrorFuture;
         try {
             ffprobeProcess = new ProcessBuilder(command).start();
-            stdErrorFuture = ThreadUtil.callAsync(
+            stdErrorFuture = ThreadUtil.callAsyncUnbounded(
                     () -> collectStdError(ffprobeProcess, getNumStdErrLines(job, media)));
             ffprobeProcess.getOutputStream().close();
         }
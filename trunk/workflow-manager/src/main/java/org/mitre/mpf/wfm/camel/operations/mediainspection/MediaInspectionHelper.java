@@ -143,15 +143,19 @@ public class MediaInspectionHelper {
 
         try {
             Path localPath = media.getLocalPath();
-            try {
-                LOG.debug("Calculating hash for '{}'.", localPath);
-                sha = getSha256(localPath);
-            }
-            catch (IOException ioe) {
-                String errorMessage = "Could not calculate the SHA-256 hash for the file due to IOException: "
-                        + ioe;
-                _inProgressJobs.addError(jobId, mediaId, IssueCodes.ARTIFACT_EXTRACTION, errorMessage);
-                LOG.error(errorMessage, ioe);
+            // The hash of data URI media is calculated when the media is written to disk.
+            sha = media.getSha256().orElse(null);
+            if (sha == null) {
+                try {
+                    LOG.debug("Calculating hash for '{}'.", localPath);
+                    sha = getSha256(localPath);
+                }
+                catch (IOException ioe) {
+                    String errorMessage = "Could not calculate the SHA-256 hash for the file due to IOException: "
+                            + ioe;
+                    _inProgressJobs.addError(jobId, mediaId, IssueCodes.ARTIFACT_EXTRACTION, errorMessage);
+                    LOG.error(errorMessage, ioe);
+                }
             }
 
             mimeType = media.getMimeType().orElseGet(() -> _ioUtils.getMimeType(localPath));
@@ -294,6 +298,44 @@ public class MediaInspectionHelper {
         return frameCount;
     }
 
+
+    /**
+     * Rebuilds the frame time information for video media in a job that was restored from a
+     * checkpoint. Frame time information is not serialized with the job. The rest of the
+     * inspection results are, so unlike {@link #inspectMedia(Media, long)} this does not
+     * modify the media metadata or report any issues.
+     */
+    public void restoreFrameTimeInfo(Media media, long jobId) {
+        if (media.isFailed() || !media.matchesType(MediaType.VIDEO)
+                || media.getLength().orElse(-1) <= 0) {
+            return;
+        }
+        long mediaId = media.getId();
+        Path localPath = media.getLocalPath();
+        if (Files.exists(localPath)) {
+            try {
+                var job = _inProgressJobs.getJob(jobId);
+                var ffprobeMetadata = _ffprobeMetadataExtactor.getAudioVideoMetadata(job, media);
+                if (ffprobeMetadata.video().isPresent()) {
+                    var frameTimeInfo = FrameTimeInfoBuilder.getFrameTimeInfo(
+                            localPath, ffprobeMetadata.video().get(),
+                            media.getMimeType().orElse(null));
+                    _inProgressJobs.addFrameTimeInfo(jobId, mediaId, frameTimeInfo);
+                    return;
+                }
+            }
+            catch (Exception e) {
+                LOG.warn("Failed to get the frame times for media {}: {}", mediaId, e.toString());
+            }
+        }
+        LOG.warn("Using the frame rate from the media metadata to estimate the frame times "
+                         + "for media {}.", mediaId);
+        _inProgressJobs.addFrameTimeInfo(
+                jobId, mediaId,
+                MediaMetadataValidator.getFrameTimeInfo(
+                        media.getMetadata(), media.getLength().getAsInt()));
+    }
+
     private int inspectImage(BatchJob job, Media media, Map<String, String> mediaMetadata)
             throws IOException, TikaException, SAXException {
         String mimeType = mediaMetadata.get("MIME_TYPE");
@@ -265,7 +265,7 @@ public class MediaMetadataValidator {
     }
 
 
-    private static FrameTimeInfo getFrameTimeInfo(
+    static FrameTimeInfo getFrameTimeInfo(
             Map<String, String> mediaMetadata, int frameCount) {
         boolean hasConstantFrameRate = Boolean.parseBoolean(
                 mediaMetadata.get("HAS_CONSTANT_FRAME_RATE"));
@@ -27,11 +27,16 @@
 package org.mitre.mpf.wfm.camel.operations.mediaretrieval;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.CharBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Path;
+import java.security.DigestOutputStream;
 
 import org.apache.camel.Exchange;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.mitre.mpf.wfm.WfmProcessingException;
 import org.mitre.mpf.wfm.camel.WfmProcessor;
 import org.mitre.mpf.wfm.data.InProgressBatchJobsService;
@@ -45,7 +50,6 @@ import org.springframework.stereotype.Component;
 
 import com.google.common.io.BaseEncoding;
 import com.google.common.io.CharSource;
-import com.google.common.io.MoreFiles;
 
 
 @Component(StoreDataUriContentProcessor.REF)
@@ -94,25 +98,41 @@ public class StoreDataUriContentProcessor extends WfmProcessor {
     // data:[<content-type>];,<percent-encoded-data>
     // data:[<content-type>];base64,<b64-encoded-data>
     private void saveDataUriContent(long jobId, Media media) throws IOException {
+        var uri = media.getUri().get();
         // Data URIs must be percent encoded. getSchemeSpecificPart() handles decoding the percent
-        // encoded data.
-        var uriNoScheme = media.getUri().get().getSchemeSpecificPart();
-        var uriSections = uriNoScheme.split(",", 2);
-        if (uriSections.length < 2) {
+        // encoded data, but it creates a copy of the whole URI. Base64 encoded data does not
+        // normally contain percent encoded characters, so in that case the raw data can be used
+        // directly.
+        String uriNoScheme = uri.getRawSchemeSpecificPart();
+        if (uriNoScheme.indexOf('%') >= 0) {
+            uriNoScheme = uri.getSchemeSpecificPart();
+        }
+        int commaPos = uriNoScheme.indexOf(',');
+        if (commaPos < 0) {
             throw new WfmProcessingException(
                 "The data URI is invalid because it does not contain a comma.");
         }
-        var metadataSection = uriSections[0];
-        var dataSection = uriSections[1];
+        var metadataSection = uriNoScheme.substring(0, commaPos);
+        // Wrap the data section instead of using substring to avoid copying it.
+        var dataSection = CharBuffer.wrap(uriNoScheme, commaPos + 1, uriNoScheme.length());
 
         boolean isBase64Encoded = metadataSection.endsWith(";base64")
                 || metadataSection.equals("base64");
-        if (isBase64Encoded) {
-            decodeAndStore(dataSection, media.getLocalPath());
-        }
-        else {
-            Files.writeString(media.getLocalPath(), dataSection, StandardCharsets.UTF_8);
+        var digest = DigestUtils.getSha256Digest();
+        try (var outputStream = new DigestOutputStream(
+                Files.newOutputStream(media.getLocalPath()), digest)) {
+            if (isBase64Encoded) {
+                decodeAndStore(dataSection, outputStream);
+            }
+            else {
+                var writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+                CharSource.wrap(dataSection).copyTo(writer);
+                writer.flush();
+            }
         }
+        // The hash is calculated while the file is written so that media inspection does not need
+        // to read the file again.
+        _inProgressJobs.setSha256(jobId, media.getId(), Hex.encodeHexString(digest.digest()));
 
         int semiColonPos = metadataSection.indexOf(';');
         if (semiColonPos > 0) {
@@ -121,11 +141,11 @@ public class StoreDataUriContentProcessor extends WfmProcessor {
         }
     }
 
-    private static void decodeAndStore(String base64Content, Path storagePath) throws IOException {
-        try {
-            BaseEncoding.base64()
-                    .decodingSource(CharSource.wrap(base64Content))
-                    .copyTo(MoreFiles.asByteSink(storagePath));
+    private static void decodeAndStore(CharSequence base64Content, OutputStream outputStream)
+            throws IOException {
+        try (var decodingStream = BaseEncoding.base64()
+                .decodingStream(CharSource.wrap(base64Content).openStream())) {
+            decodingStream.transferTo(outputStream);
         }
         catch (BaseEncoding.DecodingException e) {
             throw new WfmProcessingException(
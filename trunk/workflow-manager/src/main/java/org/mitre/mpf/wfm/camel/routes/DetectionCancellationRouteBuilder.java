@@ -37,7 +37,8 @@ import org.springframework.stereotype.Component;
 public class DetectionCancellationRouteBuilder extends RouteBuilder {
 	private static final Logger log = LoggerFactory.getLogger(DetectionCancellationRouteBuilder.class);
 
-	public static final String ENTRY_POINT = "activemq:MPF.CANCELLED_DETECTIONS";
+	public static final String JMS_DESTINATION = "MPF.CANCELLED_DETECTIONS";
+	public static final String ENTRY_POINT = "activemq:" + JMS_DESTINATION;
 	public static final String EXIT_POINT = DetectionResponseRouteBuilder.ENTRY_POINT;
 	public static final String ROUTE_ID = "Detection Cancellation Route";
 
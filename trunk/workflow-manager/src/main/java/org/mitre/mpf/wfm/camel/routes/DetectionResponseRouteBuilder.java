@@ -30,6 +30,10 @@ import org.apache.camel.ExchangePattern;
 import org.apache.camel.builder.RouteBuilder;
 import org.mitre.mpf.wfm.buffers.DetectionProtobuf;
 import org.mitre.mpf.wfm.camel.BroadcastEnabledAggregator;
+import org.mitre.mpf.wfm.camel.ChunkedResponseTracker;
+import org.mitre.mpf.wfm.camel.DefaultTaskSplitter;
+import org.mitre.mpf.wfm.camel.RequestDispatcher;
+import org.mitre.mpf.wfm.camel.TaskSplitTracker;
 import org.mitre.mpf.wfm.camel.WfmAggregator;
 import org.mitre.mpf.wfm.camel.operations.CommitUpdatedTracksProcessor;
 import org.mitre.mpf.wfm.camel.operations.MediaSelectorsOutputFileProcessorImpl;
@@ -42,6 +46,8 @@ import org.mitre.mpf.wfm.camel.operations.detection.trackmerging.TrackMergingPro
 import org.mitre.mpf.wfm.camel.operations.detection.transformation.DetectionTransformationProcessor;
 import org.mitre.mpf.wfm.enums.MpfEndpoints;
 import org.mitre.mpf.wfm.enums.MpfHeaders;
+import org.mitre.mpf.wfm.service.SegmentResultCacheService;
+import org.mitre.mpf.wfm.util.JmsUtils;
 import org.mitre.mpf.wfm.util.ProtobufDataFormatFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -97,14 +103,27 @@ public class DetectionResponseRouteBuilder extends RouteBuilder {
 		from(entryPoint)
 			.routeId(routeId)
 			.setExchangePattern(ExchangePattern.InOnly)
+			.filter(method(JmsUtils.REF, "isResponseForFinishedCancelledJob"))
+				.stop() // The job was cancelled and has already completed, so the response is not needed.
+			.end()
 			.unmarshal(protobufDataFormatFactory.create(DetectionProtobuf.DetectionResponse.parser())) // Unpack the protobuf response.
+			.filter(method(ChunkedResponseTracker.REF, "isFirstResponse").isEqualTo(false))
+				.stop() // Discard duplicate responses for requests that were sent more than once.
+			.end()
+			.bean(RequestDispatcher.REF, "dispatch") // A request queue may now have room for more requests.
+			.bean(TaskSplitTracker.REF, "onResponse") // Allows more requests to be created for lazily evaluated splits.
+			.bean(DefaultTaskSplitter.REF, "resumeSplit") // Sends more requests when the split was waiting for this response.
+			.bean(SegmentResultCacheService.REF, "storeResponse") // Store the response so later jobs can reuse it.
 			.process(DetectionResponseProcessor.REF) // Run the response through the response processor.
 			.choice()
 				.when(header(MpfHeaders.UNSOLICITED).isEqualTo(true))
 					.to(MpfEndpoints.UNSOLICITED_MESSAGES)
 				.otherwise()
+					.filter(method(ChunkedResponseTracker.REF, "isWaitingForMoreChunks"))
+						.stop() // Only the last part of a split response to be processed is aggregated.
+					.end()
 					.aggregate(header(MpfHeaders.CORRELATION_ID), aggregator)
-                        .completionSize(header(MpfHeaders.SPLIT_SIZE))
+                        .completionSize(method(TaskSplitTracker.REF, "getSplitSize"))
 					.process(TrackMergingProcessor.REF) // Track merging is trivial. If it becomes a heavy lift, put in a splitter/aggregator to divide the work.
 					.process(MovingTrackLabelProcessor.REF) // Detect and flag moving tracks. Remove stationary tracks if requested by job.
 					.process(DetectionTransformationProcessor.REF)
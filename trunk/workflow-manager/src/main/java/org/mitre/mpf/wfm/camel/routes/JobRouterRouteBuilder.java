@@ -26,12 +26,17 @@
 
 package org.mitre.mpf.wfm.camel.routes;
 
+import static org.apache.camel.builder.PredicateBuilder.or;
+
 import org.apache.camel.ExchangePattern;
 import org.apache.camel.builder.RouteBuilder;
 import org.mitre.mpf.wfm.camel.BeginTaskProcessor;
 import org.mitre.mpf.wfm.camel.DefaultTaskSplitter;
 import org.mitre.mpf.wfm.camel.JobCompleteProcessorImpl;
+import org.mitre.mpf.wfm.camel.RequestDispatcher;
 import org.mitre.mpf.wfm.enums.MpfHeaders;
+import org.mitre.mpf.wfm.util.JmsUtils;
+import org.mitre.mpf.wfm.util.MessageCompressor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -46,6 +51,11 @@ public class JobRouterRouteBuilder extends RouteBuilder {
 	public static final String ENTRY_POINT = "activemq:MPF.JOB_ROUTER";
 	public static final String ROUTE_ID = "Job Router Route";
 
+	// Sends a single request created by DefaultTaskSplitter. Detection splits that were parked
+	// because they had too many requests in flight send the rest of their requests here from
+	// the detection response route.
+	public static final String REQUEST_SENDER = "direct:SEND_TASK_REQUEST";
+
 	private final String entryPoint, routeId;
 
 	public JobRouterRouteBuilder() {
@@ -75,14 +85,34 @@ public class JobRouterRouteBuilder extends RouteBuilder {
             .split(method(DefaultTaskSplitter.REF, "split"))
                 .parallelProcessing()
                 .streaming()
-                .marshal().protobuf()
-                // Splitter will set the "CamelJmsDestinationName" header to
-                // specify the destination.
-                // Adapted from: https://camel.apache.org/components/3.20.x/jms-component.html#_reuse_endpoint_and_send_to_different_destinations_computed_at_runtime
-                .to("activemq:queue:dummy")
+                .to(REQUEST_SENDER)
             .end()
             .filter(exchangeProperty(MpfHeaders.EMPTY_SPLIT))
                 .to(entryPoint)
             .end();
+
+		from(REQUEST_SENDER)
+			.routeId(routeId + " Request Sender")
+			.setExchangePattern(ExchangePattern.InOnly)
+            .marshal().protobuf()
+            .bean(JmsUtils.REF, "redirectCancelledRequest")
+            .bean(MessageCompressor.REF, "compressIfLarge")
+            .choice()
+                .when(or(header(MpfHeaders.SEGMENT_CACHE_HIT).isEqualTo(true),
+                         header(MpfHeaders.CANCELLED).isEqualTo(true)))
+                    // The message contains a cached response, or it is a request for a
+                    // cancelled job that will be converted to a cancellation response, so
+                    // it does not need to wait for room in a component request queue.
+                    .to("activemq:queue:dummy")
+                .when(method(RequestDispatcher.REF, "isEnabled"))
+                    // The dispatcher holds on to the request until there is room for it in the
+                    // request queue.
+                    .process(RequestDispatcher.REF)
+                .otherwise()
+                    // Splitter will set the "CamelJmsDestinationName" header to
+                    // specify the destination.
+                    // Adapted from: https://camel.apache.org/components/3.20.x/jms-component.html#_reuse_endpoint_and_send_to_different_destinations_computed_at_runtime
+                    .to("activemq:queue:dummy")
+            .end();
 	}
 }
@@ -84,6 +84,7 @@ import org.mitre.mpf.wfm.util.ThreadUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -177,6 +178,19 @@ public class InProgressBatchJobsService {
     }
 
 
+    public synchronized BatchJob restoreJob(BatchJob job) {
+        if (_jobs.containsKey(job.getId())) {
+            throw new IllegalArgumentException(
+                    String.format("Job with id %s already exists.", job.getId()));
+        }
+        LOG.info("Restoring batch job {} at task index {}.", job.getId(),
+                 job.getCurrentTaskIndex());
+        _jobs.put(job.getId(), (BatchJobImpl) job);
+        _resultsAvailableFutures.put(job.getId(), ThreadUtil.newFuture());
+        return job;
+    }
+
+
     public synchronized BatchJob getJob(long jobId) {
         return getJobImpl(jobId);
     }
@@ -235,6 +249,9 @@ public class InProgressBatchJobsService {
             }
         }
 
+        FileSystemUtils.deleteRecursively(_propertiesUtil.getJobRequestContextDirectory(jobId));
+        deleteCheckpoint(jobId);
+
         // Clean up derivative media directory for this job in case any media was moved to remote storage.
         boolean hasDerivativeMedia = job.getMedia().stream().anyMatch(Media::isDerivative);
         if (hasDerivativeMedia) {
@@ -256,10 +273,24 @@ public class InProgressBatchJobsService {
         if (!job.isCancelled()) {
             LOG.info("Marking job {} as cancelled.", jobId);
             setJobStatus(jobId, job.getStatus().onCancel());
+            // A cancelled job must not be resumed if the Workflow Manager restarts before the
+            // job finishes cancelling.
+            deleteCheckpoint(jobId);
         }
         return job.isCancelled();
     }
 
+    private void deleteCheckpoint(long jobId) {
+        try {
+            FileSystemUtils.deleteRecursively(_propertiesUtil.getJobCheckpointDirectory(jobId));
+        }
+        catch (IOException e) {
+            LOG.warn(String.format(
+                    "Failed to delete the checkpoint for job %s - it must be manually deleted.",
+                    jobId), e);
+        }
+    }
+
     public synchronized SortedSet<Track> getTracks(
             long jobId, long mediaId, int taskIndex, int actionIndex) {
         return _redis.getTracks(jobId, mediaId, taskIndex, actionIndex);
@@ -541,6 +572,10 @@ public class InProgressBatchJobsService {
         getMediaImpl(jobId, mediaId).setMimeType(mimeType);
     }
 
+    public synchronized void setSha256(long jobId, long mediaId, String sha256) {
+        getMediaImpl(jobId, mediaId).setSha256(sha256);
+    }
+
 
     public synchronized void addConvertedMediaPath(long jobId, long mediaId,
                                                    Path convertedMediaPath) {
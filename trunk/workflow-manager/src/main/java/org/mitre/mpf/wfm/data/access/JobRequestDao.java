@@ -30,17 +30,22 @@ import org.mitre.mpf.rest.api.AllJobsStatisticsModel;
 import org.mitre.mpf.wfm.data.entities.persistent.JobRequest;
 import org.mitre.mpf.wfm.enums.BatchJobStatusType;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface JobRequestDao extends JpaDao<JobRequest> {
 
-    public void cancelJobsInNonTerminalState();
+    public void cancelJobsInNonTerminalState(Collection<Long> excludedJobIds);
 
     public List<JobRequest> findByPage(int pageSize, int offset, String searchTerm, String sortColumn,
                                        String sortOrderDirection);
 
     public long getNextId();
 
+    public List<Long> getNextIds(int count);
+
+    public void persistNew(Collection<JobRequest> jobRequests);
+
     public void newJobCreated();
 
     public long estimateNumberOfJobs();
@@ -33,6 +33,8 @@ import static java.util.stream.Collectors.toList;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -72,6 +74,10 @@ import org.springframework.transaction.annotation.Transactional;
 public class HibernateJobRequestDaoImpl extends AbstractHibernateDao<JobRequest> implements JobRequestDao {
     private static final Logger LOG = LoggerFactory.getLogger(HibernateJobRequestDaoImpl.class);
 
+    // Much smaller than hibernate.jdbc.batch_size, which is larger than the maximum number of
+    // jobs in a bulk submission.
+    private static final int PERSIST_NEW_FLUSH_INTERVAL = 500;
+
     private final JobStatusBroadcaster _jobStatusBroadcaster;
 
     private final AtomicLong _jobCount = new AtomicLong(0);
@@ -108,14 +114,21 @@ public class HibernateJobRequestDaoImpl extends AbstractHibernateDao<JobRequest>
 
 
     @Override
-    public void cancelJobsInNonTerminalState() {
-        var update = getCriteriaBuilder().createCriteriaUpdate(JobRequest.class);
+    public void cancelJobsInNonTerminalState(Collection<Long> excludedJobIds) {
+        var cb = getCriteriaBuilder();
+        var update = cb.createCriteriaUpdate(JobRequest.class);
         var root = update.from(JobRequest.class);
 
         var nonTerminalStatuses = BatchJobStatusType.getNonTerminalStatuses();
         update.set("status", BatchJobStatusType.CANCELLED_BY_SHUTDOWN)
-                .set("timeCompleted", Instant.now())
-                .where(root.get("status").in(nonTerminalStatuses));
+                .set("timeCompleted", Instant.now());
+        if (excludedJobIds.isEmpty()) {
+            update.where(root.get("status").in(nonTerminalStatuses));
+        }
+        else {
+            update.where(root.get("status").in(nonTerminalStatuses),
+                         cb.not(root.get("id").in(excludedJobIds)));
+        }
 
         int numRowsUpdated = executeUpdate(update);
         if (numRowsUpdated > 0) {
@@ -192,6 +205,50 @@ public class HibernateJobRequestDaoImpl extends AbstractHibernateDao<JobRequest>
     }
 
 
+    @Override
+    public List<Long> getNextIds(int count) {
+        if (count <= 0) {
+            return List.of();
+        }
+        // Gets the whole block of ids in one round trip instead of calling getNextId() once
+        // per job.
+        return getCurrentSession().doReturningWork(connection -> {
+            var queryString = String.format(
+                    "SELECT nextval('%s') FROM generate_series(1, ?)", JOB_ID_SEQUENCE_NAME);
+            try (PreparedStatement preparedStatement = connection.prepareStatement(queryString)) {
+                preparedStatement.setInt(1, count);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    var ids = new ArrayList<Long>(count);
+                    while (resultSet.next()) {
+                        ids.add(resultSet.getLong(1));
+                    }
+                    return ids;
+                }
+            }
+        });
+    }
+
+
+    @Override
+    public void persistNew(Collection<JobRequest> jobRequests) {
+        // Unlike persist(), which uses merge(), this does not need to select each row before
+        // inserting it, so Hibernate can send the inserts to the database in JDBC batches.
+        // The session is periodically flushed and cleared so that it does not hold on to every
+        // entity, including the serialized job JSON, until the end of the transaction.
+        var session = getCurrentSession();
+        int count = 0;
+        for (var jobRequest : jobRequests) {
+            session.persist(jobRequest);
+            count++;
+            if (count % PERSIST_NEW_FLUSH_INTERVAL == 0) {
+                session.flush();
+                session.clear();
+            }
+        }
+        session.flush();
+    }
+
+
     @Override
     public void updateStatus(long jobId, BatchJobStatusType status) {
         var cb = getCriteriaBuilder();
@@ -0,0 +1,72 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.data.entities.persistent;
+
+import java.net.URI;
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * Maps a job configuration hash to the output object of the job that most recently completed
+ * with that configuration.
+ */
+@Entity
+public class DbJobResult {
+    @Id
+    private String jobConfigHash;
+    public String getJobConfigHash() { return jobConfigHash; }
+
+
+    private long jobId;
+    public long getJobId() { return jobId; }
+
+
+    @Column(nullable = false)
+    private URI outputObjectUri;
+    public URI getOutputObjectUri() { return outputObjectUri; }
+
+
+    @Column(nullable = false)
+    private Instant timeCompleted;
+    public Instant getTimeCompleted() { return timeCompleted; }
+
+
+    // Hibernate requires a no-arg constructor.
+    public DbJobResult() {
+    }
+
+    public DbJobResult(
+            String jobConfigHash, long jobId, URI outputObjectUri, Instant timeCompleted) {
+        this.jobConfigHash = jobConfigHash;
+        this.jobId = jobId;
+        this.outputObjectUri = outputObjectUri;
+        this.timeCompleted = timeCompleted;
+    }
+}
@@ -99,6 +99,18 @@ public class SystemPropertiesSnapshot {
         return _properties.get("detection.segment.length.specification");
     }
 
+    public int getSegmentKeyframeTolerance() {
+        return Integer.parseInt(_properties.get("detection.segment.keyframe.tolerance"));
+    }
+
+    public int getAdaptiveSegmentsPerConsumer() {
+        return Integer.parseInt(_properties.get("detection.segment.adaptive.segments.per.consumer"));
+    }
+
+    public int getAdaptiveMinSegmentProcessingSeconds() {
+        return Integer.parseInt(_properties.get("detection.segment.adaptive.min.processing.seconds"));
+    }
+
     public boolean isTrackMerging() {
         return Boolean.parseBoolean(_properties.get("detection.video.track.merging.enabled"));
     }
@@ -31,6 +31,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableSortedMap;
 import org.mitre.mpf.interop.util.CompareUtils;
 import org.mitre.mpf.wfm.enums.ArtifactExtractionStatus;
+import org.mitre.mpf.wfm.util.StringInterner;
 import org.mitre.mpf.wfm.util.TextUtils;
 
 import java.util.*;
@@ -71,6 +72,38 @@ public class Detection implements Comparable<Detection> {
 	private final ImmutableSortedMap<String,String> _detectionProperties;
 	public ImmutableSortedMap<String,String> getDetectionProperties() { return _detectionProperties; }
 
+	/**
+	 * Returns the value of the named detection property as a double, or negative infinity when
+	 * the property is missing or is not a number. Quality selection compares the same property
+	 * many times while sorting, so the most recently parsed value is cached.
+	 */
+	public double getNumericProperty(String propertyName) {
+		var parsed = _parsedProperty;
+		if (parsed == null || !parsed.name().equals(propertyName)) {
+			parsed = new ParsedProperty(propertyName, parseProperty(propertyName));
+			_parsedProperty = parsed;
+		}
+		return parsed.value();
+	}
+
+	private double parseProperty(String propertyName) {
+		var value = _detectionProperties.get(propertyName);
+		if (value == null) {
+			return Double.NEGATIVE_INFINITY;
+		}
+		try {
+			return Double.parseDouble(value);
+		}
+		catch (NumberFormatException e) {
+			return Double.NEGATIVE_INFINITY;
+		}
+	}
+
+	private record ParsedProperty(String name, double value) { }
+
+	private volatile ParsedProperty _parsedProperty;
+
+
 	private String _artifactPath;
 	public String getArtifactPath() { return _artifactPath; }
 	public void setArtifactPath(String artifactPath) { _artifactPath = artifactPath; }
@@ -98,7 +131,7 @@ public class Detection implements Comparable<Detection> {
 		_confidence = confidence;
 		_mediaOffsetFrame = mediaOffsetFrame;
 		_mediaOffsetTime = mediaOffsetTime;
-		_detectionProperties = ImmutableSortedMap.copyOf(detectionProperties);
+		_detectionProperties = StringInterner.internedCopy(detectionProperties);
 	}
 
 	@Override
@@ -33,6 +33,7 @@ import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
 import org.mitre.mpf.interop.util.CompareUtils;
 import org.mitre.mpf.wfm.util.ExemplarPolicyUtil;
+import org.mitre.mpf.wfm.util.StringInterner;
 
 import java.util.*;
 
@@ -104,10 +105,25 @@ public class Track implements Comparable<Track> {
     private final ImmutableSortedSet<Detection> _detections;
     public ImmutableSortedSet<Detection> getDetections() { return _detections; }
 
-    /** The detection with the highest confidence in the track. */
-    private final Detection _exemplar;
+    /**
+     * The detection selected by the exemplar policy. It is not selected until it is first
+     * requested because tracks are often replaced before their exemplar is used.
+     */
+    private volatile Detection _exemplar;
     @JsonIgnore
-    public Detection getExemplar() { return _exemplar; }
+    public Detection getExemplar() {
+        var exemplar = _exemplar;
+        if (exemplar == null) {
+            exemplar = ExemplarPolicyUtil.getExemplar(
+                    _exemplarPolicy,
+                    _qualitySelectionProperty,
+                    _startOffsetFrameInclusive,
+                    _endOffsetFrameInclusive,
+                    _detections);
+            _exemplar = exemplar;
+        }
+        return exemplar;
+    }
 
     private final String _exemplarPolicy;
     public String getExemplarPolicy() { return _exemplarPolicy; }
@@ -155,33 +171,40 @@ public class Track implements Comparable<Track> {
         _annotatedTaskIndices = ImmutableSortedSet.copyOf(annotatedTaskIndices);
         _confidence = confidence;
         _detections = ImmutableSortedSet.copyOf(detections);
-        _trackProperties = ImmutableSortedMap.copyOf(trackProperties);
+        _trackProperties = StringInterner.internedCopy(trackProperties);
         _exemplarPolicy = exemplarPolicy;
         _qualitySelectionProperty = qualitySelectionProperty;
         _selectorId = selectorId;
         _selectedInput = selectedInput;
-        _exemplar = ExemplarPolicyUtil.getExemplar(
-                    _exemplarPolicy,
-                    _qualitySelectionProperty,
-                    _startOffsetFrameInclusive,
-                    _endOffsetFrameInclusive,
-                    _detections);
     }
 
 
+    // Zero means the hash code has not been computed yet. The fields used to compute the hash
+    // code are immutable, so it is safe to cache it.
+    private int _hashCode;
 
     @Override
     public int hashCode() {
-        return Objects.hash(
-                _jobId, _mediaId, _taskIndex, _actionIndex, _startOffsetFrameInclusive,
-                _endOffsetFrameInclusive, _startOffsetTimeInclusive, _endOffsetTimeInclusive,
-                _annotatedTaskIndices, _confidence, _selectorId, _selectedInput, _trackProperties,
-                _exemplar, _detections);
+        int hashCode = _hashCode;
+        if (hashCode == 0) {
+            // The exemplar is not included because it is determined by the detections.
+            hashCode = Objects.hash(
+                    _jobId, _mediaId, _taskIndex, _actionIndex, _startOffsetFrameInclusive,
+                    _endOffsetFrameInclusive, _startOffsetTimeInclusive, _endOffsetTimeInclusive,
+                    _annotatedTaskIndices, _confidence, _selectorId, _selectedInput,
+                    _trackProperties, _detections);
+            _hashCode = hashCode;
+        }
+        return hashCode;
     }
 
     @Override
     public boolean equals(Object obj) {
-        return obj instanceof Track && compareTo((Track) obj) == 0;
+        // Tracks with different hash codes can not be equal, so the full comparison can be
+        // skipped in that case.
+        return obj instanceof Track other
+                && hashCode() == other.hashCode()
+                && compareTo(other) == 0;
     }
 
 
@@ -0,0 +1,42 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.enums;
+
+/** Determines the order in which requests from concurrent jobs are sent to the component request queues. */
+public enum DispatchPolicy {
+    /** Requests are sent to the request queues as soon as a task is split. */
+    NONE,
+
+    /** Each job receives a share of a request queue's capacity proportional to its priority. */
+    FAIR_SHARE,
+
+    /** Requests from the job with the fewest unsent requests are sent first. */
+    SHORTEST_REMAINING_WORK,
+
+    /** Requests from the job with the highest priority are sent first. */
+    PRIORITY
+}
@@ -38,6 +38,14 @@ public class MpfConstants {
             MINIMUM_SEGMENT_LENGTH_PROPERTY = "MIN_SEGMENT_LENGTH",
             VFR_MINIMUM_SEGMENT_LENGTH_PROPERTY = "VFR_MIN_SEGMENT_LENGTH",
             SEGMENT_LENGTH_SPECIFICATION = "SEGMENT_LENGTH_SPECIFICATION",
+            SEGMENT_KEYFRAME_TOLERANCE_PROPERTY = "SEGMENT_KEYFRAME_TOLERANCE",
+            ADAPTIVE_SEGMENTING_PROPERTY = "ADAPTIVE_SEGMENTING",
+            ADAPTIVE_SEGMENTS_PER_CONSUMER_PROPERTY = "ADAPTIVE_SEGMENTS_PER_CONSUMER",
+            ADAPTIVE_MIN_SEGMENT_PROCESSING_TIME_PROPERTY = "ADAPTIVE_MIN_SEGMENT_PROCESSING_TIME",
+            SHARED_REQUEST_CONTEXT_PROPERTY = "SHARED_REQUEST_CONTEXT",
+            SPECULATIVE_EXECUTION_MULTIPLIER_PROPERTY = "SPECULATIVE_EXECUTION_MULTIPLIER",
+            TARGET_DOCUMENT_CHUNK_BYTES = "TARGET_DOCUMENT_CHUNK_BYTES",
+            TARGET_DOCUMENT_CHUNK_PAGES = "TARGET_DOCUMENT_CHUNK_PAGES",
             MERGE_TRACKS_PROPERTY = "MERGE_TRACKS",
             MIN_GAP_BETWEEN_TRACKS = "MIN_GAP_BETWEEN_TRACKS",
             MIN_TRACK_LENGTH = "MIN_TRACK_LENGTH",
@@ -90,6 +98,7 @@ public class MpfConstants {
             IS_DERIVATIVE_MEDIA = "IS_DERIVATIVE_MEDIA",
             TIES_DB_URL = "TIES_DB_URL",
             SKIP_TIES_DB_CHECK = "SKIP_TIES_DB_CHECK",
+            SKIP_RESULT_CACHE_CHECK = "SKIP_RESULT_CACHE_CHECK",
             MARKUP_ANIMATION_ENABLED = "MARKUP_ANIMATION_ENABLED",
             MARKUP_TEXT_LABEL_MAX_LENGTH = "MARKUP_TEXT_LABEL_MAX_LENGTH",
             SKIP_MEDIA_INSPECTION = "SKIP_MEDIA_INSPECTION",
@@ -45,14 +45,25 @@ public class MpfHeaders {
         JMS_DESTINATION = "CamelJmsDestinationName",
 
 		SPLIT_SIZE = "SplitSize",
+		SPLIT_INDEX = "SplitIndex",
 		SPLITTING_ERROR = "JobSplitError",
 
 		UNSOLICITED = "Unsolicited",
 
 		OUTPUT_OBJECT_URI_FROM_TIES_DB = "OUTPUT_OBJECT_URI_FROM_TIES_DB",
+		OUTPUT_OBJECT_URI_FROM_RESULT_CACHE = "OUTPUT_OBJECT_URI_FROM_RESULT_CACHE",
 
         CANCELLED = "CANCELLED",
 
+        SPECULATIVE_EXECUTION_MULTIPLIER = "SpeculativeExecutionMultiplier",
+
+        SEGMENT_CACHE_KEY = "SegmentCacheKey",
+        SEGMENT_CACHE_HIT = "SegmentCacheHit",
+
+        RESPONSE_CHUNK_SET_ID = "ResponseChunkSetId",
+
+        COMPRESSION = "Compression",
+
         MEDIA_SELECTOR_ID = "MediaSelectorId",
         SELECTED_TEXT_CONTENT = "SelectedTextContent";
 
@@ -26,13 +26,23 @@
 
 package org.mitre.mpf.wfm.segmenting;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.OptionalInt;
 
 import javax.inject.Inject;
 
+import org.apache.pdfbox.Loader;
+import org.mitre.mpf.wfm.buffers.DetectionProtobuf.DocumentRange;
 import org.mitre.mpf.wfm.camel.operations.detection.DetectionContext;
 import org.mitre.mpf.wfm.data.entities.persistent.Media;
 import org.mitre.mpf.wfm.data.entities.transients.Track;
+import org.mitre.mpf.wfm.enums.MpfConstants;
 import org.mitre.mpf.wfm.service.MediaSelectorsSegmenter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -76,6 +86,14 @@ public class DefaultMediaSegmenter implements MediaSegmenter {
                     .toList();
         }
         else {
+            var documentRanges = createDocumentRanges(media, context);
+            if (documentRanges.size() > 1) {
+                log.info("Media {} will be split into {} chunks.",
+                         media.getId(), documentRanges.size());
+                return documentRanges.stream()
+                        .map(r -> createDocumentRangeRequest(r, media, context))
+                        .toList();
+            }
             var pbDetectionRequest = MediaSegmenter.initializeRequest(media, context);
             pbDetectionRequest.getGenericRequestBuilder();
             return List.of(new DetectionRequest(pbDetectionRequest.build()));
@@ -91,6 +109,158 @@ public class DefaultMediaSegmenter implements MediaSegmenter {
     }
 
 
+    private static List<DocumentRange> createDocumentRanges(
+            Media media, DetectionContext context) {
+        int targetChunkPages = parseIntProperty(
+                context, MpfConstants.TARGET_DOCUMENT_CHUNK_PAGES);
+        boolean isPdf = media.getMimeType()
+                .filter(mt -> mt.equalsIgnoreCase("application/pdf"))
+                .isPresent();
+        if (targetChunkPages > 0 && isPdf) {
+            var pageCount = getPdfPageCount(media);
+            if (pageCount.isPresent()) {
+                return createPageRanges(pageCount.getAsInt(), targetChunkPages);
+            }
+        }
+
+        int targetChunkBytes = parseIntProperty(
+                context, MpfConstants.TARGET_DOCUMENT_CHUNK_BYTES);
+        boolean isText = media.getMimeType()
+                .filter(mt -> mt.toLowerCase().startsWith("text/"))
+                .isPresent();
+        if (targetChunkBytes > 0 && isText) {
+            try {
+                return createByteRanges(
+                        getLineAlignedOffsets(media.getProcessingPath(), targetChunkBytes));
+            }
+            catch (IOException e) {
+                log.warn("Failed to determine line boundaries for media {}. " +
+                                 "It will be processed as a single chunk.", media.getId(), e);
+            }
+        }
+        return List.of();
+    }
+
+
+    private static OptionalInt getPdfPageCount(Media media) {
+        // Only the cross-reference table and the page tree are read. The page contents are not
+        // parsed.
+        try (var document = Loader.loadPDF(media.getProcessingPath().toFile())) {
+            return OptionalInt.of(document.getNumberOfPages());
+        }
+        catch (Exception e) {
+            log.warn("Failed to get the page count for media {}. " +
+                             "It will be processed as a single chunk: {}", media.getId(), e.toString());
+            return OptionalInt.empty();
+        }
+    }
+
+
+    private static List<DocumentRange> createPageRanges(int pageCount, int targetChunkPages) {
+        var ranges = new ArrayList<DocumentRange>();
+        for (int start = 0; start < pageCount; start += targetChunkPages) {
+            int stop = Math.min(start + targetChunkPages, pageCount) - 1;
+            ranges.add(DocumentRange.newBuilder()
+                    .setChunkIndex(ranges.size())
+                    .setPageRange(DocumentRange.PageRange.newBuilder()
+                            .setStartPage(start)
+                            .setStopPage(stop))
+                    .build());
+        }
+        return ranges;
+    }
+
+
+    private static List<DocumentRange> createByteRanges(List<Long> offsets) {
+        var ranges = new ArrayList<DocumentRange>(offsets.size() - 1);
+        for (int i = 0; i < offsets.size() - 1; i++) {
+            ranges.add(DocumentRange.newBuilder()
+                    .setChunkIndex(i)
+                    .setByteRange(DocumentRange.ByteRange.newBuilder()
+                            .setStartOffset(offsets.get(i))
+                            .setStopOffset(offsets.get(i + 1)))
+                    .build());
+        }
+        return ranges;
+    }
+
+
+    /**
+     * Splits a text file in to chunks of approximately targetChunkSize bytes. Each chunk boundary
+     * is moved forward to the start of the next line so that lines are never split across chunks.
+     * Only newline bytes are considered, so this is safe for UTF-8 and other ASCII compatible
+     * encodings.
+     *
+     * @return The sorted list of chunk boundaries. The first element is always 0 and the last
+     *         element is always the file size.
+     */
+    public static List<Long> getLineAlignedOffsets(Path path, long targetChunkSize)
+            throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            var buffer = ByteBuffer.allocate(8192);
+            var offsets = new ArrayList<Long>();
+            offsets.add(0L);
+            long nextCandidate = targetChunkSize;
+            while (nextCandidate < size) {
+                long lineStart = findNextLineStart(channel, nextCandidate, size, buffer);
+                if (lineStart >= size) {
+                    break;
+                }
+                offsets.add(lineStart);
+                nextCandidate = lineStart + targetChunkSize;
+            }
+            offsets.add(size);
+            return offsets;
+        }
+    }
+
+
+    private static long findNextLineStart(
+            FileChannel channel, long position, long size, ByteBuffer buffer)
+            throws IOException {
+        while (position < size) {
+            buffer.clear();
+            int numRead = channel.read(buffer, position);
+            if (numRead <= 0) {
+                return size;
+            }
+            for (int i = 0; i < numRead; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += numRead;
+        }
+        return size;
+    }
+
+
+    private static int parseIntProperty(DetectionContext context, String propertyName) {
+        var value = context.getAlgorithmProperties().get(propertyName);
+        if (value == null || value.isBlank()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(value.strip());
+        }
+        catch (NumberFormatException e) {
+            log.warn("Expected {} to be an integer, but it was \"{}\". " +
+                             "The media will not be split.", propertyName, value);
+            return -1;
+        }
+    }
+
+
+    private static DetectionRequest createDocumentRangeRequest(
+            DocumentRange documentRange, Media media, DetectionContext context) {
+        var pbDetectionRequest = MediaSegmenter.initializeRequest(media, context);
+        pbDetectionRequest.getGenericRequestBuilder()
+                .setDocumentRange(documentRange);
+        return new DetectionRequest(pbDetectionRequest.build());
+    }
+
+
     private static DetectionRequest createFeedForwardRequest(
             Track track, Media media, DetectionContext ctx) {
         var pbDetectionRequest = MediaSegmenter.initializeRequest(media, ctx);
@@ -43,6 +43,10 @@ public class SegmentingPlan {
 	private int minGapBetweenSegments;
 	public int getMinGapBetweenSegments() { return minGapBetweenSegments; }
 
+	/** The maximum number of frames a boundary between two segments may be moved so that the later segment starts on a keyframe. Negative values disable keyframe alignment. */
+	private int keyframeTolerance;
+	public int getKeyframeTolerance() { return keyframeTolerance; }
+
 	/**
 	 * Creates a new instance using the provided parameters.
 	 * @param targetSegmentLength The preferred length of a segment. This must be at least 1.
@@ -51,15 +55,30 @@ public class SegmentingPlan {
 	 * @param minGapBetweenSegments The minimum gap between any two segments which must be strictly greater than the sampling interval.
 	 */
 	public SegmentingPlan(int targetSegmentLength, int minSegmentLength, int samplingInterval, int minGapBetweenSegments) {
+		this(targetSegmentLength, minSegmentLength, samplingInterval, minGapBetweenSegments, -1);
+	}
+
+	/**
+	 * Creates a new instance using the provided parameters.
+	 * @param targetSegmentLength The preferred length of a segment. This must be at least 1.
+	 * @param minSegmentLength The minimum length of a segment clamped to the range [1, targetSegmentLength].
+	 * @param samplingInterval The interval at which the media was sampled clamped to the range [1, targetSegmentLength].
+	 * @param minGapBetweenSegments The minimum gap between any two segments which must be strictly greater than the sampling interval.
+	 * @param keyframeTolerance The maximum distance a segment boundary may be moved to align it with a keyframe. Negative values disable alignment.
+	 */
+	public SegmentingPlan(int targetSegmentLength, int minSegmentLength, int samplingInterval, int minGapBetweenSegments,
+	                      int keyframeTolerance) {
 		this.targetSegmentLength = targetSegmentLength;
 		this.minSegmentLength = Math.min(targetSegmentLength, Math.max(minSegmentLength, 1));
 		this.samplingInterval = Math.min(targetSegmentLength, Math.max(samplingInterval, 1));
 		this.minGapBetweenSegments = Math.max(this.samplingInterval + 1, minGapBetweenSegments);
+		this.keyframeTolerance = keyframeTolerance;
 	}
 
 	@Override
 	public String toString() {
-		return String.format("%s#<targetSegmentLength=%d, minSegmentLength=%d, samplingInterval=%d, minGapBetweenSegments=%d>",
-				this.getClass().getSimpleName(), targetSegmentLength, minSegmentLength, samplingInterval, minGapBetweenSegments);
+		return String.format("%s#<targetSegmentLength=%d, minSegmentLength=%d, samplingInterval=%d, minGapBetweenSegments=%d, keyframeTolerance=%d>",
+				this.getClass().getSimpleName(), targetSegmentLength, minSegmentLength, samplingInterval, minGapBetweenSegments,
+				keyframeTolerance);
 	}
 }
@@ -45,6 +45,7 @@ import org.mitre.mpf.wfm.camel.operations.detection.DetectionContext;
 import org.mitre.mpf.wfm.data.entities.persistent.Media;
 import org.mitre.mpf.wfm.data.entities.transients.Detection;
 import org.mitre.mpf.wfm.data.entities.transients.Track;
+import org.mitre.mpf.wfm.util.KeyframeIndex;
 import org.mitre.mpf.wfm.util.MediaRange;
 import org.mitre.mpf.wfm.util.TextUtils;
 import org.mitre.mpf.wfm.util.TopQualitySelectionUtil;
@@ -101,6 +102,9 @@ public class VideoMediaSegmenter implements MediaSegmenter {
                 context.getSegmentingPlan().getTargetSegmentLength(),
                 context.getSegmentingPlan().getMinSegmentLength(),
                 context.getSegmentingPlan().getMinGapBetweenSegments());
+        segments = alignToKeyframes(
+                segments, getKeyframeIndex(media),
+                context.getSegmentingPlan().getKeyframeTolerance());
 
         var requests = new ArrayList<DetectionRequest>();
         for(MediaRange segment : segments) {
@@ -122,6 +126,48 @@ public class VideoMediaSegmenter implements MediaSegmenter {
     }
 
 
+    private static KeyframeIndex getKeyframeIndex(Media media) {
+        var frameTimeInfo = media.getFrameTimeInfo();
+        return frameTimeInfo == null
+                ? KeyframeIndex.EMPTY
+                : frameTimeInfo.getKeyframeIndex();
+    }
+
+
+    /**
+     * Moves the boundaries between adjacent segments so that each later segment starts on the
+     * nearest keyframe that is within the tolerance. The start of a segment that does not
+     * directly follow another segment is never moved, because that would change which frames
+     * get processed.
+     */
+    static List<MediaRange> alignToKeyframes(
+            List<MediaRange> segments, KeyframeIndex keyframeIndex, int tolerance) {
+        if (tolerance < 0 || keyframeIndex.isEmpty() || segments.size() < 2) {
+            return segments;
+        }
+
+        var result = new ArrayList<MediaRange>(segments.size());
+        int currentStart = segments.get(0).getStartInclusive();
+        for (int i = 0; i < segments.size() - 1; i++) {
+            var segment = segments.get(i);
+            var nextSegment = segments.get(i + 1);
+            if (nextSegment.getStartInclusive() != segment.getEndInclusive() + 1) {
+                result.add(new MediaRange(currentStart, segment.getEndInclusive()));
+                currentStart = nextSegment.getStartInclusive();
+                continue;
+            }
+            int boundary = keyframeIndex.findNearest(
+                            nextSegment.getStartInclusive(), tolerance,
+                            currentStart + 1, nextSegment.getEndInclusive())
+                    .orElse(nextSegment.getStartInclusive());
+            result.add(new MediaRange(currentStart, boundary - 1));
+            currentStart = boundary;
+        }
+        result.add(new MediaRange(currentStart, segments.get(segments.size() - 1).getEndInclusive()));
+        return result;
+    }
+
+
     private static DetectionProtobuf.DetectionRequest createProtobuf(
             Media media,
             DetectionContext context,
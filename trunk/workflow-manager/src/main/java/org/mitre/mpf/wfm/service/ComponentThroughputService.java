@@ -0,0 +1,124 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2025 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2025 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.service;
+
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+
+import org.apache.activemq.broker.BrokerService;
+import org.apache.activemq.broker.region.Destination;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps a rolling estimate of how many video frames per second each algorithm processes and
+ * reports how many component instances are consuming from a request queue. Used to size
+ * video segments when adaptive segmenting is enabled and to limit the number of requests
+ * released to a queue when a dispatch policy is set.
+ */
+@Service
+public class ComponentThroughputService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ComponentThroughputService.class);
+
+    // Weight given to the newest sample in the exponentially weighted moving average.
+    private static final double SMOOTHING_FACTOR = 0.2;
+
+    private final BrokerService _broker;
+
+    private final Map<String, Double> _framesPerSecond = new ConcurrentHashMap<>();
+
+    @Inject
+    ComponentThroughputService(BrokerService broker) {
+        _broker = broker;
+    }
+
+
+    public void recordVideoSegment(String algorithm, int frameCount, long processingTimeMs) {
+        if (frameCount <= 0 || processingTimeMs <= 0) {
+            return;
+        }
+        double sample = frameCount * 1000.0 / processingTimeMs;
+        _framesPerSecond.merge(
+                algorithm, sample,
+                (prev, curr) -> prev + SMOOTHING_FACTOR * (curr - prev));
+    }
+
+
+    public OptionalDouble getFramesPerSecond(String algorithm) {
+        var fps = _framesPerSecond.get(algorithm);
+        return fps == null
+                ? OptionalDouble.empty()
+                : OptionalDouble.of(fps);
+    }
+
+
+    public int getConsumerCount(String queueName) {
+        try {
+            var destination = getDestination(queueName);
+            return destination == null
+                    ? 0
+                    : destination.getConsumers().size();
+        }
+        catch (Exception e) {
+            LOG.warn("Could not determine the number of consumers on {} due to: {}",
+                     queueName, e.toString());
+            return 0;
+        }
+    }
+
+
+    /**
+     * Returns the number of messages in the queue that have not been acknowledged. This includes
+     * the messages that components are currently processing.
+     */
+    public long getQueueDepth(String queueName) {
+        try {
+            var destination = getDestination(queueName);
+            return destination == null
+                    ? 0
+                    : destination.getDestinationStatistics().getMessages().getCount();
+        }
+        catch (Exception e) {
+            LOG.warn("Could not determine the number of messages in {} due to: {}",
+                     queueName, e.toString());
+            return 0;
+        }
+    }
+
+
+    private Destination getDestination(String queueName) throws Exception {
+        return _broker.getBroker()
+                .getDestinationMap()
+                .get(new ActiveMQQueue(queueName));
+    }
+}
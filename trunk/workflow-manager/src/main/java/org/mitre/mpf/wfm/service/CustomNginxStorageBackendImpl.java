@@ -260,8 +260,11 @@ public class CustomNginxStorageBackendImpl implements CustomNginxStorageBackend
             Dispatcher dispatcher = new Dispatcher(client, serviceUri, uploadId, content);
 
             List<CompletableFuture<Stream<FilePartETag>>> futures = new ArrayList<>(uploadThreadCount);
+            // The workers are joined below, so they run on the unbounded pool in case this
+            // method is called from the bounded pool.
             for (int i = 0; i < uploadThreadCount; i++) {
-                futures.add(ThreadUtil.callAsync(() -> worker(dispatcher, uploadSegmentSize)));
+                futures.add(ThreadUtil.callAsyncUnbounded(
+                        () -> worker(dispatcher, uploadSegmentSize)));
             }
 
             return futures.stream()
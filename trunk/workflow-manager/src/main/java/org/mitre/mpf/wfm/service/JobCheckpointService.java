@@ -0,0 +1,299 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
+
+import org.apache.camel.ExchangePattern;
+import org.apache.camel.ProducerTemplate;
+import org.mitre.mpf.mvc.util.CloseableMdc;
+import org.mitre.mpf.wfm.camel.operations.mediainspection.MediaInspectionHelper;
+import org.mitre.mpf.wfm.camel.routes.JobRouterRouteBuilder;
+import org.mitre.mpf.wfm.data.InProgressBatchJobsService;
+import org.mitre.mpf.wfm.data.access.JobRequestDao;
+import org.mitre.mpf.wfm.data.entities.persistent.BatchJob;
+import org.mitre.mpf.wfm.data.entities.persistent.BatchJobImpl;
+import org.mitre.mpf.wfm.data.entities.persistent.JobRequest;
+import org.mitre.mpf.wfm.data.entities.persistent.Media;
+import org.mitre.mpf.wfm.data.entities.transients.Track;
+import org.mitre.mpf.wfm.enums.BatchJobStatusType;
+import org.mitre.mpf.wfm.enums.MpfHeaders;
+import org.mitre.mpf.wfm.util.JmsUtils;
+import org.mitre.mpf.wfm.util.JsonUtils;
+import org.mitre.mpf.wfm.util.PropertiesUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Writes the state of in-progress batch jobs to disk each time a task completes so that jobs can
+ * be resumed after the Workflow Manager restarts. A checkpoint contains the serialized job and
+ * the tracks produced by each completed task. When a job is resumed, its state is restored and
+ * processing starts again at the first task that had not completed.
+ */
+@Service
+public class JobCheckpointService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JobCheckpointService.class);
+
+    private static final String JOB_FILE_NAME = "job.json";
+
+    private static final String TRACKS_DIR_NAME = "tracks";
+
+    private static final Pattern TRACKS_FILE_PATTERN
+            = Pattern.compile("(\\d+)-(\\d+)-(\\d+)\\.json");
+
+    private final PropertiesUtil _propertiesUtil;
+
+    private final InProgressBatchJobsService _inProgressJobs;
+
+    private final JobRequestDao _jobRequestDao;
+
+    private final JsonUtils _jsonUtils;
+
+    private final ProducerTemplate _producerTemplate;
+
+    private final MediaInspectionHelper _mediaInspectionHelper;
+
+    private final JmsUtils _jmsUtils;
+
+    @Inject
+    JobCheckpointService(
+            PropertiesUtil propertiesUtil,
+            InProgressBatchJobsService inProgressJobs,
+            JobRequestDao jobRequestDao,
+            JsonUtils jsonUtils,
+            ProducerTemplate producerTemplate,
+            MediaInspectionHelper mediaInspectionHelper,
+            JmsUtils jmsUtils) {
+        _propertiesUtil = propertiesUtil;
+        _inProgressJobs = inProgressJobs;
+        _jobRequestDao = jobRequestDao;
+        _jsonUtils = jsonUtils;
+        _producerTemplate = producerTemplate;
+        _mediaInspectionHelper = mediaInspectionHelper;
+        _jmsUtils = jmsUtils;
+    }
+
+
+    /**
+     * Records that all tasks before the job's current task have completed. Only the tracks from
+     * the most recently completed task are written because the tracks from earlier tasks were
+     * written by previous checkpoints.
+     */
+    public void saveCheckpoint(BatchJob job) {
+        if (!_propertiesUtil.isJobCheckpointEnabled() || job.isCancelled()) {
+            return;
+        }
+        var checkpointDir = _propertiesUtil.getJobCheckpointDirectory(job.getId());
+        try {
+            var tracksDir = Files.createDirectories(checkpointDir.resolve(TRACKS_DIR_NAME));
+            int completedTaskIdx = job.getCurrentTaskIndex() - 1;
+            if (completedTaskIdx >= 0) {
+                int actionCount = job.getPipelineElements().getTask(completedTaskIdx)
+                        .actions().size();
+                for (Media media : job.getMedia()) {
+                    for (int actionIdx = 0; actionIdx < actionCount; actionIdx++) {
+                        var tracks = _inProgressJobs.getTracks(
+                                job.getId(), media.getId(), completedTaskIdx, actionIdx);
+                        writeAtomically(
+                                tracksDir.resolve(getTracksFileName(
+                                        media.getId(), completedTaskIdx, actionIdx)),
+                                _jsonUtils.serialize(tracks));
+                    }
+                }
+            }
+            // The job file is written last so that a checkpoint never refers to a task whose
+            // tracks were not completely written.
+            writeAtomically(checkpointDir.resolve(JOB_FILE_NAME), _jsonUtils.serialize(job));
+            LOG.info("Saved checkpoint for job {} at task index {}.",
+                     job.getId(), job.getCurrentTaskIndex());
+        }
+        catch (IOException e) {
+            LOG.warn(String.format(
+                    "Failed to save the checkpoint for job %s. The job will not be resumable " +
+                            "if the Workflow Manager restarts. Cause: %s", job.getId(), e), e);
+        }
+    }
+
+
+    /**
+     * Resumes the jobs that have a checkpoint and are still in a non-terminal state.
+     * @return The ids of the jobs that were resumed.
+     */
+    public Set<Long> resumeCheckpointedJobs() {
+        var resumedJobs = new HashSet<Long>();
+        var checkpointRoot = _propertiesUtil.getJobCheckpointDirectory();
+        if (!_propertiesUtil.isJobCheckpointEnabled()) {
+            deleteDirectoryContents(checkpointRoot);
+            return resumedJobs;
+        }
+
+        try (Stream<Path> checkpointDirs = Files.list(checkpointRoot)) {
+            for (var checkpointDir : (Iterable<Path>) checkpointDirs::iterator) {
+                long jobId;
+                try {
+                    jobId = Long.parseLong(checkpointDir.getFileName().toString());
+                }
+                catch (NumberFormatException e) {
+                    continue;
+                }
+                try (var mdc = CloseableMdc.job(jobId)) {
+                    if (resumeJob(jobId, checkpointDir)) {
+                        resumedJobs.add(jobId);
+                    }
+                    else {
+                        FileSystemUtils.deleteRecursively(checkpointDir);
+                    }
+                }
+                catch (Exception e) {
+                    LOG.error(String.format(
+                            "Failed to resume job %s from its checkpoint due to: %s",
+                            jobId, e), e);
+                    if (_inProgressJobs.containsJob(jobId)) {
+                        _inProgressJobs.clearOnInitializationError(jobId);
+                    }
+                }
+            }
+        }
+        catch (IOException e) {
+            LOG.error("Failed to list the job checkpoints due to: " + e, e);
+        }
+        return resumedJobs;
+    }
+
+
+    private boolean resumeJob(long jobId, Path checkpointDir) throws IOException {
+        var jobFile = checkpointDir.resolve(JOB_FILE_NAME);
+        if (!Files.exists(jobFile)) {
+            return false;
+        }
+        JobRequest jobRequest = _jobRequestDao.findById(jobId);
+        if (jobRequest == null || jobRequest.getStatus().isTerminal()) {
+            return false;
+        }
+        // The checkpoint may have been written before the job was cancelled, so the
+        // deserialized job would not be marked as cancelled.
+        if (jobRequest.getStatus() == BatchJobStatusType.CANCELLING
+                || _jmsUtils.isCancelled(jobId)) {
+            LOG.info("Not resuming job {} because it was cancelled.", jobId);
+            return false;
+        }
+
+        var job = (BatchJobImpl) _jsonUtils.deserialize(
+                Files.readAllBytes(jobFile), BatchJob.class);
+        if (job.isCancelled()) {
+            return false;
+        }
+
+        // BeginTaskProcessor increments the task index before the task is started, so the job
+        // is restored at the last completed task.
+        job.setCurrentTaskIndex(job.getCurrentTaskIndex() - 1);
+        _inProgressJobs.restoreJob(job);
+        restoreTracks(job, checkpointDir.resolve(TRACKS_DIR_NAME));
+        for (var media : job.getMedia()) {
+            _mediaInspectionHelper.restoreFrameTimeInfo(media, jobId);
+        }
+
+        int priority = Math.max(0, Math.min(9, job.getPriority()));
+        LOG.info("Resuming job {} at task index {}.", jobId, job.getCurrentTaskIndex() + 1);
+        _producerTemplate.sendBodyAndHeaders(
+                JobRouterRouteBuilder.ENTRY_POINT,
+                ExchangePattern.InOnly,
+                null,
+                Map.of(MpfHeaders.JOB_ID, jobId,
+                       MpfHeaders.JMS_PRIORITY, priority));
+        return true;
+    }
+
+
+    private void restoreTracks(BatchJob job, Path tracksDir) throws IOException {
+        if (!Files.exists(tracksDir)) {
+            return;
+        }
+        try (Stream<Path> trackFiles = Files.list(tracksDir)) {
+            for (var trackFile : (Iterable<Path>) trackFiles::iterator) {
+                var matcher = TRACKS_FILE_PATTERN.matcher(trackFile.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                int taskIdx = Integer.parseInt(matcher.group(2));
+                if (taskIdx > job.getCurrentTaskIndex()) {
+                    continue;
+                }
+                var tracks = _jsonUtils.deserialize(Files.readAllBytes(trackFile), Track[].class);
+                _inProgressJobs.setTracks(
+                        job.getId(), Long.parseLong(matcher.group(1)), taskIdx,
+                        Integer.parseInt(matcher.group(3)), List.of(tracks));
+            }
+        }
+    }
+
+
+    private static String getTracksFileName(long mediaId, int taskIdx, int actionIdx) {
+        return String.format("%s-%s-%s.json", mediaId, taskIdx, actionIdx);
+    }
+
+
+    private static void writeAtomically(Path path, byte[] content) throws IOException {
+        // Write to a temporary file first so that a partially written file is never read.
+        var tempFile = Files.createTempFile(
+                path.getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tempFile, content);
+            Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+
+    private static void deleteDirectoryContents(Path dir) {
+        try (Stream<Path> children = Files.list(dir)) {
+            for (var child : (Iterable<Path>) children::iterator) {
+                FileSystemUtils.deleteRecursively(child);
+            }
+        }
+        catch (IOException e) {
+            LOG.warn("Failed to delete the job checkpoints due to: " + e, e);
+        }
+    }
+}
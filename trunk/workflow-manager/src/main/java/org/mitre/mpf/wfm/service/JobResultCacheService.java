@@ -0,0 +1,185 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2025 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2025 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.service;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import javax.inject.Inject;
+
+import org.mitre.mpf.wfm.data.access.JobResultRepo;
+import org.mitre.mpf.wfm.data.entities.persistent.BatchJob;
+import org.mitre.mpf.wfm.data.entities.persistent.DbJobResult;
+import org.mitre.mpf.wfm.enums.BatchJobStatusType;
+import org.mitre.mpf.wfm.enums.MpfConstants;
+import org.mitre.mpf.wfm.util.AggregateJobPropertiesUtil;
+import org.mitre.mpf.wfm.util.JobPartsIter;
+import org.mitre.mpf.wfm.util.PropertiesUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps track of the output objects from completed jobs so that when a job with the same
+ * configuration hash is submitted again, it can be completed using the previous output object
+ * instead of processing the media again. Unlike the TiesDb check, this does not require any
+ * external services.
+ */
+@Service
+public class JobResultCacheService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JobResultCacheService.class);
+
+    private final PropertiesUtil _propertiesUtil;
+
+    private final AggregateJobPropertiesUtil _aggregateJobPropertiesUtil;
+
+    private final JobConfigHasher _jobConfigHasher;
+
+    private final JobResultRepo _jobResultRepo;
+
+    @Inject
+    JobResultCacheService(
+            PropertiesUtil propertiesUtil,
+            AggregateJobPropertiesUtil aggregateJobPropertiesUtil,
+            JobConfigHasher jobConfigHasher,
+            JobResultRepo jobResultRepo) {
+        _propertiesUtil = propertiesUtil;
+        _aggregateJobPropertiesUtil = aggregateJobPropertiesUtil;
+        _jobConfigHasher = jobConfigHasher;
+        _jobResultRepo = jobResultRepo;
+    }
+
+
+    public Optional<URI> findCachedResult(BatchJob job) {
+        if (!canUseCache(job) || skipCheckRequested(job)) {
+            return Optional.empty();
+        }
+        try {
+            var hash = _jobConfigHasher.getJobConfigHash(job);
+            var optResult = _jobResultRepo.findById(hash);
+            if (optResult.isEmpty()) {
+                return Optional.empty();
+            }
+            var result = optResult.get();
+            if (isExpired(result) || !outputObjectExists(result.getOutputObjectUri())) {
+                _jobResultRepo.delete(result);
+                return Optional.empty();
+            }
+            LOG.info("Found the results from job {} which had the same job config hash.",
+                     result.getJobId());
+            return Optional.of(result.getOutputObjectUri());
+        }
+        catch (Exception e) {
+            LOG.warn("Checking the result cache failed due to: " + e, e);
+            return Optional.empty();
+        }
+    }
+
+
+    public void recordResult(
+            BatchJob job, URI outputObjectUri, BatchJobStatusType completionStatus) {
+        if (completionStatus != BatchJobStatusType.COMPLETE
+                && completionStatus != BatchJobStatusType.COMPLETE_WITH_WARNINGS) {
+            return;
+        }
+        if (!canUseCache(job)) {
+            return;
+        }
+        try {
+            var hash = _jobConfigHasher.getJobConfigHash(job);
+            _jobResultRepo.save(new DbJobResult(hash, job.getId(), outputObjectUri, Instant.now()));
+            removeOldResults();
+        }
+        catch (Exception e) {
+            LOG.warn("Adding the job's results to the result cache failed due to: " + e, e);
+        }
+    }
+
+
+    private boolean canUseCache(BatchJob job) {
+        if (!_propertiesUtil.isResultCacheEnabled() || job.isCancelled()) {
+            return false;
+        }
+        // The job config hash can only be computed when the hash and type of every piece of
+        // media is known.
+        return job.getMedia().stream()
+                .filter(m -> !m.isDerivative())
+                .allMatch(m -> !m.isFailed()
+                        && m.getLinkedHash().isPresent()
+                        && m.getType().isPresent());
+    }
+
+
+    private boolean skipCheckRequested(BatchJob job) {
+        return JobPartsIter.stream(job)
+                .map(jp -> _aggregateJobPropertiesUtil.getValue(
+                        MpfConstants.SKIP_RESULT_CACHE_CHECK, jp))
+                .anyMatch(Boolean::parseBoolean);
+    }
+
+
+    private boolean isExpired(DbJobResult result) {
+        return result.getTimeCompleted().isBefore(getRetentionCutoff());
+    }
+
+
+    private Instant getRetentionCutoff() {
+        return Instant.now().minus(
+                Duration.ofDays(_propertiesUtil.getResultCacheRetentionDays()));
+    }
+
+
+    private static boolean outputObjectExists(URI outputObjectUri) {
+        if ("file".equalsIgnoreCase(outputObjectUri.getScheme())) {
+            return Files.exists(Path.of(outputObjectUri));
+        }
+        // Remote storage is not checked because it would require a request to the storage
+        // server for every job.
+        return true;
+    }
+
+
+    private void removeOldResults() {
+        var expired = _jobResultRepo.findByTimeCompletedBefore(getRetentionCutoff());
+        if (!expired.isEmpty()) {
+            _jobResultRepo.deleteAll(expired);
+        }
+
+        long numToRemove = _jobResultRepo.count() - _propertiesUtil.getResultCacheMaxEntries();
+        if (numToRemove > 0) {
+            var oldest = _jobResultRepo.findByOrderByTimeCompletedAsc(
+                    PageRequest.of(0, (int) Math.min(numToRemove, Integer.MAX_VALUE)));
+            _jobResultRepo.deleteAll(oldest);
+        }
+    }
+}
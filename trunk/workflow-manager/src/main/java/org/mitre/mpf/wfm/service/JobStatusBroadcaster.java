@@ -34,11 +34,15 @@ import org.mitre.mpf.wfm.enums.BatchJobStatusType;
 import org.mitre.mpf.wfm.enums.StreamingJobStatusType;
 import org.mitre.mpf.wfm.event.JobProgress;
 import org.mitre.mpf.wfm.util.PropertiesUtil;
+import org.mitre.mpf.wfm.util.ThreadUtil;
 import org.springframework.stereotype.Service;
 
 import javax.inject.Inject;
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JobStatusBroadcaster {
@@ -47,6 +51,11 @@ public class JobStatusBroadcaster {
 
     private final JobProgress _jobProgress;
 
+    // Contains the most recent progress update for each job that has not been broadcast yet.
+    private final Map<Long, PendingProgress> _pendingProgress = new HashMap<>();
+
+    private boolean _progressFlushScheduled;
+
     @Inject
     JobStatusBroadcaster(PropertiesUtil propertiesUtil, JobProgress jobProgress) {
         _propertiesUtil = propertiesUtil;
@@ -66,12 +75,74 @@ public class JobStatusBroadcaster {
     public void broadcast(long jobId, double progress, BatchJobStatusType jobStatus,
                           Instant endDate, boolean outputObjectExists) {
         if (_propertiesUtil.isBroadcastJobStatusEnabled()) {
-            AtmosphereController.broadcast(
-                    new JobStatusMessage(jobId, progress, jobStatus, endDate, outputObjectExists));
+            synchronized (_pendingProgress) {
+                // This message is newer than any pending progress update, so the pending update
+                // would overwrite it with stale information if it were sent later. The message is
+                // sent while holding the lock so that flushProgress can not send the pending
+                // update between removing it and sending this message. Broadcaster.broadcast
+                // only queues the message, so this does not hold the lock for long.
+                _pendingProgress.remove(jobId);
+                AtmosphereController.broadcast(new JobStatusMessage(
+                        jobId, progress, jobStatus, endDate, outputObjectExists));
+            }
+        }
+    }
+
+
+    /**
+     * Broadcasts a progress update for a batch job. Progress updates are sent at most once per
+     * web.broadcast.job.progress.interval.ms. When a job's progress changes multiple times during
+     * the interval, only the most recent update is sent.
+     */
+    public void broadcastProgress(long jobId, double progress, BatchJobStatusType jobStatus) {
+        if (!_propertiesUtil.isBroadcastJobStatusEnabled()) {
+            return;
+        }
+        long interval = _propertiesUtil.getJobProgressBroadcastIntervalMs();
+        if (interval <= 0) {
+            broadcast(jobId, progress, jobStatus);
+            return;
+        }
+        synchronized (_pendingProgress) {
+            _pendingProgress.put(jobId, new PendingProgress(progress, jobStatus));
+            if (!_progressFlushScheduled) {
+                _progressFlushScheduled = true;
+                try {
+                    ThreadUtil.runAsync(interval, TimeUnit.MILLISECONDS, this::flushProgress);
+                }
+                catch (RuntimeException e) {
+                    _progressFlushScheduled = false;
+                    throw e;
+                }
+            }
         }
     }
 
 
+    private void flushProgress() {
+        List<Long> jobIds;
+        synchronized (_pendingProgress) {
+            _progressFlushScheduled = false;
+            jobIds = List.copyOf(_pendingProgress.keySet());
+        }
+        for (long jobId : jobIds) {
+            synchronized (_pendingProgress) {
+                // A status message may have been sent for the job since the job ids were
+                // copied, in which case the pending update was removed and must not be sent.
+                var progress = _pendingProgress.remove(jobId);
+                if (progress != null) {
+                    AtmosphereController.broadcast(new JobStatusMessage(
+                            jobId, progress.progress(), progress.jobStatus(), null, false));
+                }
+            }
+        }
+    }
+
+
+    private record PendingProgress(double progress, BatchJobStatusType jobStatus) {
+    }
+
+
     public void broadcast(long jobId, double progress, StreamingJobStatusType jobStatus) {
         broadcast(jobId, progress, jobStatus, null);
     }
@@ -226,7 +226,8 @@ public class S3StorageBackendImpl implements S3StorageBackend {
         for (Table.Cell<Integer, Integer, URI> entry : localResults.cellSet()) {
             acquire(semaphore);
 
-            var future = ThreadUtil.callAsync(
+            // The callers wait on these futures, and the semaphore limits how many run at once.
+            var future = ThreadUtil.callAsyncUnbounded(
                 () -> {
                     Path localPath = Path.of(entry.getValue());
                     URI uploadedUri = putInS3IfAbsent(localPath, combinedProperties);
@@ -567,7 +568,8 @@ public class S3StorageBackendImpl implements S3StorageBackend {
         var futures = new HashMap<URI, CompletableFuture<URI>>();
         for (var itemUri : itemUris) {
             acquire(semaphore);
-            var future = ThreadUtil.callAsync(() -> fastCopy(itemUri, s3Client, copyConfig));
+            var future = ThreadUtil.callAsyncUnbounded(
+                    () -> fastCopy(itemUri, s3Client, copyConfig));
             future.whenComplete((x, err) -> semaphore.release());
             futures.put(itemUri, future);
         }
@@ -634,7 +636,7 @@ public class S3StorageBackendImpl implements S3StorageBackend {
         var futures = new HashMap<URI, CompletableFuture<URI>>();
         for (var itemUri : itemUris) {
             acquire(semaphore);
-            var future = ThreadUtil.callAsync(() -> slowCopy(
+            var future = ThreadUtil.callAsyncUnbounded(() -> slowCopy(
                     itemUri, sourceClient, destinationClient, copyConfig, putOverrideConfig));
             future.whenComplete((x, err) -> semaphore.release());
             futures.put(itemUri, future);
@@ -709,7 +711,8 @@ public class S3StorageBackendImpl implements S3StorageBackend {
         var s3Client = getDestinationClient(copyConfig);
         for (var localUri : localUris) {
             acquire(semaphore);
-            var future = ThreadUtil.callAsync(() -> copyLocalItem(localUri, copyConfig, s3Client));
+            var future = ThreadUtil.callAsyncUnbounded(
+                    () -> copyLocalItem(localUri, copyConfig, s3Client));
             future.whenComplete((x, err) -> semaphore.release());
             futures.put(localUri, future);
         }
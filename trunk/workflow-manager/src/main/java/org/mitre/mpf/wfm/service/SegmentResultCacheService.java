@@ -0,0 +1,343 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.service;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
+
+import org.apache.camel.Exchange;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.mitre.mpf.rest.api.pipelines.Algorithm;
+import org.mitre.mpf.wfm.buffers.DetectionProtobuf;
+import org.mitre.mpf.wfm.data.entities.persistent.Media;
+import org.mitre.mpf.wfm.enums.MpfHeaders;
+import org.mitre.mpf.wfm.segmenting.DetectionRequest;
+import org.mitre.mpf.wfm.util.PropertiesUtil;
+import org.mitre.mpf.wfm.util.ThreadUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.google.protobuf.CodedOutputStream;
+
+/**
+ * Stores the responses to individual detection requests on disk so that when a later job sends
+ * an identical request, the stored response can be used instead of sending the request to the
+ * component. A request's cache key is a hash of the media's content hash, the algorithm, and the
+ * parts of the request that can affect the results, including the algorithm properties, the
+ * segment range, and the feed-forward tracks.
+ */
+@Service(SegmentResultCacheService.REF)
+public class SegmentResultCacheService {
+
+    public static final String REF = "segmentResultCacheService";
+
+    private static final Logger LOG = LoggerFactory.getLogger(SegmentResultCacheService.class);
+
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final PropertiesUtil _propertiesUtil;
+
+    private final AtomicLong _cacheSizeBytes = new AtomicLong();
+
+    // Set once the size of the entries that existed before the first response was stored has
+    // been added to _cacheSizeBytes.
+    private volatile boolean _initialSizeKnown;
+
+    // Computing the initial size and removing entries both walk the entire cache directory, so
+    // they run on a background thread, one at a time.
+    private final AtomicBoolean _backgroundTaskRunning = new AtomicBoolean();
+
+    private volatile CompletableFuture<Void> _backgroundTask
+            = CompletableFuture.completedFuture(null);
+
+    @Inject
+    SegmentResultCacheService(PropertiesUtil propertiesUtil) {
+        _propertiesUtil = propertiesUtil;
+    }
+
+
+    /**
+     * Returns the key used to store the response to the request, or empty when the response to
+     * the request can not be reused.
+     */
+    public Optional<String> getCacheKey(
+            Media media, Algorithm algorithm, DetectionRequest request) {
+        if (!_propertiesUtil.isSegmentCacheEnabled()
+                || media.getLinkedHash().isEmpty()
+                // Responses to media selector requests depend on headers that are not part of
+                // the protobuf.
+                || !request.headers().isEmpty()) {
+            return Optional.empty();
+        }
+
+        // The media path, media ID, task index, and action index differ between jobs that
+        // process the same media, but they do not change the results.
+        var keyRequest = request.protobuf().toBuilder()
+                .clearMediaPath()
+                .clearMediaId()
+                .clearTaskIndex()
+                .clearActionIndex()
+                .build();
+        try {
+            var digest = DigestUtils.getSha256Digest();
+            updateDigest(digest, media.getLinkedHash().get());
+            updateDigest(digest, algorithm.name());
+            updateDigest(digest, String.valueOf(algorithm.outputChangedCounter().orElse(-1)));
+            digest.update(serializeDeterministically(keyRequest));
+            return Optional.of(Hex.encodeHexString(digest.digest()));
+        }
+        catch (IOException e) {
+            LOG.warn("Failed to create the segment cache key due to: " + e, e);
+            return Optional.empty();
+        }
+    }
+
+
+    /**
+     * Returns the stored response for the cache key, updated so that it matches the request.
+     */
+    public Optional<DetectionProtobuf.DetectionResponse> getCachedResponse(
+            String cacheKey, DetectionProtobuf.DetectionRequest request) {
+        var path = getPath(cacheKey);
+        try {
+            var response = DetectionProtobuf.DetectionResponse.parseFrom(
+                    Files.readAllBytes(path));
+            // The modification time is used to find the least recently used responses.
+            Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+            LOG.info("Using the cached response for the request for media {}, task {}, action {}.",
+                     request.getMediaId(), request.getTaskIndex(), request.getActionIndex());
+            return Optional.of(response.toBuilder()
+                    .setMediaId(request.getMediaId())
+                    .setTaskIndex(request.getTaskIndex())
+                    .setActionIndex(request.getActionIndex())
+                    .build());
+        }
+        catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+        catch (IOException e) {
+            LOG.warn("Failed to read the cached response from \"%s\". It will be removed."
+                             .formatted(path), e);
+            deleteEntry(path);
+            return Optional.empty();
+        }
+    }
+
+
+    /**
+     * Stores the response when the request that produced it had the
+     * {@link MpfHeaders#SEGMENT_CACHE_KEY} header.
+     */
+    public void storeResponse(Exchange exchange) {
+        var cacheKey = exchange.getIn().getHeader(MpfHeaders.SEGMENT_CACHE_KEY, String.class);
+        if (cacheKey == null
+                || exchange.getIn().getHeader(MpfHeaders.RESPONSE_CHUNK_SET_ID) != null) {
+            // Responses that were split across multiple messages are not cached.
+            return;
+        }
+        var response = exchange.getIn().getBody(DetectionProtobuf.DetectionResponse.class);
+        if (response == null
+                || response.getError() != DetectionProtobuf.DetectionError.NO_DETECTION_ERROR) {
+            return;
+        }
+
+        var path = getPath(cacheKey);
+        try {
+            Files.createDirectories(path.getParent());
+            // Write to a temporary file first so that a partially written response is never
+            // read.
+            var tempFile = Files.createTempFile(path.getParent(), cacheKey, TEMP_FILE_SUFFIX);
+            try {
+                Files.write(tempFile, response.toByteArray());
+                Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING,
+                           StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally {
+                Files.deleteIfExists(tempFile);
+            }
+            addToCacheSize(Files.size(path));
+        }
+        catch (IOException e) {
+            LOG.warn("Failed to add the response to the segment cache due to: " + e, e);
+        }
+    }
+
+
+    private void addToCacheSize(long numBytes) {
+        long size = _cacheSizeBytes.addAndGet(numBytes);
+        boolean needsBackgroundTask = !_initialSizeKnown || size > getMaxSizeBytes();
+        if (needsBackgroundTask && _backgroundTaskRunning.compareAndSet(false, true)) {
+            _backgroundTask = ThreadUtil.runAsync(() -> {
+                    if (!_initialSizeKnown) {
+                        computeInitialSize();
+                    }
+                    removeOldEntriesIfFull();
+                })
+                .whenComplete((r, e) -> {
+                    _backgroundTaskRunning.set(false);
+                    if (e != null) {
+                        LOG.warn("Failed to update the segment cache size due to: " + e, e);
+                    }
+                });
+        }
+    }
+
+
+    private void computeInitialSize() throws IOException {
+        // The directory walk finds the entries that were stored before it started, so the sizes
+        // already added for them are replaced by the walk's total. Entries stored while the walk
+        // is running may be counted twice, which only causes the next removal to happen slightly
+        // early.
+        long countedBeforeWalk = _cacheSizeBytes.get();
+        long existingBytes = getCacheEntries().stream()
+                .mapToLong(CacheEntry::size)
+                .sum();
+        _cacheSizeBytes.addAndGet(existingBytes - countedBeforeWalk);
+        _initialSizeKnown = true;
+    }
+
+
+    private void removeOldEntriesIfFull() throws IOException {
+        long maxBytes = getMaxSizeBytes();
+        if (_cacheSizeBytes.get() <= maxBytes) {
+            return;
+        }
+        // Remove more than strictly necessary so that entries do not need to be removed after
+        // every new response.
+        long targetBytes = maxBytes * 9 / 10;
+        var entries = getCacheEntries();
+        entries.sort(Comparator.comparing(CacheEntry::lastModified));
+        int numRemoved = 0;
+        for (var entry : entries) {
+            if (_cacheSizeBytes.get() <= targetBytes) {
+                break;
+            }
+            if (deleteEntry(entry.path())) {
+                _cacheSizeBytes.addAndGet(-entry.size());
+                numRemoved++;
+            }
+        }
+        LOG.info("Removed {} entries from the segment cache.", numRemoved);
+    }
+
+
+    private long getMaxSizeBytes() {
+        return _propertiesUtil.getSegmentCacheMaxSizeMb() * 1024 * 1024;
+    }
+
+
+    void awaitBackgroundTask() {
+        _backgroundTask.join();
+    }
+
+
+    private List<CacheEntry> getCacheEntries() throws IOException {
+        try (Stream<Path> paths = Files.walk(_propertiesUtil.getSegmentCacheDirectory())) {
+            return paths
+                    .filter(Files::isRegularFile)
+                    .filter(p -> !p.getFileName().toString().endsWith(TEMP_FILE_SUFFIX))
+                    .map(SegmentResultCacheService::toCacheEntry)
+                    .flatMap(Optional::stream)
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+
+    private static Optional<CacheEntry> toCacheEntry(Path path) {
+        try {
+            return Optional.of(new CacheEntry(
+                    path, Files.size(path), Files.getLastModifiedTime(path)));
+        }
+        catch (IOException e) {
+            // The file was removed after the directory was listed.
+            return Optional.empty();
+        }
+    }
+
+
+    private Path getPath(String cacheKey) {
+        // Use sub-directories to avoid having a single directory with a very large number of
+        // files.
+        return _propertiesUtil.getSegmentCacheDirectory()
+                .resolve(cacheKey.substring(0, 2))
+                .resolve(cacheKey);
+    }
+
+
+    private static boolean deleteEntry(Path path) {
+        try {
+            return Files.deleteIfExists(path);
+        }
+        catch (IOException e) {
+            LOG.warn("Failed to delete \"%s\" from the segment cache.".formatted(path), e);
+            return false;
+        }
+    }
+
+
+    private static void updateDigest(MessageDigest digest, String value) {
+        digest.update(value.getBytes(UTF_8));
+        // Separator so that the boundaries between values are part of the hash.
+        digest.update((byte) 0);
+    }
+
+
+    private static byte[] serializeDeterministically(
+            DetectionProtobuf.DetectionRequest request) throws IOException {
+        // Protobuf does not sort map entries unless deterministic serialization is requested.
+        var bytes = new byte[request.getSerializedSize()];
+        var outputStream = CodedOutputStream.newInstance(bytes);
+        outputStream.useDeterministicSerialization();
+        request.writeTo(outputStream);
+        outputStream.checkNoSpaceLeft();
+        return bytes;
+    }
+
+
+    private record CacheEntry(Path path, long size, FileTime lastModified) { }
+}
@@ -0,0 +1,358 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2025 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2025 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.ExchangePattern;
+import org.apache.camel.Message;
+import org.apache.camel.ProducerTemplate;
+import org.mitre.mpf.mvc.util.CloseableMdc;
+import org.mitre.mpf.wfm.camel.routes.JobRouterRouteBuilder;
+import org.mitre.mpf.wfm.data.InProgressBatchJobsService;
+import org.mitre.mpf.wfm.enums.MpfHeaders;
+import org.mitre.mpf.wfm.util.PropertiesUtil;
+import org.mitre.mpf.wfm.util.ThreadUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.google.protobuf.MessageLite;
+
+/**
+ * Re-sends detection requests that have been outstanding for much longer than the other requests
+ * from the same task. A task only completes once every one of its responses has been received,
+ * so a single slow or stuck component instance would otherwise delay the entire job. The first
+ * response for a request is used and any later duplicates are discarded.
+ */
+@Service(SpeculativeExecutionService.REF)
+public class SpeculativeExecutionService {
+
+    public static final String REF = "speculativeExecutionService";
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpeculativeExecutionService.class);
+
+    // The median is not meaningful until a few requests have completed.
+    private static final int MIN_COMPLETED_REQUESTS = 3;
+
+    private static final long CHECK_INTERVAL_SECONDS = 5;
+
+    private final InProgressBatchJobsService _inProgressJobs;
+
+    private final PropertiesUtil _propertiesUtil;
+
+    private final ProducerTemplate _producerTemplate;
+
+    private final Map<String, TrackedSplit> _trackedSplits = new ConcurrentHashMap<>();
+
+    @Inject
+    SpeculativeExecutionService(
+            InProgressBatchJobsService inProgressJobs,
+            PropertiesUtil propertiesUtil,
+            ProducerTemplate producerTemplate) {
+        _inProgressJobs = inProgressJobs;
+        _propertiesUtil = propertiesUtil;
+        _producerTemplate = producerTemplate;
+    }
+
+
+    /**
+     * Starts tracking the message when it has the
+     * {@link MpfHeaders#SPECULATIVE_EXECUTION_MULTIPLIER} header. Tracked messages are assigned a
+     * {@link MpfHeaders#SPLIT_INDEX} so that the responses can be matched up with the requests.
+     * The request bodies are kept so that they can be sent again. When the bodies for a split
+     * would use more than mpf.speculative.execution.max.tracked.mb, the bodies are released and
+     * requests from that split are no longer sent again.
+     */
+    public void trackDispatchedRequest(
+            long jobId, String correlationId, int splitIndex, Message message) {
+        var multiplier = message.removeHeader(MpfHeaders.SPECULATIVE_EXECUTION_MULTIPLIER);
+        if (multiplier == null) {
+            return;
+        }
+        message.setHeader(MpfHeaders.SPLIT_INDEX, splitIndex);
+        var body = message.getBody();
+        long bodySize = body instanceof MessageLite protobuf
+                ? protobuf.getSerializedSize()
+                : 0;
+        var request = new OutstandingRequest(
+                new HashMap<>(message.getHeaders()),
+                body,
+                Instant.now(),
+                ((Number) multiplier).doubleValue());
+        long maxTrackedBytes = _propertiesUtil.getSpeculativeExecutionMaxTrackedMb() * 1024 * 1024;
+
+        // Requests are tracked as the split is consumed, so the tracked split may have been
+        // removed after receiving responses for all of the earlier requests.
+        // ConcurrentHashMap.compute prevents the split from being removed while the request is
+        // being added.
+        var isNewSplit = new boolean[1];
+        _trackedSplits.compute(correlationId, (k, split) -> {
+            if (split == null) {
+                split = new TrackedSplit(jobId);
+                isNewSplit[0] = true;
+            }
+            synchronized (split) {
+                if (split.redispatchDisabled) {
+                    split.outstanding.put(splitIndex, request.withoutBody());
+                }
+                else if (split.trackedBytes + bodySize > maxTrackedBytes) {
+                    LOG.warn("The requests with correlation id '{}' are larger than the {} MB " +
+                                     "limit for speculative execution. They will not be sent again.",
+                             correlationId, maxTrackedBytes / 1024 / 1024);
+                    split.disableRedispatch();
+                    split.outstanding.put(splitIndex, request.withoutBody());
+                }
+                else {
+                    split.trackedBytes += bodySize;
+                    split.outstanding.put(splitIndex, request);
+                }
+            }
+            return split;
+        });
+        if (isNewSplit[0]) {
+            LOG.info("Speculative execution is enabled for requests with correlation id '{}'.",
+                     correlationId);
+            scheduleCheck(correlationId);
+        }
+    }
+
+
+    /**
+     * Called when a request will not be sent to the request queue until later. Requests are not
+     * considered stragglers while they are held.
+     */
+    public void onRequestHeld(Map<String, Object> headers) {
+        updateDispatchTime(headers, null);
+    }
+
+
+    /**
+     * Called when a request that was previously held is sent to the request queue.
+     */
+    public void onRequestReleased(Map<String, Object> headers) {
+        updateDispatchTime(headers, Instant.now());
+    }
+
+
+    private void updateDispatchTime(Map<String, Object> headers, Instant dispatchTime) {
+        var splitIndex = (Integer) headers.get(MpfHeaders.SPLIT_INDEX);
+        var correlationId = (String) headers.get(MpfHeaders.CORRELATION_ID);
+        if (splitIndex == null || correlationId == null) {
+            return;
+        }
+        var split = _trackedSplits.get(correlationId);
+        if (split == null) {
+            return;
+        }
+        synchronized (split) {
+            split.outstanding.computeIfPresent(
+                    splitIndex, (k, r) -> r.withDispatchTime(dispatchTime));
+        }
+    }
+
+
+    /**
+     * Returns false when the response is a duplicate of a response that was already received.
+     */
+    public boolean isFirstResponse(Exchange exchange) {
+        var headers = exchange.getIn().getHeaders();
+        var correlationId = (String) headers.get(MpfHeaders.CORRELATION_ID);
+        var splitIndex = exchange.getIn().getHeader(MpfHeaders.SPLIT_INDEX, Integer.class);
+        var split = correlationId == null ? null : _trackedSplits.get(correlationId);
+
+        if (split == null) {
+            if (splitIndex != null) {
+                // Only tracked requests have a split index, so this is a late duplicate for a
+                // split that already received all of its responses.
+                LOG.info("Discarding duplicate response for request {} with correlation id '{}'.",
+                         splitIndex, correlationId);
+                return false;
+            }
+            return true;
+        }
+
+        synchronized (split) {
+            if (splitIndex == null) {
+                // The component did not echo the split index, so it is not possible to tell
+                // duplicates apart.
+                split.disableRedispatch();
+                return true;
+            }
+            var request = split.outstanding.remove(splitIndex);
+            if (request == null) {
+                LOG.info("Discarding duplicate response for request {} with correlation id '{}'.",
+                         splitIndex, correlationId);
+                return false;
+            }
+            if (request.dispatchTime() != null) {
+                split.completedMillis.add(
+                        Duration.between(request.dispatchTime(), Instant.now()).toMillis());
+            }
+        }
+        _trackedSplits.computeIfPresent(correlationId, (k, s) -> {
+            synchronized (s) {
+                return s.outstanding.isEmpty() ? null : s;
+            }
+        });
+        return true;
+    }
+
+
+    private void scheduleCheck(String correlationId) {
+        ThreadUtil.runAsync(
+                CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS,
+                () -> checkForStragglers(correlationId, Instant.now()))
+            .exceptionally(e -> {
+                LOG.error("Failed to check for straggling requests with correlation id '%s'."
+                                  .formatted(correlationId), e);
+                return null;
+            });
+    }
+
+
+    void checkForStragglers(String correlationId, Instant now) {
+        var split = _trackedSplits.get(correlationId);
+        if (split == null) {
+            return;
+        }
+        if (!_inProgressJobs.containsJob(split.jobId)) {
+            _trackedSplits.remove(correlationId);
+            return;
+        }
+
+        try (var mdc = CloseableMdc.job(split.jobId)) {
+            if (_inProgressJobs.getJob(split.jobId).isCancelled()) {
+                // Keep tracking the split so that duplicate cancellation responses are discarded.
+                return;
+            }
+            for (var request : getStragglers(split, now)) {
+                int splitIndex = (Integer) request.headers().get(MpfHeaders.SPLIT_INDEX);
+                LOG.warn("Request {} with correlation id '{}' has been outstanding for {} ms. "
+                                 + "Sending it again.",
+                         splitIndex, correlationId,
+                         Duration.between(request.dispatchTime(), now).toMillis());
+                // The duplicate takes the same path as the original request, so it is
+                // marshalled, redirected if the job is cancelled, compressed, and dispatched
+                // the same way.
+                _producerTemplate.sendBodyAndHeaders(
+                        JobRouterRouteBuilder.REQUEST_SENDER,
+                        ExchangePattern.InOnly,
+                        request.body(),
+                        request.headers());
+            }
+        }
+        scheduleCheck(correlationId);
+    }
+
+
+    private static List<OutstandingRequest> getStragglers(TrackedSplit split, Instant now) {
+        synchronized (split) {
+            if (split.redispatchDisabled
+                    || split.completedMillis.size() < MIN_COMPLETED_REQUESTS) {
+                return List.of();
+            }
+            var sorted = split.completedMillis.stream().sorted().toList();
+            long median = sorted.get(sorted.size() / 2);
+
+            var stragglers = new ArrayList<OutstandingRequest>();
+            for (var entry : split.outstanding.entrySet()) {
+                var request = entry.getValue();
+                if (request.dispatchTime() == null) {
+                    continue;
+                }
+                long elapsed = Duration.between(request.dispatchTime(), now).toMillis();
+                if (!request.redispatched() && elapsed > median * request.multiplier()) {
+                    stragglers.add(request);
+                    entry.setValue(request.markRedispatched());
+                }
+            }
+            return stragglers;
+        }
+    }
+
+
+    private static class TrackedSplit {
+        final long jobId;
+
+        final Map<Integer, OutstandingRequest> outstanding = new HashMap<>();
+
+        final List<Long> completedMillis = new ArrayList<>();
+
+        boolean redispatchDisabled;
+
+        long trackedBytes;
+
+        TrackedSplit(long jobId) {
+            this.jobId = jobId;
+        }
+
+        // The bodies are only kept so that the requests can be sent again, so there is no reason
+        // to hold on to them once that can no longer happen.
+        void disableRedispatch() {
+            redispatchDisabled = true;
+            outstanding.replaceAll((k, r) -> r.withoutBody());
+            trackedBytes = 0;
+        }
+    }
+
+
+    private record OutstandingRequest(
+            Map<String, Object> headers,
+            Object body,
+            Instant dispatchTime,
+            double multiplier,
+            boolean redispatched) {
+
+        OutstandingRequest(Map<String, Object> headers, Object body, Instant dispatchTime,
+                           double multiplier) {
+            this(headers, body, dispatchTime, multiplier, false);
+        }
+
+        OutstandingRequest markRedispatched() {
+            return new OutstandingRequest(headers, body, dispatchTime, multiplier, true);
+        }
+
+        OutstandingRequest withoutBody() {
+            return new OutstandingRequest(headers, null, dispatchTime, multiplier, redispatched);
+        }
+
+        OutstandingRequest withDispatchTime(Instant newDispatchTime) {
+            return new OutstandingRequest(headers, body, newDispatchTime, multiplier, redispatched);
+        }
+    }
+}
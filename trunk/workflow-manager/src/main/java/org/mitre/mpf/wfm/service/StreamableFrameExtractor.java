@@ -73,7 +73,9 @@ public class StreamableFrameExtractor {
 
             frameExtractor.getExtractionsMap().putAll(request.getExtractionsMap());
 
-            ThreadUtil.runAsync(() -> {
+            // This thread waits on the extractor, so the extractor can not wait in the bounded
+            // pool's queue.
+            ThreadUtil.runAsyncUnbounded(() -> {
                 try {
                     frameExtractor.execute();
                 } finally {
@@ -127,6 +127,8 @@ public class TiesDbBeforeJobCheckServiceImpl
 
     private final AuditEventLogger _auditEventLogger;
 
+    private final JobResultCacheService _jobResultCacheService;
+
     @Inject
     public TiesDbBeforeJobCheckServiceImpl(
             PropertiesUtil propertiesUtil,
@@ -137,7 +139,8 @@ public class TiesDbBeforeJobCheckServiceImpl
             ObjectMapper objectMapper,
             InProgressBatchJobsService inProgressJobs,
             S3StorageBackend s3StorageBackend,
-            AuditEventLogger auditEventLogger) {
+            AuditEventLogger auditEventLogger,
+            JobResultCacheService jobResultCacheService) {
         _propertiesUtil = propertiesUtil;
         _aggregateJobPropertiesUtil = aggregateJobPropertiesUtil;
         _jobConfigHasher = jobConfigHasher;
@@ -147,6 +150,7 @@ public class TiesDbBeforeJobCheckServiceImpl
         _inProgressJobs = inProgressJobs;
         _s3StorageBackend = s3StorageBackend;
         _auditEventLogger = auditEventLogger;
+        _jobResultCacheService = jobResultCacheService;
     }
 
     @Override
@@ -169,19 +173,28 @@ public class TiesDbBeforeJobCheckServiceImpl
     private void checkTiesDbAfterMediaInspection(Exchange exchange) {
         long jobId = exchange.getIn().getHeader(MpfHeaders.JOB_ID, long.class);
         var job = _inProgressJobs.getJob(jobId);
-        getCheckNotPossibleReason(job)
+        var tiesDbCheckInfo = getCheckNotPossibleReason(job)
                 // These statuses indicate that a TiesDb check was requested, but could not be
                 // performed during job creation because the job request did not contain the
                 // necessary media metadata. Since the metadata was not provided, the check has to
                 // be delayed until after media inspection extracts the metadata.
                 .filter(NEED_MEDIA_INSPECTION_STATUSES::contains)
-                .flatMap(s -> checkIfJobInTiesDb(job).checkInfo())
-                .ifPresent(ci -> {
-                    exchange.getOut().setHeader(MpfHeaders.JOB_COMPLETE, true);
-                    exchange.getOut().setHeader(
-                            MpfHeaders.OUTPUT_OBJECT_URI_FROM_TIES_DB,
-                            ci.outputObjectUri().toString());
-                });
+                .flatMap(s -> checkIfJobInTiesDb(job).checkInfo());
+        if (tiesDbCheckInfo.isPresent()) {
+            exchange.getOut().setHeader(MpfHeaders.JOB_COMPLETE, true);
+            exchange.getOut().setHeader(
+                    MpfHeaders.OUTPUT_OBJECT_URI_FROM_TIES_DB,
+                    tiesDbCheckInfo.get().outputObjectUri().toString());
+            return;
+        }
+
+        // The media hashes are always available after media inspection, so the local result
+        // cache is only checked here.
+        _jobResultCacheService.findCachedResult(job).ifPresent(uri -> {
+            exchange.getOut().setHeader(MpfHeaders.JOB_COMPLETE, true);
+            exchange.getOut().setHeader(
+                    MpfHeaders.OUTPUT_OBJECT_URI_FROM_RESULT_CACHE, uri.toString());
+        });
     }
 
 
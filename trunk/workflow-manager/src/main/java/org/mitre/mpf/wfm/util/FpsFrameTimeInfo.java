@@ -42,12 +42,15 @@ public class FpsFrameTimeInfo implements FrameTimeInfo {
 
     private final OptionalInt _exactFrameCount;
 
+    private final KeyframeIndex _keyframeIndex;
+
     public FpsFrameTimeInfo(
             double fps,
             OptionalInt optStartTime,
             boolean hasConstantFrameRate,
             OptionalInt exactFrameCount) {
-        this(getFpsWrapper(fps), optStartTime, hasConstantFrameRate, exactFrameCount);
+        this(getFpsWrapper(fps), optStartTime, hasConstantFrameRate, exactFrameCount,
+             KeyframeIndex.EMPTY);
     }
 
     public FpsFrameTimeInfo(
@@ -55,19 +58,31 @@ public class FpsFrameTimeInfo implements FrameTimeInfo {
             OptionalInt optStartTime,
             boolean hasConstantFrameRate,
             OptionalInt exactFrameCount) {
-        this(getFpsWrapper(fps), optStartTime, hasConstantFrameRate, exactFrameCount);
+        this(fps, optStartTime, hasConstantFrameRate, exactFrameCount, KeyframeIndex.EMPTY);
+    }
+
+    public FpsFrameTimeInfo(
+            Fraction fps,
+            OptionalInt optStartTime,
+            boolean hasConstantFrameRate,
+            OptionalInt exactFrameCount,
+            KeyframeIndex keyframeIndex) {
+        this(getFpsWrapper(fps), optStartTime, hasConstantFrameRate, exactFrameCount,
+             keyframeIndex);
     }
 
     private FpsFrameTimeInfo(
             FpsWrapper fps,
             OptionalInt optStartTime,
             boolean hasConstantFrameRate,
-            OptionalInt exactFrameCount) {
+            OptionalInt exactFrameCount,
+            KeyframeIndex keyframeIndex) {
         _fpsWrapper = fps;
         _requiresTimeEstimation = optStartTime.isEmpty();
         _startTime = optStartTime.orElse(0);
         _hasConstantFrameRate = hasConstantFrameRate;
         _exactFrameCount = exactFrameCount;
+        _keyframeIndex = keyframeIndex;
     }
 
     @Override
@@ -112,6 +127,12 @@ public class FpsFrameTimeInfo implements FrameTimeInfo {
     }
 
 
+    @Override
+    public KeyframeIndex getKeyframeIndex() {
+        return _keyframeIndex;
+    }
+
+
 
     private static interface FpsWrapper {
         double getTimeMsFromFrame(int frameIndex);
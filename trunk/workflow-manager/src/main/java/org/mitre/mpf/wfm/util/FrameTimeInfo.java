@@ -44,12 +44,26 @@ public interface FrameTimeInfo {
 
     public OptionalInt getEstimatedDuration();
 
+    /**
+     * Returns the positions of the video's keyframes, or {@link KeyframeIndex#EMPTY} when they
+     * were not determined during media inspection.
+     */
+    public default KeyframeIndex getKeyframeIndex() {
+        return KeyframeIndex.EMPTY;
+    }
+
 
     public static FrameTimeInfo forConstantFrameRate(
             Fraction fps, OptionalInt startTime, int frameCount) {
         return new FpsFrameTimeInfo(fps, startTime, true, OptionalInt.of(frameCount));
     }
 
+    public static FrameTimeInfo forConstantFrameRate(
+            Fraction fps, OptionalInt startTime, int frameCount, KeyframeIndex keyframeIndex) {
+        return new FpsFrameTimeInfo(
+                fps, startTime, true, OptionalInt.of(frameCount), keyframeIndex);
+    }
+
     public static FrameTimeInfo forConstantFrameRate(
             double fps, OptionalInt startTime, int frameCount) {
         return new FpsFrameTimeInfo(fps, startTime, true, OptionalInt.of(frameCount));
@@ -68,4 +82,18 @@ public interface FrameTimeInfo {
             Fraction fps, int[] timeStamps, boolean requiresTimeEstimation) {
         return new VfrFrameTimeInfo(fps, timeStamps, requiresTimeEstimation);
     }
+
+    public static FrameTimeInfo forVariableFrameRate(
+            Fraction fps, int[] timeStamps, boolean requiresTimeEstimation,
+            KeyframeIndex keyframeIndex) {
+        return new VfrFrameTimeInfo(fps, timeStamps, requiresTimeEstimation, keyframeIndex);
+    }
+
+    public static FrameTimeInfo forVariableFrameRate(
+            Fraction fps, long[] ptsValues, Fraction ptsToMs, boolean requiresTimeEstimation,
+            KeyframeIndex keyframeIndex) {
+        return new VfrFrameTimeInfo(
+                fps, ptsValues, ptsToMs.numerator(), ptsToMs.denominator(),
+                requiresTimeEstimation, keyframeIndex);
+    }
 }
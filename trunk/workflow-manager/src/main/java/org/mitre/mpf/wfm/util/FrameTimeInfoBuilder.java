@@ -27,7 +27,6 @@ package org.mitre.mpf.wfm.util;
 
 import java.nio.file.Path;
 import java.time.Duration;
-import java.util.Arrays;
 import java.util.OptionalInt;
 import java.util.function.LongToIntFunction;
 
@@ -37,6 +36,7 @@ import org.mitre.mpf.pts.PtsExtractor;
 import org.mitre.mpf.pts.PtsExtractorJniException;
 import org.mitre.mpf.pts.PtsResult;
 import org.mitre.mpf.wfm.camel.operations.mediainspection.FfprobeMetadata;
+import org.mitre.mpf.wfm.camel.operations.mediainspection.Fraction;
 import org.mitre.mpf.wfm.camel.operations.mediainspection.MediaInspectionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,7 +55,8 @@ public class FrameTimeInfoBuilder {
             try (split) {
                 timeInfo = getFrameTimeInfo(mediaPath, ffprobeMetadata);
             }
-            logStats(split, mediaPath, mimeType, timeInfo.getExactFrameCount().orElse(-1));
+            logStats(split, mediaPath, mimeType, timeInfo.getExactFrameCount().orElse(-1),
+                     timeInfo.getKeyframeIndex().size());
             if (timeInfo.hasConstantFrameRate()) {
                 LOG.info("Determined that {} has a constant frame rate.", mediaPath);
             }
@@ -81,19 +82,23 @@ public class FrameTimeInfoBuilder {
 
         var ptsResult = PtsExtractor.getPts(mediaPath);
         var ptsValues = ptsResult.ptsValues();
+        var keyframeIndex = KeyframeIndex.of(ptsResult.keyframeIndices());
         if (isCfr(ptsResult) && ptsValues.length != 0) {
             int startTime = toMillis.applyAsInt(ptsValues[0]);
             int frameCount = ptsValues.length;
             return FrameTimeInfo.forConstantFrameRate(
                     ffprobeMetadata.fps(),
-                    OptionalInt.of(startTime), frameCount);
+                    OptionalInt.of(startTime), frameCount, keyframeIndex);
         }
 
-        int[] frameTimes = Arrays.stream(ptsValues)
-            .mapToInt(toMillis)
-            .toArray();
+        // The PTS values are passed in directly, rather than being converted to milliseconds
+        // first, because frames with the same PTS delta can have different millisecond deltas
+        // due to rounding. That would prevent VfrFrameTimeInfo from combining them into a single
+        // run.
         return FrameTimeInfo.forVariableFrameRate(
-                ffprobeMetadata.fps(), frameTimes, ptsResult.estimated());
+                ffprobeMetadata.fps(), ptsValues,
+                new Fraction(toMsNumerator, toMsDenominator),
+                ptsResult.estimated(), keyframeIndex);
     }
 
     private static boolean isCfr(PtsResult ptsResult) {
@@ -116,12 +121,14 @@ public class FrameTimeInfoBuilder {
             .start();
     }
 
-    private static void logStats(Split split, Path mediaPath, String mimeType, int frameCount) {
+    private static void logStats(Split split, Path mediaPath, String mimeType, int frameCount,
+                                 int keyframeCount) {
         var millis = Duration.ofNanos(split.runningFor()).toMillis();
-        LOG.info("getFrameTimeInfo [stopwatch: {} msec, media: {}, mime type: {}, frame count: {}]",
+        LOG.info("getFrameTimeInfo [stopwatch: {} msec, media: {}, mime type: {}, frame count: {}, keyframe count: {}]",
                     millis,
                     mediaPath,
                     mimeType,
-                    frameCount);
+                    frameCount,
+                    keyframeCount);
     }
 }
@@ -94,7 +94,7 @@ public class IoUtils {
         // Need to read both stdout and stderr at the same time to prevent either of them
         // filling up their pipe buffer and causing the process to dead lock waiting for space in
         // the pipe buffer.
-        var errorFuture = ThreadUtil.callAsync(
+        var errorFuture = ThreadUtil.callAsyncUnbounded(
                 () -> IOUtils.toString(process.getErrorStream(), StandardCharsets.UTF_8).trim());
 
         String output = IOUtils.toString(process.getInputStream(), StandardCharsets.UTF_8).trim();
@@ -27,9 +27,15 @@
 package org.mitre.mpf.wfm.util;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.activemq.broker.BrokerService;
+import org.apache.activemq.broker.region.Queue;
+import org.apache.activemq.command.ActiveMQQueue;
 import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
 import org.apache.camel.ExchangePattern;
 import org.apache.camel.LoggingLevel;
 import org.apache.camel.Route;
@@ -47,9 +53,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
-@Component
+@Component(JmsUtils.REF)
 public class JmsUtils {
+    public static final String REF = "jmsUtils";
+
     private static final Logger LOG = LoggerFactory.getLogger(JmsUtils.class);
 
     @Autowired
@@ -58,14 +68,62 @@ public class JmsUtils {
     @Autowired
     private CamelContext _camelContext;
 
+    @Autowired
+    private BrokerService _broker;
+
+    // Jobs remain in this cache after they complete so that responses that arrive after the job
+    // is no longer in progress can be discarded.
+    private final Cache<Long, Boolean> _cancelledJobIds = CacheBuilder.newBuilder()
+            .expireAfterWrite(1, TimeUnit.DAYS)
+            .build();
 
+
+    /**
+     * Moves the job's pending requests from the component request queues to the cancellation
+     * queues, where they are converted to cancellation responses. The messages are moved by the
+     * broker, rather than by adding a consumer with a selector to each request queue. Requests
+     * that are sent after this method is called are redirected by
+     * {@link #redirectCancelledRequest(Exchange)}.
+     */
     public void cancelDetectionJob(final long jobId) throws Exception {
+        _cancelledJobIds.put(jobId, true);
+        BatchJob job = _inProgressBatchJobs.getJob(jobId);
+        var selector = "JobId=" + jobId;
+        var context = _broker.getAdminConnectionContext();
+
+        var queuesWithoutPurge = new ArrayList<Algorithm>();
+        for (Algorithm algorithm : job.getPipelineElements().getAllAlgorithms()) {
+            var requestQueueName = String.format(
+                    "MPF.%s_%s_REQUEST", algorithm.actionType().name(), algorithm.name());
+            var destination = _broker.getBroker()
+                    .getDestinationMap()
+                    .get(new ActiveMQQueue(requestQueueName));
+            if (destination == null) {
+                // The queue has not been created yet, so there is nothing to remove.
+                continue;
+            }
+            if (!(destination instanceof Queue queue)) {
+                queuesWithoutPurge.add(algorithm);
+                continue;
+            }
+            int numMoved = queue.moveMatchingMessagesTo(
+                    context, selector,
+                    new ActiveMQQueue(getCancellationQueueName(requestQueueName)));
+            LOG.info("Cancelled {} pending requests in {}.", numMoved, requestQueueName);
+        }
+
+        if (!queuesWithoutPurge.isEmpty()) {
+            addCancellationRoutes(jobId, queuesWithoutPurge);
+        }
+    }
+
+
+    private void addCancellationRoutes(long jobId, Collection<Algorithm> algorithms)
+            throws Exception {
         _camelContext.addRoutes(new RouteBuilder() {
             @Override
             public void configure() {
-                BatchJob job = _inProgressBatchJobs.getJob(jobId);
-
-                for (Algorithm algorithm : job.getPipelineElements().getAllAlgorithms()) {
+                for (Algorithm algorithm : algorithms) {
                     String routeName = createCancellationRouteName(jobId, algorithm.actionType().name(),
                                                                    algorithm.name(), "REQUEST");
                     String routeUri = String.format("activemq:MPF.%s_%s_REQUEST?selector=JobId%%3D%d",
@@ -81,6 +139,56 @@ public class JmsUtils {
         });
     }
 
+
+    /**
+     * Changes the destination of a request to the cancellation queue when the request's job has
+     * been cancelled. This handles requests that were not yet sent when the job's request queues
+     * were purged.
+     */
+    public void redirectCancelledRequest(Exchange exchange) {
+        var in = exchange.getIn();
+        var destination = in.getHeader(MpfHeaders.JMS_DESTINATION, String.class);
+        // Messages that are not component requests, like cached responses, are not redirected.
+        if (destination == null || !destination.endsWith("_REQUEST")) {
+            return;
+        }
+        long jobId = in.getHeader(MpfHeaders.JOB_ID, Long.class);
+        if (!isCancelled(jobId)) {
+            return;
+        }
+        in.setHeader(MpfHeaders.JMS_DESTINATION, getCancellationQueueName(destination));
+        in.setHeader(MpfHeaders.CANCELLED, true);
+    }
+
+
+    /**
+     * Returns true when the response is for a cancelled job that is no longer in progress, so
+     * the response can not be used.
+     */
+    public boolean isResponseForFinishedCancelledJob(Exchange exchange) {
+        var jobId = exchange.getIn().getHeader(MpfHeaders.JOB_ID, Long.class);
+        return jobId != null
+                && _cancelledJobIds.getIfPresent(jobId) != null
+                && !_inProgressBatchJobs.containsJob(jobId);
+    }
+
+
+    public boolean isCancelled(long jobId) {
+        if (_cancelledJobIds.getIfPresent(jobId) != null) {
+            return true;
+        }
+        return _inProgressBatchJobs.containsJob(jobId)
+                && _inProgressBatchJobs.getJob(jobId).isCancelled();
+    }
+
+
+    public static String getCancellationQueueName(String requestQueueName) {
+        return requestQueueName.startsWith("MPF." + ActionType.MARKUP.name())
+                ? MarkupCancellationRouteBuilder.JMS_DESTINATION
+                : DetectionCancellationRouteBuilder.JMS_DESTINATION;
+    }
+
+
     /**
      * When a job completes, any cancellation routes associated with the Job should also be stopped and deleted.
      * @param jobId
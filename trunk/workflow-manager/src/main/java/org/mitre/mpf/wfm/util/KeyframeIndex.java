@@ -0,0 +1,106 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.util;
+
+import java.util.Arrays;
+import java.util.OptionalInt;
+
+/**
+ * Sorted frame indices of the keyframes in a video. A component can only start decoding at a
+ * keyframe, so a segment that starts anywhere else forces the component to decode and then
+ * discard the frames between the previous keyframe and the start of the segment.
+ */
+public class KeyframeIndex {
+
+    public static final KeyframeIndex EMPTY = new KeyframeIndex(new int[0]);
+
+    private final int[] _keyframes;
+
+    private KeyframeIndex(int[] keyframes) {
+        _keyframes = keyframes;
+    }
+
+    public static KeyframeIndex of(int[] sortedKeyframes) {
+        if (sortedKeyframes == null || sortedKeyframes.length == 0) {
+            return EMPTY;
+        }
+        return new KeyframeIndex(sortedKeyframes.clone());
+    }
+
+
+    public boolean isEmpty() {
+        return _keyframes.length == 0;
+    }
+
+    public int size() {
+        return _keyframes.length;
+    }
+
+    public boolean isKeyframe(int frameIndex) {
+        return Arrays.binarySearch(_keyframes, frameIndex) >= 0;
+    }
+
+
+    /**
+     * Finds the keyframe closest to frameIndex that is in the range [minFrame, maxFrame] and
+     * no more than maxDistance frames away. When two keyframes are equally close, the earlier
+     * one is returned.
+     */
+    public OptionalInt findNearest(int frameIndex, int maxDistance, int minFrame, int maxFrame) {
+        int lowerBound = Math.max(minFrame, frameIndex - maxDistance);
+        int upperBound = Math.min(maxFrame, frameIndex + maxDistance);
+        if (lowerBound > upperBound) {
+            return OptionalInt.empty();
+        }
+
+        int searchResult = Arrays.binarySearch(_keyframes, frameIndex);
+        if (searchResult >= 0) {
+            return frameIndex >= lowerBound && frameIndex <= upperBound
+                    ? OptionalInt.of(frameIndex)
+                    : OptionalInt.empty();
+        }
+
+        int insertionPoint = -searchResult - 1;
+        int before = insertionPoint > 0 ? _keyframes[insertionPoint - 1] : Integer.MIN_VALUE;
+        int after = insertionPoint < _keyframes.length
+                ? _keyframes[insertionPoint]
+                : Integer.MAX_VALUE;
+        boolean beforeInRange = before >= lowerBound;
+        boolean afterInRange = after <= upperBound;
+
+        if (beforeInRange && afterInRange) {
+            return OptionalInt.of(frameIndex - before <= after - frameIndex ? before : after);
+        }
+        else if (beforeInRange) {
+            return OptionalInt.of(before);
+        }
+        else if (afterInRange) {
+            return OptionalInt.of(after);
+        }
+        return OptionalInt.empty();
+    }
+}
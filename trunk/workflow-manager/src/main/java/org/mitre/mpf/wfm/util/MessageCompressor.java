@@ -0,0 +1,126 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+
+package org.mitre.mpf.wfm.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.inject.Inject;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.mitre.mpf.wfm.enums.MpfHeaders;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compresses large protobuf messages before they are sent through the broker. Compressed
+ * messages have the {@link MpfHeaders#COMPRESSION} header set to {@link #DEFLATE}. The component
+ * executors and the markup worker check for the same header.
+ */
+@Component(MessageCompressor.REF)
+public class MessageCompressor {
+
+    public static final String REF = "messageCompressor";
+
+    public static final String DEFLATE = "DEFLATE";
+
+    private final PropertiesUtil _propertiesUtil;
+
+    @Inject
+    MessageCompressor(PropertiesUtil propertiesUtil) {
+        _propertiesUtil = propertiesUtil;
+    }
+
+
+    /**
+     * Compresses the message body when it is at least as large as
+     * {@link PropertiesUtil#getJmsCompressionThresholdBytes()}.
+     */
+    public void compressIfLarge(Exchange exchange) {
+        int threshold = _propertiesUtil.getJmsCompressionThresholdBytes();
+        if (threshold <= 0) {
+            return;
+        }
+        var in = exchange.getIn();
+        var body = in.getBody(byte[].class);
+        if (body == null || body.length < threshold) {
+            return;
+        }
+        in.setBody(compress(body));
+        in.setHeader(MpfHeaders.COMPRESSION, DEFLATE);
+    }
+
+
+    public static byte[] compress(byte[] bytes) {
+        var outStream = new ByteArrayOutputStream(bytes.length / 4);
+        var deflater = new Deflater(Deflater.BEST_SPEED);
+        try (var deflaterStream = new DeflaterOutputStream(outStream, deflater)) {
+            deflaterStream.write(bytes);
+        }
+        catch (IOException e) {
+            // ByteArrayOutputStream does not throw IOException.
+            throw new UncheckedIOException(e);
+        }
+        finally {
+            deflater.end();
+        }
+        return outStream.toByteArray();
+    }
+
+
+    public static boolean isCompressed(Message message) {
+        return DEFLATE.equals(message.getHeader(MpfHeaders.COMPRESSION));
+    }
+
+
+    /**
+     * Wraps the stream so that it is decompressed when the message has the
+     * {@link MpfHeaders#COMPRESSION} header.
+     */
+    public static InputStream decompressIfNeeded(Message message, InputStream stream) {
+        return isCompressed(message)
+                ? new InflaterInputStream(stream)
+                : stream;
+    }
+
+
+    public static byte[] decompressIfNeeded(Message message, byte[] bytes) throws IOException {
+        if (!isCompressed(message)) {
+            return bytes;
+        }
+        try (var inflaterStream = new InflaterInputStream(new ByteArrayInputStream(bytes))) {
+            return inflaterStream.readAllBytes();
+        }
+    }
+}
@@ -60,7 +60,9 @@ public class PipeStream extends InputStream {
 
 
     private CompletableFuture<Void> beginWriting(PipeWriter writer) {
-        return ThreadUtil.runAsync(() -> {
+        // The reader blocks until the writer produces output, so the writer can not wait for a
+        // thread in the bounded pool.
+        return ThreadUtil.runAsyncUnbounded(() -> {
             try (OutputStream out = _pipedOutputStream) {
                 writer.writeTo(out);
             }
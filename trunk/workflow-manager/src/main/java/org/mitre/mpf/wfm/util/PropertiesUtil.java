@@ -63,6 +63,7 @@ import org.mitre.mpf.wfm.WfmProcessingException;
 import org.mitre.mpf.wfm.data.entities.persistent.Media;
 import org.mitre.mpf.wfm.data.entities.persistent.SystemPropertiesSnapshot;
 import org.mitre.mpf.wfm.enums.ArtifactExtractionPolicy;
+import org.mitre.mpf.wfm.enums.DispatchPolicy;
 import org.mitre.mpf.wfm.enums.EnvVar;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -155,6 +156,9 @@ public class PropertiesUtil {
         derivativeMediaDirectory = createOrFail(share, "derivative-media", permissions);
         mediaSelectorsOutputDir = createOrFail(
                 share, "media-selectors-output", permissions).toPath();
+        requestContextDirectory = createOrFail(share, "request-contexts", permissions);
+        segmentCacheDirectory = createOrFail(share, "segment-cache", permissions).toPath();
+        jobCheckpointDirectory = createOrFail(share, "job-checkpoints", permissions).toPath();
         uploadedComponentsDirectory = createOrFail(share, getComponentUploadDirName(), permissions);
         createOrFail(getPluginDeploymentPath(), "", permissions);
 
@@ -168,6 +172,9 @@ public class PropertiesUtil {
         LOG.debug("Remote Media Directory = {}", remoteMediaDirectory);
         LOG.debug("Temporary Media Directory = {}", temporaryMediaDirectory);
         LOG.debug("Derivative Media Directory = {}", derivativeMediaDirectory);
+        LOG.debug("Request Context Directory = {}", requestContextDirectory);
+        LOG.debug("Segment Cache Directory = {}", segmentCacheDirectory);
+        LOG.debug("Job Checkpoint Directory = {}", jobCheckpointDirectory);
         LOG.debug("Uploaded Components Directory = {}", uploadedComponentsDirectory);
     }
 
@@ -422,6 +429,24 @@ public class PropertiesUtil {
         }
     }
 
+    private File requestContextDirectory;
+    public File getJobRequestContextDirectory(long jobId) {
+        return new File(requestContextDirectory, String.valueOf(jobId));
+    }
+
+    private Path segmentCacheDirectory;
+    public Path getSegmentCacheDirectory() {
+        return segmentCacheDirectory;
+    }
+
+    private Path jobCheckpointDirectory;
+    public Path getJobCheckpointDirectory() {
+        return jobCheckpointDirectory;
+    }
+    public Path getJobCheckpointDirectory(long jobId) {
+        return jobCheckpointDirectory.resolve(String.valueOf(jobId));
+    }
+
     private File markupDirectory;
     public File getJobMarkupDirectory(long jobId) {
         return new File(markupDirectory, String.valueOf(jobId));
@@ -536,6 +561,42 @@ public class PropertiesUtil {
                 getTiesDbCheckIgnorablePropertiesTemplate());
     }
 
+    public boolean isResultCacheEnabled() {
+        return _mpfPropertiesConfig.getBoolean("mpf.result.cache.enabled", false);
+    }
+
+    public int getResultCacheRetentionDays() {
+        return _mpfPropertiesConfig.getInt("mpf.result.cache.retention.days", 30);
+    }
+
+    public int getResultCacheMaxEntries() {
+        return _mpfPropertiesConfig.getInt("mpf.result.cache.max.entries", 10000);
+    }
+
+    public boolean isSegmentCacheEnabled() {
+        return _mpfPropertiesConfig.getBoolean("mpf.segment.cache.enabled", false);
+    }
+
+    public long getSegmentCacheMaxSizeMb() {
+        return _mpfPropertiesConfig.getLong("mpf.segment.cache.max.size.mb", 10240);
+    }
+
+    public long getSpeculativeExecutionMaxTrackedMb() {
+        return _mpfPropertiesConfig.getLong("mpf.speculative.execution.max.tracked.mb", 256);
+    }
+
+    public int getBulkJobMaxCount() {
+        return _mpfPropertiesConfig.getInt("mpf.bulk.job.max.count", 10000);
+    }
+
+    public int getThreadPoolMaxSize() {
+        return _mpfPropertiesConfig.getInt("mpf.thread.pool.max.size", 500);
+    }
+
+    public boolean isJobCheckpointEnabled() {
+        return _mpfPropertiesConfig.getBoolean("mpf.job.checkpoint.enabled", false);
+    }
+
 
     private FileSystemResource getNodeManagerPaletteData() {
         return new FileSystemResource(_mpfPropertiesConfig.getString("data.nodemanagerpalette.file"));
@@ -643,6 +704,10 @@ public class PropertiesUtil {
         return _mpfPropertiesConfig.getBoolean("web.broadcast.job.status.enabled");
     }
 
+    public long getJobProgressBroadcastIntervalMs() {
+        return _mpfPropertiesConfig.getLong("web.broadcast.job.progress.interval.ms", 500);
+    }
+
     //
     // Version information
     //
@@ -694,6 +759,18 @@ public class PropertiesUtil {
         return _mpfPropertiesConfig.getInt("amq.max.page.size", 1000);
     }
 
+    public DispatchPolicy getDispatchPolicy() {
+        return _mpfPropertiesConfig.get(DispatchPolicy.class, "jms.dispatch.policy", DispatchPolicy.NONE);
+    }
+
+    public int getDispatchQueuedRequestsPerConsumer() {
+        return _mpfPropertiesConfig.getInt("jms.dispatch.queued.requests.per.consumer", 2);
+    }
+
+    public int getMaxInFlightRequestsPerJob() {
+        return _mpfPropertiesConfig.getInt("jms.max.in.flight.requests.per.job", 10000);
+    }
+
     //
     // Streaming job properties
     //
@@ -838,6 +915,10 @@ public class PropertiesUtil {
         return _mpfPropertiesConfig.getInt("mpf.protobuf.max.size");
     }
 
+    public int getJmsCompressionThresholdBytes() {
+        return _mpfPropertiesConfig.getInt("mpf.jms.compression.threshold.bytes");
+    }
+
     public int getS3ClientCacheCount() {
         return _mpfPropertiesConfig.getInt("static.s3.client.cache.count", 40);
     }
@@ -35,6 +35,7 @@ import javax.inject.Inject;
 
 import org.apache.camel.Exchange;
 import org.apache.camel.spi.DataFormat;
+import org.mitre.mpf.wfm.enums.MpfHeaders;
 import org.springframework.stereotype.Component;
 
 import com.google.protobuf.CodedInputStream;
@@ -74,7 +75,23 @@ public class ProtobufDataFormatFactory {
 
         @Override
         public Object unmarshal(Exchange exchange, InputStream stream) throws IOException {
-            var codedInputStream = CodedInputStream.newInstance(stream);
+            var in = exchange.getIn();
+            CodedInputStream codedInputStream;
+            if (MessageCompressor.isCompressed(in)) {
+                codedInputStream = CodedInputStream.newInstance(
+                        MessageCompressor.decompressIfNeeded(in, stream));
+                // The body will no longer be compressed once it has been unmarshalled.
+                in.removeHeader(MpfHeaders.COMPRESSION);
+            }
+            else if (in.getBody() instanceof byte[] bytes) {
+                // The JMS binding has already read the contents of BytesMessages into an array.
+                // Decoding directly from that array avoids copying the message into the
+                // CodedInputStream's buffer in chunks.
+                codedInputStream = CodedInputStream.newInstance(bytes);
+            }
+            else {
+                codedInputStream = CodedInputStream.newInstance(stream);
+            }
             codedInputStream.setSizeLimit(_propertiesUtil.getProtobufSizeLimit());
             return _parser.parseFrom(codedInputStream);
         }
@@ -0,0 +1,73 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.util;
+
+import java.util.Map;
+
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Detection and track properties repeat the same keys and values in every detection, but the
+ * strings are created separately each time a protobuf response or a serialized track is read.
+ * Interning them lets all of the equal strings share one instance. A weak interner is used so
+ * that strings are released once no job refers to them.
+ */
+public class StringInterner {
+
+    // Long strings, like the results of OCR, rarely repeat, so they are not worth tracking.
+    private static final int MAX_INTERNED_LENGTH = 64;
+
+    private static final Interner<String> INTERNER = Interners.newWeakInterner();
+
+    private StringInterner() {
+    }
+
+
+    public static String intern(String str) {
+        if (str == null || str.length() > MAX_INTERNED_LENGTH) {
+            return str;
+        }
+        return INTERNER.intern(str);
+    }
+
+
+    /**
+     * Creates an immutable copy of {@code properties} with interned keys and values. Maps that
+     * are already an {@link ImmutableSortedMap} are almost always the properties of an existing
+     * detection or track, which were interned when they were created, so they are reused as is.
+     */
+    public static ImmutableSortedMap<String, String> internedCopy(Map<String, String> properties) {
+        if (properties instanceof ImmutableSortedMap) {
+            return ImmutableSortedMap.copyOf(properties);
+        }
+        var builder = ImmutableSortedMap.<String, String>naturalOrder();
+        properties.forEach((k, v) -> builder.put(intern(k), intern(v)));
+        return builder.build();
+    }
+}
@@ -36,6 +36,7 @@ import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -52,7 +53,18 @@ import com.google.common.util.concurrent.ForwardingExecutorService;
 
 public class ThreadUtil {
 
-    private static MdcAwareCachedThreadPool THREAD_POOL = new MdcAwareCachedThreadPool();
+    private static final int DEFAULT_MAX_THREADS = 500;
+
+    private static volatile int _maxThreads = DEFAULT_MAX_THREADS;
+
+    // Only start() and shutdown() replace the pool, so submitting tasks does not need to
+    // synchronize on this class.
+    private static volatile MdcAwareThreadPool THREAD_POOL = new MdcAwareThreadPool(_maxThreads);
+
+    // Tasks that another task waits on while they run, like reading a subprocess's stderr while
+    // the caller reads its stdout, can not use the bounded pool. When every thread in the bounded
+    // pool is waiting on one of those tasks, the tasks would stay in the queue forever.
+    private static volatile MdcAwareThreadPool UNBOUNDED_POOL = MdcAwareThreadPool.unbounded();
 
     private static final ExecutorService FORWARDING_EXECUTOR = new ForwardingExecutorService() {
         protected ExecutorService delegate() {
@@ -68,23 +80,37 @@ public class ThreadUtil {
     }
 
 
-    public static synchronized CustomCompletableFuture<Void> runAsync(ThrowingRunnable task) {
+    public static CustomCompletableFuture<Void> runAsync(ThrowingRunnable task) {
         return callAsync(task.asCallable());
     }
 
-    public static synchronized CustomCompletableFuture<Void> runAsync(long delay, TimeUnit unit,
-                                                                      ThrowingRunnable task) {
+    public static CustomCompletableFuture<Void> runAsync(long delay, TimeUnit unit,
+                                                         ThrowingRunnable task) {
         return callAsync(delay, unit, task.asCallable());
     }
 
 
-    public static synchronized <T> CustomCompletableFuture<T> callAsync(Callable<T> task) {
+    public static <T> CustomCompletableFuture<T> callAsync(Callable<T> task) {
         return new CustomCompletableFuture<>(task, THREAD_POOL);
     }
 
 
-    public static synchronized <T> CustomCompletableFuture<T> callAsync(long delay, TimeUnit unit,
-                                                                        Callable<T> task) {
+    /**
+     * Runs the task on a pool without a thread limit. Use this instead of
+     * {@link #callAsync(Callable)} when the caller blocks until the task completes, since the
+     * caller may itself be running on the bounded pool.
+     */
+    public static <T> CustomCompletableFuture<T> callAsyncUnbounded(Callable<T> task) {
+        return new CustomCompletableFuture<>(task, UNBOUNDED_POOL);
+    }
+
+    public static CustomCompletableFuture<Void> runAsyncUnbounded(ThrowingRunnable task) {
+        return callAsyncUnbounded(task.asCallable());
+    }
+
+
+    public static <T> CustomCompletableFuture<T> callAsync(long delay, TimeUnit unit,
+                                                           Callable<T> task) {
         var future = ThreadUtil.<T>newFuture();
 
         return (CustomCompletableFuture<T>)  future.completeAsync(() -> {
@@ -98,7 +124,7 @@ public class ThreadUtil {
     }
 
 
-    public static synchronized Executor delayedExecutor(long delay, TimeUnit unit) {
+    public static Executor delayedExecutor(long delay, TimeUnit unit) {
         // Capture context on submitting thread.
         var submitterMdcCtx = MDC.getCopyOfContextMap();
         return CompletableFuture.delayedExecutor(delay, unit, r -> {
@@ -216,14 +242,28 @@ public class ThreadUtil {
 
     public static synchronized void start() {
         if (THREAD_POOL.isShutdown()) {
-            THREAD_POOL = new MdcAwareCachedThreadPool();
+            THREAD_POOL = new MdcAwareThreadPool(_maxThreads);
+        }
+        if (UNBOUNDED_POOL.isShutdown()) {
+            UNBOUNDED_POOL = MdcAwareThreadPool.unbounded();
         }
     }
 
+    /**
+     * Sets the maximum number of threads in the shared pool. When all of the threads are busy,
+     * tasks wait in the pool's queue until a thread is available.
+     */
+    public static synchronized void setMaxThreads(int maxThreads) {
+        _maxThreads = Math.max(1, maxThreads);
+        THREAD_POOL.setPoolSize(_maxThreads);
+    }
+
     public static synchronized void shutdown() {
         try {
             THREAD_POOL.shutdown();
+            UNBOUNDED_POOL.shutdown();
             THREAD_POOL.awaitTermination(1, TimeUnit.SECONDS);
+            UNBOUNDED_POOL.awaitTermination(1, TimeUnit.SECONDS);
         }
         catch (InterruptedException ignored) {
             Thread.currentThread().interrupt();
@@ -231,6 +271,7 @@ public class ThreadUtil {
         }
         finally {
             THREAD_POOL.shutdownNow();
+            UNBOUNDED_POOL.shutdownNow();
         }
     }
 
@@ -296,12 +337,37 @@ public class ThreadUtil {
     }
 
 
-    private static class MdcAwareCachedThreadPool extends ThreadPoolExecutor {
+    private static class MdcAwareThreadPool extends ThreadPoolExecutor {
+
+        MdcAwareThreadPool(int maxThreads) {
+            // A ThreadPoolExecutor only creates threads beyond the core pool size when its queue
+            // is full, so the core size is set to the maximum and idle core threads are allowed to
+            // time out. This way the pool grows up to maxThreads and then queues tasks, but it
+            // does not keep idle threads around.
+            super(maxThreads, maxThreads, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), MdcAwareThreadPool::createThread);
+            allowCoreThreadTimeOut(true);
+        }
 
-        MdcAwareCachedThreadPool() {
-            // Constructor arguments taken from Executors.newCachedThreadPool(ThreadFactory).
+        private MdcAwareThreadPool() {
+            // Same configuration as Executors.newCachedThreadPool().
             super(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
-                    new SynchronousQueue<>(), MdcAwareCachedThreadPool::createThread);
+                    new SynchronousQueue<>(), MdcAwareThreadPool::createThread);
+        }
+
+        static MdcAwareThreadPool unbounded() {
+            return new MdcAwareThreadPool();
+        }
+
+        void setPoolSize(int maxThreads) {
+            if (maxThreads > getMaximumPoolSize()) {
+                setMaximumPoolSize(maxThreads);
+                setCorePoolSize(maxThreads);
+            }
+            else {
+                setCorePoolSize(maxThreads);
+                setMaximumPoolSize(maxThreads);
+            }
         }
 
         @Override
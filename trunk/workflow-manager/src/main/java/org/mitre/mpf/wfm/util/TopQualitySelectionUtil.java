@@ -26,7 +26,6 @@
 
 package org.mitre.mpf.wfm.util;
 
-import java.lang.NumberFormatException;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.PriorityQueue;
@@ -41,9 +40,25 @@ public class TopQualitySelectionUtil {
 
     public static Detection getTopQualityItem(Collection<Detection> detections,
                                               String qualityProperty) {
-        return detections.stream()
-            .max(getMaxQualityComparator(d -> getQuality(d, qualityProperty)))
-            .orElse(null);
+        // Equivalent to using max with getMaxQualityComparator, but each detection's quality is
+        // only retrieved once.
+        Detection topDetection = null;
+        double topQuality = 0;
+        for (var detection : detections) {
+            double quality = getQuality(detection, qualityProperty);
+            if (topDetection == null) {
+                topDetection = detection;
+                topQuality = quality;
+                continue;
+            }
+            int qualityComparison = Double.compare(quality, topQuality);
+            if (qualityComparison > 0
+                    || (qualityComparison == 0 && detection.compareTo(topDetection) < 0)) {
+                topDetection = detection;
+                topQuality = quality;
+            }
+        }
+        return topDetection;
     }
 
     public static Collection<Detection> getTopQualityDetections(
@@ -77,20 +92,12 @@ public class TopQualitySelectionUtil {
     }
 
     public static double getQuality(Detection det, String qualityProperty) {
-        try {
-            if ((qualityProperty == null) ||
-                    StringUtils.isBlank(qualityProperty) ||
-                    qualityProperty.equalsIgnoreCase("confidence"))
-                return det.getConfidence();
-            else
-                return Double.parseDouble(det.getDetectionProperties().get(qualityProperty));
-        }
-        catch(NumberFormatException e) {
-            return Double.NEGATIVE_INFINITY;
-        }
-        catch(NullPointerException e) {
-            return Double.NEGATIVE_INFINITY;
-        }
+        if ((qualityProperty == null) ||
+                StringUtils.isBlank(qualityProperty) ||
+                qualityProperty.equalsIgnoreCase("confidence"))
+            return det.getConfidence();
+        else
+            return det.getNumericProperty(qualityProperty);
     }
 
     private static <T extends Comparable<T>>
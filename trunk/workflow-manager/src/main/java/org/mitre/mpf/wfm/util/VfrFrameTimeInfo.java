@@ -24,26 +24,137 @@
  * limitations under the License.                                             *
  ******************************************************************************/
 
-
 package org.mitre.mpf.wfm.util;
 
 import java.util.Arrays;
 import java.util.OptionalInt;
+import java.util.function.IntToLongFunction;
 
 import org.mitre.mpf.wfm.camel.operations.mediainspection.Fraction;
 
+/**
+ * Frame times for a variable frame rate video. Rather than storing one timestamp per frame, the
+ * timestamps are stored as runs of frames that have the same presentation timestamp (PTS) delta.
+ * Most variable frame rate videos only change their frame rate occasionally, so the amount of
+ * memory used depends on the number of changes in frame duration, rather than the number of
+ * frames. When the frame durations change so often that the runs would use more memory than
+ * storing each frame's time, for example because of a jittery timebase, each frame's time is
+ * stored instead.
+ */
 public class VfrFrameTimeInfo implements FrameTimeInfo {
 
     private final Fraction _fps;
 
-    private final int[] _timeStamps;
+    private final int _frameCount;
+
+    // Each run uses 20 bytes and each per-frame time uses 4 bytes, so the per-frame times are
+    // used when there are more runs than this fraction of the frame count.
+    private static final int FRAMES_PER_RUN_LIMIT = 5;
+
+    // The time in milliseconds of each frame. Only used when there are too many runs, in which
+    // case the run arrays are null.
+    private final int[] _frameTimesMs;
+
+    // The index of the first frame in each run.
+    private final int[] _runStartFrames;
+
+    // The PTS of the first frame in each run.
+    private final long[] _runStartPts;
+
+    // The PTS delta between consecutive frames in each run.
+    private final long[] _runPtsDeltas;
+
+    private final long _toMsNumerator;
+
+    private final long _toMsDenominator;
 
     private final boolean _requiresTimeEstimation;
 
+    private final KeyframeIndex _keyframeIndex;
+
     public VfrFrameTimeInfo(Fraction fps, int[] timeStamps, boolean requiresTimeEstimation) {
+        this(fps, timeStamps, requiresTimeEstimation, KeyframeIndex.EMPTY);
+    }
+
+    public VfrFrameTimeInfo(Fraction fps, int[] timeStamps, boolean requiresTimeEstimation,
+                            KeyframeIndex keyframeIndex) {
+        this(fps, i -> timeStamps[i], timeStamps.length, 1, 1, requiresTimeEstimation,
+             keyframeIndex);
+    }
+
+    /**
+     * @param ptsValues The presentation timestamp of each frame.
+     * @param toMsNumerator Numerator of the fraction used to convert a PTS to milliseconds.
+     * @param toMsDenominator Denominator of the fraction used to convert a PTS to milliseconds.
+     */
+    public VfrFrameTimeInfo(Fraction fps, long[] ptsValues, long toMsNumerator,
+                            long toMsDenominator, boolean requiresTimeEstimation,
+                            KeyframeIndex keyframeIndex) {
+        this(fps, i -> ptsValues[i], ptsValues.length, toMsNumerator, toMsDenominator,
+             requiresTimeEstimation, keyframeIndex);
+    }
+
+    private VfrFrameTimeInfo(Fraction fps, IntToLongFunction ptsGetter, int frameCount,
+                             long toMsNumerator, long toMsDenominator,
+                             boolean requiresTimeEstimation, KeyframeIndex keyframeIndex) {
         _fps = fps;
-        _timeStamps = timeStamps;
+        _frameCount = frameCount;
+        _toMsNumerator = toMsNumerator;
+        _toMsDenominator = toMsDenominator;
         _requiresTimeEstimation = requiresTimeEstimation;
+        _keyframeIndex = keyframeIndex;
+
+        int maxRunCount = Math.max(frameCount / FRAMES_PER_RUN_LIMIT, 1);
+        int[] runStartFrames = new int[16];
+        long[] runStartPts = new long[16];
+        long[] runPtsDeltas = new long[16];
+        int runCount = 0;
+        boolean tooManyRuns = false;
+        for (int frame = 0; frame < frameCount; frame++) {
+            long pts = ptsGetter.applyAsLong(frame);
+            if (runCount > 0) {
+                int run = runCount - 1;
+                int framesIntoRun = frame - runStartFrames[run];
+                if (framesIntoRun == 1) {
+                    // The second frame of a run determines the run's delta.
+                    runPtsDeltas[run] = pts - runStartPts[run];
+                    continue;
+                }
+                if (pts == runStartPts[run] + framesIntoRun * runPtsDeltas[run]) {
+                    continue;
+                }
+            }
+            if (runCount == maxRunCount) {
+                tooManyRuns = true;
+                break;
+            }
+            if (runCount == runStartFrames.length) {
+                int newLength = runCount * 2;
+                runStartFrames = Arrays.copyOf(runStartFrames, newLength);
+                runStartPts = Arrays.copyOf(runStartPts, newLength);
+                runPtsDeltas = Arrays.copyOf(runPtsDeltas, newLength);
+            }
+            runStartFrames[runCount] = frame;
+            runStartPts[runCount] = pts;
+            runPtsDeltas[runCount] = 0;
+            runCount++;
+        }
+        if (tooManyRuns) {
+            var frameTimesMs = new int[frameCount];
+            for (int frame = 0; frame < frameCount; frame++) {
+                frameTimesMs[frame] = toMs(ptsGetter.applyAsLong(frame));
+            }
+            _frameTimesMs = frameTimesMs;
+            _runStartFrames = null;
+            _runStartPts = null;
+            _runPtsDeltas = null;
+        }
+        else {
+            _frameTimesMs = null;
+            _runStartFrames = Arrays.copyOf(runStartFrames, runCount);
+            _runStartPts = Arrays.copyOf(runStartPts, runCount);
+            _runPtsDeltas = Arrays.copyOf(runPtsDeltas, runCount);
+        }
     }
 
 
@@ -59,45 +170,78 @@ public class VfrFrameTimeInfo implements FrameTimeInfo {
 
     @Override
     public int getTimeMsFromFrame(int frameIndex) {
-        try {
-            return _timeStamps[frameIndex];
-        }
-        catch (ArrayIndexOutOfBoundsException e) {
-            int startTime = _timeStamps.length > 0 ? _timeStamps[0] : 0;
-            var msPerFrame = _fps.invert().mul(1000);
-            return startTime + (int) msPerFrame.mul(frameIndex).toDouble();
+        if (frameIndex >= 0 && frameIndex < _frameCount) {
+            return getTime(frameIndex);
         }
+        int startTime = _frameCount > 0 ? getTime(0) : 0;
+        var msPerFrame = _fps.invert().mul(1000);
+        return startTime + (int) msPerFrame.mul(frameIndex).toDouble();
     }
 
     @Override
     public int getFrameFromTimeMs(int timeMs) {
-        int rv = Arrays.binarySearch(_timeStamps, timeMs);
-        if (rv >= 0) {
-            return rv;
+        // Find the first frame whose time is not less than timeMs.
+        int low = 0;
+        int high = _frameCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getTime(mid) < timeMs) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
         }
-        else {
-            int firstGreaterIdx = -rv - 1;
-            return Math.max(firstGreaterIdx - 1, 0);
+        if (low < _frameCount && getTime(low) == timeMs) {
+            return low;
         }
+        return Math.max(low - 1, 0);
     }
 
     @Override
     public OptionalInt getExactFrameCount() {
-        return OptionalInt.of(_timeStamps.length);
+        return OptionalInt.of(_frameCount);
     }
 
     @Override
     public OptionalInt getEstimatedDuration() {
-        if (_timeStamps.length == 0) {
+        if (_frameCount == 0) {
             return OptionalInt.of(0);
         }
-        if (_timeStamps.length == 1) {
+        if (_frameCount == 1) {
             return OptionalInt.of((int) _fps.invert().mul(1000).roundUp());
         }
-        int lastFrameTime = _timeStamps[_timeStamps.length - 1];
-        int secondLastFrameTime = _timeStamps[_timeStamps.length - 2];
+        int lastFrameTime = getTime(_frameCount - 1);
+        int secondLastFrameTime = getTime(_frameCount - 2);
         int prevTimeDiff = lastFrameTime - secondLastFrameTime;
         int endTime = lastFrameTime + prevTimeDiff;
-        return OptionalInt.of(endTime - _timeStamps[0]);
+        return OptionalInt.of(endTime - getTime(0));
+    }
+
+    @Override
+    public KeyframeIndex getKeyframeIndex() {
+        return _keyframeIndex;
+    }
+
+
+    boolean usesRuns() {
+        return _frameTimesMs == null;
+    }
+
+
+    private int getTime(int frameIndex) {
+        if (_frameTimesMs != null) {
+            return _frameTimesMs[frameIndex];
+        }
+        int rv = Arrays.binarySearch(_runStartFrames, frameIndex);
+        int run = rv >= 0 ? rv : -rv - 2;
+        long pts = _runStartPts[run]
+                + (frameIndex - _runStartFrames[run]) * _runPtsDeltas[run];
+        return toMs(pts);
+    }
+
+
+    private int toMs(long pts) {
+        return (int) (pts * _toMsNumerator / _toMsDenominator);
     }
 }
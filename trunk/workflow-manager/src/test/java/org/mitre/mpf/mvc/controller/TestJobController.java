@@ -0,0 +1,195 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.mvc.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mitre.mpf.rest.api.JobCreationRequest;
+import org.mitre.mpf.rest.api.MpfResponse;
+import org.mitre.mpf.rest.api.TiesDbCheckStatus;
+import org.mitre.mpf.test.MockitoTest;
+import org.mitre.mpf.test.TestUtil;
+import org.mitre.mpf.wfm.WfmProcessingException;
+import org.mitre.mpf.wfm.businessrules.JobRequestService;
+import org.mitre.mpf.wfm.businessrules.JobRequestService.BulkCreationResult;
+import org.mitre.mpf.wfm.businessrules.JobRequestService.CreationResult;
+import org.mitre.mpf.wfm.service.TiesDbCheckResult;
+import org.mitre.mpf.wfm.util.AuditEventLogger;
+import org.mitre.mpf.wfm.util.ObjectMapperFactory;
+import org.mitre.mpf.wfm.util.PropertiesUtil;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+
+public class TestJobController extends MockitoTest.Strict {
+
+    private MockMvc _mockMvc;
+
+    @InjectMocks
+    private JobController _jobController;
+
+    @Mock
+    private JobRequestService _mockJobRequestService;
+
+    @Mock
+    private PropertiesUtil _mockPropertiesUtil;
+
+    @Mock
+    private AuditEventLogger _mockAuditEventLogger;
+
+    @Mock
+    private AuditEventLogger.BuilderTagStage _mockBuilderTagStage;
+
+    @Mock
+    private AuditEventLogger.AuditEventBuilder _mockAuditEventBuilder;
+
+    @Before
+    public void init() {
+        _mockMvc = TestUtil.initMockMvc(_jobController);
+    }
+
+
+    @Test
+    public void bulkCreationReturnsCreatedWhenAllJobsCreated() throws Exception {
+        setupBulkCreation(List.of(success(1), success(2)));
+
+        postBulkJobs(2)
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("[0]jobId").value("host-1"))
+            .andExpect(jsonPath("[0]mpfResponse.responseCode")
+                               .value(MpfResponse.RESPONSE_CODE_SUCCESS))
+            .andExpect(jsonPath("[1]jobId").value("host-2"))
+            .andExpect(jsonPath("[1]mpfResponse.responseCode")
+                               .value(MpfResponse.RESPONSE_CODE_SUCCESS));
+    }
+
+
+    @Test
+    public void bulkCreationReturnsOkWhenSomeJobsCreated() throws Exception {
+        setupBulkCreation(List.of(success(1), failure("bad job")));
+
+        postBulkJobs(2)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("[0]jobId").value("host-1"))
+            .andExpect(jsonPath("[0]mpfResponse.responseCode")
+                               .value(MpfResponse.RESPONSE_CODE_SUCCESS))
+            .andExpect(jsonPath("[1]jobId").doesNotExist())
+            .andExpect(jsonPath("[1]mpfResponse.responseCode")
+                               .value(MpfResponse.RESPONSE_CODE_ERROR));
+    }
+
+
+    @Test
+    public void bulkCreationReturnsBadRequestWhenNoJobsCreated() throws Exception {
+        setupBulkCreation(List.of(failure("bad job 1"), failure("bad job 2")));
+
+        postBulkJobs(2)
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("[0]mpfResponse.responseCode")
+                               .value(MpfResponse.RESPONSE_CODE_ERROR))
+            .andExpect(jsonPath("[1]mpfResponse.responseCode")
+                               .value(MpfResponse.RESPONSE_CODE_ERROR));
+    }
+
+
+    @Test
+    public void bulkCreationRejectsTooManyJobs() throws Exception {
+        when(_mockPropertiesUtil.getBulkJobMaxCount())
+                .thenReturn(2);
+
+        postBulkJobs(3)
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("message").value(
+                    "The request contained 3 jobs, but at most 2 jobs can be submitted at once."));
+
+        verifyNoInteractions(_mockJobRequestService);
+    }
+
+
+    private void setupBulkCreation(List<BulkCreationResult> creationResults) {
+        when(_mockPropertiesUtil.getBulkJobMaxCount())
+                .thenReturn(10);
+        when(_mockJobRequestService.runAll(any()))
+                .thenReturn(creationResults);
+
+        boolean anySucceeded = creationResults.stream()
+                .anyMatch(cr -> cr.creationResult().isPresent());
+        if (anySucceeded) {
+            when(_mockPropertiesUtil.getExportedJobId(anyLong()))
+                    .thenAnswer(inv -> "host-" + inv.getArgument(0));
+        }
+
+        when(_mockAuditEventLogger.createEvent())
+                .thenReturn(_mockBuilderTagStage);
+        when(_mockBuilderTagStage.withSecurityTag())
+                .thenReturn(_mockAuditEventBuilder);
+        when(_mockAuditEventBuilder.withEventId(anyInt()))
+                .thenReturn(_mockAuditEventBuilder);
+        when(_mockAuditEventBuilder.withUri(any()))
+                .thenReturn(_mockAuditEventBuilder);
+    }
+
+
+    private ResultActions postBulkJobs(int jobCount) throws Exception {
+        var jobCreationRequest = new JobCreationRequest(
+                List.of(), null, null, null, "TEST PIPELINE", null, null, null, null, null);
+        var body = ObjectMapperFactory.customObjectMapper().writeValueAsString(
+                Collections.nCopies(jobCount, jobCreationRequest));
+
+        return _mockMvc.perform(
+                post("/rest/jobs/bulk").contentType(MediaType.APPLICATION_JSON).content(body));
+    }
+
+
+    private static BulkCreationResult success(long jobId) {
+        return BulkCreationResult.success(new CreationResult(
+                jobId, TiesDbCheckResult.noResult(TiesDbCheckStatus.NOT_REQUESTED)));
+    }
+
+
+    private static BulkCreationResult failure(String message) {
+        return BulkCreationResult.failure(new WfmProcessingException(message));
+    }
+}
@@ -41,7 +41,10 @@ import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -106,6 +109,7 @@ import org.mitre.mpf.wfm.service.TaskAnnotatorService;
 import org.mitre.mpf.wfm.service.TiesDbBeforeJobCheckService;
 import org.mitre.mpf.wfm.service.TiesDbCheckResult;
 import org.mitre.mpf.wfm.service.WorkflowPropertyService;
+import org.mitre.mpf.wfm.service.pipeline.InvalidPipelineException;
 import org.mitre.mpf.wfm.service.pipeline.PipelineService;
 import org.mitre.mpf.wfm.util.AggregateJobPropertiesUtil;
 import org.mitre.mpf.wfm.util.JmsUtils;
@@ -492,10 +496,17 @@ public class TestJobRequestService {
         when(_mockJobRequestDao.findById(jobId))
                 .thenReturn(jobRequestEntity);
 
+        var checkpointDir = _temporaryFolder.newFolder("job-checkpoint").toPath();
+        Files.writeString(checkpointDir.resolve("job.json"), "{}");
+        when(_mockPropertiesUtil.getJobCheckpointDirectory(jobId))
+                .thenReturn(checkpointDir);
+
 
         _jobRequestService.cancel(jobId);
 
         assertTrue(_inProgressJobs.getJob(jobId).isCancelled());
+        assertFalse("The checkpoint should be deleted when the job is cancelled.",
+                    Files.exists(checkpointDir));
 
         verify(_mockJmsUtils)
                 .cancelDetectionJob(jobId);
@@ -570,6 +581,124 @@ public class TestJobRequestService {
     }
 
 
+    @Test
+    public void canCreateJobsInBulk() {
+        var pipelineElements = createJobPipelineElements();
+        when(_mockPipelineService.getBatchPipelineElements("TEST PIPELINE"))
+                .thenReturn(pipelineElements);
+
+        when(_mockPropertiesUtil.createSystemPropertiesSnapshot())
+                .thenReturn(new SystemPropertiesSnapshot(Map.of()));
+
+        when(_mockJobRequestDao.getNextIds(3))
+                .thenReturn(List.of(101L, 102L, 103L));
+
+        when(_mockTiesDbBeforeJobCheckService.checkTiesDbBeforeJob(anyLong()))
+                .thenReturn(TiesDbCheckResult.noResult(TiesDbCheckStatus.NO_MATCH));
+
+        var invalidSelector = new JobCreationMediaSelector(
+                "", MediaSelectorType.JSON_PATH, Map.of(), "out");
+        var invalidMedia = new JobCreationMediaData(
+                null, null, null, null, null, List.of(invalidSelector), Optional.of("test"));
+        var invalidRequest = new JobCreationRequest(
+                List.of(invalidMedia), null, null, null, null, null, null, null, null, null);
+
+        var results = _jobRequestService.runAll(List.of(
+                createTestJobCreationRequest(5),
+                invalidRequest,
+                createTestJobCreationRequest(5)));
+
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).creationResult())
+                .hasValueSatisfying(cr -> assertEquals(101, cr.jobId()));
+        assertThat(results.get(1).creationResult()).isEmpty();
+        assertThat(results.get(1).error()).isInstanceOf(WfmProcessingException.class);
+        assertThat(results.get(2).creationResult())
+                .hasValueSatisfying(cr -> assertEquals(102, cr.jobId()));
+
+        // The pipeline is only validated once and all of the jobs are stored together.
+        verify(_mockPipelineService, times(1))
+                .getBatchPipelineElements("TEST PIPELINE");
+        verify(_mockJobRequestDao, never())
+                .getNextId();
+        verify(_mockJobRequestDao, never())
+                .persist(any());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<JobRequest>> persistedCaptor
+                = ArgumentCaptor.forClass(Collection.class);
+        verify(_mockJobRequestDao)
+                .persistNew(persistedCaptor.capture());
+        assertThat(persistedCaptor.getValue())
+                .extracting(JobRequest::getId)
+                .containsExactly(101L, 102L);
+
+        verify(_mockProducerTemplate, times(2))
+                .sendBodyAndHeaders(eq(MediaRetrieverRouteBuilder.ENTRY_POINT),
+                                    eq(ExchangePattern.InOnly), isNull(), any());
+    }
+
+
+    @Test
+    public void bulkCreationOnlyValidatesInvalidPipelineOnce() {
+        when(_mockPropertiesUtil.createSystemPropertiesSnapshot())
+                .thenReturn(new SystemPropertiesSnapshot(Map.of()));
+        when(_mockJobRequestDao.getNextIds(2))
+                .thenReturn(List.of(101L, 102L));
+
+        var pipelineException = new InvalidPipelineException("bad pipeline");
+        when(_mockPipelineService.getBatchPipelineElements("TEST PIPELINE"))
+                .thenThrow(pipelineException);
+
+        var results = _jobRequestService.runAll(List.of(
+                createTestJobCreationRequest(5),
+                createTestJobCreationRequest(5)));
+
+        assertThat(results).hasSize(2);
+        assertThat(results).allSatisfy(r -> {
+            assertThat(r.creationResult()).isEmpty();
+            assertThat(r.error()).isSameAs(pipelineException);
+        });
+
+        verify(_mockPipelineService, times(1))
+                .getBatchPipelineElements("TEST PIPELINE");
+        verify(_mockJobRequestDao)
+                .persistNew(List.of());
+        verifyNoInteractions(_mockProducerTemplate);
+    }
+
+
+    @Test
+    public void bulkCreationFailsAllJobsWhenPersistFails() {
+        when(_mockPipelineService.getBatchPipelineElements("TEST PIPELINE"))
+                .thenReturn(createJobPipelineElements());
+        when(_mockPropertiesUtil.createSystemPropertiesSnapshot())
+                .thenReturn(new SystemPropertiesSnapshot(Map.of()));
+        when(_mockJobRequestDao.getNextIds(2))
+                .thenReturn(List.of(101L, 102L));
+        when(_mockTiesDbBeforeJobCheckService.checkTiesDbBeforeJob(anyLong()))
+                .thenReturn(TiesDbCheckResult.noResult(TiesDbCheckStatus.NO_MATCH));
+
+        var persistException = new IllegalStateException("database unavailable");
+        doThrow(persistException)
+                .when(_mockJobRequestDao).persistNew(any());
+
+        var results = _jobRequestService.runAll(List.of(
+                createTestJobCreationRequest(5),
+                createTestJobCreationRequest(5)));
+
+        assertThat(results).hasSize(2);
+        assertThat(results).allSatisfy(r -> {
+            assertThat(r.creationResult()).isEmpty();
+            assertThat(r.error()).isSameAs(persistException);
+        });
+
+        assertFalse(_inProgressJobs.containsJob(101));
+        assertFalse(_inProgressJobs.containsJob(102));
+        verifyNoInteractions(_mockProducerTemplate);
+    }
+
+
     @Test
     public void testValidator() {
         var selector = new JobCreationMediaSelector(
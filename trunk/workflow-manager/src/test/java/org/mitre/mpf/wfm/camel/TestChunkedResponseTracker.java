@@ -0,0 +1,157 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+
+package org.mitre.mpf.wfm.camel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import org.apache.camel.Exchange;
+import org.junit.Test;
+import org.mitre.mpf.test.MockitoTest;
+import org.mitre.mpf.test.TestUtil;
+import org.mitre.mpf.wfm.buffers.DetectionProtobuf;
+import org.mitre.mpf.wfm.data.InProgressBatchJobsService;
+import org.mitre.mpf.wfm.enums.MpfHeaders;
+import org.mitre.mpf.wfm.service.SpeculativeExecutionService;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+public class TestChunkedResponseTracker extends MockitoTest.Strict {
+
+    private static final long JOB_ID = 123;
+
+    private static final String CORRELATION_ID = "123:abc";
+
+    @Mock
+    private SpeculativeExecutionService _mockSpeculativeExecutionService;
+
+    @Mock
+    private InProgressBatchJobsService _mockInProgressJobs;
+
+    @InjectMocks
+    private ChunkedResponseTracker _chunkedResponseTracker;
+
+
+    @Test
+    public void delegatesWhenResponseIsNotSplit() {
+        var exchange = createResponse(null, 0, false);
+        when(_mockSpeculativeExecutionService.isFirstResponse(exchange))
+                .thenReturn(false);
+
+        assertThat(_chunkedResponseTracker.isFirstResponse(exchange)).isFalse();
+        assertThat(_chunkedResponseTracker.isWaitingForMoreChunks(exchange)).isFalse();
+    }
+
+
+    @Test
+    public void onlyLastProcessedChunkContinues() {
+        var chunk0 = createResponse("set-a", 0, true);
+        var chunk1 = createResponse("set-a", 1, true);
+        var chunk2 = createResponse("set-a", 2, false);
+        when(_mockInProgressJobs.containsJob(JOB_ID))
+                .thenReturn(true);
+        when(_mockSpeculativeExecutionService.isFirstResponse(chunk0))
+                .thenReturn(true);
+
+        assertThat(_chunkedResponseTracker.isFirstResponse(chunk0)).isTrue();
+        assertThat(_chunkedResponseTracker.isFirstResponse(chunk2)).isTrue();
+        assertThat(_chunkedResponseTracker.isWaitingForMoreChunks(chunk2)).isTrue();
+        assertThat(_chunkedResponseTracker.isWaitingForMoreChunks(chunk0)).isTrue();
+
+        assertThat(_chunkedResponseTracker.isFirstResponse(chunk1)).isTrue();
+        assertThat(_chunkedResponseTracker.isWaitingForMoreChunks(chunk1)).isFalse();
+        // Only the first chunk is checked for speculative duplicates.
+        verifyNoMoreInteractions(_mockSpeculativeExecutionService);
+        assertThat(_chunkedResponseTracker.getTrackedJobCount()).isZero();
+    }
+
+
+    @Test
+    public void discardsChunksFromDuplicateResponse() {
+        var firstSetChunk = createResponse("set-a", 0, true);
+        var otherSetChunk = createResponse("set-b", 0, true);
+        when(_mockInProgressJobs.containsJob(JOB_ID))
+                .thenReturn(true);
+        when(_mockSpeculativeExecutionService.isFirstResponse(firstSetChunk))
+                .thenReturn(true);
+
+        assertThat(_chunkedResponseTracker.isFirstResponse(firstSetChunk)).isTrue();
+        assertThat(_chunkedResponseTracker.isFirstResponse(otherSetChunk)).isFalse();
+    }
+
+
+    @Test
+    public void removesIncompleteSetsWhenCancelledJobCompletes() {
+        var chunk0 = createResponse("set-a", 0, true);
+        when(_mockInProgressJobs.containsJob(JOB_ID))
+                .thenReturn(true);
+        when(_mockSpeculativeExecutionService.isFirstResponse(chunk0))
+                .thenReturn(true);
+
+        assertThat(_chunkedResponseTracker.isFirstResponse(chunk0)).isTrue();
+        assertThat(_chunkedResponseTracker.isWaitingForMoreChunks(chunk0)).isTrue();
+        assertThat(_chunkedResponseTracker.getTrackedJobCount()).isEqualTo(1);
+
+        // The job was cancelled, so the rest of the set is discarded by
+        // JmsUtils.isResponseForFinishedCancelledJob and never reaches the tracker.
+        _chunkedResponseTracker.removeJob(JOB_ID);
+        assertThat(_chunkedResponseTracker.getTrackedJobCount()).isZero();
+    }
+
+
+    @Test
+    public void doesNotTrackSetsForUnknownJobs() {
+        var chunk0 = createResponse("set-a", 0, true);
+        when(_mockInProgressJobs.containsJob(JOB_ID))
+                .thenReturn(false);
+        when(_mockSpeculativeExecutionService.isFirstResponse(chunk0))
+                .thenReturn(true);
+
+        assertThat(_chunkedResponseTracker.isFirstResponse(chunk0)).isTrue();
+        assertThat(_chunkedResponseTracker.isWaitingForMoreChunks(chunk0)).isFalse();
+        assertThat(_chunkedResponseTracker.getTrackedJobCount()).isZero();
+    }
+
+
+    private static Exchange createResponse(String chunkSetId, int chunkIndex,
+                                           boolean hasMoreChunks) {
+        var exchange = TestUtil.createTestExchange();
+        exchange.getIn().setHeader(MpfHeaders.JOB_ID, JOB_ID);
+        exchange.getIn().setHeader(MpfHeaders.CORRELATION_ID, CORRELATION_ID);
+        exchange.getIn().setHeader(MpfHeaders.SPLIT_INDEX, 4);
+        if (chunkSetId != null) {
+            exchange.getIn().setHeader(MpfHeaders.RESPONSE_CHUNK_SET_ID, chunkSetId);
+        }
+        exchange.getIn().setBody(DetectionProtobuf.DetectionResponse.newBuilder()
+                .setChunkIndex(chunkIndex)
+                .setHasMoreChunks(hasMoreChunks)
+                .build());
+        return exchange;
+    }
+}
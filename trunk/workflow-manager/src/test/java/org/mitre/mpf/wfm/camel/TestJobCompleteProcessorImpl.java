@@ -62,6 +62,7 @@ import org.mitre.mpf.wfm.event.JobProgress;
 import org.mitre.mpf.wfm.event.NotificationConsumer;
 import org.mitre.mpf.wfm.service.CensorPropertiesService;
 import org.mitre.mpf.wfm.service.JobCompleteCallbackService;
+import org.mitre.mpf.wfm.service.JobResultCacheService;
 import org.mitre.mpf.wfm.service.JobStatusBroadcaster;
 import org.mitre.mpf.wfm.service.StorageService;
 import org.mitre.mpf.wfm.service.TiesDbBeforeJobCheckService;
@@ -123,6 +124,12 @@ public class TestJobCompleteProcessorImpl extends MockitoTest.Strict {
     @Mock
     private JobCompleteCallbackService _mockJobCompleteCallbackService;
 
+    @Mock
+    private JobResultCacheService _mockJobResultCacheService;
+
+    @Mock
+    private ChunkedResponseTracker _mockChunkedResponseTracker;
+
     @InjectMocks
     private JobCompleteProcessorImpl _jobCompleteProcessorImpl;
 
@@ -237,6 +244,8 @@ public class TestJobCompleteProcessorImpl extends MockitoTest.Strict {
             .clearJob(jobId);
         verify(_mockJobProgressStore)
             .removeJob(jobId);
+        verify(_mockChunkedResponseTracker)
+            .removeJob(jobId);
 
         verifyNoInteractions(
                 _mockMarkupResultDao,
@@ -0,0 +1,186 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.camel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.camel.ExchangePattern;
+import org.apache.camel.ProducerTemplate;
+import org.junit.Before;
+import org.junit.Test;
+import org.mitre.mpf.test.MockitoTest;
+import org.mitre.mpf.test.TestUtil;
+import org.mitre.mpf.wfm.data.InProgressBatchJobsService;
+import org.mitre.mpf.wfm.data.entities.persistent.BatchJob;
+import org.mitre.mpf.wfm.enums.DispatchPolicy;
+import org.mitre.mpf.wfm.enums.MpfHeaders;
+import org.mitre.mpf.wfm.service.ComponentThroughputService;
+import org.mitre.mpf.wfm.service.SpeculativeExecutionService;
+import org.mitre.mpf.wfm.util.PropertiesUtil;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+public class TestRequestDispatcher extends MockitoTest.Strict {
+
+    private static final String QUEUE = "MPF.DETECTION_TEST_REQUEST";
+
+    @Mock
+    private PropertiesUtil _mockPropertiesUtil;
+
+    @Mock
+    private ComponentThroughputService _mockComponentThroughputService;
+
+    @Mock
+    private SpeculativeExecutionService _mockSpeculativeExecutionService;
+
+    @Mock
+    private InProgressBatchJobsService _mockInProgressJobs;
+
+    @Mock
+    private ProducerTemplate _mockProducerTemplate;
+
+    @Mock
+    private BatchJob _mockJob;
+
+    private RequestDispatcher _requestDispatcher;
+
+    private long _queueDepth;
+
+    @Before
+    public void init() {
+        _requestDispatcher = new RequestDispatcher(
+                _mockPropertiesUtil, _mockComponentThroughputService,
+                _mockSpeculativeExecutionService, _mockInProgressJobs, _mockProducerTemplate);
+
+        when(_mockPropertiesUtil.getDispatchQueuedRequestsPerConsumer())
+                .thenReturn(1);
+        when(_mockComponentThroughputService.getConsumerCount(QUEUE))
+                .thenReturn(1);
+        when(_mockComponentThroughputService.getQueueDepth(QUEUE))
+                .thenAnswer(inv -> _queueDepth);
+        when(_mockInProgressJobs.containsJob(anyLong()))
+                .thenReturn(true);
+        when(_mockInProgressJobs.getJob(anyLong()))
+                .thenReturn(_mockJob);
+    }
+
+
+    @Test
+    public void fairShareGivesCapacityProportionalToPriority() {
+        var releasedJobIds = runDispatch(DispatchPolicy.FAIR_SHARE, 4, 9);
+        // Job 2 has twice the weight of job 1.
+        assertThat(releasedJobIds).containsExactly(1L, 2L, 2L, 1L, 2L, 1L);
+    }
+
+
+    @Test
+    public void shortestRemainingWorkReleasesSmallJobFirst() {
+        var releasedJobIds = runDispatch(DispatchPolicy.SHORTEST_REMAINING_WORK, 4, 4);
+        assertThat(releasedJobIds).containsExactly(2L, 2L, 2L, 1L, 1L, 1L);
+    }
+
+
+    @Test
+    public void priorityReleasesHighPriorityJobFirst() {
+        var releasedJobIds = runDispatch(DispatchPolicy.PRIORITY, 4, 9);
+        assertThat(releasedJobIds).containsExactly(2L, 2L, 2L, 1L, 1L, 1L);
+    }
+
+
+    @Test
+    public void releasesCancelledJobsImmediately() {
+        when(_mockPropertiesUtil.getDispatchPolicy())
+                .thenReturn(DispatchPolicy.FAIR_SHARE);
+        when(_mockJob.isCancelled())
+                .thenReturn(true);
+
+        _queueDepth = 5;
+        addRequest(1, 4);
+        addRequest(1, 4);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> headersCaptor = ArgumentCaptor.forClass(Map.class);
+        verify(_mockProducerTemplate, times(2)).sendBodyAndHeaders(
+                eq("activemq:queue:dummy"), eq(ExchangePattern.InOnly), any(),
+                headersCaptor.capture());
+        // The requests are sent to the cancellation queue instead of the component.
+        assertThat(headersCaptor.getAllValues()).allSatisfy(
+                h -> assertThat(h).containsEntry(
+                        MpfHeaders.JMS_DESTINATION, "MPF.CANCELLED_DETECTIONS"));
+    }
+
+
+    private List<Long> runDispatch(DispatchPolicy policy, int job1Priority, int job2Priority) {
+        when(_mockPropertiesUtil.getDispatchPolicy())
+                .thenReturn(policy);
+
+        // The queue is full, so everything is held.
+        _queueDepth = 1;
+        for (int i = 0; i < 6; i++) {
+            addRequest(1, job1Priority);
+        }
+        for (int i = 0; i < 3; i++) {
+            addRequest(2, job2Priority);
+        }
+        verify(_mockSpeculativeExecutionService, atLeastOnce()).onRequestHeld(any());
+
+        // Each dispatch releases one request because the queue depth stays at 0.
+        _queueDepth = 0;
+        for (int i = 0; i < 6; i++) {
+            _requestDispatcher.dispatch();
+        }
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> headersCaptor = ArgumentCaptor.forClass(Map.class);
+        verify(_mockProducerTemplate, times(6)).sendBodyAndHeaders(
+                eq("activemq:queue:dummy"), eq(ExchangePattern.InOnly), any(),
+                headersCaptor.capture());
+        return headersCaptor.getAllValues().stream()
+                .map(h -> (Long) h.get(MpfHeaders.JOB_ID))
+                .toList();
+    }
+
+
+    private void addRequest(long jobId, int priority) {
+        var exchange = TestUtil.createTestExchange();
+        exchange.getIn().setHeader(MpfHeaders.JOB_ID, jobId);
+        exchange.getIn().setHeader(MpfHeaders.JMS_DESTINATION, QUEUE);
+        exchange.getIn().setHeader(MpfHeaders.JMS_PRIORITY, priority);
+        exchange.getIn().setBody(new byte[] { 1, 2, 3 });
+        _requestDispatcher.process(exchange);
+    }
+}
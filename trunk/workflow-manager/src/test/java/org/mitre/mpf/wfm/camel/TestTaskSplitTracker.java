@@ -0,0 +1,94 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.camel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.camel.Exchange;
+import org.junit.Test;
+import org.mitre.mpf.test.TestUtil;
+import org.mitre.mpf.wfm.enums.MpfHeaders;
+
+public class TestTaskSplitTracker {
+
+    private static final String CORRELATION_ID = "123:abc";
+
+    private final TaskSplitTracker _taskSplitTracker = new TaskSplitTracker();
+
+
+    @Test
+    public void splitSizeIsUnknownUntilSplitCompletes() {
+        _taskSplitTracker.startSplit(CORRELATION_ID);
+        _taskSplitTracker.onRequestCreated(CORRELATION_ID);
+        _taskSplitTracker.onRequestCreated(CORRELATION_ID);
+
+        assertThat(_taskSplitTracker.getSplitSize(createAggregatedExchange(2))).isNull();
+        assertThat(_taskSplitTracker.getEstimatedSplitSize(CORRELATION_ID)).isEqualTo(2);
+
+        _taskSplitTracker.onRequestCreated(CORRELATION_ID);
+        _taskSplitTracker.onSplitComplete(CORRELATION_ID);
+        assertThat(_taskSplitTracker.getSplitSize(createAggregatedExchange(2))).isEqualTo(3);
+        assertThat(_taskSplitTracker.getSplitSize(createAggregatedExchange(3))).isEqualTo(3);
+
+        // The split is no longer tracked after the aggregation completes.
+        assertThat(_taskSplitTracker.getEstimatedSplitSize(CORRELATION_ID)).isZero();
+    }
+
+
+    @Test
+    public void usesHeaderForUntrackedSplits() {
+        var exchange = createAggregatedExchange(1);
+        exchange.getIn().setHeader(MpfHeaders.SPLIT_SIZE, 5);
+        assertThat(_taskSplitTracker.getSplitSize(exchange)).isEqualTo(5);
+    }
+
+
+    @Test
+    public void limitsRequestsInFlight() {
+        _taskSplitTracker.startSplit(CORRELATION_ID);
+        _taskSplitTracker.onRequestCreated(CORRELATION_ID);
+        _taskSplitTracker.onRequestCreated(CORRELATION_ID);
+
+        assertThat(_taskSplitTracker.hasCapacity(CORRELATION_ID, 3)).isTrue();
+        assertThat(_taskSplitTracker.hasCapacity(CORRELATION_ID, 2)).isFalse();
+        // A limit of 0 means the number of requests in flight is not limited.
+        assertThat(_taskSplitTracker.hasCapacity(CORRELATION_ID, 0)).isTrue();
+
+        var response = TestUtil.createTestExchange();
+        response.getIn().setHeader(MpfHeaders.CORRELATION_ID, CORRELATION_ID);
+        _taskSplitTracker.onResponse(response);
+        assertThat(_taskSplitTracker.hasCapacity(CORRELATION_ID, 2)).isTrue();
+    }
+
+
+    private static Exchange createAggregatedExchange(int aggregatedSize) {
+        var exchange = TestUtil.createTestExchange();
+        exchange.getIn().setHeader(MpfHeaders.CORRELATION_ID, CORRELATION_ID);
+        exchange.setProperty(Exchange.AGGREGATED_SIZE, aggregatedSize);
+        return exchange;
+    }
+}
@@ -162,6 +162,27 @@ public class TestMovingTrackLabelProcessor {
 
 
 
+    @Test
+    public void doesNotRebuildTracksWithUnchangedLabels() {
+        var track = createTrack(0, 3, List.of(
+                createDetection(1, 1, 10, 10, 0),
+                createDetection(1, 1, 10, 10, 1),
+                createDetection(7, 7, 7, 5, 2),
+                createDetection(7, 8, 6, 5, 3)));
+
+        var labeledTrack = runProcessor(false, 0.38, 2, List.of(track)).get(0);
+        assertNotSame(track, labeledTrack);
+
+        var relabeledTrack = runProcessor(false, 0.38, 2, List.of(labeledTrack)).get(0);
+        assertSame(labeledTrack, relabeledTrack);
+
+        var changedTrack = runProcessor(false, 0.38, 3, List.of(labeledTrack)).get(0);
+        assertNotMoving(changedTrack.getTrackProperties());
+        assertSame(labeledTrack.getDetections().first(), changedTrack.getDetections().first());
+    }
+
+
+
     private static List<Track> runProcessor(Collection<Track> inputTracks) {
         return runProcessor(false, 0.7, 2, inputTracks);
     }
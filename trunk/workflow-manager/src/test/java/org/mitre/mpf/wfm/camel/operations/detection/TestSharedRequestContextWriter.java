@@ -0,0 +1,139 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.camel.operations.detection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mitre.mpf.test.MockitoTest;
+import org.mitre.mpf.wfm.buffers.DetectionProtobuf;
+import org.mitre.mpf.wfm.buffers.DetectionProtobuf.RequestContext;
+import org.mitre.mpf.wfm.data.entities.persistent.Media;
+import org.mitre.mpf.wfm.segmenting.DetectionRequest;
+import org.mitre.mpf.wfm.util.PropertiesUtil;
+import org.mockito.Mock;
+
+public class TestSharedRequestContextWriter extends MockitoTest.Strict {
+
+    private static final long JOB_ID = 123;
+
+    @Rule
+    public TemporaryFolder _tempFolder = new TemporaryFolder();
+
+    @Mock
+    private PropertiesUtil _mockPropertiesUtil;
+
+    private SharedRequestContextWriter _contextWriter;
+
+    @Before
+    public void init() {
+        _contextWriter = new SharedRequestContextWriter(_mockPropertiesUtil);
+    }
+
+
+    @Test
+    public void doesNotChangeSingleRequest() {
+        var requests = List.of(createRequest(0, Map.of("KEY", "VALUE")));
+        var result = _contextWriter.useSharedContext(
+                JOB_ID, mock(Media.class), createContext(), requests);
+        assertThat(result).isSameAs(requests);
+    }
+
+
+    @Test
+    public void writesOneContextPerDistinctPropertySet() throws IOException {
+        var jobDir = _tempFolder.getRoot().toPath().resolve(String.valueOf(JOB_ID));
+        when(_mockPropertiesUtil.getJobRequestContextDirectory(JOB_ID))
+                .thenReturn(jobDir.toFile());
+        var media = mock(Media.class);
+        when(media.getId())
+                .thenReturn(5L);
+
+        var requests = List.of(
+                createRequest(0, Map.of("KEY", "VALUE")),
+                createRequest(10, Map.of("KEY", "VALUE")),
+                createRequest(20, Map.of("KEY", "OTHER")));
+
+        var result = _contextWriter.useSharedContext(JOB_ID, media, createContext(), requests);
+
+        assertThat(result).hasSize(3);
+        assertThat(result).allSatisfy(r -> {
+            assertThat(r.protobuf().getAlgorithmPropertiesMap()).isEmpty();
+            assertThat(r.protobuf().getMediaMetadataMap()).isEmpty();
+        });
+        assertThat(result).extracting(r -> r.protobuf().getVideoRequest().getStartFrame())
+                .containsExactly(0, 10, 20);
+
+        var firstContextId = result.get(0).protobuf().getRequestContextId();
+        assertThat(result.get(1).protobuf().getRequestContextId()).isEqualTo(firstContextId);
+        assertThat(result.get(2).protobuf().getRequestContextId()).isNotEqualTo(firstContextId);
+
+        var firstContext = readContext(result.get(0));
+        assertThat(firstContext.getAlgorithmPropertiesMap()).containsExactly(Map.entry("KEY", "VALUE"));
+        assertThat(firstContext.getMediaMetadataMap()).containsExactly(Map.entry("FPS", "30"));
+        assertThat(readContext(result.get(2)).getAlgorithmPropertiesMap())
+                .containsExactly(Map.entry("KEY", "OTHER"));
+    }
+
+
+    private static RequestContext readContext(DetectionRequest request) throws IOException {
+        var path = Path.of(request.protobuf().getRequestContextPath());
+        try (var inputStream = Files.newInputStream(path)) {
+            return RequestContext.parseFrom(inputStream);
+        }
+    }
+
+
+    private static DetectionContext createContext() {
+        return new DetectionContext(
+                JOB_ID, 0, "TASK", 0, "ACTION", true, Map.of(), Set.of(), null, null);
+    }
+
+
+    private static DetectionRequest createRequest(int startFrame, Map<String, String> props) {
+        var protobuf = DetectionProtobuf.DetectionRequest.newBuilder()
+                .putAllAlgorithmProperties(props)
+                .putMediaMetadata("FPS", "30")
+                .setVideoRequest(DetectionProtobuf.DetectionRequest.VideoRequest.newBuilder()
+                        .setStartFrame(startFrame)
+                        .setStopFrame(startFrame + 9))
+                .build();
+        return new DetectionRequest(protobuf);
+    }
+}
@@ -0,0 +1,244 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.camel.operations.detection.artifactextraction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.camel.Exchange;
+import org.junit.Test;
+import org.mitre.mpf.interop.JsonDetectionOutputObject;
+import org.mitre.mpf.test.TestUtil;
+import org.mitre.mpf.wfm.data.InProgressBatchJobsService;
+import org.mitre.mpf.wfm.data.TrackCache;
+import org.mitre.mpf.wfm.data.entities.transients.Detection;
+import org.mitre.mpf.wfm.data.entities.transients.Track;
+import org.mitre.mpf.wfm.enums.ArtifactExtractionStatus;
+import org.mitre.mpf.wfm.enums.IssueCodes;
+import org.mitre.mpf.wfm.enums.MediaType;
+import org.mitre.mpf.wfm.service.StorageService;
+import org.mockito.ArgumentCaptor;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+
+public class TestArtifactExtractionProcessor {
+
+    private static final long JOB_ID = 123;
+    private static final long MEDIA_ID = 321;
+    private static final int ACTION_INDEX = 0;
+
+    private final InProgressBatchJobsService _mockInProgressJobs = mock(InProgressBatchJobsService.class);
+
+    private final StorageService _mockStorageService = mock(StorageService.class);
+
+    private final TrackCache _mockTrackCache = mock(TrackCache.class);
+
+    private final ArtifactExtractionProcessor _artifactExtractionProcessor
+            = new ArtifactExtractionProcessor(_mockInProgressJobs, _mockStorageService);
+
+
+    @Test
+    public void croppedArtifactsAreOnlyAssignedToTheirOwnTrack() throws IOException {
+        var track0 = createTrack(1, 3, 0);
+        var track1 = createTrack(2, 3, 1);
+        var tracks = new TreeSet<>(List.of(track0, track1));
+
+        var request = createRequest(true, tracks);
+        addExtraction(request, 0, 1);
+        addExtraction(request, 0, 3);
+        addExtraction(request, 1, 2);
+
+        var uri01 = URI.create("file:///artifacts/0-1.png");
+        var uri03 = URI.create("file:///artifacts/0-3.png");
+        var uri12 = URI.create("file:///artifacts/1-2.png");
+        Table<Integer, Integer, URI> trackAndFrameToUri = HashBasedTable.create();
+        trackAndFrameToUri.put(0, 1, uri01);
+        trackAndFrameToUri.put(0, 3, uri03);
+        trackAndFrameToUri.put(1, 2, uri12);
+        when(_mockStorageService.storeArtifacts(request))
+                .thenReturn(trackAndFrameToUri);
+
+        _artifactExtractionProcessor.wfmProcess(createExchange(request));
+
+        var track0Detections = track0.getDetections().asList();
+        assertCompleted(track0Detections.get(0), uri01);
+        assertNotAttempted(track0Detections.get(1));
+        assertCompleted(track0Detections.get(2), uri03);
+
+        // Track 1 has a detection in frame 3, but only track 0's frame 3 was extracted.
+        var track1Detections = track1.getDetections().asList();
+        assertCompleted(track1Detections.get(0), uri12);
+        assertNotAttempted(track1Detections.get(1));
+
+        assertThat(request.getExtractionsMap().values())
+                .flatExtracting(Map::values)
+                .extracting(JsonDetectionOutputObject::getArtifactExtractionStatus)
+                .containsOnly("COMPLETED");
+
+        verify(_mockTrackCache)
+                .updateTracks(MEDIA_ID, ACTION_INDEX, tracks);
+        verify(_mockInProgressJobs, never())
+                .addError(anyLong(), anyLong(), any(), any());
+    }
+
+
+    @Test
+    public void uncroppedArtifactsAreAssignedToAllTracksInFrame() throws IOException {
+        var track0 = createTrack(1, 3, 0);
+        var track1 = createTrack(2, 3, 1);
+        var tracks = new TreeSet<>(List.of(track0, track1));
+
+        var request = createRequest(false, tracks);
+        addExtraction(request, 0, 2);
+
+        // When not cropping, all of the frames are stored under track 0.
+        var uri2 = URI.create("file:///artifacts/frame-2.png");
+        Table<Integer, Integer, URI> trackAndFrameToUri = HashBasedTable.create();
+        trackAndFrameToUri.put(0, 2, uri2);
+        when(_mockStorageService.storeArtifacts(request))
+                .thenReturn(trackAndFrameToUri);
+
+        _artifactExtractionProcessor.wfmProcess(createExchange(request));
+
+        var track0Detections = track0.getDetections().asList();
+        assertNotAttempted(track0Detections.get(0));
+        assertCompleted(track0Detections.get(1), uri2);
+        assertNotAttempted(track0Detections.get(2));
+
+        var track1Detections = track1.getDetections().asList();
+        assertCompleted(track1Detections.get(0), uri2);
+        assertNotAttempted(track1Detections.get(1));
+
+        verify(_mockTrackCache)
+                .updateTracks(MEDIA_ID, ACTION_INDEX, tracks);
+        verify(_mockInProgressJobs, never())
+                .addError(anyLong(), anyLong(), any(), any());
+    }
+
+
+    @Test
+    public void reportsRequestedFramesThatWereNotExtracted() throws IOException {
+        var track0 = createTrack(1, 3, 0);
+        var tracks = new TreeSet<>(List.of(track0));
+
+        var request = createRequest(true, tracks);
+        addExtraction(request, 0, 1);
+        addExtraction(request, 0, 3);
+
+        var uri01 = URI.create("file:///artifacts/0-1.png");
+        Table<Integer, Integer, URI> trackAndFrameToUri = HashBasedTable.create();
+        trackAndFrameToUri.put(0, 1, uri01);
+        when(_mockStorageService.storeArtifacts(request))
+                .thenReturn(trackAndFrameToUri);
+
+        _artifactExtractionProcessor.wfmProcess(createExchange(request));
+
+        var track0Detections = track0.getDetections().asList();
+        assertCompleted(track0Detections.get(0), uri01);
+        assertNotAttempted(track0Detections.get(2));
+        assertEquals(ArtifactExtractionStatus.REQUESTED.name(),
+                     request.getExtractionsMap().get(3).get(0).getArtifactExtractionStatus());
+
+        var errorCaptor = ArgumentCaptor.forClass(String.class);
+        verify(_mockInProgressJobs)
+                .addError(eq(JOB_ID), eq(MEDIA_ID), eq(IssueCodes.ARTIFACT_EXTRACTION),
+                          errorCaptor.capture());
+        assertThat(errorCaptor.getValue())
+                .startsWith("Error extracting artifact(s).")
+                .contains("3");
+    }
+
+
+    private ArtifactExtractionRequest createRequest(boolean cropping, SortedSet<Track> tracks) {
+        when(_mockTrackCache.getTracks(MEDIA_ID, ACTION_INDEX))
+                .thenReturn(tracks);
+        return new ArtifactExtractionRequest(
+                JOB_ID, MEDIA_ID, "/media.mp4", MediaType.VIDEO, Map.of(), 1, ACTION_INDEX,
+                cropping, false, _mockTrackCache);
+    }
+
+
+    private static void addExtraction(ArtifactExtractionRequest request, int trackIndex,
+                                      int frame) {
+        var detection = new JsonDetectionOutputObject(
+                0, 0, 10, 10, 0.5f, new TreeMap<>(), frame, frame * 10L,
+                ArtifactExtractionStatus.REQUESTED.name(), null);
+        request.getExtractionsMap()
+                .computeIfAbsent(frame, k -> new TreeMap<>())
+                .put(trackIndex, detection);
+    }
+
+
+    private static Track createTrack(int startFrame, int stopFrame, int artifactTrackIndex) {
+        var detections = new TreeSet<Detection>();
+        for (int frame = startFrame; frame <= stopFrame; frame++) {
+            detections.add(new Detection(0, 0, 10, 10, 0.5f, frame, frame * 10, Map.of()));
+        }
+        var track = new Track(
+                JOB_ID, MEDIA_ID, 1, ACTION_INDEX, startFrame, stopFrame, startFrame * 10,
+                stopFrame * 10, List.of(), 0.5f, detections, Map.of(), "FIRST", null, null,
+                null);
+        track.setArtifactExtractionTrackIndex(artifactTrackIndex);
+        return track;
+    }
+
+
+    private static Exchange createExchange(ArtifactExtractionRequest request) {
+        var exchange = TestUtil.createTestExchange();
+        exchange.getIn().setBody(request);
+        return exchange;
+    }
+
+
+    private static void assertCompleted(Detection detection, URI uri) {
+        assertEquals(ArtifactExtractionStatus.COMPLETED, detection.getArtifactExtractionStatus());
+        assertEquals(uri.toString(), detection.getArtifactPath());
+    }
+
+
+    private static void assertNotAttempted(Detection detection) {
+        assertEquals(ArtifactExtractionStatus.NOT_ATTEMPTED, detection.getArtifactExtractionStatus());
+        assertNull(detection.getArtifactPath());
+    }
+}
@@ -37,6 +37,7 @@ import static org.mockito.AdditionalMatchers.and;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -144,6 +145,7 @@ public class TestStoreDataUriContentProcessor extends MockitoTest.Strict {
                     contains(expectedErrorContent))
                 );
         verifyMimeTypeNotSet();
+        verifyShaNotSet();
     }
 
 
@@ -264,6 +266,17 @@ public class TestStoreDataUriContentProcessor extends MockitoTest.Strict {
             "text/plain");
     }
 
+    @Test
+    public void calculatesHashWhileStoring() {
+        // echo -n 'Hello, World!' | sha256sum
+        var expectedSha = "dffd6021bb2bd5b0af676290809ec3a53191dd81c7f70a4b28688a362182986f";
+        assertStored("data:text/plain;base64,SGVsbG8sIFdvcmxkIQ==", "Hello, World!", "text/plain");
+        assertStored("data:text/plain2;,Hello,%20World!", "Hello, World!", "text/plain2");
+        verify(_mockInProgressJobs, times(2))
+            .setSha256(TEST_JOB_ID, TEST_MEDIA_ID, expectedSha);
+    }
+
+
     @Test
     public void testBase64BinaryData() {
         testBinaryData("data:fake/mime;base64,");
@@ -369,4 +382,9 @@ public class TestStoreDataUriContentProcessor extends MockitoTest.Strict {
         verify(_mockInProgressJobs, never())
             .setMimeType(anyLong(), anyLong(), anyString());
     }
+
+    private void verifyShaNotSet() {
+        verify(_mockInProgressJobs, never())
+            .setSha256(anyLong(), anyLong(), anyString());
+    }
 }
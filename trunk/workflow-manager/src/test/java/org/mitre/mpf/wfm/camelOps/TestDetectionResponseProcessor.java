@@ -28,11 +28,15 @@ package org.mitre.mpf.wfm.camelOps;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.net.URI;
@@ -71,6 +75,7 @@ import org.mitre.mpf.wfm.enums.BatchJobStatusType;
 import org.mitre.mpf.wfm.enums.MpfConstants;
 import org.mitre.mpf.wfm.enums.MpfHeaders;
 import org.mitre.mpf.wfm.enums.UriScheme;
+import org.mitre.mpf.wfm.service.ComponentThroughputService;
 import org.mitre.mpf.wfm.service.pipeline.PipelineService;
 import org.mitre.mpf.wfm.util.AggregateJobPropertiesUtil;
 import org.mitre.mpf.wfm.util.FrameTimeInfo;
@@ -97,6 +102,9 @@ public class TestDetectionResponseProcessor extends MockitoTest.Strict {
     @Mock
     private MediaInspectionHelper mockMediaInspectionHelper;
 
+    @Mock
+    private ComponentThroughputService mockComponentThroughputService;
+
     private DetectionResponseProcessor detectionResponseProcessor;
 
     private final IoUtils ioUtils = new IoUtils();
@@ -125,7 +133,8 @@ public class TestDetectionResponseProcessor extends MockitoTest.Strict {
         detectionResponseProcessor = new DetectionResponseProcessor(
                 mockAggregateJobPropertiesUtil,
                 mockInProgressJobs,
-                mockMediaInspectionHelper);
+                mockMediaInspectionHelper,
+                mockComponentThroughputService);
 
         var algorithm = new Algorithm(
                 DETECTION_RESPONSE_ALG_NAME, "algorithm description", ActionType.DETECTION, "TEST",
@@ -240,6 +249,57 @@ public class TestDetectionResponseProcessor extends MockitoTest.Strict {
         assertEquals(ImmutableSortedSet.of(0), track.getAnnotatedTaskIndices());
     }
 
+    @Test
+    public void consecutiveDetectionsShareEqualPropertyMaps() {
+        var detectionResponse = DetectionProtobuf.DetectionResponse.newBuilder()
+                .setMediaId(MEDIA_ID)
+                .setTaskIndex(0)
+                .setActionIndex(0)
+                .setVideoResponse(DetectionProtobuf.DetectionResponse.VideoResponse.newBuilder()
+                        .setStartFrame(START_FRAME)
+                        .setStopFrame(STOP_FRAME)
+                        .addVideoTracks(DetectionProtobuf.VideoTrack.newBuilder()
+                                .setStartFrame(5)
+                                .setStopFrame(7)
+                                .setConfidence(0.5f)
+                                .putFrameLocations(5, imageLocation("car"))
+                                .putFrameLocations(6, imageLocation("car"))
+                                .putFrameLocations(7, imageLocation("person"))))
+                .build();
+
+        Exchange exchange = new DefaultExchange(new DefaultCamelContext());
+        exchange.getIn().getHeaders().put(MpfHeaders.JOB_ID, JOB_ID);
+        exchange.getIn().getHeaders().put(MpfHeaders.PROCESSING_TIME, 1234L);
+        exchange.getIn().setBody(detectionResponse);
+
+        detectionResponseProcessor.wfmProcess(exchange);
+
+        var trackCaptor = ArgumentCaptor.forClass(Track.class);
+        verify(mockInProgressJobs)
+                .addTrack(trackCaptor.capture());
+        var detections = trackCaptor.getValue().getDetections().asList();
+        assertEquals(3, detections.size());
+
+        var properties0 = detections.get(0).getDetectionProperties();
+        var properties1 = detections.get(1).getDetectionProperties();
+        var properties2 = detections.get(2).getDetectionProperties();
+        assertEquals(Map.of("CLASSIFICATION", "car"), properties0);
+        assertSame(properties0, properties1);
+        assertEquals(Map.of("CLASSIFICATION", "person"), properties2);
+        assertNotSame(properties1, properties2);
+    }
+
+    private static DetectionProtobuf.ImageLocation imageLocation(String classification) {
+        return DetectionProtobuf.ImageLocation.newBuilder()
+                .setConfidence(0.5f)
+                .setXLeftUpper(0)
+                .setYLeftUpper(10)
+                .setHeight(10)
+                .setWidth(10)
+                .putDetectionProperties("CLASSIFICATION", classification)
+                .build();
+    }
+
     @Test
     public void testVideoResponseError() {
         DetectionProtobuf.DetectionError error = DetectionProtobuf.DetectionError.BAD_FRAME_SIZE;
@@ -268,6 +328,31 @@ public class TestDetectionResponseProcessor extends MockitoTest.Strict {
                 .reportMissingProcessingTime(JOB_ID, action);
     }
 
+    @Test
+    public void doesNotRecordProcessingTimeForCachedResponse() {
+        DetectionProtobuf.DetectionResponse detectionResponse = DetectionProtobuf.DetectionResponse.newBuilder()
+                .setMediaId(MEDIA_ID)
+                .setVideoResponse(DetectionProtobuf.DetectionResponse.VideoResponse.newBuilder()
+                        .setStartFrame(START_FRAME)
+                        .setStopFrame(STOP_FRAME))
+                .setTaskIndex(0)
+                .setActionIndex(0)
+                .build();
+
+        Exchange exchange = new DefaultExchange(new DefaultCamelContext());
+        exchange.getIn().getHeaders().put(MpfHeaders.JOB_ID, JOB_ID);
+        exchange.getIn().getHeaders().put(MpfHeaders.SEGMENT_CACHE_HIT, true);
+        exchange.getIn().setBody(detectionResponse);
+
+        detectionResponseProcessor.wfmProcess(exchange);
+
+        verify(mockInProgressJobs, never())
+                .reportMissingProcessingTime(anyLong(), any());
+        verify(mockInProgressJobs, never())
+                .addProcessingTime(anyLong(), any(), anyLong());
+        verifyNoInteractions(mockComponentThroughputService);
+    }
+
     private void processVideoJob(DetectionProtobuf.DetectionError error) {
         DetectionProtobuf.DetectionResponse detectionResponse = DetectionProtobuf.DetectionResponse.newBuilder()
                 .setError(error)
@@ -78,6 +78,7 @@ import org.mitre.mpf.wfm.enums.MpfConstants;
 import org.mitre.mpf.wfm.enums.MpfHeaders;
 import org.mitre.mpf.wfm.enums.UriScheme;
 import org.mitre.mpf.wfm.util.AggregateJobPropertiesUtil;
+import org.mitre.mpf.wfm.util.FrameTimeInfo;
 import org.mitre.mpf.wfm.util.IoUtils;
 import org.mitre.mpf.wfm.util.MediaTypeUtils;
 import org.mitre.mpf.wfm.util.ObjectMapperFactory;
@@ -688,6 +689,45 @@ public class TestMediaInspectionProcessor {
         verifyNoJobOrMediaError();
     }
 
+    @Test
+    public void restoreFrameTimeInfoUsesMetadataWhenMediaIsMissing() {
+        long jobId = next();
+        long mediaId = next();
+        var media = initMedia(mediaId, URI.create("file:///missing/video.mp4"), Map.of());
+        media.setType(MediaType.VIDEO);
+        media.setLength(90);
+        media.addMetadata(Map.of("FPS", "30", "HAS_CONSTANT_FRAME_RATE", "true"));
+
+        _mediaInspectionHelper.restoreFrameTimeInfo(media, jobId);
+
+        var frameTimeInfoCaptor = ArgumentCaptor.forClass(FrameTimeInfo.class);
+        verify(_mockInProgressJobs)
+                .addFrameTimeInfo(eq(jobId), eq(mediaId), frameTimeInfoCaptor.capture());
+        assertTrue(frameTimeInfoCaptor.getValue().hasConstantFrameRate());
+        assertEquals(1000, frameTimeInfoCaptor.getValue().getTimeMsFromFrame(30));
+
+        verifyNoJobOrMediaError();
+        verify(_mockInProgressJobs, never())
+                .addWarning(anyLong(), anyLong(), any(), any());
+        verify(_mockInProgressJobs, never())
+                .addMediaInspectionInfo(anyLong(), anyLong(), any(), any(), any(), anyInt(), anyMap());
+    }
+
+
+    @Test
+    public void restoreFrameTimeInfoSkipsFailedMedia() {
+        var media = initMedia(next(), URI.create("file:///missing/video.mp4"), Map.of());
+        media.setType(MediaType.VIDEO);
+        media.setLength(90);
+        media.setFailed(true);
+
+        _mediaInspectionHelper.restoreFrameTimeInfo(media, next());
+
+        verify(_mockInProgressJobs, never())
+                .addFrameTimeInfo(anyLong(), anyLong(), any());
+    }
+
+
     private void verifyNoJobOrMediaError() {
         verify(_mockInProgressJobs, never())
                 .addError(anyLong(), anyLong(), any(), any());
@@ -0,0 +1,75 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.data.entities.transients;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+public class TestDetection {
+
+    private final Detection _detection = new Detection(
+            0, 0, 10, 10, 0.5f, 0, 0,
+            Map.of("QUALITY", "0.75",
+                   "OTHER_QUALITY", "12",
+                   "CLASSIFICATION", "car"));
+
+
+    @Test
+    public void canGetNumericProperty() {
+        assertEquals(0.75, _detection.getNumericProperty("QUALITY"), 0);
+        // Cached value
+        assertEquals(0.75, _detection.getNumericProperty("QUALITY"), 0);
+    }
+
+
+    @Test
+    public void returnsNegativeInfinityForMissingOrNonNumericProperty() {
+        assertEquals(Double.NEGATIVE_INFINITY, _detection.getNumericProperty("MISSING"), 0);
+        assertEquals(Double.NEGATIVE_INFINITY,
+                     _detection.getNumericProperty("CLASSIFICATION"), 0);
+    }
+
+
+    @Test
+    public void cachedValueIsReplacedWhenDifferentPropertyRequested() {
+        assertEquals(0.75, _detection.getNumericProperty("QUALITY"), 0);
+
+        // A non-numeric property replaces the cached value, so the numeric property must be
+        // parsed again rather than returning negative infinity.
+        assertEquals(Double.NEGATIVE_INFINITY,
+                     _detection.getNumericProperty("CLASSIFICATION"), 0);
+        assertEquals(0.75, _detection.getNumericProperty("QUALITY"), 0);
+
+        assertEquals(12, _detection.getNumericProperty("OTHER_QUALITY"), 0);
+        assertEquals(Double.NEGATIVE_INFINITY, _detection.getNumericProperty("MISSING"), 0);
+        assertEquals(12, _detection.getNumericProperty("OTHER_QUALITY"), 0);
+        assertEquals(0.75, _detection.getNumericProperty("QUALITY"), 0);
+    }
+}
@@ -0,0 +1,162 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.data.entities.transients;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import org.junit.Test;
+
+public class TestTrack {
+
+    private static final List<Detection> DETECTIONS = List.of(
+            new Detection(0, 0, 10, 10, 0.5f, 0, 0, Map.of("prop", "a")),
+            new Detection(1, 1, 10, 10, 0.9f, 1, 33, Map.of("prop", "b")),
+            new Detection(2, 2, 10, 10, 0.1f, 2, 66, Map.of("prop", "c")));
+
+
+    @Test
+    public void equalTracksHaveEqualHashCodes() {
+        var track1 = createTrack(1, 0.5f, "FIRST", DETECTIONS);
+        var track2 = createTrack(1, 0.5f, "FIRST", DETECTIONS);
+
+        assertEquals(track1, track2);
+        assertEquals(track2, track1);
+        assertEquals(track1.hashCode(), track2.hashCode());
+        assertEquals(0, track1.compareTo(track2));
+        assertEquals(0, track2.compareTo(track1));
+
+        // The cached hash code must not change once computed.
+        assertEquals(track1.hashCode(), track1.hashCode());
+
+        assertEquals(track1, track1);
+        assertNotEquals(track1, null);
+        assertNotEquals(track1, "track");
+    }
+
+
+    @Test
+    public void tracksWithDifferentFieldsAreNotEqual() {
+        var track = createTrack(1, 0.5f, "FIRST", DETECTIONS);
+
+        assertNotEquals(track, createTrack(2, 0.5f, "FIRST", DETECTIONS));
+        assertNotEquals(track, createTrack(1, 0.6f, "FIRST", DETECTIONS));
+        assertNotEquals(track, createTrack(1, 0.5f, "FIRST", DETECTIONS.subList(0, 2)));
+
+        var trackWithSelector = new Track(
+                1, 2, 0, 0, 0, 2, 0, 66, List.of(), 0.5f, DETECTIONS,
+                Map.of("track_prop", "value"), "FIRST", null, UUID.randomUUID(), "input");
+        assertNotEquals(track, trackWithSelector);
+    }
+
+
+    @Test
+    public void tracksThatDifferOnlyInExemplarAreNotEqual() {
+        var firstExemplarTrack = createTrack(1, 0.5f, "FIRST", DETECTIONS);
+        var lastExemplarTrack = createTrack(1, 0.5f, "LAST", DETECTIONS);
+
+        assertEquals(DETECTIONS.get(0), firstExemplarTrack.getExemplar());
+        assertEquals(DETECTIONS.get(2), lastExemplarTrack.getExemplar());
+
+        // The exemplar is not part of the hash code, so the hash codes match, but the tracks
+        // must still not be equal.
+        assertEquals(firstExemplarTrack.hashCode(), lastExemplarTrack.hashCode());
+        assertNotEquals(firstExemplarTrack, lastExemplarTrack);
+        assertNotEquals(lastExemplarTrack, firstExemplarTrack);
+
+        assertThat(firstExemplarTrack.compareTo(lastExemplarTrack)).isNegative();
+        assertThat(lastExemplarTrack.compareTo(firstExemplarTrack)).isPositive();
+
+        var trackSet = new TreeSet<Track>();
+        trackSet.add(lastExemplarTrack);
+        trackSet.add(firstExemplarTrack);
+        assertThat(trackSet).containsExactly(firstExemplarTrack, lastExemplarTrack);
+    }
+
+
+    @Test
+    public void exemplarIsOnlySelectedOnce() {
+        var track = createTrack(1, 0.5f, "CONFIDENCE", DETECTIONS);
+        var exemplar = track.getExemplar();
+        assertEquals(DETECTIONS.get(1), exemplar);
+        assertSame(exemplar, track.getExemplar());
+    }
+
+
+    @Test
+    public void tracksWithoutDetectionsHaveNoExemplar() {
+        var track1 = createTrack(1, 0.5f, "FIRST", List.of());
+        var track2 = createTrack(1, 0.5f, "LAST", List.of());
+        assertThat(track1.getExemplar()).isNull();
+        assertEquals(track1, track2);
+        assertEquals(0, track1.compareTo(track2));
+    }
+
+
+    @Test
+    public void defaultComparatorOrdersByFieldPriority() {
+        var track1 = new Track(1, 1, 0, 0, 5, 10, 0, 0, List.of(), 0.9f, DETECTIONS, Map.of(),
+                               "FIRST", null, null, null);
+        var track2 = new Track(1, 1, 0, 0, 5, 10, 0, 0, List.of(), 0.9f, DETECTIONS,
+                               Map.of("key", "value"), "FIRST", null, null, null);
+        var track3 = new Track(1, 1, 0, 0, 5, 11, 0, 0, List.of(), 0.1f, DETECTIONS, Map.of(),
+                               "FIRST", null, null, null);
+        var track4 = new Track(1, 1, 0, 1, 0, 0, 0, 0, List.of(), 0.1f, DETECTIONS, Map.of(),
+                               "FIRST", null, null, null);
+        var track5 = new Track(1, 1, 1, 0, 0, 0, 0, 0, List.of(), 0.1f, DETECTIONS, Map.of(),
+                               "FIRST", null, null, null);
+        var track6 = new Track(1, 2, 0, 0, 0, 0, 0, 0, List.of(), 0.1f, DETECTIONS, Map.of(),
+                               "FIRST", null, null, null);
+        var track7 = new Track(2, 0, 0, 0, 0, 0, 0, 0, List.of(), 0.1f, DETECTIONS, Map.of(),
+                               "FIRST", null, null, null);
+        var expectedOrder = List.of(track1, track2, track3, track4, track5, track6, track7);
+
+        var tracks = new ArrayList<>(expectedOrder);
+        Collections.reverse(tracks);
+        Collections.sort(tracks);
+        assertEquals(expectedOrder, tracks);
+
+        Collections.shuffle(tracks);
+        assertThat(new TreeSet<>(tracks)).containsExactlyElementsOf(expectedOrder);
+    }
+
+
+    private static Track createTrack(long jobId, float confidence, String exemplarPolicy,
+                                     List<Detection> detections) {
+        return new Track(jobId, 2, 0, 0, 0, 2, 0, 66, List.of(), confidence, detections,
+                         Map.of("track_prop", "value"), exemplarPolicy, null, null, null);
+    }
+}
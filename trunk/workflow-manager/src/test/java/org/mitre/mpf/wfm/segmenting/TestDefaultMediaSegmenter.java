@@ -40,6 +40,9 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -51,7 +54,11 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Stream;
 
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mitre.mpf.rest.api.MediaSelectorType;
 import org.mitre.mpf.rest.api.MediaUri;
 import org.mitre.mpf.test.MockitoTest;
@@ -83,6 +90,9 @@ public class TestDefaultMediaSegmenter extends MockitoTest.Strict {
     @InjectMocks
     private DefaultMediaSegmenter _defaultMediaSegmenter;
 
+    @Rule
+    public TemporaryFolder _tempFolder = new TemporaryFolder();
+
 
 	@Test
 	public void canCreateFirstStageMessages() {
@@ -268,6 +278,118 @@ public class TestDefaultMediaSegmenter extends MockitoTest.Strict {
 	}
 
 
+    @Test
+    public void chunkOffsetsAreAlignedToLineBoundaries() throws IOException {
+        var path = _tempFolder.newFile().toPath();
+        Files.writeString(path, "aaaa\nbb\ncccccc\nd\n");
+
+        assertThat(DefaultMediaSegmenter.getLineAlignedOffsets(path, 3))
+                .containsExactly(0L, 5L, 15L, 17L);
+
+        assertThat(DefaultMediaSegmenter.getLineAlignedOffsets(path, 100))
+                .containsExactly(0L, 17L);
+    }
+
+
+    @Test
+    public void doesNotSplitWhenChunkSizeNotSet() {
+        var media = createTestMedia();
+        var context = createTestDetectionContext(
+                0, Map.of(MpfConstants.TARGET_DOCUMENT_CHUNK_BYTES, "-1"), Set.of());
+
+        var detectionRequests = _defaultMediaSegmenter.createDetectionRequests(media, context);
+        assertThat(detectionRequests).singleElement()
+                .satisfies(dr -> assertThat(
+                        dr.protobuf().getGenericRequest().hasDocumentRange()).isFalse());
+    }
+
+
+    @Test
+    public void canSplitTextByByteRange() throws IOException {
+        var path = _tempFolder.newFile("doc.txt").toPath();
+        Files.writeString(path, "aaaa\nbb\ncccccc\nd\n");
+        var media = createTestMedia(path, "text/plain");
+        var context = createTestDetectionContext(
+                0, Map.of(MpfConstants.TARGET_DOCUMENT_CHUNK_BYTES, "3"), Set.of());
+
+        var detectionRequests = _defaultMediaSegmenter.createDetectionRequests(media, context);
+
+        assertThat(detectionRequests)
+                .extracting(dr -> dr.protobuf().getGenericRequest().getDocumentRange())
+                .satisfiesExactly(
+                        r -> assertByteRange(r, 0, 0, 5),
+                        r -> assertByteRange(r, 1, 5, 15),
+                        r -> assertByteRange(r, 2, 15, 17));
+    }
+
+
+    @Test
+    public void canSplitPdfByPageRange() throws IOException {
+        var path = _tempFolder.newFile("doc.pdf").toPath();
+        try (var document = new PDDocument()) {
+            for (int i = 0; i < 5; i++) {
+                document.addPage(new PDPage());
+            }
+            document.save(path.toFile());
+        }
+        var media = createTestMedia(path, "application/pdf");
+        var context = createTestDetectionContext(
+                0, Map.of(MpfConstants.TARGET_DOCUMENT_CHUNK_PAGES, "2"), Set.of());
+
+        var detectionRequests = _defaultMediaSegmenter.createDetectionRequests(media, context);
+
+        assertThat(detectionRequests)
+                .extracting(dr -> dr.protobuf().getGenericRequest().getDocumentRange())
+                .satisfiesExactly(
+                        r -> assertPageRange(r, 0, 0, 1),
+                        r -> assertPageRange(r, 1, 2, 3),
+                        r -> assertPageRange(r, 2, 4, 4));
+    }
+
+
+    @Test
+    public void doesNotSplitUnreadablePdf() throws IOException {
+        var path = _tempFolder.newFile("bad.pdf").toPath();
+        Files.writeString(path, "not a pdf");
+        var media = createTestMedia(path, "application/pdf");
+        var context = createTestDetectionContext(
+                0, Map.of(MpfConstants.TARGET_DOCUMENT_CHUNK_PAGES, "2"), Set.of());
+
+        var detectionRequests = _defaultMediaSegmenter.createDetectionRequests(media, context);
+        assertThat(detectionRequests).singleElement()
+                .satisfies(dr -> assertThat(
+                        dr.protobuf().getGenericRequest().hasDocumentRange()).isFalse());
+    }
+
+
+    private static void assertByteRange(
+            DetectionProtobuf.DocumentRange range, int chunkIndex, long start, long stop) {
+        assertEquals(chunkIndex, range.getChunkIndex());
+        assertEquals(start, range.getByteRange().getStartOffset());
+        assertEquals(stop, range.getByteRange().getStopOffset());
+    }
+
+
+    private static void assertPageRange(
+            DetectionProtobuf.DocumentRange range, int chunkIndex, int start, int stop) {
+        assertEquals(chunkIndex, range.getChunkIndex());
+        assertEquals(start, range.getPageRange().getStartPage());
+        assertEquals(stop, range.getPageRange().getStopPage());
+    }
+
+
+    private static Media createTestMedia(Path path, String mimeType) {
+        var mediaUri = new MediaUri(path.toUri());
+        var media = new MediaImpl(
+                1, mediaUri, UriScheme.FILE, path, Map.of(),
+                Map.of(), List.of(), List.of(), List.of(), null, null);
+        media.setMimeType(mimeType);
+        media.setLength(1);
+        media.addMetadata("mediaKey1", "mediaValue1");
+        return media;
+    }
+
+
 	private static Media createTestMedia(Collection<MediaSelector> mediaSelectors) {
 		var mediaUri = MediaUri.create("file:///example.foo");
 		MediaImpl media = new MediaImpl(
@@ -26,6 +26,7 @@
 
 package org.mitre.mpf.wfm.segmenting;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -62,6 +63,7 @@ import org.mitre.mpf.wfm.data.entities.transients.Detection;
 import org.mitre.mpf.wfm.data.entities.transients.Track;
 import org.mitre.mpf.wfm.enums.UriScheme;
 import org.mitre.mpf.wfm.util.FrameTimeInfoBuilder;
+import org.mitre.mpf.wfm.util.KeyframeIndex;
 import org.mitre.mpf.wfm.util.MediaRange;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -173,6 +175,38 @@ public class TestVideoMediaSegmenter extends MockitoTest.Strict {
         assertNoneHaveFeedForwardTrack(detectionRequests);
     }
 
+    @Test
+    public void canAlignSegmentBoundariesToKeyframes() {
+        var segments = List.of(
+                new MediaRange(0, 99),
+                new MediaRange(100, 199),
+                new MediaRange(200, 299),
+                new MediaRange(301, 350));
+        var keyframes = KeyframeIndex.of(new int[] { 0, 96, 210, 240, 320 });
+
+        assertThat(VideoMediaSegmenter.alignToKeyframes(segments, keyframes, -1))
+                .isEqualTo(segments);
+
+        // The boundary at 200 is too far from a keyframe and 301 is the start of a
+        // non-adjacent segment, so neither should be moved.
+        assertThat(VideoMediaSegmenter.alignToKeyframes(segments, keyframes, 5))
+                .containsExactly(
+                        new MediaRange(0, 95),
+                        new MediaRange(96, 199),
+                        new MediaRange(200, 299),
+                        new MediaRange(301, 350));
+
+        assertThat(VideoMediaSegmenter.alignToKeyframes(segments, keyframes, 10))
+                .containsExactly(
+                        new MediaRange(0, 95),
+                        new MediaRange(96, 209),
+                        new MediaRange(210, 299),
+                        new MediaRange(301, 350));
+
+        assertThat(VideoMediaSegmenter.alignToKeyframes(segments, KeyframeIndex.EMPTY, 10))
+                .isEqualTo(segments);
+    }
+
     @Test
     public void canLimitSegmentBoundariesToMediaLength() {
         Media media = createTestMediaWithFps(
@@ -0,0 +1,103 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.activemq.broker.Broker;
+import org.apache.activemq.broker.BrokerService;
+import org.apache.activemq.broker.region.Destination;
+import org.apache.activemq.broker.region.Subscription;
+import org.apache.activemq.command.ActiveMQDestination;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.junit.Before;
+import org.junit.Test;
+import org.mitre.mpf.test.MockitoTest;
+import org.mockito.Mock;
+
+public class TestComponentThroughputService extends MockitoTest.Strict {
+
+    @Mock
+    private BrokerService _mockBrokerService;
+
+    private ComponentThroughputService _throughputService;
+
+    @Before
+    public void init() {
+        _throughputService = new ComponentThroughputService(_mockBrokerService);
+    }
+
+
+    @Test
+    public void returnsEmptyWhenNoSamples() {
+        assertThat(_throughputService.getFramesPerSecond("ALGO")).isEmpty();
+    }
+
+
+    @Test
+    public void computesRollingAverage() {
+        _throughputService.recordVideoSegment("ALGO", 100, 1000);
+        assertThat(_throughputService.getFramesPerSecond("ALGO")).hasValue(100);
+
+        _throughputService.recordVideoSegment("ALGO", 200, 1000);
+        assertThat(_throughputService.getFramesPerSecond("ALGO")).hasValue(120);
+
+        // Responses without timing information are ignored.
+        _throughputService.recordVideoSegment("ALGO", 200, -1);
+        assertThat(_throughputService.getFramesPerSecond("ALGO")).hasValue(120);
+
+        assertThat(_throughputService.getFramesPerSecond("OTHER")).isEmpty();
+    }
+
+
+    @Test
+    public void canGetConsumerCount() throws Exception {
+        var mockBroker = mock(Broker.class);
+        when(_mockBrokerService.getBroker())
+                .thenReturn(mockBroker);
+
+        var mockDestination = mock(Destination.class);
+        when(mockDestination.getConsumers())
+                .thenReturn(List.of(mock(Subscription.class),
+                                    mock(Subscription.class)));
+
+        Map<ActiveMQDestination, Destination> destinations
+                = Map.of(new ActiveMQQueue("MPF.DETECTION_TEST_REQUEST"), mockDestination);
+        when(mockBroker.getDestinationMap())
+                .thenReturn(destinations);
+
+        assertThat(_throughputService.getConsumerCount("MPF.DETECTION_TEST_REQUEST"))
+                .isEqualTo(2);
+        assertThat(_throughputService.getConsumerCount("MPF.DETECTION_OTHER_REQUEST"))
+                .isZero();
+    }
+}
@@ -0,0 +1,192 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.camel.ProducerTemplate;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mitre.mpf.test.MockitoTest;
+import org.mitre.mpf.wfm.camel.operations.mediainspection.MediaInspectionHelper;
+import org.mitre.mpf.wfm.data.InProgressBatchJobsService;
+import org.mitre.mpf.wfm.data.access.JobRequestDao;
+import org.mitre.mpf.wfm.data.entities.persistent.BatchJob;
+import org.mitre.mpf.wfm.data.entities.persistent.JobRequest;
+import org.mitre.mpf.wfm.enums.BatchJobStatusType;
+import org.mitre.mpf.wfm.util.JmsUtils;
+import org.mitre.mpf.wfm.util.JsonUtils;
+import org.mitre.mpf.wfm.util.PropertiesUtil;
+import org.mockito.Mock;
+
+public class TestJobCheckpointService extends MockitoTest.Strict {
+
+    @Mock
+    private PropertiesUtil _mockPropertiesUtil;
+
+    @Mock
+    private InProgressBatchJobsService _mockInProgressJobs;
+
+    @Mock
+    private JobRequestDao _mockJobRequestDao;
+
+    @Mock
+    private JsonUtils _mockJsonUtils;
+
+    @Mock
+    private ProducerTemplate _mockProducerTemplate;
+
+    @Mock
+    private MediaInspectionHelper _mockMediaInspectionHelper;
+
+    @Mock
+    private JmsUtils _mockJmsUtils;
+
+    @Rule
+    public TemporaryFolder _tempFolder = new TemporaryFolder();
+
+    private Path _checkpointRoot;
+
+    private JobCheckpointService _jobCheckpointService;
+
+    @Before
+    public void init() throws IOException {
+        _checkpointRoot = _tempFolder.newFolder("job-checkpoints").toPath();
+        _jobCheckpointService = new JobCheckpointService(
+                _mockPropertiesUtil, _mockInProgressJobs, _mockJobRequestDao, _mockJsonUtils,
+                _mockProducerTemplate, _mockMediaInspectionHelper, _mockJmsUtils);
+    }
+
+
+    @Test
+    public void doesNotSaveCheckpointWhenDisabled() {
+        _jobCheckpointService.saveCheckpoint(mock(BatchJob.class));
+        verifyNoInteractions(_mockInProgressJobs, _mockJsonUtils);
+    }
+
+
+    @Test
+    public void doesNotSaveCheckpointForCancelledJob() {
+        when(_mockPropertiesUtil.isJobCheckpointEnabled())
+                .thenReturn(true);
+        var job = mock(BatchJob.class);
+        when(job.isCancelled())
+                .thenReturn(true);
+
+        _jobCheckpointService.saveCheckpoint(job);
+        verifyNoInteractions(_mockInProgressJobs, _mockJsonUtils);
+    }
+
+
+    @Test
+    public void removesCheckpointsWhenDisabled() throws IOException {
+        createCheckpoint(5);
+        when(_mockPropertiesUtil.getJobCheckpointDirectory())
+                .thenReturn(_checkpointRoot);
+
+        assertThat(_jobCheckpointService.resumeCheckpointedJobs()).isEmpty();
+        assertThat(_checkpointRoot.toFile().list()).isEmpty();
+        verifyNoInteractions(_mockJobRequestDao, _mockProducerTemplate);
+    }
+
+
+    @Test
+    public void doesNotResumeJobsInTerminalState() throws IOException {
+        createCheckpoint(5);
+        when(_mockPropertiesUtil.getJobCheckpointDirectory())
+                .thenReturn(_checkpointRoot);
+        when(_mockPropertiesUtil.isJobCheckpointEnabled())
+                .thenReturn(true);
+        var jobRequest = new JobRequest();
+        jobRequest.setStatus(BatchJobStatusType.COMPLETE);
+        when(_mockJobRequestDao.findById(5))
+                .thenReturn(jobRequest);
+
+        assertThat(_jobCheckpointService.resumeCheckpointedJobs()).isEmpty();
+        assertThat(_checkpointRoot.toFile().list()).isEmpty();
+        verify(_mockInProgressJobs, never()).restoreJob(any());
+        verifyNoInteractions(_mockProducerTemplate);
+    }
+
+
+    @Test
+    public void doesNotResumeCancellingJobs() throws IOException {
+        createCheckpoint(5);
+        when(_mockPropertiesUtil.getJobCheckpointDirectory())
+                .thenReturn(_checkpointRoot);
+        when(_mockPropertiesUtil.isJobCheckpointEnabled())
+                .thenReturn(true);
+        var jobRequest = new JobRequest();
+        jobRequest.setStatus(BatchJobStatusType.CANCELLING);
+        when(_mockJobRequestDao.findById(5))
+                .thenReturn(jobRequest);
+
+        assertThat(_jobCheckpointService.resumeCheckpointedJobs()).isEmpty();
+        assertThat(_checkpointRoot.toFile().list()).isEmpty();
+        verify(_mockInProgressJobs, never()).restoreJob(any());
+        verifyNoInteractions(_mockJsonUtils, _mockProducerTemplate);
+    }
+
+
+    @Test
+    public void doesNotResumeJobsInCancelledJobSet() throws IOException {
+        createCheckpoint(5);
+        when(_mockPropertiesUtil.getJobCheckpointDirectory())
+                .thenReturn(_checkpointRoot);
+        when(_mockPropertiesUtil.isJobCheckpointEnabled())
+                .thenReturn(true);
+        var jobRequest = new JobRequest();
+        jobRequest.setStatus(BatchJobStatusType.IN_PROGRESS);
+        when(_mockJobRequestDao.findById(5))
+                .thenReturn(jobRequest);
+        when(_mockJmsUtils.isCancelled(5))
+                .thenReturn(true);
+
+        assertThat(_jobCheckpointService.resumeCheckpointedJobs()).isEmpty();
+        assertThat(_checkpointRoot.toFile().list()).isEmpty();
+        verify(_mockInProgressJobs, never()).restoreJob(any());
+        verifyNoInteractions(_mockJsonUtils, _mockProducerTemplate);
+    }
+
+
+    private void createCheckpoint(long jobId) throws IOException {
+        var checkpointDir = Files.createDirectories(_checkpointRoot.resolve(String.valueOf(jobId)));
+        Files.writeString(checkpointDir.resolve("job.json"), "{}");
+    }
+}
@@ -0,0 +1,207 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mitre.mpf.test.MockitoTest;
+import org.mitre.mpf.wfm.data.access.JobResultRepo;
+import org.mitre.mpf.wfm.data.entities.persistent.BatchJob;
+import org.mitre.mpf.wfm.data.entities.persistent.DbJobResult;
+import org.mitre.mpf.wfm.data.entities.persistent.Media;
+import org.mitre.mpf.wfm.enums.BatchJobStatusType;
+import org.mitre.mpf.wfm.util.AggregateJobPropertiesUtil;
+import org.mitre.mpf.wfm.util.PropertiesUtil;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.data.domain.PageRequest;
+
+public class TestJobResultCacheService extends MockitoTest.Strict {
+
+    @Mock
+    private PropertiesUtil _mockPropertiesUtil;
+
+    @Mock
+    private AggregateJobPropertiesUtil _mockAggregateJobPropertiesUtil;
+
+    @Mock
+    private JobConfigHasher _mockJobConfigHasher;
+
+    @Mock
+    private JobResultRepo _mockJobResultRepo;
+
+    @Mock
+    private BatchJob _mockJob;
+
+    @Rule
+    public TemporaryFolder _tempFolder = new TemporaryFolder();
+
+    private JobResultCacheService _jobResultCacheService;
+
+    @Before
+    public void init() {
+        _jobResultCacheService = new JobResultCacheService(
+                _mockPropertiesUtil, _mockAggregateJobPropertiesUtil, _mockJobConfigHasher,
+                _mockJobResultRepo);
+    }
+
+
+    @Test
+    public void canFindCachedResult() throws IOException {
+        var outputObjectUri = _tempFolder.newFile("output.json").toURI();
+        setupJob();
+        when(_mockPropertiesUtil.getResultCacheRetentionDays())
+                .thenReturn(30);
+        when(_mockJobResultRepo.findById("HASH"))
+                .thenReturn(Optional.of(new DbJobResult(
+                        "HASH", 5, outputObjectUri, Instant.now())));
+
+        assertThat(_jobResultCacheService.findCachedResult(_mockJob))
+                .hasValue(outputObjectUri);
+    }
+
+
+    @Test
+    public void removesResultsWhenOutputObjectIsMissing() {
+        setupJob();
+        when(_mockPropertiesUtil.getResultCacheRetentionDays())
+                .thenReturn(30);
+        var result = new DbJobResult(
+                "HASH", 5, URI.create("file:///fake/output.json"), Instant.now());
+        when(_mockJobResultRepo.findById("HASH"))
+                .thenReturn(Optional.of(result));
+
+        assertThat(_jobResultCacheService.findCachedResult(_mockJob))
+                .isEmpty();
+        verify(_mockJobResultRepo).delete(result);
+    }
+
+
+    @Test
+    public void removesExpiredResults() throws IOException {
+        var outputObjectUri = _tempFolder.newFile("output.json").toURI();
+        setupJob();
+        when(_mockPropertiesUtil.getResultCacheRetentionDays())
+                .thenReturn(30);
+        var result = new DbJobResult(
+                "HASH", 5, outputObjectUri, Instant.now().minus(Duration.ofDays(31)));
+        when(_mockJobResultRepo.findById("HASH"))
+                .thenReturn(Optional.of(result));
+
+        assertThat(_jobResultCacheService.findCachedResult(_mockJob))
+                .isEmpty();
+        verify(_mockJobResultRepo).delete(result);
+    }
+
+
+    @Test
+    public void doesNotUseCacheWhenMediaHashIsMissing() {
+        when(_mockPropertiesUtil.isResultCacheEnabled())
+                .thenReturn(true);
+        var media = mock(Media.class);
+        when(media.getLinkedHash())
+                .thenReturn(Optional.empty());
+        when(_mockJob.getMedia())
+                .thenReturn(List.of(media));
+
+        assertThat(_jobResultCacheService.findCachedResult(_mockJob))
+                .isEmpty();
+        _jobResultCacheService.recordResult(
+                _mockJob, URI.create("file:///fake/output.json"), BatchJobStatusType.COMPLETE);
+        verifyNoInteractions(_mockJobConfigHasher, _mockJobResultRepo);
+    }
+
+
+    @Test
+    public void recordsResultAndRemovesOldestEntries() {
+        when(_mockPropertiesUtil.isResultCacheEnabled())
+                .thenReturn(true);
+        when(_mockJob.getMedia())
+                .thenReturn(List.of());
+        when(_mockJob.getId())
+                .thenReturn(7L);
+        when(_mockJobConfigHasher.getJobConfigHash(_mockJob))
+                .thenReturn("HASH");
+        when(_mockPropertiesUtil.getResultCacheRetentionDays())
+                .thenReturn(30);
+        when(_mockPropertiesUtil.getResultCacheMaxEntries())
+                .thenReturn(10);
+        when(_mockJobResultRepo.findByTimeCompletedBefore(any()))
+                .thenReturn(List.of());
+        when(_mockJobResultRepo.count())
+                .thenReturn(12L);
+        var oldest = List.of(new DbJobResult(), new DbJobResult());
+        when(_mockJobResultRepo.findByOrderByTimeCompletedAsc(PageRequest.of(0, 2)))
+                .thenReturn(oldest);
+
+        var outputObjectUri = URI.create("file:///fake/output.json");
+        _jobResultCacheService.recordResult(
+                _mockJob, outputObjectUri, BatchJobStatusType.COMPLETE_WITH_WARNINGS);
+
+        var resultCaptor = ArgumentCaptor.forClass(DbJobResult.class);
+        verify(_mockJobResultRepo).save(resultCaptor.capture());
+        assertThat(resultCaptor.getValue().getJobConfigHash()).isEqualTo("HASH");
+        assertThat(resultCaptor.getValue().getJobId()).isEqualTo(7);
+        assertThat(resultCaptor.getValue().getOutputObjectUri()).isEqualTo(outputObjectUri);
+        verify(_mockJobResultRepo).deleteAll(oldest);
+    }
+
+
+    @Test
+    public void doesNotRecordFailedJobs() {
+        _jobResultCacheService.recordResult(
+                _mockJob, URI.create("file:///fake/output.json"), BatchJobStatusType.ERROR);
+        verify(_mockJobResultRepo, never()).save(any());
+    }
+
+
+    private void setupJob() {
+        when(_mockPropertiesUtil.isResultCacheEnabled())
+                .thenReturn(true);
+        when(_mockJob.getMedia())
+                .thenReturn(List.of());
+        when(_mockJobConfigHasher.getJobConfigHash(_mockJob))
+                .thenReturn("HASH");
+    }
+}
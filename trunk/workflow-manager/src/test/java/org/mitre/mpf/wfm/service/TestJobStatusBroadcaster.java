@@ -0,0 +1,151 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.atmosphere.cpr.Broadcaster;
+import org.atmosphere.cpr.BroadcasterFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mitre.mpf.mvc.controller.AtmosphereController;
+import org.mitre.mpf.mvc.model.JobStatusMessage;
+import org.mitre.mpf.test.MockitoTest;
+import org.mitre.mpf.wfm.enums.BatchJobStatusType;
+import org.mitre.mpf.wfm.event.JobProgress;
+import org.mitre.mpf.wfm.util.PropertiesUtil;
+import org.mitre.mpf.wfm.util.ThreadUtil;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class TestJobStatusBroadcaster extends MockitoTest.Strict {
+
+    private static final long INTERVAL_MS = 200;
+
+    @Mock
+    private PropertiesUtil _mockPropertiesUtil;
+
+    @Mock
+    private JobProgress _mockJobProgress;
+
+    @Mock
+    private BroadcasterFactory _mockBroadcasterFactory;
+
+    // Deep stubs so that the filter AtmosphereController adds on its first broadcast does not
+    // need to be stubbed.
+    private final Broadcaster _mockBroadcaster = mock(Broadcaster.class, RETURNS_DEEP_STUBS);
+
+    private JobStatusBroadcaster _jobStatusBroadcaster;
+
+    @Before
+    public void init() {
+        ThreadUtil.start();
+        when(_mockPropertiesUtil.isBroadcastJobStatusEnabled())
+                .thenReturn(true);
+        when(_mockPropertiesUtil.getJobProgressBroadcastIntervalMs())
+                .thenReturn(INTERVAL_MS);
+        when(_mockBroadcasterFactory.lookup("/", true))
+                .thenReturn(_mockBroadcaster);
+        ReflectionTestUtils.setField(
+                AtmosphereController.class, "staticFactory", _mockBroadcasterFactory);
+
+        _jobStatusBroadcaster = new JobStatusBroadcaster(_mockPropertiesUtil, _mockJobProgress);
+    }
+
+    @After
+    public void cleanup() {
+        ReflectionTestUtils.setField(AtmosphereController.class, "staticFactory", null);
+    }
+
+
+    @Test
+    public void onlyLatestProgressIsBroadcastEachInterval() {
+        _jobStatusBroadcaster.broadcastProgress(1, 10, BatchJobStatusType.IN_PROGRESS);
+        _jobStatusBroadcaster.broadcastProgress(2, 50, BatchJobStatusType.IN_PROGRESS);
+        _jobStatusBroadcaster.broadcastProgress(1, 20, BatchJobStatusType.IN_PROGRESS);
+        _jobStatusBroadcaster.broadcastProgress(1, 30, BatchJobStatusType.IN_PROGRESS);
+
+        var messages = getMessages(2);
+        assertThat(messages)
+                .extracting(m -> m.getContent().get("id"), m -> m.getContent().get("progress"))
+                .containsExactlyInAnyOrder(tuple(1L, 30.0), tuple(2L, 50.0));
+
+        // Progress reported after the flush is sent in the next interval.
+        _jobStatusBroadcaster.broadcastProgress(1, 40, BatchJobStatusType.IN_PROGRESS);
+        _jobStatusBroadcaster.broadcastProgress(1, 45, BatchJobStatusType.IN_PROGRESS);
+
+        messages = getMessages(3);
+        var lastMessage = messages.get(2);
+        assertThat(lastMessage.getContent())
+                .containsEntry("id", 1L)
+                .containsEntry("progress", 45.0);
+    }
+
+
+    @Test
+    public void finalStatusIsNotCoalesced() {
+        _jobStatusBroadcaster.broadcastProgress(1, 90, BatchJobStatusType.IN_PROGRESS);
+        _jobStatusBroadcaster.broadcastProgress(2, 60, BatchJobStatusType.IN_PROGRESS);
+        _jobStatusBroadcaster.broadcast(1, 100, BatchJobStatusType.COMPLETE);
+
+        // The final status is sent right away, and the pending progress for the same job is
+        // dropped so that it can not replace the final status in the UI.
+        var messages = getMessages(2);
+        assertThat(messages.get(0).getContent())
+                .containsEntry("id", 1L)
+                .containsEntry("progress", 100.0)
+                .containsEntry("jobStatus", BatchJobStatusType.COMPLETE.name());
+        assertThat(messages.get(1).getContent())
+                .containsEntry("id", 2L)
+                .containsEntry("progress", 60.0);
+    }
+
+
+    private List<JobStatusMessage> getMessages(int expectedCount) {
+        verify(_mockBroadcaster, timeout(INTERVAL_MS * 20).times(expectedCount))
+                .broadcast(any());
+        // Wait past the next interval to make sure that no other messages are sent.
+        var captor = ArgumentCaptor.forClass(Object.class);
+        verify(_mockBroadcaster, after(INTERVAL_MS * 2).times(expectedCount))
+                .broadcast(captor.capture());
+        return captor.getAllValues().stream()
+                .map(JobStatusMessage.class::cast)
+                .toList();
+    }
+}
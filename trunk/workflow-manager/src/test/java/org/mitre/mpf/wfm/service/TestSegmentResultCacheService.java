@@ -0,0 +1,214 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mitre.mpf.rest.api.pipelines.ActionType;
+import org.mitre.mpf.rest.api.pipelines.Algorithm;
+import org.mitre.mpf.test.MockitoTest;
+import org.mitre.mpf.test.TestUtil;
+import org.mitre.mpf.wfm.buffers.DetectionProtobuf;
+import org.mitre.mpf.wfm.data.entities.persistent.Media;
+import org.mitre.mpf.wfm.enums.MpfHeaders;
+import org.mitre.mpf.wfm.segmenting.DetectionRequest;
+import org.mitre.mpf.wfm.util.PropertiesUtil;
+import org.mockito.Mock;
+
+public class TestSegmentResultCacheService extends MockitoTest.Strict {
+
+    @Mock
+    private PropertiesUtil _mockPropertiesUtil;
+
+    @Mock
+    private Media _mockMedia;
+
+    @Rule
+    public TemporaryFolder _tempFolder = new TemporaryFolder();
+
+    private SegmentResultCacheService _segmentResultCacheService;
+
+    private static final Algorithm ALGORITHM = new Algorithm(
+            "TEST_ALGO", "description", ActionType.DETECTION, "FACE", OptionalInt.of(2),
+            new Algorithm.Requires(List.of()), new Algorithm.Provides(List.of(), List.of()),
+            true, false);
+
+    @Before
+    public void init() {
+        _segmentResultCacheService = new SegmentResultCacheService(_mockPropertiesUtil);
+    }
+
+
+    @Test
+    public void cacheKeyIgnoresJobSpecificFields() {
+        setupKeyCreation();
+
+        var key1 = getCacheKey(createRequest("/media/1.mp4", 1, 0, Map.of("A", "1", "B", "2")));
+        var key2 = getCacheKey(createRequest("/media/2.mp4", 5, 3, Map.of("B", "2", "A", "1")));
+        assertThat(key1).isEqualTo(key2);
+
+        var differentProps = getCacheKey(
+                createRequest("/media/1.mp4", 1, 0, Map.of("A", "1", "B", "3")));
+        assertThat(differentProps).isNotEqualTo(key1);
+
+        var differentRange = getCacheKey(new DetectionRequest(
+                createRequest("/media/1.mp4", 1, 0, Map.of("A", "1", "B", "2"))
+                        .protobuf().toBuilder()
+                        .setVideoRequest(DetectionProtobuf.DetectionRequest.VideoRequest
+                                .newBuilder().setStartFrame(10).setStopFrame(19))
+                        .build()));
+        assertThat(differentRange).isNotEqualTo(key1);
+    }
+
+
+    @Test
+    public void noCacheKeyWhenMediaHashIsUnknown() {
+        when(_mockPropertiesUtil.isSegmentCacheEnabled())
+                .thenReturn(true);
+        when(_mockMedia.getLinkedHash())
+                .thenReturn(Optional.empty());
+        assertThat(getCacheKey(createRequest("/media/1.mp4", 1, 0, Map.of())))
+                .isEmpty();
+    }
+
+
+    @Test
+    public void noCacheKeyWhenDisabled() {
+        assertThat(getCacheKey(createRequest("/media/1.mp4", 1, 0, Map.of())))
+                .isEmpty();
+    }
+
+
+    @Test
+    public void canStoreAndRetrieveResponse() throws IOException {
+        setupKeyCreation();
+        when(_mockPropertiesUtil.getSegmentCacheDirectory())
+                .thenReturn(_tempFolder.getRoot().toPath());
+        when(_mockPropertiesUtil.getSegmentCacheMaxSizeMb())
+                .thenReturn(10L);
+
+        var firstRequest = createRequest("/media/1.mp4", 1, 0, Map.of("A", "1"));
+        var cacheKey = getCacheKey(firstRequest).orElseThrow();
+        assertThat(_segmentResultCacheService.getCachedResponse(
+                cacheKey, firstRequest.protobuf()))
+                .isEmpty();
+
+        var response = DetectionProtobuf.DetectionResponse.newBuilder()
+                .setMediaId(1)
+                .setVideoResponse(DetectionProtobuf.DetectionResponse.VideoResponse.newBuilder()
+                        .setStartFrame(0)
+                        .setStopFrame(9))
+                .build();
+        var exchange = TestUtil.createTestExchange();
+        exchange.getIn().setHeader(MpfHeaders.SEGMENT_CACHE_KEY, cacheKey);
+        exchange.getIn().setBody(response);
+        _segmentResultCacheService.storeResponse(exchange);
+        _segmentResultCacheService.awaitBackgroundTask();
+
+        var secondRequest = createRequest("/media/2.mp4", 7, 2, Map.of("A", "1"));
+        var cachedResponse = _segmentResultCacheService.getCachedResponse(
+                getCacheKey(secondRequest).orElseThrow(), secondRequest.protobuf());
+        assertThat(cachedResponse).hasValueSatisfying(r -> {
+            assertThat(r.getMediaId()).isEqualTo(7);
+            assertThat(r.getTaskIndex()).isEqualTo(2);
+            assertThat(r.getVideoResponse()).isEqualTo(response.getVideoResponse());
+        });
+    }
+
+
+    @Test
+    public void doesNotStoreErrorResponses() throws IOException {
+        var exchange = TestUtil.createTestExchange();
+        exchange.getIn().setHeader(MpfHeaders.SEGMENT_CACHE_KEY, "abcd");
+        exchange.getIn().setBody(DetectionProtobuf.DetectionResponse.newBuilder()
+                .setError(DetectionProtobuf.DetectionError.DETECTION_FAILED)
+                .build());
+        _segmentResultCacheService.storeResponse(exchange);
+        assertThat(_tempFolder.getRoot().list()).isEmpty();
+    }
+
+
+    @Test
+    public void removesOldestEntriesWhenFull() throws IOException {
+        when(_mockPropertiesUtil.getSegmentCacheDirectory())
+                .thenReturn(_tempFolder.getRoot().toPath());
+        when(_mockPropertiesUtil.getSegmentCacheMaxSizeMb())
+                .thenReturn(0L);
+
+        var exchange = TestUtil.createTestExchange();
+        exchange.getIn().setHeader(MpfHeaders.SEGMENT_CACHE_KEY, "abcd");
+        exchange.getIn().setBody(DetectionProtobuf.DetectionResponse.newBuilder()
+                .setMediaId(1)
+                .build());
+        _segmentResultCacheService.storeResponse(exchange);
+        // Entries are removed on a background thread.
+        _segmentResultCacheService.awaitBackgroundTask();
+
+        try (var files = Files.walk(_tempFolder.getRoot().toPath())) {
+            assertThat(files.filter(Files::isRegularFile)).isEmpty();
+        }
+    }
+
+
+    private void setupKeyCreation() {
+        when(_mockPropertiesUtil.isSegmentCacheEnabled())
+                .thenReturn(true);
+        when(_mockMedia.getLinkedHash())
+                .thenReturn(Optional.of("MEDIA_HASH"));
+    }
+
+
+    private Optional<String> getCacheKey(DetectionRequest request) {
+        return _segmentResultCacheService.getCacheKey(_mockMedia, ALGORITHM, request);
+    }
+
+
+    private static DetectionRequest createRequest(
+            String mediaPath, long mediaId, int taskIndex, Map<String, String> properties) {
+        return new DetectionRequest(DetectionProtobuf.DetectionRequest.newBuilder()
+                .setMediaPath(mediaPath)
+                .setMediaId(mediaId)
+                .setTaskIndex(taskIndex)
+                .putAllAlgorithmProperties(properties)
+                .setVideoRequest(DetectionProtobuf.DetectionRequest.VideoRequest.newBuilder()
+                        .setStartFrame(0)
+                        .setStopFrame(9))
+                .build());
+    }
+}
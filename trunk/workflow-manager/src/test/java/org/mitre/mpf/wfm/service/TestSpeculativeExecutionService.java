@@ -0,0 +1,231 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.ArrayList;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.ExchangePattern;
+import org.apache.camel.Message;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.impl.DefaultMessage;
+import org.junit.Before;
+import org.junit.Test;
+import org.mitre.mpf.test.MockitoTest;
+import org.mitre.mpf.test.TestUtil;
+import org.mitre.mpf.wfm.buffers.DetectionProtobuf;
+import org.mitre.mpf.wfm.camel.routes.JobRouterRouteBuilder;
+import org.mitre.mpf.wfm.data.InProgressBatchJobsService;
+import org.mitre.mpf.wfm.data.entities.persistent.BatchJob;
+import org.mitre.mpf.wfm.enums.MpfHeaders;
+import org.mitre.mpf.wfm.util.PropertiesUtil;
+import org.mockito.Mock;
+
+public class TestSpeculativeExecutionService extends MockitoTest.Strict {
+
+    private static final long JOB_ID = 123;
+
+    private static final String CORRELATION_ID = JOB_ID + ":abc";
+
+    @Mock
+    private InProgressBatchJobsService _mockInProgressJobs;
+
+    @Mock
+    private PropertiesUtil _mockPropertiesUtil;
+
+    @Mock
+    private ProducerTemplate _mockProducerTemplate;
+
+    private SpeculativeExecutionService _speculativeExecutionService;
+
+    @Before
+    public void init() {
+        _speculativeExecutionService = new SpeculativeExecutionService(
+                _mockInProgressJobs, _mockPropertiesUtil, _mockProducerTemplate);
+    }
+
+
+    @Test
+    public void onlyTracksMessagesWithMultiplier() {
+        when(_mockPropertiesUtil.getSpeculativeExecutionMaxTrackedMb())
+                .thenReturn(256L);
+        var exchange = TestUtil.createTestExchange();
+        var tracked = createMessage(exchange, 0, 2.0);
+        var untracked = createMessage(exchange, 1, null);
+
+        _speculativeExecutionService.trackDispatchedRequest(JOB_ID, CORRELATION_ID, 0, tracked);
+        _speculativeExecutionService.trackDispatchedRequest(JOB_ID, CORRELATION_ID, 1, untracked);
+
+        assertThat(tracked.getHeader(MpfHeaders.SPLIT_INDEX)).isEqualTo(0);
+        assertThat(tracked.getHeaders())
+                .doesNotContainKey(MpfHeaders.SPECULATIVE_EXECUTION_MULTIPLIER);
+        assertThat(untracked.getHeaders()).doesNotContainKey(MpfHeaders.SPLIT_INDEX);
+    }
+
+
+    @Test
+    public void resendsStragglersAndDiscardsDuplicates() {
+        when(_mockPropertiesUtil.getSpeculativeExecutionMaxTrackedMb())
+                .thenReturn(256L);
+        var exchange = TestUtil.createTestExchange();
+        var messages = new ArrayList<Message>();
+        for (int i = 0; i < 5; i++) {
+            messages.add(createMessage(exchange, i, 2.0));
+        }
+        for (int i = 0; i < messages.size(); i++) {
+            _speculativeExecutionService.trackDispatchedRequest(
+                    JOB_ID, CORRELATION_ID, i, messages.get(i));
+        }
+
+        when(_mockInProgressJobs.containsJob(JOB_ID))
+                .thenReturn(true);
+        var mockJob = mock(BatchJob.class);
+        when(_mockInProgressJobs.getJob(JOB_ID))
+                .thenReturn(mockJob);
+
+        // Not enough requests have completed to determine which requests are stragglers.
+        _speculativeExecutionService.checkForStragglers(
+                CORRELATION_ID, Instant.now().plusSeconds(60));
+        verify(_mockProducerTemplate, never())
+                .sendBodyAndHeaders(any(String.class), any(ExchangePattern.class), any(), any());
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(_speculativeExecutionService.isFirstResponse(createResponse(i)))
+                    .isTrue();
+        }
+
+        _speculativeExecutionService.checkForStragglers(
+                CORRELATION_ID, Instant.now().plusSeconds(60));
+        verifyResent(3);
+        verifyResent(4);
+
+        // Each request is only sent again once.
+        _speculativeExecutionService.checkForStragglers(
+                CORRELATION_ID, Instant.now().plusSeconds(120));
+        verify(_mockProducerTemplate, times(2))
+                .sendBodyAndHeaders(any(String.class), any(ExchangePattern.class), any(), any());
+
+        assertThat(_speculativeExecutionService.isFirstResponse(createResponse(0)))
+                .isFalse();
+        assertThat(_speculativeExecutionService.isFirstResponse(createResponse(3)))
+                .isTrue();
+        assertThat(_speculativeExecutionService.isFirstResponse(createResponse(3)))
+                .isFalse();
+        assertThat(_speculativeExecutionService.isFirstResponse(createResponse(4)))
+                .isTrue();
+        // Late duplicate after all responses were received.
+        assertThat(_speculativeExecutionService.isFirstResponse(createResponse(4)))
+                .isFalse();
+    }
+
+
+    @Test
+    public void doesNotResendWhenTrackedRequestsExceedLimit() {
+        when(_mockPropertiesUtil.getSpeculativeExecutionMaxTrackedMb())
+                .thenReturn(0L);
+        var exchange = TestUtil.createTestExchange();
+        for (int i = 0; i < 5; i++) {
+            _speculativeExecutionService.trackDispatchedRequest(
+                    JOB_ID, CORRELATION_ID, i, createMessage(exchange, i + 1, 2.0));
+        }
+
+        when(_mockInProgressJobs.containsJob(JOB_ID))
+                .thenReturn(true);
+        var mockJob = mock(BatchJob.class);
+        when(_mockInProgressJobs.getJob(JOB_ID))
+                .thenReturn(mockJob);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(_speculativeExecutionService.isFirstResponse(createResponse(i)))
+                    .isTrue();
+        }
+        _speculativeExecutionService.checkForStragglers(
+                CORRELATION_ID, Instant.now().plusSeconds(60));
+        verify(_mockProducerTemplate, never())
+                .sendBodyAndHeaders(any(String.class), any(ExchangePattern.class), any(), any());
+
+        // Duplicates are still discarded even though the requests are no longer sent again.
+        assertThat(_speculativeExecutionService.isFirstResponse(createResponse(0)))
+                .isFalse();
+        assertThat(_speculativeExecutionService.isFirstResponse(createResponse(3)))
+                .isTrue();
+    }
+
+
+    @Test
+    public void doesNotFilterUntrackedResponses() {
+        var response = TestUtil.createTestExchange();
+        response.getIn().setHeader(MpfHeaders.CORRELATION_ID, CORRELATION_ID);
+        assertThat(_speculativeExecutionService.isFirstResponse(response))
+                .isTrue();
+        assertThat(_speculativeExecutionService.isFirstResponse(response))
+                .isTrue();
+    }
+
+
+    private void verifyResent(int splitIndex) {
+        verify(_mockProducerTemplate).sendBodyAndHeaders(
+                eq(JobRouterRouteBuilder.REQUEST_SENDER),
+                eq(ExchangePattern.InOnly),
+                any(DetectionProtobuf.DetectionRequest.class),
+                argThat(h -> h.get(MpfHeaders.SPLIT_INDEX).equals(splitIndex)
+                        && h.get(MpfHeaders.CORRELATION_ID).equals(CORRELATION_ID)));
+    }
+
+
+    private static Message createMessage(Exchange exchange, int mediaId, Double multiplier) {
+        var message = new DefaultMessage(exchange.getContext());
+        message.setHeader(MpfHeaders.CORRELATION_ID, CORRELATION_ID);
+        message.setHeader(MpfHeaders.JOB_ID, JOB_ID);
+        if (multiplier != null) {
+            message.setHeader(MpfHeaders.SPECULATIVE_EXECUTION_MULTIPLIER, multiplier);
+        }
+        message.setBody(DetectionProtobuf.DetectionRequest.newBuilder()
+                .setMediaId(mediaId)
+                .build());
+        return message;
+    }
+
+
+    private static Exchange createResponse(int splitIndex) {
+        var exchange = TestUtil.createTestExchange();
+        exchange.getIn().setHeader(MpfHeaders.CORRELATION_ID, CORRELATION_ID);
+        exchange.getIn().setHeader(MpfHeaders.SPLIT_INDEX, splitIndex);
+        return exchange;
+    }
+}
@@ -167,6 +167,9 @@ public class TestTiesDbBeforeJobCheckService extends MockitoTest.Lenient {
     @Mock
     private AuditEventLogger _mockAuditEventLogger;
 
+    @Mock
+    private JobResultCacheService _mockJobResultCacheService;
+
     @Mock
     private AuditEventLogger.BuilderTagStage _mockBuilderTagStage;
 
@@ -202,7 +205,8 @@ public class TestTiesDbBeforeJobCheckService extends MockitoTest.Lenient {
                 _objectMapper,
                 _mockInProgressJobs,
                 _mockS3StorageBackend,
-                _mockAuditEventLogger);
+                _mockAuditEventLogger,
+                _mockJobResultCacheService);
     }
 
     @After
@@ -0,0 +1,206 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import org.apache.camel.Exchange;
+import org.junit.Before;
+import org.junit.Test;
+import org.mitre.mpf.test.MockitoTest;
+import org.mitre.mpf.test.TestUtil;
+import org.mitre.mpf.wfm.buffers.DetectionProtobuf;
+import org.mitre.mpf.wfm.buffers.Markup;
+import org.mitre.mpf.wfm.camel.operations.detection.DetectionCancellationProcessor;
+import org.mitre.mpf.wfm.camel.operations.markup.MarkupCancellationProcessor;
+import org.mitre.mpf.wfm.enums.MpfConstants;
+import org.mitre.mpf.wfm.enums.MpfHeaders;
+import org.mockito.Mock;
+
+public class TestMessageCompressor extends MockitoTest.Strict {
+
+    private static final int THRESHOLD = 100;
+
+    @Mock
+    private PropertiesUtil _mockPropertiesUtil;
+
+    private MessageCompressor _messageCompressor;
+
+    @Before
+    public void init() {
+        _messageCompressor = new MessageCompressor(_mockPropertiesUtil);
+    }
+
+
+    @Test
+    public void canCompressAndDecompressLargeMessage() throws IOException {
+        when(_mockPropertiesUtil.getJmsCompressionThresholdBytes())
+                .thenReturn(THRESHOLD);
+        var original = createBody(1000);
+        var exchange = createExchange(original);
+
+        _messageCompressor.compressIfLarge(exchange);
+
+        var in = exchange.getIn();
+        assertEquals(MessageCompressor.DEFLATE, in.getHeader(MpfHeaders.COMPRESSION));
+        assertThat(MessageCompressor.isCompressed(in)).isTrue();
+        var compressed = in.getBody(byte[].class);
+        assertThat(compressed.length).isLessThan(original.length);
+
+        assertArrayEquals(original, MessageCompressor.decompressIfNeeded(in, compressed));
+        try (var stream = MessageCompressor.decompressIfNeeded(
+                in, new ByteArrayInputStream(compressed))) {
+            assertArrayEquals(original, stream.readAllBytes());
+        }
+    }
+
+
+    @Test
+    public void compressesMessageAtThreshold() {
+        when(_mockPropertiesUtil.getJmsCompressionThresholdBytes())
+                .thenReturn(THRESHOLD);
+        var exchange = createExchange(createBody(THRESHOLD));
+
+        _messageCompressor.compressIfLarge(exchange);
+
+        assertThat(MessageCompressor.isCompressed(exchange.getIn())).isTrue();
+    }
+
+
+    @Test
+    public void doesNotCompressSmallMessage() throws IOException {
+        when(_mockPropertiesUtil.getJmsCompressionThresholdBytes())
+                .thenReturn(THRESHOLD);
+        var original = createBody(THRESHOLD - 1);
+        var exchange = createExchange(original);
+
+        _messageCompressor.compressIfLarge(exchange);
+
+        var in = exchange.getIn();
+        assertNull(in.getHeader(MpfHeaders.COMPRESSION));
+        assertThat(MessageCompressor.isCompressed(in)).isFalse();
+        assertSame(original, in.getBody(byte[].class));
+        assertSame(original, MessageCompressor.decompressIfNeeded(in, original));
+    }
+
+
+    @Test
+    public void doesNotCompressWhenDisabled() {
+        when(_mockPropertiesUtil.getJmsCompressionThresholdBytes())
+                .thenReturn(0);
+        var original = createBody(1000);
+        var exchange = createExchange(original);
+
+        _messageCompressor.compressIfLarge(exchange);
+
+        assertNull(exchange.getIn().getHeader(MpfHeaders.COMPRESSION));
+        assertSame(original, exchange.getIn().getBody(byte[].class));
+    }
+
+
+    @Test
+    public void detectionCancellationProcessorHandlesCompressedRequest() throws Exception {
+        var request = DetectionProtobuf.DetectionRequest.newBuilder()
+                .setMediaId(5)
+                .setTaskIndex(1)
+                .setActionIndex(2)
+                .setVideoRequest(DetectionProtobuf.DetectionRequest.VideoRequest.newBuilder()
+                        .setStartFrame(10)
+                        .setStopFrame(20))
+                .build();
+        var exchange = createCompressedExchange(request.toByteArray());
+
+        new DetectionCancellationProcessor().process(exchange);
+
+        var out = exchange.getOut();
+        assertNull(out.getHeader(MpfHeaders.COMPRESSION));
+        assertEquals(123L, out.getHeader(MpfHeaders.JOB_ID));
+
+        var response = DetectionProtobuf.DetectionResponse.parseFrom(
+                out.getBody(byte[].class));
+        assertEquals(5, response.getMediaId());
+        assertEquals(1, response.getTaskIndex());
+        assertEquals(2, response.getActionIndex());
+        assertEquals(DetectionProtobuf.DetectionError.REQUEST_CANCELLED, response.getError());
+        assertEquals(10, response.getVideoResponse().getStartFrame());
+        assertEquals(20, response.getVideoResponse().getStopFrame());
+    }
+
+
+    @Test
+    public void markupCancellationProcessorHandlesCompressedRequest() throws Exception {
+        var request = Markup.MarkupRequest.newBuilder()
+                .setMediaId(5)
+                .setSourcePath("/source.mp4")
+                .setDestinationPath("/destination.mp4")
+                .build();
+        var exchange = createCompressedExchange(request.toByteArray());
+
+        new MarkupCancellationProcessor().process(exchange);
+
+        var out = exchange.getOut();
+        assertNull(out.getHeader(MpfHeaders.COMPRESSION));
+        assertEquals(123L, out.getHeader(MpfHeaders.JOB_ID));
+
+        var response = Markup.MarkupResponse.parseFrom(out.getBody(byte[].class));
+        assertEquals(5, response.getMediaId());
+        assertThat(response.getHasError()).isTrue();
+        assertEquals(MpfConstants.REQUEST_CANCELLED, response.getErrorMessage());
+    }
+
+
+    private static Exchange createExchange(byte[] body) {
+        var exchange = TestUtil.createTestExchange();
+        exchange.getIn().setBody(body);
+        return exchange;
+    }
+
+
+    private static Exchange createCompressedExchange(byte[] body) {
+        var exchange = createExchange(MessageCompressor.compress(body));
+        exchange.getIn().setHeader(MpfHeaders.COMPRESSION, MessageCompressor.DEFLATE);
+        exchange.getIn().setHeader(MpfHeaders.JOB_ID, 123L);
+        return exchange;
+    }
+
+
+    private static byte[] createBody(int size) {
+        var body = new byte[size];
+        for (int i = 0; i < size; i++) {
+            body[i] = (byte) (i % 10);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,122 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSortedMap;
+
+public class TestStringInterner {
+
+    @Test
+    public void equalStringsShareOneInstance() {
+        var str1 = copy("CLASSIFICATION");
+        var str2 = copy("CLASSIFICATION");
+        assertNotSame(str1, str2);
+
+        var interned = StringInterner.intern(str1);
+        assertEquals(str1, interned);
+        assertSame(interned, StringInterner.intern(str2));
+    }
+
+
+    @Test
+    public void doesNotInternLongStrings() {
+        var maxLength1 = "a".repeat(64);
+        var maxLength2 = "a".repeat(64);
+        assertSame(StringInterner.intern(maxLength1), StringInterner.intern(maxLength2));
+
+        var tooLong1 = "b".repeat(65);
+        var tooLong2 = "b".repeat(65);
+        assertSame(tooLong1, StringInterner.intern(tooLong1));
+        assertSame(tooLong2, StringInterner.intern(tooLong2));
+        assertNotSame(tooLong1, tooLong2);
+    }
+
+
+    @Test
+    public void handlesNull() {
+        assertNull(StringInterner.intern(null));
+    }
+
+
+    @Test
+    public void internedCopyInternsKeysAndValues() {
+        var properties1 = new HashMap<String, String>();
+        properties1.put(copy("KEY2"), copy("VALUE2"));
+        properties1.put(copy("KEY1"), copy("VALUE1"));
+
+        var properties2 = new HashMap<String, String>();
+        properties2.put(copy("KEY1"), copy("VALUE1"));
+        properties2.put(copy("KEY2"), copy("VALUE2"));
+
+        var copy1 = StringInterner.internedCopy(properties1);
+        var copy2 = StringInterner.internedCopy(properties2);
+
+        assertEquals(properties1, copy1);
+        assertThat(copy1.keySet()).containsExactly("KEY1", "KEY2");
+
+        var keys1 = copy1.keySet().asList();
+        var keys2 = copy2.keySet().asList();
+        assertSame(keys1.get(0), keys2.get(0));
+        assertSame(keys1.get(1), keys2.get(1));
+        assertSame(copy1.get("KEY1"), copy2.get("KEY1"));
+        assertSame(copy1.get("KEY2"), copy2.get("KEY2"));
+    }
+
+
+    @Test
+    public void internedCopyKeepsLongValues() {
+        var longValue = "c".repeat(100);
+        var copy = StringInterner.internedCopy(Map.of("TEXT", longValue));
+        assertSame(longValue, copy.get("TEXT"));
+    }
+
+
+    @Test
+    public void internedCopyReusesImmutableSortedMaps() {
+        var properties = ImmutableSortedMap.of("KEY1", "VALUE1", "KEY2", "VALUE2");
+        assertSame(properties, StringInterner.internedCopy(properties));
+
+        var emptyProperties = ImmutableSortedMap.<String, String>of();
+        assertSame(emptyProperties, StringInterner.internedCopy(emptyProperties));
+    }
+
+
+    private static String copy(String str) {
+        return new String(str.toCharArray());
+    }
+}
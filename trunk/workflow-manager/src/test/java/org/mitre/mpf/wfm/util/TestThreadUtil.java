@@ -0,0 +1,73 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestThreadUtil {
+
+    private static final int MAX_THREADS = 2;
+
+    @Before
+    public void init() {
+        ThreadUtil.start();
+        ThreadUtil.setMaxThreads(MAX_THREADS);
+    }
+
+    @After
+    public void cleanup() {
+        ThreadUtil.setMaxThreads(500);
+    }
+
+
+    @Test(timeout = 10_000)
+    public void nestedWorkFinishesWhenBoundedPoolIsSaturated() {
+        var allThreadsBusy = new CountDownLatch(MAX_THREADS);
+        var outerFutures = IntStream.range(0, MAX_THREADS)
+                .mapToObj(i -> ThreadUtil.callAsync(() -> {
+                    allThreadsBusy.countDown();
+                    allThreadsBusy.await();
+                    // Every thread in the bounded pool is now blocked waiting on nested work.
+                    // The extra queued task also can not run until one of them finishes.
+                    return ThreadUtil.callAsyncUnbounded(() -> i * 10).join();
+                }))
+                .toList();
+        var queuedFuture = ThreadUtil.callAsync(() -> -1);
+
+        for (int i = 0; i < MAX_THREADS; i++) {
+            assertThat(outerFutures.get(i).join()).isEqualTo(i * 10);
+        }
+        assertThat(queuedFuture.join()).isEqualTo(-1);
+    }
+}
@@ -0,0 +1,151 @@
+/******************************************************************************
+ * NOTICE                                                                     *
+ *                                                                            *
+ * This software (or technical data) was produced for the U.S. Government     *
+ * under contract, and is subject to the Rights in Data-General Clause        *
+ * 52.227-14, Alt. IV (DEC 2007).                                             *
+ *                                                                            *
+ * Copyright 2024 The MITRE Corporation. All Rights Reserved.                 *
+ ******************************************************************************/
+
+/******************************************************************************
+ * Copyright 2024 The MITRE Corporation                                       *
+ *                                                                            *
+ * Licensed under the Apache License, Version 2.0 (the "License");            *
+ * you may not use this file except in compliance with the License.           *
+ * You may obtain a copy of the License at                                    *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ * Unless required by applicable law or agreed to in writing, software        *
+ * distributed under the License is distributed on an "AS IS" BASIS,          *
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.   *
+ * See the License for the specific language governing permissions and        *
+ * limitations under the License.                                             *
+ ******************************************************************************/
+
+package org.mitre.mpf.wfm.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+import org.junit.Test;
+import org.mitre.mpf.wfm.camel.operations.mediainspection.Fraction;
+
+public class TestVfrFrameTimeInfo {
+
+    private static final Fraction NTSC_FPS = new Fraction(30_000, 1_001);
+
+    private static final Fraction PTS_TO_MS = new Fraction(1000, 30_000);
+
+
+    @Test
+    public void matchesUncompressedTimes() {
+        var ptsValues = LongStream.concat(
+                LongStream.concat(
+                    LongStream.range(0, 100).map(i -> 500 + i * 1001),
+                    // Frame rate drops by half.
+                    LongStream.range(0, 50).map(i -> 100_600 + i * 2002)),
+                LongStream.concat(
+                    // Single frame with an irregular delta.
+                    LongStream.of(200_700),
+                    LongStream.range(0, 75).map(i -> 201_500 + i * 1001)))
+                .toArray();
+
+        var expectedTimes = Arrays.stream(ptsValues)
+                .mapToInt(p -> (int) (p * PTS_TO_MS.numerator() / PTS_TO_MS.denominator()))
+                .toArray();
+
+        var timeInfo = FrameTimeInfo.forVariableFrameRate(
+                NTSC_FPS, ptsValues, PTS_TO_MS, false, KeyframeIndex.EMPTY);
+        var uncompressed = FrameTimeInfo.forVariableFrameRate(NTSC_FPS, expectedTimes, false);
+
+        assertThat(timeInfo.getExactFrameCount()).hasValue(ptsValues.length);
+        assertThat(timeInfo.getEstimatedDuration())
+                .isEqualTo(uncompressed.getEstimatedDuration());
+
+        for (int frame = 0; frame < ptsValues.length; frame++) {
+            assertThat(timeInfo.getTimeMsFromFrame(frame))
+                    .as("time of frame %s", frame)
+                    .isEqualTo(expectedTimes[frame]);
+        }
+        // Times for frames outside of the video are estimated from the frame rate.
+        assertThat(timeInfo.getTimeMsFromFrame(-1))
+                .isEqualTo(uncompressed.getTimeMsFromFrame(-1));
+        assertThat(timeInfo.getTimeMsFromFrame(ptsValues.length + 3))
+                .isEqualTo(uncompressed.getTimeMsFromFrame(ptsValues.length + 3));
+
+        int lastTime = expectedTimes[expectedTimes.length - 1];
+        for (int time = -10; time < lastTime + 100; time++) {
+            assertThat(timeInfo.getFrameFromTimeMs(time))
+                    .as("frame at %s ms", time)
+                    .isEqualTo(getExpectedFrame(expectedTimes, time));
+        }
+    }
+
+
+    @Test
+    public void storesFrameTimesWhenTimestampsAreJittery() {
+        // A 1 ms timebase with 29.97 fps produces deltas of 33 and 34 ms, so most runs would only
+        // contain 2 or 3 frames.
+        var ptsValues = LongStream.range(0, 1000)
+                .map(i -> i * 1001 / 30)
+                .toArray();
+        var timeInfo = (VfrFrameTimeInfo) FrameTimeInfo.forVariableFrameRate(
+                NTSC_FPS, ptsValues, new Fraction(1, 1), false, KeyframeIndex.EMPTY);
+
+        var expectedTimes = Arrays.stream(ptsValues).mapToInt(p -> (int) p).toArray();
+
+        assertThat(timeInfo.usesRuns()).isFalse();
+        assertThat(timeInfo.getExactFrameCount()).hasValue(ptsValues.length);
+        for (int frame = 0; frame < ptsValues.length; frame++) {
+            assertThat(timeInfo.getTimeMsFromFrame(frame))
+                    .as("time of frame %s", frame)
+                    .isEqualTo(expectedTimes[frame]);
+        }
+        int lastTime = expectedTimes[expectedTimes.length - 1];
+        for (int time = 0; time < lastTime + 100; time++) {
+            assertThat(timeInfo.getFrameFromTimeMs(time))
+                    .as("frame at %s ms", time)
+                    .isEqualTo(getExpectedFrame(expectedTimes, time));
+        }
+    }
+
+
+    @Test
+    public void usesRunsWhenFrameRateRarelyChanges() {
+        var ptsValues = LongStream.concat(
+                LongStream.range(0, 500).map(i -> i * 1001),
+                LongStream.range(0, 500).map(i -> 500_500 + i * 2002))
+                .toArray();
+        var timeInfo = (VfrFrameTimeInfo) FrameTimeInfo.forVariableFrameRate(
+                NTSC_FPS, ptsValues, PTS_TO_MS, false, KeyframeIndex.EMPTY);
+        assertThat(timeInfo.usesRuns()).isTrue();
+    }
+
+
+    @Test
+    public void canHandleEmptyAndSingleFrame() {
+        var empty = FrameTimeInfo.forVariableFrameRate(NTSC_FPS, new int[0], false);
+        assertThat(empty.getExactFrameCount()).hasValue(0);
+        assertThat(empty.getEstimatedDuration()).hasValue(0);
+        assertThat(empty.getFrameFromTimeMs(100)).isZero();
+        assertThat(empty.getTimeMsFromFrame(3)).isEqualTo(100);
+
+        var single = FrameTimeInfo.forVariableFrameRate(NTSC_FPS, new int[] { 40 }, false);
+        assertThat(single.getTimeMsFromFrame(0)).isEqualTo(40);
+        assertThat(single.getFrameFromTimeMs(1000)).isZero();
+        assertThat(single.getEstimatedDuration()).hasValue(34);
+    }
+
+
+    private static int getExpectedFrame(int[] times, int timeMs) {
+        int rv = Arrays.binarySearch(times, timeMs);
+        if (rv >= 0) {
+            return rv;
+        }
+        return Math.max(-rv - 2, 0);
+    }
+}